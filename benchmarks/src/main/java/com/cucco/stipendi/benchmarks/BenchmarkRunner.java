@@ -0,0 +1,46 @@
+/*
+ * BenchmarkRunner.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>Entry point of <code>benchmarks.jar</code>: runs the JMH suites with the standard JMH command line options, always adding the GC profiler so
+ * that allocation rates (<code>gc.alloc.rate.norm</code>, bytes per operation) are reported next to the timings.</p>
+ * <p>Example: <code>java -jar benchmarks/target/benchmarks.jar ConfigGet -f 1 -wi 3 -i 5</code></p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * <p>Not instantiable</p>
+     */
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * @param args - JMH command line options
+     * @throws RunnerException on benchmark failures
+     * @throws CommandLineOptionException on malformed options
+     * @throws IOException on help printing errors
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        if (commandLineOptions.shouldHelp()) {
+            commandLineOptions.showHelp();
+            return;
+        }
+        new Runner(new OptionsBuilder().parent(commandLineOptions).addProfiler(GCProfiler.class).build()).run();
+    }
+}
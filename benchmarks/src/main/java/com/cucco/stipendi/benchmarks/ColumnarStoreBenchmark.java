@@ -0,0 +1,122 @@
+/*
+ * ColumnarStoreBenchmark.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cucco.stipendi.store.ColumnarStore;
+import com.cucco.stipendi.store.DictionaryColumn;
+import com.cucco.stipendi.store.IntColumn;
+import com.cucco.stipendi.store.LongColumn;
+
+/**
+ * <p>Cost centre totals of the permanent employees from level 3 to 5, over 2 million employees: the columnar store against a list of employee
+ * objects grouped through a hash map.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+public class ColumnarStoreBenchmark {
+
+    private static final int EMPLOYEES = 2000000;
+
+    private ColumnarStore store;
+
+    private LongColumn gross;
+
+    private IntColumn level;
+
+    private DictionaryColumn costCentre;
+
+    private DictionaryColumn contract;
+
+    private List<Employee> employees;
+
+    @Setup
+    public void setup() {
+        store = new ColumnarStore.Builder().longColumn("gross").intColumn("level").dictionaryColumn("costCentre").dictionaryColumn("contract").build();
+        gross = store.longColumn("gross");
+        level = store.intColumn("level");
+        costCentre = store.dictionaryColumn("costCentre");
+        contract = store.dictionaryColumn("contract");
+        employees = new ArrayList<Employee>(EMPLOYEES);
+        Random random = new Random(42L);
+        for (int i = 0; i < EMPLOYEES; i++) {
+            Employee employee = new Employee(100000L + random.nextInt(500000), 1 + random.nextInt(8), "CC" + random.nextInt(200),
+                    random.nextBoolean() ? "TI" : "TD");
+            employees.add(employee);
+            int row = store.addRow();
+            gross.set(row, employee.gross);
+            level.set(row, employee.level);
+            costCentre.set(row, employee.costCentre);
+            contract.set(row, employee.contract);
+        }
+    }
+
+    @Benchmark
+    public long[] columnar() {
+        return gross.sumBy(costCentre, contract.equalTo("TI").and(level.between(3, 5)));
+    }
+
+    @Benchmark
+    public Map<String, Long> objects() {
+        Map<String, Long> totals = new HashMap<String, Long>();
+        for (Employee employee : employees) {
+            if ("TI".equals(employee.contract) && employee.level >= 3 && employee.level <= 5) {
+                totals.merge(employee.costCentre, Long.valueOf(employee.gross), Long::sum);
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * <p>Employee as an object graph</p>
+     */
+    private static final class Employee {
+
+        private final long gross;
+
+        private final int level;
+
+        private final String costCentre;
+
+        private final String contract;
+
+        /**
+         * @param gross - gross, in cents
+         * @param level - level
+         * @param costCentre - cost centre
+         * @param contract - contract code
+         */
+        private Employee(long gross, int level, String costCentre, String contract) {
+            this.gross = gross;
+            this.level = level;
+            this.costCentre = costCentre;
+            this.contract = contract;
+        }
+    }
+}
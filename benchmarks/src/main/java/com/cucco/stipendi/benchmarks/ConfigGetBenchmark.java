@@ -0,0 +1,250 @@
+/*
+ * ConfigGetBenchmark.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.benchmarks;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cucco.stipendi.utility.Config;
+import com.cucco.stipendi.utility.ConfigKey;
+import com.cucco.stipendi.utility.ImmutableIntArray;
+
+/**
+ * <p>Single threaded cost of every {@link Config} getter overload, plus the typed {@link ConfigKey} and converter based lookups.
+ * {@link ConfigGetContendedBenchmark} runs the same methods on 64 threads.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+public class ConfigGetBenchmark {
+
+    /**
+     * <p>Typed int key</p>
+     */
+    private static final ConfigKey<Integer> INT_KEY = ConfigKey.of("int", 0);
+
+    /**
+     * <p>Typed BigDecimal key</p>
+     */
+    private static final ConfigKey<BigDecimal> BIG_DECIMAL_KEY = ConfigKey.of("bigDecimal", BigDecimal.ZERO);
+
+    /**
+     * <p>Benchmarked configuration</p>
+     */
+    protected Config config;
+
+    /**
+     * <p>Empty map default</p>
+     */
+    private final Map<String, Object> emptyMap = new HashMap<String, Object>();
+
+    /**
+     * <p>Loads the benchmark configuration</p>
+     */
+    @Setup
+    public void setup() {
+        config = new Config();
+        config.setConf(properties());
+    }
+
+    /**
+     * <p>Builds the benchmark configuration, one key per getter.</p>
+     *
+     * @return the properties
+     */
+    static Properties properties() {
+        Properties properties = new Properties();
+        properties.setProperty("string", "stipendi");
+        properties.setProperty("int", "4096");
+        properties.setProperty("hexInt", "0x1000");
+        properties.setProperty("byte", "12");
+        properties.setProperty("long", "9876543210");
+        properties.setProperty("double", "0.2345");
+        properties.setProperty("boolean", "si");
+        properties.setProperty("list", "alfa, beta, gamma, delta");
+        properties.setProperty("intArray", "1, 2, 3, 4, 5, 6");
+        properties.setProperty("hashtable", "a:1,b:2,c:3,d:4");
+        properties.setProperty("map", "a:(Integer)1,b:(List)x|y|z,c:plain,d:(Double)0.5");
+        properties.setProperty("bigDecimal", "1234.56");
+        properties.setProperty("address", "127.0.0.1:8080");
+        properties.setProperty("enumMap", "a:SECONDS,b:MINUTES,c:HOURS");
+        properties.setProperty("enumKeyMap", "SECONDS:a,MINUTES:b,HOURS:c");
+        properties.setProperty("enumList", "SECONDS,MINUTES,HOURS");
+        properties.setProperty("enum", "MINUTES");
+        return properties;
+    }
+
+    @Benchmark
+    public String getString() {
+        return config.get("string", "");
+    }
+
+    @Benchmark
+    public int getInt() {
+        return config.get("int", 0);
+    }
+
+    @Benchmark
+    public int getHexInt() {
+        return config.get("hexInt", 0);
+    }
+
+    @Benchmark
+    public byte getByte() {
+        return config.get("byte", (byte) 0);
+    }
+
+    @Benchmark
+    public long getLong() {
+        return config.get("long", 0L);
+    }
+
+    @Benchmark
+    public double getDouble() {
+        return config.get("double", 0d);
+    }
+
+    @Benchmark
+    public boolean getBoolean() {
+        return config.get("boolean", false);
+    }
+
+    @Benchmark
+    public LinkedList<String> getLinkedList() {
+        return config.get("list", (LinkedList<String>) null);
+    }
+
+    @Benchmark
+    public LinkedList<String> getLinkedListSeparator() {
+        return config.get("list", (LinkedList<String>) null, ",");
+    }
+
+    @Benchmark
+    public Collection<String> getCollection() {
+        return config.get("list", (Collection<String>) null);
+    }
+
+    @Benchmark
+    public int[] getIntArray() {
+        return config.get("intArray", (int[]) null);
+    }
+
+    @Benchmark
+    public Hashtable<String, String> getHashtable() {
+        return config.get("hashtable", (Hashtable<String, String>) null);
+    }
+
+    @Benchmark
+    public Hashtable<String, String> getHashtableSeparators() {
+        return config.get("hashtable", (Hashtable<String, String>) null, ",", ":");
+    }
+
+    @Benchmark
+    public Hashtable<String, Object> getMap() {
+        return config.get("map", emptyMap);
+    }
+
+    @Benchmark
+    public Hashtable<String, Object> getMapSeparators() {
+        return config.get("map", emptyMap, ",", ":");
+    }
+
+    @Benchmark
+    public BigDecimal getBigDecimal() {
+        return config.get("bigDecimal", BigDecimal.ZERO);
+    }
+
+    @Benchmark
+    public InetSocketAddress getInetSocketAddress() {
+        return config.get("address", (InetSocketAddress) null);
+    }
+
+    @Benchmark
+    public Hashtable<String, TimeUnit> getEnumHashtable() {
+        return config.get("enumMap", (Hashtable<String, TimeUnit>) null, TimeUnit.class);
+    }
+
+    @Benchmark
+    public Hashtable<TimeUnit, String> getMapWithEnumKey() {
+        return config.getMapWithEnumKey("enumKeyMap", null, TimeUnit.class);
+    }
+
+    @Benchmark
+    public List<TimeUnit> getEnumList() {
+        return config.get("enumList", (List<TimeUnit>) null, TimeUnit.class);
+    }
+
+    @Benchmark
+    public Integer getIntKey() {
+        return config.get(INT_KEY);
+    }
+
+    @Benchmark
+    public BigDecimal getBigDecimalKey() {
+        return config.get(BIG_DECIMAL_KEY);
+    }
+
+    @Benchmark
+    public TimeUnit getConverted() {
+        return config.get("enum", TimeUnit.class, null);
+    }
+
+    @Benchmark
+    public List<String> getImmutableList() {
+        return config.getList("list", null);
+    }
+
+    @Benchmark
+    public ImmutableIntArray getImmutableIntArray() {
+        return config.getIntArray("intArray", null);
+    }
+
+    @Benchmark
+    public Map<String, String> getCompactMap() {
+        return config.getMap("hashtable", null);
+    }
+
+    @Benchmark
+    public Map<String, TimeUnit> getImmutableEnumMap() {
+        return config.getEnumMap("enumMap", null, TimeUnit.class);
+    }
+
+    @Benchmark
+    public Map<TimeUnit, String> getImmutableEnumKeyMap() {
+        return config.getEnumKeyMap("enumKeyMap", null, TimeUnit.class);
+    }
+
+    @Benchmark
+    public List<TimeUnit> getImmutableEnumList() {
+        return config.getEnumList("enumList", null, TimeUnit.class);
+    }
+}
@@ -0,0 +1,18 @@
+/*
+ * ConfigGetContendedBenchmark.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.benchmarks;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * <p>{@link ConfigGetBenchmark} run by 64 threads on the same {@link com.cucco.stipendi.utility.Config} instance: any lock or shared write on
+ * the read path shows up as a gap against the single threaded numbers.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@Threads(64)
+public class ConfigGetContendedBenchmark extends ConfigGetBenchmark {
+}
@@ -0,0 +1,89 @@
+/*
+ * ConfigReloadBenchmark.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.benchmarks;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cucco.stipendi.utility.Config;
+import com.cucco.stipendi.utility.ConfigKey;
+
+/**
+ * <p>Read throughput of 64 threads while another thread keeps publishing new configurations, the scenario of a production node during a
+ * configuration reload. Readers must neither block nor slow down noticeably against {@link ConfigGetContendedBenchmark}.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigReloadBenchmark {
+
+    /**
+     * <p>Typed int key</p>
+     */
+    private static final ConfigKey<Integer> INT_KEY = ConfigKey.of("int", 0);
+
+    /**
+     * <p>Shared configuration</p>
+     */
+    private Config config;
+
+    /**
+     * <p>Alternately published configurations</p>
+     */
+    private Properties[] versions;
+
+    /**
+     * <p>Next configuration to publish</p>
+     */
+    private int next;
+
+    /**
+     * <p>Builds the two configurations, differing on a few keys</p>
+     */
+    @Setup
+    public void setup() {
+        Properties first = ConfigGetBenchmark.properties();
+        Properties second = ConfigGetBenchmark.properties();
+        second.setProperty("int", "8192");
+        second.setProperty("string", "payroll");
+        versions = new Properties[] { first, second };
+        config = new Config();
+        config.setConf(first);
+    }
+
+    @Benchmark
+    @Group("readWhileReloading")
+    @GroupThreads(64)
+    public int read() {
+        return config.get("int", 0) + config.get(INT_KEY).intValue() + config.get("string", "").length();
+    }
+
+    @Benchmark
+    @Group("readWhileReloading")
+    @GroupThreads(1)
+    public void reload() {
+        config.setConf(versions[next]);
+        next ^= 1;
+    }
+}
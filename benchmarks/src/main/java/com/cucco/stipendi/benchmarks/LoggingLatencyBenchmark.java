@@ -0,0 +1,152 @@
+/*
+ * LoggingLatencyBenchmark.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.benchmarks;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.builder.api.AppenderComponentBuilder;
+import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilder;
+import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilderFactory;
+import org.apache.logging.log4j.core.config.builder.impl.BuiltConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.cucco.stipendi.utility.Config;
+
+/**
+ * <p>Load test of the request latency distribution with logging off, synchronous as shipped in <code>stipendi.log4j2.xml</code>, and
+ * asynchronous as shipped in <code>stipendi.log4j2.async.xml</code>. 16 threads run a simulated request which reads the configuration, does some
+ * work and logs three INFO lines with a <code>logId</code>; the sample time mode reports p50, p90, p99 and p99.9 latencies.</p>
+ * <p>Example: <code>java -jar benchmarks/target/benchmarks.jar LoggingLatency -rf csv</code></p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = { "-Dlog4j2.enableThreadlocals=true", "-Dlog4j2.enableDirectEncoders=true" })
+@Threads(16)
+public class LoggingLatencyBenchmark {
+
+    /**
+     * <p>Logger, configured by the setup</p>
+     */
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * <p>Logging mode: off, sync or async</p>
+     */
+    @Param({ "off", "sync", "async" })
+    private String logging;
+
+    /**
+     * <p>Log directory</p>
+     */
+    private File directory;
+
+    /**
+     * <p>Configuration read by the simulated request</p>
+     */
+    private Config config;
+
+    /**
+     * <p>Configures log4j2 for the logging mode</p>
+     *
+     * @throws Exception on setup errors
+     */
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("stipendi-log").toFile();
+        config = new Config();
+        config.setConf(ConfigGetBenchmark.properties());
+        Configurator.reconfigure(configuration(logging, new File(directory, "stipendi.log")));
+    }
+
+    /**
+     * <p>Stops log4j2, flushing the asynchronous events, and removes the log files</p>
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        LogManager.shutdown();
+        File[] content = directory.listFiles();
+        if (content != null) {
+            for (File file : content) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    /**
+     * <p>Builds the configuration of the logging mode, with the appenders and the layout of the shipped configuration files.</p>
+     *
+     * @param mode - logging mode
+     * @param file - log file
+     * @return the configuration
+     */
+    private static BuiltConfiguration configuration(String mode, File file) {
+        ConfigurationBuilder<BuiltConfiguration> builder = ConfigurationBuilderFactory.newConfigurationBuilder();
+        builder.setConfigurationName("stipendi-" + mode);
+        boolean async = "async".equals(mode);
+        AppenderComponentBuilder appender = builder.newAppender("RollingFileAppender", async ? "RollingRandomAccessFile" : "RollingFile")
+                .addAttribute("fileName", file.getPath())
+                .addAttribute("filePattern", file.getPath() + ".%d{yyyy-MM-dd-HH}")
+                .add(builder.newLayout("PatternLayout").addAttribute("pattern",
+                        async ? "%d{DEFAULT} | %-5.5level | %-30.30c{2} | %X{logId} | %msg%n" : "%d{DEFAULT} | %-5.5level | %-30.30C{2} | %X{logId} | %msg%n"))
+                .addComponent(builder.newComponent("Policies").addComponent(builder.newComponent("TimeBasedTriggeringPolicy")));
+        if (async) {
+            appender.addAttribute("immediateFlush", false);
+        }
+        builder.add(appender);
+        org.apache.logging.log4j.Level level = "off".equals(mode) ? org.apache.logging.log4j.Level.OFF : org.apache.logging.log4j.Level.INFO;
+        builder.add((async ? builder.newAsyncRootLogger(level, false) : builder.newRootLogger(level)).add(builder.newAppenderRef("RollingFileAppender")));
+        return builder.build(false);
+    }
+
+    /**
+     * <p>Simulated request</p>
+     *
+     * @param blackhole - consumes the request result
+     * @return the request result
+     */
+    @Benchmark
+    public long request(Blackhole blackhole) {
+        long requestId = Thread.currentThread().getId() ^ System.nanoTime();
+        ThreadContext.put("logId", Long.toHexString(requestId));
+        try {
+            logger.info("Request [{}] started", Long.valueOf(requestId));
+            long result = config.get("long", 0L) + config.get("int", 0);
+            Blackhole.consumeCPU(2000);
+            logger.info("Request [{}] computed [{}] with [{}]", Long.valueOf(requestId), Long.valueOf(result), config.get("string", ""));
+            blackhole.consume(config.getList("list", null));
+            logger.info("Request [{}] completed", Long.valueOf(requestId));
+            return result;
+        } finally {
+            ThreadContext.remove("logId");
+        }
+    }
+}
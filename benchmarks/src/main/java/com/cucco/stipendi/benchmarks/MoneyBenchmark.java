@@ -0,0 +1,111 @@
+/*
+ * MoneyBenchmark.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.benchmarks;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cucco.stipendi.money.Money;
+import com.cucco.stipendi.money.Rate;
+
+/**
+ * <p>Gross to net chain on a batch of salaries: social contribution at 9,19%, tax base rounded to the euro, flat tax at 23%. The same computation
+ * on {@link BigDecimal}, on {@link Money} instances and on raw cents with the allocation free {@link Money} static methods. Run with the GC
+ * profiler to compare the allocation rates.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    /**
+     * <p>Salaries in the batch</p>
+     */
+    private static final int SIZE = 1000;
+
+    private static final BigDecimal CONTRIBUTION_RATE = new BigDecimal("0.0919");
+
+    private static final BigDecimal TAX_RATE = new BigDecimal("0.23");
+
+    private final Rate contributionRate = Rate.parse("9.19%");
+
+    private final Rate taxRate = Rate.parse("23%");
+
+    private final BigDecimal[] decimalGross = new BigDecimal[SIZE];
+
+    private final Money[] moneyGross = new Money[SIZE];
+
+    private final long[] centsGross = new long[SIZE];
+
+    /**
+     * <p>Builds the gross salaries, from 1.000,00 to 5.000,00 euros</p>
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(42L);
+        for (int i = 0; i < SIZE; i++) {
+            long cents = 100000L + random.nextInt(400000);
+            centsGross[i] = cents;
+            moneyGross[i] = Money.ofCents(cents);
+            decimalGross[i] = BigDecimal.valueOf(cents, Money.SCALE);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal gross : decimalGross) {
+            BigDecimal contribution = gross.multiply(CONTRIBUTION_RATE).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal taxBase = gross.subtract(contribution).setScale(0, RoundingMode.HALF_UP);
+            BigDecimal tax = taxBase.multiply(TAX_RATE).setScale(2, RoundingMode.HALF_UP);
+            total = total.add(gross.subtract(contribution).subtract(tax));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money money() {
+        Money total = Money.ZERO;
+        for (Money gross : moneyGross) {
+            Money contribution = gross.multiply(contributionRate, Money.ROUNDING);
+            Money taxable = gross.subtract(contribution);
+            Money tax = taxable.roundToUnit(Money.ROUNDING).multiply(taxRate, Money.ROUNDING);
+            total = total.add(taxable.subtract(tax));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long cents() {
+        long contributionMicros = contributionRate.getMicros();
+        long taxMicros = taxRate.getMicros();
+        long total = 0L;
+        for (long gross : centsGross) {
+            long taxable = Money.subtractCents(gross, Money.multiplyCents(gross, contributionMicros, Money.ROUNDING));
+            long tax = Money.multiplyCents(Money.roundCentsToUnit(taxable, Money.ROUNDING), taxMicros, Money.ROUNDING);
+            total = Money.addCents(total, Money.subtractCents(taxable, tax));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * ParameterReaderBenchmark.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.benchmarks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import javax.ejb.Timer;
+import javax.ejb.TimerService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cucco.stipendi.utility.BinaryConfigTable;
+import com.cucco.stipendi.utility.ConfigSnapshotCompiler;
+import com.cucco.stipendi.utility.ParameterReader;
+
+/**
+ * <p>Cost of a {@link ParameterReader} configuration reload, outside the container, for small and large files and for each loader:
+ * {@link Properties} text parsing, memory mapped loader and precompiled binary snapshot. The unchanged file path, taken by every timer tick when
+ * nobody touched the file, is measured as well, together with the plain {@link Properties#load(Reader)} baseline.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParameterReaderBenchmark {
+
+    /**
+     * <p>Number of configuration entries</p>
+     */
+    @Param({ "100", "100000" })
+    private int entries;
+
+    /**
+     * <p>Configuration loader: properties, mapped or snapshot</p>
+     */
+    @Param({ "properties", "mapped", "snapshot" })
+    private String loader;
+
+    /**
+     * <p>Working directory</p>
+     */
+    private File directory;
+
+    /**
+     * <p>Two files with the same content, read alternately to force a reload on every call</p>
+     */
+    private File[] files;
+
+    /**
+     * <p>Next file to read</p>
+     */
+    private int next;
+
+    /**
+     * <p>Benchmarked reader</p>
+     */
+    private ParameterReader reader;
+
+    /**
+     * <p>Writes the configuration files and prepares a reader with a no-op timer service</p>
+     *
+     * @throws Exception on setup errors
+     */
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("stipendi-bench").toFile();
+        files = new File[] { new File(directory, "a.conf"), new File(directory, "b.conf") };
+        for (File file : files) {
+            write(file);
+            if ("snapshot".equals(loader)) {
+                ConfigSnapshotCompiler.compile(file, BinaryConfigTable.snapshotFileOf(file));
+            }
+        }
+        reader = new ParameterReader();
+        inject(reader, "timerService", proxy(TimerService.class));
+        inject(reader, "timer", proxy(Timer.class));
+        reader.setPropertyFile(files[0]);
+    }
+
+    /**
+     * <p>Removes the working directory</p>
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        File[] content = directory.listFiles();
+        if (content != null) {
+            for (File file : content) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    /**
+     * <p>Writes a configuration file with the given number of entries, mixing strings, numbers, lists and escapes</p>
+     *
+     * @param file - target file
+     * @throws IOException on write errors
+     */
+    private void write(File file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(file, "ISO-8859-1")) {
+            writer.println("# stipendi benchmark configuration");
+            writer.println("readerRefreshIntertime=60000");
+            if ("mapped".equals(loader)) {
+                writer.println(ParameterReader.MAPPED_LOADER_PARAMETER + "=true");
+            }
+            for (int i = 0; i < entries; i++) {
+                switch (i % 4) {
+                case 0:
+                    writer.println("stipendi.key." + i + "=valore " + i);
+                    break;
+                case 1:
+                    writer.println("stipendi.number." + i + " = " + (i * 31L));
+                    break;
+                case 2:
+                    writer.println("stipendi.list." + i + ": alfa, beta, gamma, " + i);
+                    break;
+                default:
+                    writer.println("stipendi.path." + i + "=C:\\\\stipendi\\\\conf\\\\" + i + " \\");
+                    writer.println("    continued");
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Sets a private field of the reader, normally injected by the container</p>
+     *
+     * @param target - the reader
+     * @param name - field name
+     * @param value - field value
+     * @throws ReflectiveOperationException on reflection errors
+     */
+    private static void inject(ParameterReader target, String name, Object value) throws ReflectiveOperationException {
+        Field field = ParameterReader.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    /**
+     * <p>Returns a do-nothing implementation of a container interface: timers never fire and are never listed.</p>
+     *
+     * @param type - the interface
+     * @return the stub
+     */
+    private static <T> T proxy(Class<T> type) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Class<?> returnType = method.getReturnType();
+            Object result = null;
+            if (returnType == Timer.class) {
+                result = proxy(Timer.class);
+            } else if (returnType == Date.class) {
+                result = new Date();
+            } else if (returnType.isAssignableFrom(Collections.emptyList().getClass())) {
+                result = Collections.emptyList();
+            } else if (returnType == boolean.class) {
+                result = Boolean.FALSE;
+            } else if (returnType == long.class) {
+                result = Long.valueOf(0L);
+            } else if (returnType == int.class) {
+                result = Integer.valueOf(0);
+            }
+            return result;
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    /**
+     * <p>Reload of a changed file: parse and snapshot publication</p>
+     *
+     * @return the published version
+     */
+    @Benchmark
+    public long reloadChanged() {
+        next ^= 1;
+        reader.setPropertyFile(files[next]);
+        return reader.getVersion();
+    }
+
+    /**
+     * <p>Timer tick on an unchanged file</p>
+     *
+     * @return the current version
+     */
+    @Benchmark
+    public long reloadUnchanged() {
+        reader.readConf();
+        return reader.getVersion();
+    }
+
+    /**
+     * <p>Baseline: plain {@link Properties} loading of the same file, as done before the snapshot based reader</p>
+     *
+     * @return the loaded properties
+     * @throws IOException on read errors
+     */
+    @Benchmark
+    public Properties propertiesLoad() throws IOException {
+        Properties properties = new Properties();
+        try (Reader in = new InputStreamReader(new FileInputStream(files[0]))) {
+            properties.load(in);
+        }
+        return properties;
+    }
+}
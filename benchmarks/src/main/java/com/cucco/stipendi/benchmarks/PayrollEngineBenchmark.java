@@ -0,0 +1,89 @@
+/*
+ * PayrollEngineBenchmark.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.benchmarks;
+
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cucco.stipendi.payroll.GrossToNetCalculator;
+import com.cucco.stipendi.payroll.PayrollEngine;
+import com.cucco.stipendi.payroll.PayrollTotals;
+import com.cucco.stipendi.utility.Config;
+
+/**
+ * <p>Monthly gross to net run on 500.000 employees with growing parallelism: the time per run should fall close to linearly up to the physical
+ * cores of the machine.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayrollEngineBenchmark {
+
+    /**
+     * <p>Employees in the run</p>
+     */
+    private static final int EMPLOYEES = 500000;
+
+    @Param({ "1", "2", "4", "8", "16" })
+    private int parallelism;
+
+    @Param({ "512" })
+    private int chunkSize;
+
+    private PayrollEngine engine;
+
+    private GrossToNetCalculator calculator;
+
+    @Setup
+    public void setup() {
+        Properties properties = new Properties();
+        properties.setProperty("tax.irpef.brackets", "0:23%,28000:35%,50000:43%");
+        properties.setProperty("tax.regional.brackets", "0:1.23%");
+        properties.setProperty("tax.municipal.brackets", "0:0%,10000:0.8%");
+        properties.setProperty("contribution.employee.rate", "9.19%");
+        properties.setProperty("contribution.employee.additional.brackets", "0:0%,55448:1%");
+        properties.setProperty("payrollParallelism", String.valueOf(parallelism));
+        properties.setProperty("payrollChunkSize", String.valueOf(chunkSize));
+        Config config = new Config();
+        config.setConf(properties);
+        long[] gross = new long[EMPLOYEES];
+        Random random = new Random(42L);
+        for (int i = 0; i < EMPLOYEES; i++) {
+            gross[i] = 100000L + random.nextInt(900000);
+        }
+        calculator = new GrossToNetCalculator(config, gross, new long[EMPLOYEES]);
+        engine = new PayrollEngine(config);
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.close();
+    }
+
+    @Benchmark
+    public PayrollTotals run() {
+        return engine.run("benchmark", EMPLOYEES, calculator);
+    }
+}
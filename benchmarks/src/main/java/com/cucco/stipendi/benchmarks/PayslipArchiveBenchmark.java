@@ -0,0 +1,114 @@
+/*
+ * PayslipArchiveBenchmark.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cucco.stipendi.archive.PayslipArchive;
+import com.cucco.stipendi.utility.Config;
+
+/**
+ * <p>Random payslip reads from an archive of twelve monthly runs, and the bulk archiving of one more run.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayslipArchiveBenchmark {
+
+    private static final int EMPLOYEES = 20000;
+
+    private static final int MONTHS = 12;
+
+    private File directory;
+
+    private PayslipArchive archive;
+
+    private byte[] payslip;
+
+    private int run;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("archive").toFile();
+        Properties properties = new Properties();
+        properties.setProperty("archivePath", directory.getPath());
+        properties.setProperty("archiveSegmentSize", String.valueOf(16 << 20));
+        properties.setProperty("archiveCompactionInterval", "0");
+        Config config = new Config();
+        config.setConf(properties);
+        archive = new PayslipArchive(config);
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            content.append("line ").append(i).append(";gross=2500.00;contributions=229.75;tax=512.30;net=1757.95\n");
+        }
+        payslip = content.toString().getBytes(StandardCharsets.UTF_8);
+        for (int month = 1; month <= MONTHS; month++) {
+            String period = period(month);
+            for (int employee = 0; employee < EMPLOYEES; employee++) {
+                archive.append("E" + employee, period, payslip);
+            }
+        }
+        archive.flush();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        archive.close();
+        File[] files = directory.listFiles();
+        for (File file : files != null ? files : new File[0]) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(directory.toPath());
+    }
+
+    /**
+     * @param month - month, from 1
+     * @return the period
+     */
+    private static String period(int month) {
+        return String.format("2025-%02d", Integer.valueOf(month));
+    }
+
+    @Benchmark
+    public byte[] randomRead() throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return archive.get("E" + random.nextInt(EMPLOYEES), period(1 + random.nextInt(MONTHS)));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void monthlyRun() throws IOException {
+        String period = "2026-" + (++run);
+        for (int employee = 0; employee < EMPLOYEES; employee++) {
+            archive.append("E" + employee, period, payslip);
+        }
+        archive.flush();
+    }
+}
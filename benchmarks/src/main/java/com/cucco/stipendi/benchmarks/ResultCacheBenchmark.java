@@ -0,0 +1,121 @@
+/*
+ * ResultCacheBenchmark.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.benchmarks;
+
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cucco.stipendi.cache.ResultCache;
+import com.cucco.stipendi.cache.ResultCodec;
+import com.cucco.stipendi.cache.ResultKey;
+import com.cucco.stipendi.utility.Config;
+
+/**
+ * <p>Result cache lookups on a skewed workload: 70% of the requests on a hot set of employees, the rest spread over the whole company. The hit
+ * and miss counts of each policy are reported by JMH next to the throughput, as the <code>hits</code> and <code>misses</code> auxiliary
+ * counters.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ResultCacheBenchmark {
+
+    private static final int EMPLOYEES = 100000;
+
+    private static final int HOT_EMPLOYEES = 2000;
+
+    @Param({ "tinylfu", "lru" })
+    private String policy;
+
+    @Param({ "false", "true" })
+    private String offHeap;
+
+    private String[] employeeIds;
+
+    private ResultCache<Long> cache;
+
+    @Setup
+    public void setup() {
+        Properties properties = new Properties();
+        properties.setProperty("resultCacheMaximumSize", "5000");
+        properties.setProperty("resultCachePolicy", policy);
+        properties.setProperty("resultCacheOffHeap", offHeap);
+        Config config = new Config();
+        config.setConf(properties);
+        cache = new ResultCache<Long>(config, ResultCodec.<Long> serialization());
+        employeeIds = new String[EMPLOYEES];
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employeeIds[i] = "E" + i;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        cache.close();
+    }
+
+    @Benchmark
+    public Long get(Lookups lookups) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int employee = random.nextInt(10) < 7 ? random.nextInt(HOT_EMPLOYEES) : random.nextInt(EMPLOYEES);
+        long misses = lookups.misses;
+        Long value = cache.get(employeeIds[employee], "2026-10", lookups.loader);
+        if (lookups.misses == misses) {
+            lookups.hits++;
+        }
+        return value;
+    }
+
+    /**
+     * <p>Hits and misses of a benchmark thread, summed by JMH over the threads of each iteration</p>
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Lookups {
+
+        public long hits;
+
+        public long misses;
+
+        /**
+         * <p>Loader counting the misses, created once per thread so a lookup allocates nothing</p>
+         */
+        private final Function<ResultKey, Long> loader = key -> {
+            misses++;
+            return Long.valueOf(key.getEmployeeId().length());
+        };
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            hits = 0L;
+            misses = 0L;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * TaxTableBenchmark.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.benchmarks;
+
+import java.math.RoundingMode;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cucco.stipendi.money.Money;
+import com.cucco.stipendi.money.Rate;
+import com.cucco.stipendi.tax.BracketTable;
+import com.cucco.stipendi.tax.TaxTables;
+import com.cucco.stipendi.utility.Config;
+
+/**
+ * <p>Progressive tax on one taxable amount: the table compiled once per configuration version, through a typed key, against splitting the
+ * configuration string on each call.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaxTableBenchmark {
+
+    private static final String BRACKETS = "0:23%,28000:35%,50000:43%";
+
+    private Config config;
+
+    /**
+     * <p>Taxable amount, in cents</p>
+     */
+    private long taxable = 4215037L;
+
+    @Setup
+    public void setup() {
+        Properties properties = new Properties();
+        properties.setProperty("tax.irpef.brackets", BRACKETS);
+        config = new Config();
+        config.setConf(properties);
+    }
+
+    @Benchmark
+    public long compiledTable() {
+        return config.get(TaxTables.IRPEF).progressive(taxable, Money.ROUNDING);
+    }
+
+    @Benchmark
+    public long compiledTableByName() {
+        return config.getBracketTable("tax.irpef.brackets", BracketTable.EMPTY).progressive(taxable, Money.ROUNDING);
+    }
+
+    @Benchmark
+    public long splitPerCall() {
+        String[] token = config.get("tax.irpef.brackets", BRACKETS).split(",");
+        long[] thresholds = new long[token.length];
+        long[] rates = new long[token.length];
+        for (int i = 0; i < token.length; i++) {
+            String[] field = token[i].split(":");
+            thresholds[i] = Money.parse(field[0]).getCents();
+            rates[i] = Rate.parse(field[1]).getMicros();
+        }
+        long tax = 0L;
+        for (int i = 0; i < thresholds.length && taxable > thresholds[i]; i++) {
+            long upper = i + 1 < thresholds.length ? Math.min(thresholds[i + 1], taxable) : taxable;
+            tax += Money.multiplyCents(upper - thresholds[i], rates[i], RoundingMode.HALF_UP);
+        }
+        return tax;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * UtilityBenchmark.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cucco.stipendi.utility.Template;
+import com.cucco.stipendi.utility.Utility;
+
+/**
+ * <p>Path normalization and <code>${...}</code> reference replacement, as done by the {@link com.cucco.stipendi.servlet.Starter} servlets.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilityBenchmark {
+
+    /**
+     * <p>Windows style path</p>
+     */
+    private String windowsPath = "C:\\jboss\\standalone\\configuration\\stipendi";
+
+    /**
+     * <p>Unix style path with trailing separator</p>
+     */
+    private String unixPath = "/opt/jboss/standalone/configuration/stipendi/";
+
+    /**
+     * <p>Path with a single reference, the Starter default</p>
+     */
+    private String singleReference = "${configfile.path}";
+
+    /**
+     * <p>Path with many references</p>
+     */
+    private String manyReferences = "${configfile.path}/${customer}/${customer}.${env.name}/stipendi-${customer}.conf";
+
+    /**
+     * <p>Path without references</p>
+     */
+    private String noReference = "/opt/jboss/standalone/configuration/stipendi/stipendi.conf";
+
+    /**
+     * <p>Precompiled template</p>
+     */
+    private Template template;
+
+    /**
+     * <p>Sets the referenced system properties</p>
+     */
+    @Setup
+    public void setup() {
+        System.setProperty("configfile.path", "/opt/jboss/standalone/configuration");
+        System.setProperty("customer", "default");
+        System.setProperty("env.name", "production");
+        template = Template.compile(manyReferences);
+    }
+
+    @Benchmark
+    public String normalizeWindowsPath() {
+        return Utility.normalizePath(windowsPath);
+    }
+
+    @Benchmark
+    public String normalizeUnixPath() {
+        return Utility.normalizePath(unixPath);
+    }
+
+    @Benchmark
+    public String replaceSingleReference() {
+        return Utility.replaceEnvRefereces(singleReference);
+    }
+
+    @Benchmark
+    public String replaceManyReferences() {
+        return Utility.replaceEnvRefereces(manyReferences);
+    }
+
+    @Benchmark
+    public String replaceNoReference() {
+        return Utility.replaceEnvRefereces(noReference);
+    }
+
+    @Benchmark
+    public String resolveCompiledTemplate() {
+        return template.resolve(Template.SYSTEM_PROPERTIES, "null");
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * ArchiveKey.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.archive;
+
+/**
+ * <p>Key of an archived payslip: employee and period, with the 64 bit hash used by the segment indexes.</p>
+ * <p>Instances are immutable and thread safe.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+final class ArchiveKey {
+
+    private final String employeeId;
+
+    private final String period;
+
+    private final long hash;
+
+    /**
+     * @param employeeId - employee id
+     * @param period - payroll period
+     */
+    ArchiveKey(String employeeId, String period) {
+        this.employeeId = employeeId;
+        this.period = period;
+        this.hash = ArchiveSegment.hash(employeeId, period);
+    }
+
+    /**
+     * Return employeeId value or reference.
+     *
+     * @return employeeId value or reference.
+     */
+    String getEmployeeId() {
+        return employeeId;
+    }
+
+    /**
+     * Return period value or reference.
+     *
+     * @return period value or reference.
+     */
+    String getPeriod() {
+        return period;
+    }
+
+    /**
+     * Return the index hash.
+     *
+     * @return the 64 bit hash
+     */
+    long hash() {
+        return hash;
+    }
+
+    /**
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ArchiveKey)) {
+            return false;
+        }
+        ArchiveKey other = (ArchiveKey) obj;
+        return hash == other.hash && employeeId.equals(other.employeeId) && period.equals(other.period);
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder("ArchiveKey [employeeId=").append(employeeId).append(", period=").append(period).append(']').toString();
+    }
+}
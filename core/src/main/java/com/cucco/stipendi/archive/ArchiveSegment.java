@@ -0,0 +1,463 @@
+/*
+ * ArchiveSegment.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.archive;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * <p>Segment of the {@link PayslipArchive}: an append-only data file of compressed blocks and, once sealed, its index file.</p>
+ * <p>A block is a 16 bytes header (magic, compressed length, raw length, CRC-32 of the compressed bytes) followed by the deflated records. The
+ * index, written when the segment is sealed and memory mapped afterwards, holds a 16 bytes entry for each key of the segment, key hash and
+ * offset of the block holding its last record, sorted by hash: a lookup is a binary search in memory and a single block read. The index header
+ * records the data file length and the trailer the CRC-32 of the entries, so an index not matching its data file is detected and rebuilt.</p>
+ * <p>Reads are thread safe; appends are serialized by the archive.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+final class ArchiveSegment implements Closeable {
+
+    static final int BLOCK_MAGIC = 0x50534C42;
+
+    static final int BLOCK_HEADER = 16;
+
+    private static final int INDEX_MAGIC = 0x50534C49;
+
+    private static final int INDEX_HEADER = 16;
+
+    private static final int INDEX_ENTRY = 16;
+
+    /**
+     * <p>Largest raw block accepted by the recovery</p>
+     */
+    private static final int MAX_BLOCK = 1 << 30;
+
+    private static final long[] NO_BLOCKS = new long[0];
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private final long sequence;
+
+    private final File dataFile;
+
+    private final File indexFile;
+
+    private final FileChannel channel;
+
+    /**
+     * <p>Length of the valid data</p>
+     */
+    private volatile long size;
+
+    /**
+     * <p>Mapped index entries, null until sealed</p>
+     */
+    private volatile ByteBuffer index;
+
+    /**
+     * <p>Opens or creates the data file of a segment.</p>
+     *
+     * @param dataFile - the data file
+     * @param sequence - segment sequence number
+     * @throws IOException if the file cannot be opened
+     */
+    ArchiveSegment(File dataFile, long sequence) throws IOException {
+        this.sequence = sequence;
+        this.dataFile = dataFile;
+        this.indexFile = indexFile(dataFile);
+        this.channel = FileChannel.open(dataFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.size = channel.size();
+    }
+
+    /**
+     * @param dataFile - segment data file
+     * @return the index file of the segment
+     */
+    static File indexFile(File dataFile) {
+        String name = dataFile.getName();
+        return new File(dataFile.getParentFile(), name.substring(0, name.lastIndexOf('.')) + ".idx");
+    }
+
+    /**
+     * <p>Returns the hash of a key, 64 bit FNV-1a</p>
+     *
+     * @param employeeId - employee id
+     * @param period - payroll period
+     * @return the hash
+     */
+    static long hash(String employeeId, String period) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < employeeId.length(); i++) {
+            hash = (hash ^ employeeId.charAt(i)) * 0x100000001b3L;
+        }
+        hash *= 0x100000001b3L;
+        for (int i = 0; i < period.length(); i++) {
+            hash = (hash ^ period.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * <p>Appends a compressed block.</p>
+     *
+     * @param compressed - compressed records
+     * @param length - compressed length
+     * @param rawLength - raw length
+     * @return the block offset
+     * @throws IOException if the write fails
+     */
+    long append(byte[] compressed, int length, int rawLength) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(compressed, 0, length);
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER);
+        header.putInt(BLOCK_MAGIC).putInt(length).putInt(rawLength).putInt((int) crc.getValue()).flip();
+        long offset = size;
+        long position = offset;
+        position += writeFully(header, position);
+        position += writeFully(ByteBuffer.wrap(compressed, 0, length), position);
+        size = position;
+        return offset;
+    }
+
+    /**
+     * @param buffer - bytes to write
+     * @param position - file position
+     * @return the written bytes
+     * @throws IOException if the write fails
+     */
+    private int writeFully(ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    /**
+     * <p>Reads, checks and inflates a block.</p>
+     *
+     * @param offset - block offset
+     * @return the raw records
+     * @throws IOException if the block is not valid
+     */
+    byte[] readBlock(long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER);
+        readFully(header, offset);
+        header.flip();
+        int magic = header.getInt();
+        int length = header.getInt();
+        int rawLength = header.getInt();
+        int checksum = header.getInt();
+        if (magic != BLOCK_MAGIC || length < 0 || rawLength < 0 || rawLength > MAX_BLOCK || offset + BLOCK_HEADER + length > size) {
+            throw new IOException("Not a block at [" + offset + "] of " + dataFile);
+        }
+        byte[] compressed = new byte[length];
+        readFully(ByteBuffer.wrap(compressed), offset + BLOCK_HEADER);
+        CRC32 crc = new CRC32();
+        crc.update(compressed, 0, length);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Corrupted block at [" + offset + "] of " + dataFile);
+        }
+        byte[] raw = new byte[rawLength];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            int inflated = 0;
+            while (inflated < rawLength && !inflater.finished()) {
+                int count = inflater.inflate(raw, inflated, rawLength - inflated);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += count;
+            }
+            if (inflated != rawLength) {
+                throw new IOException("Truncated block at [" + offset + "] of " + dataFile);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted block at [" + offset + "] of " + dataFile, e);
+        } finally {
+            inflater.end();
+        }
+        return raw;
+    }
+
+    /**
+     * @param buffer - buffer to fill
+     * @param position - file position
+     * @throws IOException if the file ends before
+     */
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        long read = 0L;
+        while (buffer.hasRemaining()) {
+            int count = channel.read(buffer, position + read);
+            if (count < 0) {
+                throw new EOFException("Unexpected end of " + dataFile);
+            }
+            read += count;
+        }
+    }
+
+    /**
+     * <p>Visits the valid blocks in file order and truncates the file after the last one: the tail of a crashed write is discarded.</p>
+     *
+     * @param visitor - receives each block
+     * @throws IOException if the file cannot be read
+     */
+    void recover(BlockVisitor visitor) throws IOException {
+        long fileLength = channel.size();
+        long offset = 0L;
+        boolean valid = true;
+        while (valid && offset + BLOCK_HEADER <= fileLength) {
+            byte[] raw;
+            try {
+                raw = readBlock(offset);
+            } catch (IOException e) {
+                logger.warn("Segment [{}]: {}", dataFile, e.getMessage());
+                raw = null;
+            }
+            if (raw != null) {
+                long next = offset + BLOCK_HEADER + compressedLength(offset);
+                visitor.block(offset, raw);
+                offset = next;
+            } else {
+                valid = false;
+            }
+        }
+        if (offset != fileLength) {
+            logger.warn("Segment [{}]: discarding [{}] bytes after offset [{}]", dataFile, fileLength - offset, offset);
+            channel.truncate(offset);
+            channel.force(true);
+        }
+        size = offset;
+    }
+
+    /**
+     * <p>Visits the blocks of a sealed segment.</p>
+     *
+     * @param visitor - receives each block
+     * @throws IOException if a block cannot be read
+     */
+    void scan(BlockVisitor visitor) throws IOException {
+        long offset = 0L;
+        long end = size;
+        while (offset < end) {
+            long next = offset + BLOCK_HEADER + compressedLength(offset);
+            visitor.block(offset, readBlock(offset));
+            offset = next;
+        }
+    }
+
+    /**
+     * @param offset - block offset
+     * @return the compressed length written in the block header
+     * @throws IOException if the header cannot be read
+     */
+    private int compressedLength(long offset) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(4);
+        readFully(length, offset + 4);
+        return length.getInt(0);
+    }
+
+    /**
+     * <p>Writes the index of the segment and maps it, sealing the segment.</p>
+     *
+     * @param entries - block offset of the last record of each key, by key
+     * @throws IOException if the index cannot be written
+     */
+    void seal(Map<ArchiveKey, Long> entries) throws IOException {
+        long[][] sorted = new long[entries.size()][];
+        int count = 0;
+        for (Map.Entry<ArchiveKey, Long> entry : entries.entrySet()) {
+            sorted[count++] = new long[] { entry.getKey().hash(), entry.getValue().longValue() };
+        }
+        Arrays.sort(sorted, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        ByteBuffer content = ByteBuffer.allocate(INDEX_HEADER + count * INDEX_ENTRY + 4);
+        content.putInt(INDEX_MAGIC).putInt(count).putLong(size);
+        for (long[] entry : sorted) {
+            content.putLong(entry[0]).putLong(entry[1]);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(content.array(), INDEX_HEADER, count * INDEX_ENTRY);
+        content.putInt((int) crc.getValue()).flip();
+        channel.force(true);
+        File temporary = new File(indexFile.getPath() + ".tmp");
+        try (FileChannel out = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            while (content.hasRemaining()) {
+                out.write(content);
+            }
+            out.force(true);
+        }
+        Files.move(temporary.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (!loadIndex()) {
+            throw new IOException("Index not readable after writing: " + indexFile);
+        }
+    }
+
+    /**
+     * <p>Maps the index file, if present and matching the data file.</p>
+     *
+     * @return true if the segment is sealed
+     * @throws IOException if the index exists but cannot be read
+     */
+    boolean loadIndex() throws IOException {
+        boolean loaded = false;
+        if (indexFile.isFile() && indexFile.length() >= INDEX_HEADER + 4) {
+            MappedByteBuffer mapped;
+            try (FileChannel in = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+                mapped = in.map(FileChannel.MapMode.READ_ONLY, 0L, in.size());
+            }
+            int count = mapped.getInt(4);
+            long entriesLength = (long) count * INDEX_ENTRY;
+            if (mapped.getInt(0) == INDEX_MAGIC && count >= 0 && mapped.getLong(8) == size
+                    && INDEX_HEADER + entriesLength + 4 == mapped.capacity()) {
+                CRC32 crc = new CRC32();
+                ByteBuffer entries = mapped.duplicate();
+                entries.position(INDEX_HEADER).limit(INDEX_HEADER + (int) entriesLength);
+                crc.update(entries);
+                if ((int) crc.getValue() == mapped.getInt(INDEX_HEADER + (int) entriesLength)) {
+                    mapped.position(INDEX_HEADER).limit(INDEX_HEADER + (int) entriesLength);
+                    index = mapped.slice();
+                    loaded = true;
+                }
+            }
+            if (!loaded) {
+                logger.warn("Index [{}] does not match its segment: rebuilding", indexFile);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * <p>Returns the offsets of the blocks holding keys with the given hash, usually one.</p>
+     *
+     * @param hash - key hash
+     * @return the block offsets, empty if none or not sealed
+     */
+    long[] blocksOf(long hash) {
+        ByteBuffer entries = index;
+        long[] blocks = NO_BLOCKS;
+        if (entries != null) {
+            int low = 0;
+            int high = entries.capacity() / INDEX_ENTRY - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (entries.getLong(middle * INDEX_ENTRY) < hash) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            int end = low;
+            int count = entries.capacity() / INDEX_ENTRY;
+            while (end < count && entries.getLong(end * INDEX_ENTRY) == hash) {
+                end++;
+            }
+            if (end > low) {
+                blocks = new long[end - low];
+                for (int i = low; i < end; i++) {
+                    blocks[i - low] = entries.getLong(i * INDEX_ENTRY + 8);
+                }
+            }
+        }
+        return blocks;
+    }
+
+    /**
+     * <p>Forces the written blocks to the device.</p>
+     *
+     * @throws IOException if the force fails
+     */
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        index = null;
+        channel.close();
+    }
+
+    /**
+     * <p>Closes and deletes the segment files.</p>
+     *
+     * @throws IOException if the files cannot be deleted
+     */
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(indexFile.toPath());
+        Files.deleteIfExists(dataFile.toPath());
+    }
+
+    /**
+     * Return sequence value.
+     *
+     * @return sequence value.
+     */
+    long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Return size value.
+     *
+     * @return size value.
+     */
+    long getSize() {
+        return size;
+    }
+
+    /**
+     * Return true once the index is written.
+     *
+     * @return true if sealed
+     */
+    boolean isSealed() {
+        return index != null;
+    }
+
+    /**
+     * Return dataFile value or reference.
+     *
+     * @return dataFile value or reference.
+     */
+    File getDataFile() {
+        return dataFile;
+    }
+
+    /**
+     * <p>Receives the blocks of a segment</p>
+     */
+    @FunctionalInterface
+    interface BlockVisitor {
+
+        /**
+         * @param offset - block offset
+         * @param raw - raw records
+         * @throws IOException if the visit fails
+         */
+        void block(long offset, byte[] raw) throws IOException;
+    }
+}
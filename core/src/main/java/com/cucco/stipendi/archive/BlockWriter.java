@@ -0,0 +1,249 @@
+/*
+ * BlockWriter.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.archive;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * <p>Collects payslip records into a block and writes it, deflated, to a segment.</p>
+ * <p>A record is the employee id and the period, UTF-8 with a 2 bytes length, followed by the payslip with a 4 bytes length. The buffers grow
+ * to the largest block and are reused.</p>
+ * <p>Not thread safe.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+final class BlockWriter {
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+
+    /**
+     * <p>Raw records of the current block</p>
+     */
+    private byte[] raw;
+
+    private int length;
+
+    /**
+     * <p>Compression buffer</p>
+     */
+    private byte[] compressed;
+
+    /**
+     * <p>Keys of the records of the current block</p>
+     */
+    private final List<ArchiveKey> keys = new ArrayList<ArchiveKey>();
+
+    /**
+     * @param blockSize - expected block size
+     */
+    BlockWriter(int blockSize) {
+        this.raw = new byte[blockSize + 1024];
+        this.compressed = new byte[blockSize + 1024];
+    }
+
+    /**
+     * <p>Adds a record to the current block.</p>
+     *
+     * @param key - the key
+     * @param payload - payslip bytes
+     * @param offset - payslip offset
+     * @param payloadLength - payslip length
+     */
+    void add(ArchiveKey key, byte[] payload, int offset, int payloadLength) {
+        byte[] employee = key.getEmployeeId().getBytes(StandardCharsets.UTF_8);
+        byte[] period = key.getPeriod().getBytes(StandardCharsets.UTF_8);
+        if (employee.length > 0xffff || period.length > 0xffff) {
+            throw new IllegalArgumentException("Key too long: " + key);
+        }
+        int recordLength = 2 + employee.length + 2 + period.length + 4 + payloadLength;
+        if (length + recordLength > raw.length) {
+            raw = Arrays.copyOf(raw, Math.max(length + recordLength, raw.length * 2));
+        }
+        length = putShort(length, employee.length);
+        System.arraycopy(employee, 0, raw, length, employee.length);
+        length += employee.length;
+        length = putShort(length, period.length);
+        System.arraycopy(period, 0, raw, length, period.length);
+        length += period.length;
+        raw[length++] = (byte) (payloadLength >>> 24);
+        raw[length++] = (byte) (payloadLength >>> 16);
+        raw[length++] = (byte) (payloadLength >>> 8);
+        raw[length++] = (byte) payloadLength;
+        System.arraycopy(payload, offset, raw, length, payloadLength);
+        length += payloadLength;
+        keys.add(key);
+    }
+
+    /**
+     * @param position - write position
+     * @param value - unsigned short value
+     * @return the next position
+     */
+    private int putShort(int position, int value) {
+        raw[position] = (byte) (value >>> 8);
+        raw[position + 1] = (byte) value;
+        return position + 2;
+    }
+
+    /**
+     * Return the raw size of the current block.
+     *
+     * @return raw bytes
+     */
+    int size() {
+        return length;
+    }
+
+    /**
+     * Return true if the current block has no records.
+     *
+     * @return true if empty
+     */
+    boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    /**
+     * <p>Deflates the current block, appends it to the segment, records its offset for each of its keys and starts a new block.</p>
+     *
+     * @param segment - the segment
+     * @param index - block offset by key, updated
+     * @throws IOException if the write fails
+     */
+    void writeTo(ArchiveSegment segment, Map<ArchiveKey, Long> index) throws IOException {
+        deflater.reset();
+        deflater.setInput(raw, 0, length);
+        deflater.finish();
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+        Long offset = Long.valueOf(segment.append(compressed, compressedLength, length));
+        for (ArchiveKey key : keys) {
+            index.put(key, offset);
+        }
+        keys.clear();
+        length = 0;
+    }
+
+    /**
+     * <p>Releases the compressor.</p>
+     */
+    void end() {
+        deflater.end();
+    }
+
+    /**
+     * <p>Visits the records of a raw block, in write order.</p>
+     *
+     * @param block - raw records
+     * @param visitor - receives each record
+     * @throws IOException if the visit fails
+     */
+    static void forEach(byte[] block, RecordVisitor visitor) throws IOException {
+        int position = 0;
+        while (position < block.length) {
+            int employeeLength = getShort(block, position);
+            String employee = new String(block, position + 2, employeeLength, StandardCharsets.UTF_8);
+            position += 2 + employeeLength;
+            int periodLength = getShort(block, position);
+            String period = new String(block, position + 2, periodLength, StandardCharsets.UTF_8);
+            position += 2 + periodLength;
+            int payloadLength = getInt(block, position);
+            position += 4;
+            visitor.record(new ArchiveKey(employee, period), block, position, payloadLength);
+            position += payloadLength;
+        }
+    }
+
+    /**
+     * <p>Returns the payslip of the last record of the key in a raw block, comparing the encoded keys without decoding the records.</p>
+     *
+     * @param block - raw records
+     * @param employeeId - encoded employee id
+     * @param period - encoded period
+     * @return a copy of the payslip, null if the block has no record of the key
+     */
+    static byte[] find(byte[] block, byte[] employeeId, byte[] period) {
+        int found = -1;
+        int foundLength = 0;
+        int position = 0;
+        while (position < block.length) {
+            int employeeLength = getShort(block, position);
+            boolean matches = employeeLength == employeeId.length && regionEquals(block, position + 2, employeeId);
+            position += 2 + employeeLength;
+            int periodLength = getShort(block, position);
+            matches &= periodLength == period.length && regionEquals(block, position + 2, period);
+            position += 2 + periodLength;
+            int payloadLength = getInt(block, position);
+            position += 4;
+            if (matches) {
+                found = position;
+                foundLength = payloadLength;
+            }
+            position += payloadLength;
+        }
+        return found >= 0 ? Arrays.copyOfRange(block, found, found + foundLength) : null;
+    }
+
+    /**
+     * @param block - raw records
+     * @param position - region start
+     * @param expected - expected bytes
+     * @return true if the region holds the expected bytes
+     */
+    private static boolean regionEquals(byte[] block, int position, byte[] expected) {
+        boolean equal = true;
+        for (int i = 0; equal && i < expected.length; i++) {
+            equal = block[position + i] == expected[i];
+        }
+        return equal;
+    }
+
+    /**
+     * @param block - raw records
+     * @param position - read position
+     * @return the unsigned short
+     */
+    private static int getShort(byte[] block, int position) {
+        return ((block[position] & 0xff) << 8) | (block[position + 1] & 0xff);
+    }
+
+    /**
+     * @param block - raw records
+     * @param position - read position
+     * @return the int
+     */
+    private static int getInt(byte[] block, int position) {
+        return ((block[position] & 0xff) << 24) | ((block[position + 1] & 0xff) << 16) | ((block[position + 2] & 0xff) << 8)
+                | (block[position + 3] & 0xff);
+    }
+
+    /**
+     * <p>Receives the records of a block</p>
+     */
+    @FunctionalInterface
+    interface RecordVisitor {
+
+        /**
+         * @param key - record key
+         * @param block - raw records
+         * @param offset - payslip offset into the block
+         * @param length - payslip length
+         * @throws IOException if the visit fails
+         */
+        void record(ArchiveKey key, byte[] block, int offset, int length) throws IOException;
+    }
+}
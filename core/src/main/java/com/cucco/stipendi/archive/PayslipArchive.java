@@ -0,0 +1,608 @@
+/*
+ * PayslipArchive.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.archive;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.cucco.stipendi.utility.Config;
+import com.cucco.stipendi.utility.ConfigKey;
+import com.cucco.stipendi.utility.Utility;
+
+/**
+ * <p>Append-only archive of the issued payslips, kept for years and read by employee and period.</p>
+ * <p>Payslips are appended to the active segment file in blocks of about <code>archiveBlockSize</code> raw bytes, deflated and protected by a
+ * CRC-32, so the bulk write of a monthly run is sequential. When the active segment reaches <code>archiveSegmentSize</code> it is sealed: its
+ * index, one entry per key pointing at the block of its last record, is written sorted next to it and memory mapped, and a new segment is
+ * started. A payslip is read from the block being written, from the in-memory index of the active segment or, newest first, from the mapped
+ * indexes of the sealed segments: a binary search in memory and a single block read, one disk seek. Archiving a payslip again (a correction)
+ * supersedes the previous one.</p>
+ * <p>Every <code>archiveCompactionInterval</code> seconds a background thread rewrites the sealed segments where the superseded payslips exceed
+ * <code>archiveCompactionRatio</code>, swapping the rewritten files in place of the old ones.</p>
+ * <p>At start up, the tail of the active segment left by a crash is detected by the block checks and discarded, and indexes not matching their
+ * segment are rebuilt. Payslips are durable after {@link #flush()}. The directory, <code>archivePath</code>, is resolved through
+ * {@link Utility#normalizePath(String)}.</p>
+ * <p>Instances are thread safe: reads run concurrently, appends are serialized.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class PayslipArchive implements Closeable {
+
+    /**
+     * <p>Archive directory</p>
+     */
+    public static final ConfigKey<String> PATH = ConfigKey.of("archivePath", "archive");
+
+    /**
+     * <p>Segment size that triggers the roll, in bytes</p>
+     */
+    public static final ConfigKey<Long> SEGMENT_SIZE = ConfigKey.of("archiveSegmentSize", 256L << 20);
+
+    /**
+     * <p>Raw size of a block, in bytes</p>
+     */
+    public static final ConfigKey<Integer> BLOCK_SIZE = ConfigKey.of("archiveBlockSize", 64 << 10);
+
+    /**
+     * <p>Ratio of superseded payslips that triggers the compaction of a segment</p>
+     */
+    public static final ConfigKey<Double> COMPACTION_RATIO = ConfigKey.of("archiveCompactionRatio", 0.5);
+
+    /**
+     * <p>Seconds between compaction runs, 0 to disable the background compaction</p>
+     */
+    public static final ConfigKey<Integer> COMPACTION_INTERVAL = ConfigKey.of("archiveCompactionInterval", 600);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    private static final String COMPACT_PREFIX = "compact-";
+
+    private static final String DATA_SUFFIX = ".dat";
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private final File directory;
+
+    private final long segmentSize;
+
+    private final int blockSize;
+
+    private final double compactionRatio;
+
+    /**
+     * <p>Readers share, appends and segment swaps are exclusive</p>
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * <p>Sealed segments, oldest first</p>
+     */
+    private final List<ArchiveSegment> sealed = new ArrayList<ArchiveSegment>();
+
+    private ArchiveSegment active;
+
+    /**
+     * <p>Block offset of the last record of each key of the active segment</p>
+     */
+    private final Map<ArchiveKey, Long> activeIndex = new HashMap<ArchiveKey, Long>();
+
+    /**
+     * <p>Payslips of the block not yet written</p>
+     */
+    private final Map<ArchiveKey, byte[]> pending = new HashMap<ArchiveKey, byte[]>();
+
+    private final BlockWriter writer;
+
+    /**
+     * <p>Serializes the compactions</p>
+     */
+    private final Object compactionLock = new Object();
+
+    /**
+     * <p>Background compaction, null if disabled</p>
+     */
+    private final ScheduledExecutorService compactor;
+
+    private boolean closed;
+
+    /**
+     * <p>Opens the archive, recovering it after a crash.</p>
+     *
+     * @param config - configuration holding the archive settings
+     * @throws IOException if the directory or a segment cannot be opened
+     */
+    public PayslipArchive(Config config) throws IOException {
+        this.directory = new File(Utility.normalizePath(Utility.replaceEnvRefereces(config.get(PATH))));
+        this.segmentSize = Math.max(1L, config.get(SEGMENT_SIZE).longValue());
+        this.blockSize = Math.max(1, config.get(BLOCK_SIZE).intValue());
+        this.compactionRatio = config.get(COMPACTION_RATIO).doubleValue();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create archive directory " + directory);
+        }
+        this.writer = new BlockWriter(blockSize);
+        open();
+        int interval = config.get(COMPACTION_INTERVAL).intValue();
+        if (interval > 0) {
+            compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "stipendi-archive-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            compactor.scheduleWithFixedDelay(this::compactQuietly, interval, interval, TimeUnit.SECONDS);
+        } else {
+            compactor = null;
+        }
+        logger.info("Payslip archive [{}]: [{}] sealed segments, active segment [{}]", directory, sealed.size(), active.getSequence());
+    }
+
+    /**
+     * <p>Opens the segments: every segment but the last is sealed, its index rebuilt if missing or stale; the last one is the active segment,
+     * truncated after its last valid block, unless it was sealed already. Only the active segment can end with an interrupted write: an invalid
+     * block in a sealed segment is a corruption and fails the opening, instead of discarding the payslips after it.</p>
+     *
+     * @throws IOException if a segment cannot be opened or a sealed segment holds an invalid block
+     */
+    private void open() throws IOException {
+        TreeMap<Long, File> files = new TreeMap<Long, File>();
+        File[] content = directory.listFiles();
+        for (File file : content != null ? content : new File[0]) {
+            String name = file.getName();
+            if (name.startsWith(COMPACT_PREFIX) || name.endsWith(".tmp")) {
+                // Residuo di una compattazione o di un indice interrotti
+                Files.delete(file.toPath());
+            } else if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(DATA_SUFFIX)) {
+                try {
+                    files.put(Long.valueOf(name.substring(SEGMENT_PREFIX.length(), name.length() - DATA_SUFFIX.length())), file);
+                } catch (NumberFormatException e) {
+                    logger.warn("Ignoring archive file [{}]", file);
+                }
+            }
+        }
+        long next = 1L;
+        for (Map.Entry<Long, File> entry : files.entrySet()) {
+            ArchiveSegment segment = new ArchiveSegment(entry.getValue(), entry.getKey().longValue());
+            next = segment.getSequence() + 1;
+            if (segment.loadIndex()) {
+                sealed.add(segment);
+            } else if (entry.getKey().equals(files.lastKey())) {
+                segment.recover((offset, block) -> BlockWriter.forEach(block, (key, raw, from, length) -> activeIndex.put(key, Long.valueOf(offset))));
+                active = segment;
+            } else {
+                Map<ArchiveKey, Long> index = new HashMap<ArchiveKey, Long>();
+                try {
+                    segment.scan((offset, block) -> BlockWriter.forEach(block, (key, raw, from, length) -> index.put(key, Long.valueOf(offset))));
+                } catch (IOException e) {
+                    segment.close();
+                    for (ArchiveSegment opened : sealed) {
+                        opened.close();
+                    }
+                    throw new IOException("Sealed archive segment [" + entry.getValue() + "] is corrupted, not truncating it", e);
+                }
+                segment.seal(index);
+                sealed.add(segment);
+            }
+        }
+        if (active == null) {
+            active = newSegment(SEGMENT_PREFIX, next);
+        }
+    }
+
+    /**
+     * @param prefix - file name prefix
+     * @param sequence - segment sequence number
+     * @return the new segment
+     * @throws IOException if the file cannot be created
+     */
+    private ArchiveSegment newSegment(String prefix, long sequence) throws IOException {
+        return new ArchiveSegment(dataFile(prefix, sequence), sequence);
+    }
+
+    /**
+     * @param prefix - file name prefix
+     * @param sequence - segment sequence number
+     * @return the segment data file
+     */
+    private File dataFile(String prefix, long sequence) {
+        return new File(directory, String.format("%s%010d%s", prefix, Long.valueOf(sequence), DATA_SUFFIX));
+    }
+
+    /**
+     * <p>Archives a payslip, superseding any payslip archived before for the same employee and period. The payslip is durable after the next
+     * {@link #flush()}.</p>
+     *
+     * @param employeeId - employee id
+     * @param period - payroll period
+     * @param payslip - payslip content, copied
+     * @throws IOException if a block cannot be written
+     */
+    public void append(String employeeId, String period, byte[] payslip) throws IOException {
+        ArchiveKey key = new ArchiveKey(employeeId, period);
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            writer.add(key, payslip, 0, payslip.length);
+            pending.put(key, payslip.clone());
+            if (writer.size() >= blockSize) {
+                writeBlock();
+                if (active.getSize() >= segmentSize) {
+                    roll();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * <p>Writes the current block and forces the active segment to the device.</p>
+     *
+     * @throws IOException if the write fails
+     */
+    public void flush() throws IOException {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            writeBlock();
+            active.force();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * <p>Returns the last payslip archived for the employee and period.</p>
+     *
+     * @param employeeId - employee id
+     * @param period - payroll period
+     * @return a copy of the payslip, null if not archived
+     * @throws IOException if a block cannot be read
+     */
+    public byte[] get(String employeeId, String period) throws IOException {
+        ArchiveKey key = new ArchiveKey(employeeId, period);
+        byte[] employee = employeeId.getBytes(StandardCharsets.UTF_8);
+        byte[] periodBytes = period.getBytes(StandardCharsets.UTF_8);
+        byte[] payslip = null;
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            byte[] unwritten = pending.get(key);
+            Long offset = activeIndex.get(key);
+            if (unwritten != null) {
+                payslip = unwritten.clone();
+            } else if (offset != null) {
+                payslip = BlockWriter.find(active.readBlock(offset.longValue()), employee, periodBytes);
+            }
+            for (int i = sealed.size() - 1; payslip == null && i >= 0; i--) {
+                payslip = find(sealed.get(i), key, employee, periodBytes);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return payslip;
+    }
+
+    /**
+     * @param segment - a sealed segment
+     * @param key - the key
+     * @param employee - encoded employee id
+     * @param period - encoded period
+     * @return the payslip, null if the segment does not hold the key
+     * @throws IOException if a block cannot be read
+     */
+    private static byte[] find(ArchiveSegment segment, ArchiveKey key, byte[] employee, byte[] period) throws IOException {
+        byte[] payslip = null;
+        long[] blocks = segment.blocksOf(key.hash());
+        for (int i = 0; payslip == null && i < blocks.length; i++) {
+            payslip = BlockWriter.find(segment.readBlock(blocks[i]), employee, period);
+        }
+        return payslip;
+    }
+
+    /**
+     * <p>Writes the current block to the active segment</p>
+     *
+     * @throws IOException if the write fails
+     */
+    private void writeBlock() throws IOException {
+        if (!writer.isEmpty()) {
+            writer.writeTo(active, activeIndex);
+            pending.clear();
+        }
+    }
+
+    /**
+     * <p>Seals the active segment and starts a new one</p>
+     *
+     * @throws IOException if the index cannot be written
+     */
+    private void roll() throws IOException {
+        writeBlock();
+        active.seal(activeIndex);
+        sealed.add(active);
+        activeIndex.clear();
+        active = newSegment(SEGMENT_PREFIX, active.getSequence() + 1);
+        logger.info("Payslip archive [{}]: rolled to segment [{}]", directory, active.getSequence());
+    }
+
+    /**
+     * <p>Rewrites the sealed segments where the superseded payslips exceed the compaction ratio.</p>
+     *
+     * @return the number of rewritten segments
+     * @throws IOException if a segment cannot be rewritten
+     */
+    public int compact() throws IOException {
+        int compacted = 0;
+        synchronized (compactionLock) {
+            List<ArchiveSegment> segments;
+            lock.readLock().lock();
+            try {
+                checkOpen();
+                segments = new ArrayList<ArchiveSegment>(sealed);
+            } finally {
+                lock.readLock().unlock();
+            }
+            for (ArchiveSegment segment : segments) {
+                if (compact(segment)) {
+                    compacted++;
+                }
+            }
+        }
+        return compacted;
+    }
+
+    /**
+     * <p>Compaction run of the background thread</p>
+     */
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Payslip archive [{}]: compaction failed", directory, e);
+        }
+    }
+
+    /**
+     * <p>Rewrites a sealed segment without its superseded payslips, if they exceed the compaction ratio. Sealed segments are changed by the
+     * compaction only, so they are read without lock; payslips superseded while the segment is rewritten are just dropped at the next run.</p>
+     *
+     * @param segment - the segment
+     * @return true if rewritten
+     * @throws IOException if the segment cannot be rewritten
+     */
+    private boolean compact(ArchiveSegment segment) throws IOException {
+        Map<ArchiveKey, Integer> last = new HashMap<ArchiveKey, Integer>();
+        int[] records = new int[1];
+        segment.scan((offset, block) -> BlockWriter.forEach(block, (key, raw, from, length) -> last.put(key, Integer.valueOf(records[0]++))));
+        Set<ArchiveKey> superseded = superseded(segment, last.keySet());
+        BitSet live = new BitSet(records[0]);
+        for (Map.Entry<ArchiveKey, Integer> entry : last.entrySet()) {
+            if (!superseded.contains(entry.getKey())) {
+                live.set(entry.getValue().intValue());
+            }
+        }
+        boolean rewrite = records[0] > 0 && records[0] - live.cardinality() >= compactionRatio * records[0];
+        if (rewrite) {
+            ArchiveSegment compacted = newSegment(COMPACT_PREFIX, segment.getSequence());
+            Map<ArchiveKey, Long> index = new HashMap<ArchiveKey, Long>();
+            BlockWriter compactWriter = new BlockWriter(blockSize);
+            try {
+                int[] ordinal = new int[1];
+                segment.scan((offset, block) -> BlockWriter.forEach(block, (key, raw, from, length) -> {
+                    if (live.get(ordinal[0]++)) {
+                        compactWriter.add(key, raw, from, length);
+                        if (compactWriter.size() >= blockSize) {
+                            compactWriter.writeTo(compacted, index);
+                        }
+                    }
+                }));
+                if (!compactWriter.isEmpty()) {
+                    compactWriter.writeTo(compacted, index);
+                }
+                if (!index.isEmpty()) {
+                    compacted.seal(index);
+                }
+            } catch (IOException | RuntimeException e) {
+                compacted.delete();
+                throw e;
+            } finally {
+                compactWriter.end();
+            }
+            swap(segment, compacted, index.isEmpty());
+            logger.info("Payslip archive [{}]: segment [{}] compacted, [{}] of [{}] payslips kept", directory, segment.getSequence(),
+                    live.cardinality(), records[0]);
+        }
+        return rewrite;
+    }
+
+    /**
+     * <p>Returns the keys of a sealed segment archived again later. The active segment and the list of the newer sealed segments are read under
+     * the lock once; the newer sealed segments are then probed by key hash on their indexes, and a block is inflated only to confirm the hash
+     * hits, once for all the keys hitting it.</p>
+     *
+     * @param segment - a sealed segment
+     * @param keys - the keys of the segment
+     * @return the keys held by a newer segment
+     * @throws IOException if a block cannot be read
+     */
+    private Set<ArchiveKey> superseded(ArchiveSegment segment, Set<ArchiveKey> keys) throws IOException {
+        Set<ArchiveKey> superseded = new HashSet<ArchiveKey>();
+        List<ArchiveSegment> newer = new ArrayList<ArchiveSegment>();
+        lock.readLock().lock();
+        try {
+            for (ArchiveKey key : keys) {
+                if (pending.containsKey(key) || activeIndex.containsKey(key)) {
+                    superseded.add(key);
+                }
+            }
+            for (ArchiveSegment candidate : sealed) {
+                if (candidate.getSequence() > segment.getSequence()) {
+                    newer.add(candidate);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Chiavi da verificare, per segmento e blocco
+        Map<ArchiveSegment, Map<Long, List<ArchiveKey>>> hits = new HashMap<ArchiveSegment, Map<Long, List<ArchiveKey>>>();
+        for (ArchiveKey key : keys) {
+            if (!superseded.contains(key)) {
+                for (ArchiveSegment candidate : newer) {
+                    for (long block : candidate.blocksOf(key.hash())) {
+                        hits.computeIfAbsent(candidate, s -> new HashMap<Long, List<ArchiveKey>>())
+                                .computeIfAbsent(Long.valueOf(block), o -> new ArrayList<ArchiveKey>()).add(key);
+                    }
+                }
+            }
+        }
+        Set<ArchiveKey> held = new HashSet<ArchiveKey>();
+        for (Map.Entry<ArchiveSegment, Map<Long, List<ArchiveKey>>> segmentHits : hits.entrySet()) {
+            for (Map.Entry<Long, List<ArchiveKey>> blockHits : segmentHits.getValue().entrySet()) {
+                held.clear();
+                BlockWriter.forEach(segmentHits.getKey().readBlock(blockHits.getKey().longValue()), (key, raw, from, length) -> held.add(key));
+                for (ArchiveKey key : blockHits.getValue()) {
+                    if (held.contains(key)) {
+                        superseded.add(key);
+                    }
+                }
+            }
+        }
+        return superseded;
+    }
+
+    /**
+     * <p>Replaces a sealed segment with its compacted copy, or removes it if nothing was kept</p>
+     *
+     * @param segment - the sealed segment
+     * @param compacted - the compacted copy
+     * @param empty - true if nothing was kept
+     * @throws IOException if the files cannot be moved
+     */
+    private void swap(ArchiveSegment segment, ArchiveSegment compacted, boolean empty) throws IOException {
+        lock.writeLock().lock();
+        try {
+            int position = sealed.indexOf(segment);
+            if (empty) {
+                compacted.delete();
+                segment.delete();
+                sealed.remove(position);
+            } else {
+                compacted.close();
+                segment.close();
+                File dataFile = segment.getDataFile();
+                Files.move(compacted.getDataFile().toPath(), dataFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.move(ArchiveSegment.indexFile(compacted.getDataFile()).toPath(), ArchiveSegment.indexFile(dataFile).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                ArchiveSegment reopened = new ArchiveSegment(dataFile, segment.getSequence());
+                if (!reopened.loadIndex()) {
+                    throw new IOException("Compacted index not readable: " + dataFile);
+                }
+                sealed.set(position, reopened);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if the archive is closed
+     */
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Payslip archive closed: " + directory);
+        }
+    }
+
+    /**
+     * Return the number of segments, the active one included.
+     *
+     * @return segments count
+     */
+    public int getSegmentCount() {
+        lock.readLock().lock();
+        try {
+            return sealed.size() + 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Return the archive size on disk, indexes excluded.
+     *
+     * @return data bytes
+     */
+    public long getSize() {
+        long size = 0L;
+        lock.readLock().lock();
+        try {
+            for (ArchiveSegment segment : sealed) {
+                size += segment.getSize();
+            }
+            size += active.getSize();
+        } finally {
+            lock.readLock().unlock();
+        }
+        return size;
+    }
+
+    /**
+     * Return directory value or reference.
+     *
+     * @return directory value or reference.
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * <p>Stops the compaction, writes the current block and closes the segments. The active segment stays active: it is reopened by the next
+     * start.</p>
+     *
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        if (compactor != null) {
+            compactor.shutdown();
+        }
+        synchronized (compactionLock) {
+            lock.writeLock().lock();
+            try {
+                if (!closed) {
+                    writeBlock();
+                    active.force();
+                    active.close();
+                    for (ArchiveSegment segment : sealed) {
+                        segment.close();
+                    }
+                    writer.end();
+                    closed = true;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
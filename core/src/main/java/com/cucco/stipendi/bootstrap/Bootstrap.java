@@ -0,0 +1,295 @@
+/*
+ * Bootstrap.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.bootstrap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Application bootstrap as a graph of named phases. Each phase starts as soon as the phases it depends on are completed, so independent phases
+ * run in parallel on the given executor, and its duration is recorded. The application is ready when every phase completed successfully: a
+ * failed phase fails its dependents and leaves the application not ready.</p>
+ * <p>Phases are declared with {@link #phase(String, Runnable, Phase...)} before {@link #start()}. Instances are thread safe once started.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class Bootstrap {
+
+    /**
+     * <p>Servlet context attribute under which the web bootstrap is published</p>
+     */
+    public static final String CONTEXT_ATTRIBUTE = Bootstrap.class.getName();
+
+    /**
+     * <p>Phases executor</p>
+     */
+    private final Executor executor;
+
+    /**
+     * <p>Declared phases, in declaration order</p>
+     */
+    private final List<Phase> phases = new ArrayList<Phase>();
+
+    /**
+     * <p>Completion of every phase, null until started</p>
+     */
+    private volatile CompletableFuture<Void> completion;
+
+    /**
+     * @param executor - phases executor
+     */
+    public Bootstrap(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * <p>Declares a phase.</p>
+     *
+     * @param name - phase name
+     * @param task - phase task
+     * @param dependencies - phases to be completed before this one starts
+     * @return the phase, to be used as dependency of later phases
+     * @throws IllegalStateException if the bootstrap has already been started
+     */
+    public synchronized Phase phase(String name, Runnable task, Phase... dependencies) {
+        if (completion != null) {
+            throw new IllegalStateException("Bootstrap already started");
+        }
+        Phase phase = new Phase(name, task, dependencies);
+        phases.add(phase);
+        return phase;
+    }
+
+    /**
+     * <p>Starts the phases without dependencies and chains the others.</p>
+     *
+     * @return the completion of every phase
+     */
+    public synchronized CompletableFuture<Void> start() {
+        if (completion == null) {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[phases.size()];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = phases.get(i).schedule(executor);
+            }
+            completion = CompletableFuture.allOf(futures);
+        }
+        return completion;
+    }
+
+    /**
+     * <p>Returns true if every phase completed successfully</p>
+     *
+     * @return true if ready
+     */
+    public boolean isReady() {
+        CompletableFuture<Void> current = completion;
+        return current != null && current.isDone() && !current.isCompletedExceptionally();
+    }
+
+    /**
+     * <p>Returns the phases in declaration order</p>
+     *
+     * @return unmodifiable phase list
+     */
+    public synchronized List<Phase> getPhases() {
+        return Collections.unmodifiableList(new ArrayList<Phase>(phases));
+    }
+
+    /**
+     * <p>Returns the duration of the completed phases</p>
+     *
+     * @return duration in milliseconds by phase name, in declaration order
+     */
+    public Map<String, Long> getPhaseDurations() {
+        Map<String, Long> durations = new LinkedHashMap<String, Long>();
+        for (Phase phase : getPhases()) {
+            if (phase.getState() == PhaseState.COMPLETED) {
+                durations.put(phase.getName(), Long.valueOf(phase.getDurationMillis()));
+            }
+        }
+        return durations;
+    }
+
+    /**
+     * <p>Phase execution state</p>
+     */
+    public enum PhaseState {
+        /**
+         * <p>Waiting for its dependencies</p>
+         */
+        PENDING,
+        /**
+         * <p>Running</p>
+         */
+        RUNNING,
+        /**
+         * <p>Completed successfully</p>
+         */
+        COMPLETED,
+        /**
+         * <p>Failed, or one of its dependencies failed</p>
+         */
+        FAILED
+    }
+
+    /**
+     * <p>A bootstrap phase</p>
+     */
+    public static final class Phase {
+
+        /**
+         * <p>Phase name</p>
+         */
+        private final String name;
+
+        /**
+         * <p>Phase task</p>
+         */
+        private final Runnable task;
+
+        /**
+         * <p>Phases to be completed before this one</p>
+         */
+        private final Phase[] dependencies;
+
+        /**
+         * <p>Phase completion, null until scheduled</p>
+         */
+        private volatile CompletableFuture<Void> future;
+
+        /**
+         * <p>Current state</p>
+         */
+        private volatile PhaseState state = PhaseState.PENDING;
+
+        /**
+         * <p>Start time, {@link System#nanoTime()}</p>
+         */
+        private volatile long startNanos;
+
+        /**
+         * <p>Duration, in nanoseconds</p>
+         */
+        private volatile long durationNanos;
+
+        /**
+         * <p>Failure cause, null if not failed</p>
+         */
+        private volatile Throwable failure;
+
+        /**
+         * @param name - phase name
+         * @param task - phase task
+         * @param dependencies - phases to be completed before this one
+         */
+        private Phase(String name, Runnable task, Phase[] dependencies) {
+            this.name = name;
+            this.task = task;
+            this.dependencies = dependencies.clone();
+        }
+
+        /**
+         * <p>Schedules the phase after its dependencies. Dependencies are declared, hence scheduled, before their dependents.</p>
+         *
+         * @param executor - phases executor
+         * @return the phase completion
+         */
+        private CompletableFuture<Void> schedule(Executor executor) {
+            CompletableFuture<?>[] dependencyFutures = new CompletableFuture<?>[dependencies.length];
+            for (int i = 0; i < dependencies.length; i++) {
+                dependencyFutures[i] = dependencies[i].future;
+            }
+            future = CompletableFuture.allOf(dependencyFutures).thenRunAsync(this::run, executor);
+            future.whenComplete((result, error) -> {
+                if (error != null) {
+                    state = PhaseState.FAILED;
+                    if (failure == null) {
+                        failure = error;
+                    }
+                }
+            });
+            return future;
+        }
+
+        /**
+         * <p>Runs the task, recording its duration</p>
+         */
+        private void run() {
+            state = PhaseState.RUNNING;
+            startNanos = System.nanoTime();
+            try {
+                task.run();
+                durationNanos = System.nanoTime() - startNanos;
+                state = PhaseState.COMPLETED;
+            } catch (RuntimeException | Error e) {
+                durationNanos = System.nanoTime() - startNanos;
+                failure = e;
+                state = PhaseState.FAILED;
+                throw e;
+            }
+        }
+
+        /**
+         * Return name value.
+         *
+         * @return name value.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * <p>Returns the phase completion, which fails if the phase or one of its dependencies fails</p>
+         *
+         * @return the completion, null if the bootstrap has not been started
+         */
+        public CompletableFuture<Void> getCompletion() {
+            return future;
+        }
+
+        /**
+         * Return state value.
+         *
+         * @return state value.
+         */
+        public PhaseState getState() {
+            return state;
+        }
+
+        /**
+         * <p>Returns the phase duration, the elapsed time if still running</p>
+         *
+         * @return duration in milliseconds, 0 if not started
+         */
+        public long getDurationMillis() {
+            long nanos = state == PhaseState.RUNNING ? System.nanoTime() - startNanos : durationNanos;
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+
+        /**
+         * Return failure value.
+         *
+         * @return failure value, null if not failed.
+         */
+        public Throwable getFailure() {
+            return failure;
+        }
+
+        /**
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return new StringBuilder(name).append(' ').append(state).append(' ').append(getDurationMillis()).append(" ms").toString();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * WarmUp.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.bootstrap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import com.cucco.stipendi.utility.Config;
+import com.cucco.stipendi.utility.ConfigKey;
+import com.cucco.stipendi.utility.ConfigSnapshot;
+import com.cucco.stipendi.utility.Utility;
+
+/**
+ * <p>JIT warm-up of the request hot paths: repeatedly reads the configuration through the most used getters and resolves paths, so that these
+ * methods are compiled before the node receives traffic. The registered {@link ConfigKey}s are read as typed keys and, when their text is the
+ * plain form of their value, through the primitive getter of their own type: no value is ever parsed as a type it does not hold, so the warm-up
+ * trains no exception path. Every key is read as text and as list. The reads go through a private {@link Config} publishing the same
+ * snapshot: the compiled code and the parsed values cached by the snapshot are shared, while the reads are recorded by the
+ * {@link com.cucco.stipendi.utility.ConfigMetrics} of the private instance and never reach the ones of the application.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class WarmUp {
+
+    /**
+     * <p>Default iterations, above the C2 compilation threshold</p>
+     */
+    public static final int DEFAULT_ITERATIONS = 20000;
+
+    /**
+     * <p>Maximum number of keys exercised per iteration</p>
+     */
+    private static final int MAX_KEYS = 64;
+
+    /**
+     * <p>Not instantiable</p>
+     */
+    private WarmUp() {
+    }
+
+    /**
+     * <p>Runs the warm-up.</p>
+     *
+     * @param config - the configuration
+     * @param iterations - number of iterations
+     * @return a value depending on every read, so the reads cannot be optimized away
+     */
+    public static long run(Config config, int iterations) {
+        ConfigSnapshot snapshot = config.getSnapshot();
+        Config target = new Config();
+        target.setSnapshot(snapshot);
+        List<ConfigKey<?>> typedKeys = new ArrayList<ConfigKey<?>>();
+        List<String> primitiveNames = new ArrayList<String>();
+        List<Object> primitiveSamples = new ArrayList<Object>();
+        for (ConfigKey<?> key : ConfigKey.getRegisteredKeys()) {
+            String raw = snapshot.get(key.getName());
+            if (raw != null && typedKeys.size() < MAX_KEYS) {
+                typedKeys.add(key);
+                Object value = snapshot.get(key);
+                boolean primitive = value instanceof Integer || value instanceof Long || value instanceof Double || value instanceof Boolean;
+                if (primitive && raw.trim().equals(value.toString())) {
+                    primitiveNames.add(key.getName());
+                    primitiveSamples.add(value);
+                }
+            }
+        }
+        List<String> keys = new ArrayList<String>(snapshot.keySet());
+        if (keys.size() > MAX_KEYS) {
+            keys = keys.subList(0, MAX_KEYS);
+        }
+        String[] keyArray = keys.toArray(new String[keys.size()]);
+        long result = 0L;
+        for (int i = 0; i < iterations; i++) {
+            for (ConfigKey<?> key : typedKeys) {
+                Object value = target.get(key);
+                result += value != null ? value.hashCode() : 0;
+            }
+            for (int k = 0; k < primitiveNames.size(); k++) {
+                result += readPrimitive(target, primitiveNames.get(k), primitiveSamples.get(k));
+            }
+            for (String key : keyArray) {
+                result += target.get(key, "").length();
+                LinkedList<String> list = target.get(key, (LinkedList<String>) null);
+                result += list != null ? list.size() : 0;
+                result += target.getList(key, Collections.<String> emptyList()).size();
+            }
+            result += Utility.normalizePath(Utility.replaceEnvRefereces("${configfile.path}")).length();
+        }
+        return result;
+    }
+
+    /**
+     * <p>Reads a key through the primitive getter of the type of its value.</p>
+     *
+     * @param config - the configuration
+     * @param key - key name
+     * @param sample - the typed key value, an Integer, Long, Double or Boolean
+     * @return a value depending on the read
+     */
+    private static long readPrimitive(Config config, String key, Object sample) {
+        long result;
+        if (sample instanceof Integer) {
+            result = config.get(key, 0);
+        } else if (sample instanceof Long) {
+            result = config.get(key, 0L);
+        } else if (sample instanceof Double) {
+            result = (long) config.get(key, 0.0d);
+        } else {
+            result = config.get(key, false) ? 1L : 0L;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * FrequencySketch.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.cache;
+
+/**
+ * <p>Approximate access frequency of the cache keys, the TinyLFU admission filter: a count-min sketch of 4 bit counters, 16 per
+ * <code>long</code>, four counters per key. When the number of increments reaches ten times the cache size every counter is halved, so the
+ * frequencies follow the recent popularity of the keys.</p>
+ * <p>Not thread safe: guarded by the cache lock.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+final class FrequencySketch {
+
+    /**
+     * <p>Per row hash seeds</p>
+     */
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+    /**
+     * <p>All counters but the top bit, for the halving</p>
+     */
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    /**
+     * <p>Lowest bit of every counter</p>
+     */
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    private final long[] table;
+
+    private final int tableMask;
+
+    /**
+     * <p>Increments before the halving</p>
+     */
+    private final int sampleSize;
+
+    /**
+     * <p>Increments since the last halving</p>
+     */
+    private int size;
+
+    /**
+     * @param maximumSize - cache maximum size
+     */
+    FrequencySketch(int maximumSize) {
+        int length = Integer.highestOneBit(Math.max(2, Math.min(maximumSize, 1 << 30)) - 1) << 1;
+        this.table = new long[length];
+        this.tableMask = length - 1;
+        this.sampleSize = Math.max(10, 10 * maximumSize);
+    }
+
+    /**
+     * <p>Returns the estimated frequency of the key, from 0 to 15</p>
+     *
+     * @param keyHash - key hash code
+     * @return the frequency
+     */
+    int frequency(int keyHash) {
+        int hash = spread(keyHash);
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * <p>Records an access to the key</p>
+     *
+     * @param keyHash - key hash code
+     */
+    void increment(int keyHash) {
+        int hash = spread(keyHash);
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * @param index - table index
+     * @param counter - counter inside the long, 0 to 15
+     * @return true if incremented, false if saturated
+     */
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * <p>Halves every counter</p>
+     */
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size - (odd >>> 2)) >>> 1;
+    }
+
+    /**
+     * @param hash - spread hash
+     * @param row - sketch row
+     * @return the table index
+     */
+    private int indexOf(int hash, int row) {
+        long value = (hash + SEEDS[row]) * SEEDS[row];
+        value += value >>> 32;
+        return ((int) value) & tableMask;
+    }
+
+    /**
+     * @param x - hash code
+     * @return the hash with its bits mixed
+     */
+    private static int spread(int x) {
+        int h = ((x >>> 16) ^ x) * 0x45d9f3b;
+        h = ((h >>> 16) ^ h) * 0x45d9f3b;
+        return (h >>> 16) ^ h;
+    }
+}
@@ -0,0 +1,479 @@
+/*
+ * ResultCache.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.cache;
+
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.cucco.stipendi.utility.Config;
+import com.cucco.stipendi.utility.ConfigChangeListener;
+import com.cucco.stipendi.utility.ConfigKey;
+import com.cucco.stipendi.utility.ConfigMetrics;
+
+/**
+ * <p>Bounded cache of payroll results, keyed by employee, period and version of the configuration snapshot the result was calculated with.</p>
+ * <p>Results are looked up against the version of the current snapshot, so a result calculated with a previous configuration is never returned;
+ * moreover, every configuration published by the {@link Config} (a {@link com.cucco.stipendi.utility.ParameterReader} reload) empties the cache,
+ * releasing the memory of the stale results at once: a changed configuration through its change listener, a new version with the same values at
+ * the first lookup or update that sees it. A result loaded while a new configuration is published is returned to the caller but not cached.</p>
+ * <p>The size is bounded by <code>resultCacheMaximumSize</code>. The <code>tinylfu</code> policy (default) keeps the newest results in a small LRU
+ * window, 1% of the size, and admits the results leaving the window into the main LRU only if they are requested more often than the main victim,
+ * according to a {@link FrequencySketch}: a scan of the whole company, requested once, does not flush the employees requested every day. The
+ * <code>lru</code> policy is a plain LRU. Settings are read at construction.</p>
+ * <p>With <code>resultCacheOffHeap</code> and a {@link ResultCodec}, results are stored serialized into direct buffers, outside the garbage
+ * collected heap, and decoded at every hit.</p>
+ * <p>Instances are thread safe. Lookups and updates hold a lock for a few map operations; loaders and codecs run outside the lock, so two threads
+ * missing the same key may both calculate it.</p>
+ *
+ * @param <V> the result type
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class ResultCache<V> implements ResultCacheMXBean, Closeable {
+
+    /**
+     * <p>Maximum number of cached results</p>
+     */
+    public static final ConfigKey<Integer> MAXIMUM_SIZE = ConfigKey.of("resultCacheMaximumSize", 10000);
+
+    /**
+     * <p>Eviction policy, <code>tinylfu</code> or <code>lru</code></p>
+     */
+    public static final ConfigKey<String> POLICY = ConfigKey.of("resultCachePolicy", "tinylfu");
+
+    /**
+     * <p>Store serialized results off-heap, when a codec is given</p>
+     */
+    public static final ConfigKey<Boolean> OFF_HEAP = ConfigKey.of("resultCacheOffHeap", false);
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private final Config config;
+
+    /**
+     * <p>Off-heap codec, null to keep results on heap</p>
+     */
+    private final ResultCodec<V> codec;
+
+    private final int maximumSize;
+
+    /**
+     * <p>Window size, 0 for the plain LRU</p>
+     */
+    private final int windowSize;
+
+    /**
+     * <p>New entries, access order</p>
+     */
+    private final LinkedHashMap<ResultKey, Object> window;
+
+    /**
+     * <p>Admitted entries, access order</p>
+     */
+    private final LinkedHashMap<ResultKey, Object> main;
+
+    /**
+     * <p>Access frequencies, null for the plain LRU</p>
+     */
+    private final FrequencySketch sketch;
+
+    /**
+     * <p>Guards maps and sketch</p>
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder loads = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    private final AtomicLong offHeapBytes = new AtomicLong();
+
+    /**
+     * <p>Newest configuration version seen by lookups and updates, guarded by the lock</p>
+     */
+    private long version;
+
+    /**
+     * <p>Empties the cache at every published configuration</p>
+     */
+    private final ConfigChangeListener invalidator = change -> invalidateAll();
+
+    /**
+     * @param config - configuration the results depend on
+     * @param codec - off-heap codec, null to keep results on heap anyway
+     */
+    public ResultCache(Config config, ResultCodec<V> codec) {
+        this.config = config;
+        this.codec = config.get(OFF_HEAP).booleanValue() ? codec : null;
+        this.maximumSize = Math.max(1, config.get(MAXIMUM_SIZE).intValue());
+        boolean tinyLfu = !"lru".equalsIgnoreCase(config.get(POLICY).trim());
+        this.windowSize = tinyLfu && maximumSize > 1 ? Math.max(1, maximumSize / 100) : 0;
+        this.window = new LinkedHashMap<ResultKey, Object>(16, 0.75f, true);
+        this.main = new LinkedHashMap<ResultKey, Object>(16, 0.75f, true);
+        this.sketch = tinyLfu ? new FrequencySketch(maximumSize) : null;
+        config.addPrefixChangeListener("", invalidator);
+        logger.info("Result cache: maximumSize [{}], policy [{}], offHeap [{}]", maximumSize, getPolicy(), this.codec != null);
+    }
+
+    /**
+     * <p>Returns the result for the current configuration, calculating and caching it if missing.</p>
+     *
+     * @param employeeId - employee id
+     * @param period - payroll period
+     * @param loader - calculates the missing result, may return null (not cached)
+     * @return the result
+     */
+    public V get(String employeeId, String period, Function<ResultKey, V> loader) {
+        ResultKey key = new ResultKey(employeeId, period, config.getSnapshot().getVersion());
+        V value = lookup(key);
+        if (value == null) {
+            loads.increment();
+            value = loader.apply(key);
+            if (value != null && key.getConfigVersion() == config.getSnapshot().getVersion()) {
+                store(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * <p>Returns the cached result for the current configuration.</p>
+     *
+     * @param employeeId - employee id
+     * @param period - payroll period
+     * @return the result, null if not cached
+     */
+    public V getIfPresent(String employeeId, String period) {
+        return lookup(new ResultKey(employeeId, period, config.getSnapshot().getVersion()));
+    }
+
+    /**
+     * <p>Caches a result calculated with the current configuration.</p>
+     *
+     * @param employeeId - employee id
+     * @param period - payroll period
+     * @param value - the result
+     */
+    public void put(String employeeId, String period, V value) {
+        store(new ResultKey(employeeId, period, config.getSnapshot().getVersion()), value);
+    }
+
+    /**
+     * <p>Removes the cached result of an employee, for instance after a change of the employee input data.</p>
+     *
+     * @param employeeId - employee id
+     * @param period - payroll period
+     */
+    public void invalidate(String employeeId, String period) {
+        ResultKey key = new ResultKey(employeeId, period, config.getSnapshot().getVersion());
+        lock.lock();
+        try {
+            release(window.remove(key));
+            release(main.remove(key));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <p>Removes every cached result.</p>
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            window.clear();
+            main.clear();
+            offHeapBytes.set(0L);
+        } finally {
+            lock.unlock();
+        }
+        invalidations.increment();
+    }
+
+    /**
+     * @param key - the key
+     * @return the decoded result, null if missing
+     */
+    @SuppressWarnings("unchecked")
+    private V lookup(ResultKey key) {
+        Object stored;
+        lock.lock();
+        try {
+            follow(key.getConfigVersion());
+            stored = window.get(key);
+            if (stored == null) {
+                stored = main.get(key);
+            }
+            if (sketch != null) {
+                sketch.increment(key.hashCode());
+            }
+        } finally {
+            lock.unlock();
+        }
+        V value = null;
+        if (stored == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+            if (stored instanceof ByteBuffer && codec != null) {
+                ByteBuffer buffer = ((ByteBuffer) stored).duplicate();
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                value = codec.decode(bytes);
+            } else {
+                value = (V) stored;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @param key - the key
+     * @param value - the result
+     */
+    private void store(ResultKey key, V value) {
+        Object stored = value;
+        if (codec != null) {
+            byte[] bytes = codec.encode(value);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+            buffer.put(bytes).flip();
+            stored = buffer;
+        }
+        lock.lock();
+        try {
+            if (follow(key.getConfigVersion())) {
+                release(window.remove(key));
+                release(main.remove(key));
+                account(stored);
+                if (windowSize == 0) {
+                    main.put(key, stored);
+                    if (main.size() > maximumSize) {
+                        evict(main);
+                    }
+                } else {
+                    window.put(key, stored);
+                    if (window.size() > windowSize) {
+                        admit(window);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <p>Empties the cache when the key belongs to a configuration version newer than the cached results, published without changed values
+     * and therefore without change notification. To be called holding the lock.</p>
+     *
+     * @param keyVersion - configuration version of the key
+     * @return false if the key belongs to a version older than the cached results
+     */
+    private boolean follow(long keyVersion) {
+        if (keyVersion > version) {
+            if (!window.isEmpty() || !main.isEmpty()) {
+                window.clear();
+                main.clear();
+                offHeapBytes.set(0L);
+                invalidations.increment();
+            }
+            version = keyVersion;
+        }
+        return keyVersion == version;
+    }
+
+    /**
+     * <p>Moves the eldest window entry into the main space, if the main space has room or the entry is more frequent than the main victim.</p>
+     *
+     * @param from - the window
+     */
+    private void admit(LinkedHashMap<ResultKey, Object> from) {
+        Iterator<Map.Entry<ResultKey, Object>> candidates = from.entrySet().iterator();
+        Map.Entry<ResultKey, Object> candidate = candidates.next();
+        candidates.remove();
+        if (main.size() < maximumSize - windowSize) {
+            main.put(candidate.getKey(), candidate.getValue());
+        } else {
+            ResultKey victim = main.keySet().iterator().next();
+            if (sketch.frequency(candidate.getKey().hashCode()) > sketch.frequency(victim.hashCode())) {
+                evict(main);
+                main.put(candidate.getKey(), candidate.getValue());
+            } else {
+                release(candidate.getValue());
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * <p>Removes the least recently used entry.</p>
+     *
+     * @param from - the map
+     */
+    private void evict(LinkedHashMap<ResultKey, Object> from) {
+        Iterator<Object> victims = from.values().iterator();
+        release(victims.next());
+        victims.remove();
+        evictions.increment();
+    }
+
+    /**
+     * @param stored - a stored value, may be null
+     */
+    private void account(Object stored) {
+        if (stored instanceof ByteBuffer) {
+            offHeapBytes.addAndGet(((ByteBuffer) stored).capacity());
+        }
+    }
+
+    /**
+     * @param stored - a removed value, may be null
+     */
+    private void release(Object stored) {
+        if (stored instanceof ByteBuffer) {
+            offHeapBytes.addAndGet(-((ByteBuffer) stored).capacity());
+        }
+    }
+
+    /**
+     * <p>Registers the statistics as a platform MXBean named <code>com.cucco.stipendi:type=ResultCache,name=&lt;name&gt;</code>, replacing any MXBean
+     * previously registered with the same name.</p>
+     *
+     * @param name - cache name
+     * @return the registered object name
+     * @throws JMException if the registration fails
+     */
+    public ObjectName register(String name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName(ConfigMetrics.JMX_DOMAIN + ":type=ResultCache,name=" + ObjectName.quote(name));
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+        server.registerMBean(this, objectName);
+        return objectName;
+    }
+
+    /**
+     * <p>Stops following the configuration and empties the cache. MXBeans must be unregistered with
+     * {@link ConfigMetrics#unregister(ObjectName)}.</p>
+     *
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() {
+        config.removeChangeListener(invalidator);
+        invalidateAll();
+    }
+
+    /**
+     * @see com.cucco.stipendi.cache.ResultCacheMXBean#getHitCount()
+     */
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @see com.cucco.stipendi.cache.ResultCacheMXBean#getMissCount()
+     */
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @see com.cucco.stipendi.cache.ResultCacheMXBean#getHitRate()
+     */
+    @Override
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long requests = hitCount + misses.sum();
+        return requests == 0L ? 0.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * @see com.cucco.stipendi.cache.ResultCacheMXBean#getLoadCount()
+     */
+    @Override
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    /**
+     * @see com.cucco.stipendi.cache.ResultCacheMXBean#getEvictionCount()
+     */
+    @Override
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @see com.cucco.stipendi.cache.ResultCacheMXBean#getInvalidationCount()
+     */
+    @Override
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    /**
+     * @see com.cucco.stipendi.cache.ResultCacheMXBean#getSize()
+     */
+    @Override
+    public long getSize() {
+        long size;
+        lock.lock();
+        try {
+            size = window.size() + main.size();
+        } finally {
+            lock.unlock();
+        }
+        return size;
+    }
+
+    /**
+     * @see com.cucco.stipendi.cache.ResultCacheMXBean#getMaximumSize()
+     */
+    @Override
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * @see com.cucco.stipendi.cache.ResultCacheMXBean#getOffHeapBytes()
+     */
+    @Override
+    public long getOffHeapBytes() {
+        return offHeapBytes.get();
+    }
+
+    /**
+     * @see com.cucco.stipendi.cache.ResultCacheMXBean#getPolicy()
+     */
+    @Override
+    public String getPolicy() {
+        return sketch != null ? "tinylfu" : "lru";
+    }
+}
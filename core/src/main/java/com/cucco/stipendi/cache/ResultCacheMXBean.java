@@ -0,0 +1,84 @@
+/*
+ * ResultCacheMXBean.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.cache;
+
+/**
+ * <p>JMX view of the statistics of a {@link ResultCache}, for tuning its size and policy.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public interface ResultCacheMXBean {
+
+    /**
+     * Return the number of requests served by the cache.
+     *
+     * @return hits count
+     */
+    long getHitCount();
+
+    /**
+     * Return the number of requests not found into the cache.
+     *
+     * @return misses count
+     */
+    long getMissCount();
+
+    /**
+     * Return the ratio of the requests served by the cache.
+     *
+     * @return hits over requests, 0 without requests
+     */
+    double getHitRate();
+
+    /**
+     * Return the number of results calculated by the loader.
+     *
+     * @return loads count
+     */
+    long getLoadCount();
+
+    /**
+     * Return the number of entries removed or rejected to respect the maximum size.
+     *
+     * @return evictions count
+     */
+    long getEvictionCount();
+
+    /**
+     * Return the number of full invalidations, one per published configuration.
+     *
+     * @return invalidations count
+     */
+    long getInvalidationCount();
+
+    /**
+     * Return the number of cached results.
+     *
+     * @return entries count
+     */
+    long getSize();
+
+    /**
+     * Return the maximum number of cached results.
+     *
+     * @return maximum size
+     */
+    long getMaximumSize();
+
+    /**
+     * Return the bytes of the results stored off-heap.
+     *
+     * @return off-heap bytes, 0 if results are kept on heap
+     */
+    long getOffHeapBytes();
+
+    /**
+     * Return the eviction policy.
+     *
+     * @return <code>tinylfu</code> or <code>lru</code>
+     */
+    String getPolicy();
+}
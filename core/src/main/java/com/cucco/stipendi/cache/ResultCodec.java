@@ -0,0 +1,72 @@
+/*
+ * ResultCodec.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+
+/**
+ * <p>Serializes the results kept off-heap by a {@link ResultCache}.</p>
+ *
+ * @param <V> the result type
+ * @author giovanni -- Auriga S.p.A.
+ */
+public interface ResultCodec<V> {
+
+    /**
+     * <p>Serializes a result</p>
+     *
+     * @param value - the result
+     * @return the bytes
+     */
+    byte[] encode(V value);
+
+    /**
+     * <p>Deserializes a result</p>
+     *
+     * @param bytes - the bytes
+     * @return the result
+     */
+    V decode(byte[] bytes);
+
+    /**
+     * <p>Returns a codec based on the Java serialization, a simple default; a hand written codec is far more compact and faster.</p>
+     *
+     * @return the codec
+     */
+    static <V extends Serializable> ResultCodec<V> serialization() {
+        return new ResultCodec<V>() {
+
+            @Override
+            public byte[] encode(V value) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+                try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                    out.writeObject(value);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return bytes.toByteArray();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public V decode(byte[] bytes) {
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return (V) in.readObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+}
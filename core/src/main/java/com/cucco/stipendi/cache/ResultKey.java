@@ -0,0 +1,98 @@
+/*
+ * ResultKey.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.cache;
+
+/**
+ * <p>Key of a cached payroll result: employee, period and the version of the configuration snapshot the result was calculated with. A result is
+ * never served for a configuration other than its own.</p>
+ * <p>Instances are immutable and thread safe.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class ResultKey {
+
+    private final String employeeId;
+
+    private final String period;
+
+    private final long configVersion;
+
+    /**
+     * <p>Precomputed hash code</p>
+     */
+    private final int hash;
+
+    /**
+     * @param employeeId - employee id
+     * @param period - payroll period
+     * @param configVersion - configuration snapshot version
+     */
+    public ResultKey(String employeeId, String period, long configVersion) {
+        this.employeeId = employeeId;
+        this.period = period;
+        this.configVersion = configVersion;
+        this.hash = (31 * employeeId.hashCode() + period.hashCode()) * 31 + Long.hashCode(configVersion);
+    }
+
+    /**
+     * Return employeeId value or reference.
+     *
+     * @return employeeId value or reference.
+     */
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    /**
+     * Return period value or reference.
+     *
+     * @return period value or reference.
+     */
+    public String getPeriod() {
+        return period;
+    }
+
+    /**
+     * Return configVersion value.
+     *
+     * @return configVersion value.
+     */
+    public long getConfigVersion() {
+        return configVersion;
+    }
+
+    /**
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ResultKey)) {
+            return false;
+        }
+        ResultKey other = (ResultKey) obj;
+        return hash == other.hash && configVersion == other.configVersion && employeeId.equals(other.employeeId) && period.equals(other.period);
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder("ResultKey [employeeId=").append(employeeId).append(", period=").append(period).append(", configVersion=")
+                .append(configVersion).append(']').toString();
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * CsvExportSourceFactory.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.export;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.cucco.stipendi.importer.CsvBatch;
+import com.cucco.stipendi.importer.CsvImportSettings;
+import com.cucco.stipendi.importer.CsvImporter;
+import com.cucco.stipendi.payroll.GrossToNetCalculator;
+import com.cucco.stipendi.utility.Config;
+import com.cucco.stipendi.utility.ConfigKey;
+import com.cucco.stipendi.utility.Utility;
+
+/**
+ * <p>Opens the payroll of a period from the CSV file <code>&lt;period&gt;.csv</code> of the {@link #DIRECTORY} directory, imported with the
+ * {@link CsvImporter} settings named {@link #IMPORT_NAME}. The columns <code>employeeId</code>, <code>name</code>, <code>iban</code> and
+ * <code>gross</code> must be mapped, <code>municipality</code> is optional. Example:</p>
+ *
+ * <pre>
+ * exportPayrollDirectory=${configfile.path}/payroll
+ * import.payroll.columns=employeeId:MATRICOLA,name:NOMINATIVO,iban:IBAN,gross:LORDO,municipality:COMUNE
+ * </pre>
+ * <p>The master data and the gross amounts are kept in arrays, in file order; the amounts are calculated on request by a
+ * {@link GrossToNetCalculator} on the current tax tables, through a {@link PayrollExportSource}.</p>
+ * <p>Thread safe: each period is read on its own.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class CsvExportSourceFactory implements ExportSourceFactory {
+
+    /**
+     * <p>Directory of the period files, empty if there are none</p>
+     */
+    public static final ConfigKey<String> DIRECTORY = ConfigKey.of("exportPayrollDirectory", "");
+
+    /**
+     * <p>Name of the import settings of the period files</p>
+     */
+    public static final String IMPORT_NAME = "payroll";
+
+    /**
+     * <p>Configuration holding the directory, the import settings and the tax tables</p>
+     */
+    private final Config config;
+
+    /**
+     * @param config - configuration holding the directory, the import settings and the tax tables
+     */
+    public CsvExportSourceFactory(Config config) {
+        this.config = config;
+    }
+
+    /**
+     * @see com.cucco.stipendi.export.ExportSourceFactory#open(java.lang.String)
+     */
+    @Override
+    public ExportSource open(String period) throws IOException {
+        String directory = config.get(DIRECTORY);
+        if (directory.trim().isEmpty()) {
+            return null;
+        }
+        File file = new File(Utility.replaceEnvRefereces(directory.trim()), period + ".csv");
+        if (!file.isFile()) {
+            return null;
+        }
+        List<Part> parts = Collections.synchronizedList(new ArrayList<Part>());
+        new CsvImporter(CsvImportSettings.from(config, IMPORT_NAME)).importFile(file, batch -> parts.add(new Part(batch)));
+        // i batch arrivano in ordine sparso dai thread di parsing: si riordinano per posizione nel file
+        parts.sort((a, b) -> Long.compare(a.offset, b.offset));
+        int size = 0;
+        for (Part part : parts) {
+            size += part.employeeIds.length;
+        }
+        String[] employeeIds = new String[size];
+        String[] names = new String[size];
+        String[] ibans = new String[size];
+        String[] municipalities = new String[size];
+        long[] gross = new long[size];
+        int index = 0;
+        for (Part part : parts) {
+            int length = part.employeeIds.length;
+            System.arraycopy(part.employeeIds, 0, employeeIds, index, length);
+            System.arraycopy(part.names, 0, names, index, length);
+            System.arraycopy(part.ibans, 0, ibans, index, length);
+            System.arraycopy(part.municipalities, 0, municipalities, index, length);
+            System.arraycopy(part.gross, 0, gross, index, length);
+            index += length;
+        }
+        return new PayrollExportSource(employeeIds, names, ibans, new GrossToNetCalculator(config, gross, municipalities, null));
+    }
+
+    /**
+     * <p>Records of a batch, copied out of the reused batch</p>
+     */
+    private static final class Part {
+
+        /**
+         * <p>File offset of the first record</p>
+         */
+        private final long offset;
+
+        private final String[] employeeIds;
+
+        private final String[] names;
+
+        private final String[] ibans;
+
+        private final String[] municipalities;
+
+        private final long[] gross;
+
+        /**
+         * @param batch - the parsed records
+         * @throws IOException if a required column is not mapped
+         * @throws NumberFormatException if a gross amount is not a number
+         */
+        private Part(CsvBatch batch) throws IOException {
+            int employeeId = required(batch, "employeeId");
+            int name = required(batch, "name");
+            int iban = required(batch, "iban");
+            int grossColumn = required(batch, "gross");
+            int municipality = batch.column("municipality");
+            int size = batch.size();
+            offset = size == 0 ? Long.MAX_VALUE : batch.offset(0);
+            employeeIds = new String[size];
+            names = new String[size];
+            ibans = new String[size];
+            municipalities = new String[size];
+            gross = new long[size];
+            for (int i = 0; i < size; i++) {
+                employeeIds[i] = batch.getString(i, employeeId);
+                names[i] = batch.getString(i, name);
+                ibans[i] = batch.getString(i, iban);
+                municipalities[i] = municipality < 0 || batch.isEmpty(i, municipality) ? null : batch.getString(i, municipality);
+                gross[i] = batch.getCents(i, grossColumn, 0L);
+            }
+        }
+
+        /**
+         * @param batch - the parsed records
+         * @param name - mapped column name
+         * @return the column index
+         * @throws IOException if the column is not mapped
+         */
+        private static int required(CsvBatch batch, String name) throws IOException {
+            int column = batch.column(name);
+            if (column < 0) {
+                throw new IOException("Column [" + name + "] not mapped by " + CsvImportSettings.KEY_PREFIX + IMPORT_NAME + ".columns");
+            }
+            return column;
+        }
+    }
+}
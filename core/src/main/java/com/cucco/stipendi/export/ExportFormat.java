@@ -0,0 +1,402 @@
+/*
+ * ExportFormat.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.export;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * <p>Export formats. Each format writes its header, one record and its footer into a reused {@link StringBuilder}; {@link ExportStream} encodes
+ * them to bytes as the client reads.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public enum ExportFormat {
+
+    /**
+     * <p>Payslip CSV, semicolon separated, comma as decimal separator</p>
+     */
+    CSV("text/csv; charset=utf-8", "csv") {
+
+        @Override
+        void header(ExportHeader header, int size, long totalNet, StringBuilder line) {
+            line.append("matricola;nominativo;iban;lordo;contributi;imponibile;imposte;netto").append(CRLF);
+        }
+
+        @Override
+        void record(ExportHeader header, ExportRecord record, StringBuilder line) {
+            appendCsv(line, record.getEmployeeId()).append(';');
+            appendCsv(line, record.getName()).append(';');
+            appendCsv(line, record.getIban()).append(';');
+            appendAmount(line, record.getGross(), ',').append(';');
+            appendAmount(line, record.getContributions(), ',').append(';');
+            appendAmount(line, record.getTaxable(), ',').append(';');
+            appendAmount(line, record.getTax(), ',').append(';');
+            appendAmount(line, record.getNet(), ',').append(CRLF);
+        }
+
+        @Override
+        void footer(int count, long totalNet, StringBuilder line) {
+            // nessun piede
+        }
+    },
+
+    /**
+     * <p>Fixed width ledger: header, detail and trailer lines of 120 characters, amounts in cents zero padded. A count or an amount wider than its
+     * field fails the export, since truncating it would silently change the value.</p>
+     */
+    LEDGER("text/plain; charset=utf-8", "txt") {
+
+        @Override
+        void header(ExportHeader header, int size, long totalNet, StringBuilder line) {
+            line.append('H');
+            padRight(line, header.getPeriod(), 7);
+            padRight(line, header.getDebtorName(), 40);
+            padLeft(line, Integer.toString(size), 9, '0');
+            padRight(line, "", 63).append(CRLF);
+        }
+
+        @Override
+        void record(ExportHeader header, ExportRecord record, StringBuilder line) {
+            line.append('D');
+            padRight(line, record.getEmployeeId(), 10);
+            padRight(line, record.getName(), 34);
+            padLeft(line, record.getGross(), 15);
+            padLeft(line, record.getContributions(), 15);
+            padLeft(line, record.getTaxable(), 15);
+            padLeft(line, record.getTax(), 15);
+            padLeft(line, record.getNet(), 15).append(CRLF);
+        }
+
+        @Override
+        void footer(int count, long totalNet, StringBuilder line) {
+            line.append('T');
+            padLeft(line, Integer.toString(count), 9, '0');
+            padLeft(line, totalNet, 15);
+            padRight(line, "", 95).append(CRLF);
+        }
+    },
+
+    /**
+     * <p>SEPA credit transfer initiation, ISO 20022 <code>pain.001.001.03</code>, one transfer per employee for the net amount. Employees without
+     * IBAN or with a net amount not positive are left out; names and ids are truncated to the lengths allowed by the schema.</p>
+     */
+    SEPA("application/xml; charset=utf-8", "xml") {
+
+        @Override
+        void header(ExportHeader header, int size, long totalNet, StringBuilder line) {
+            line.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>").append(CRLF);
+            line.append("<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:pain.001.001.03\"><CstmrCdtTrfInitn>").append(CRLF);
+            line.append("<GrpHdr><MsgId>");
+            appendXml(line, header.getMessageId(), MAX_ID_LENGTH).append("</MsgId><CreDtTm>")
+                    .append(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(header.getCreationTime())).append("</CreDtTm><NbOfTxs>").append(size)
+                    .append("</NbOfTxs><CtrlSum>");
+            appendAmount(line, totalNet, '.').append("</CtrlSum><InitgPty><Nm>");
+            appendXml(line, header.getDebtorName(), MAX_NAME_LENGTH).append("</Nm></InitgPty></GrpHdr>").append(CRLF);
+            line.append("<PmtInf><PmtInfId>");
+            appendXml(line, header.getMessageId(), MAX_ID_LENGTH).append("</PmtInfId><PmtMtd>TRF</PmtMtd><NbOfTxs>").append(size)
+                    .append("</NbOfTxs><CtrlSum>");
+            appendAmount(line, totalNet, '.').append("</CtrlSum><PmtTpInf><SvcLvl><Cd>SEPA</Cd></SvcLvl><CtgyPurp><Cd>SALA</Cd></CtgyPurp></PmtTpInf><ReqdExctnDt>")
+                    .append(DateTimeFormatter.ISO_LOCAL_DATE.format(header.getExecutionDate())).append("</ReqdExctnDt><Dbtr><Nm>");
+            appendXml(line, header.getDebtorName(), MAX_NAME_LENGTH).append("</Nm></Dbtr><DbtrAcct><Id><IBAN>");
+            appendXml(line, header.getDebtorIban())
+                    .append("</IBAN></Id></DbtrAcct><DbtrAgt><FinInstnId><Othr><Id>NOTPROVIDED</Id></Othr></FinInstnId></DbtrAgt><ChrgBr>SLEV</ChrgBr>")
+                    .append(CRLF);
+        }
+
+        @Override
+        void record(ExportHeader header, ExportRecord record, StringBuilder line) {
+            line.append("<CdtTrfTxInf><PmtId><EndToEndId>");
+            appendXml(line, record.getEmployeeId(), MAX_ID_LENGTH).append("</EndToEndId></PmtId><Amt><InstdAmt Ccy=\"EUR\">");
+            appendAmount(line, record.getNet(), '.').append("</InstdAmt></Amt><Cdtr><Nm>");
+            appendXml(line, record.getName(), MAX_NAME_LENGTH).append("</Nm></Cdtr><CdtrAcct><Id><IBAN>");
+            appendXml(line, record.getIban()).append("</IBAN></Id></CdtrAcct><RmtInf><Ustrd>");
+            appendXml(line.append("Stipendio "), header.getPeriod()).append("</Ustrd></RmtInf></CdtTrfTxInf>").append(CRLF);
+        }
+
+        @Override
+        void footer(int count, long totalNet, StringBuilder line) {
+            line.append("</PmtInf></CstmrCdtTrfInitn></Document>").append(CRLF);
+        }
+
+        @Override
+        boolean declaresTotals() {
+            return true;
+        }
+
+        @Override
+        boolean accepts(ExportRecord record) {
+            return record.getNet() > 0L && record.getIban() != null && !record.getIban().trim().isEmpty();
+        }
+    };
+
+    /**
+     * <p>Line terminator</p>
+     */
+    private static final String CRLF = "\r\n";
+
+    /**
+     * <p>Maximum length of the SEPA identifiers (<code>Max35Text</code>)</p>
+     */
+    private static final int MAX_ID_LENGTH = 35;
+
+    /**
+     * <p>Maximum length of the SEPA names (<code>Max70Text</code>)</p>
+     */
+    private static final int MAX_NAME_LENGTH = 70;
+
+    /**
+     * <p>Content type</p>
+     */
+    private final String contentType;
+
+    /**
+     * <p>File name extension</p>
+     */
+    private final String extension;
+
+    /**
+     * @param contentType - content type
+     * @param extension - file name extension
+     */
+    private ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * <p>Writes the header</p>
+     *
+     * @param header - export data
+     * @param size - number of records
+     * @param totalNet - net amounts sum of the records, in cents, 0 if the format does not {@link #declaresTotals() declare the totals}
+     * @param line - output
+     * @throws IllegalArgumentException if a value does not fit its field
+     */
+    abstract void header(ExportHeader header, int size, long totalNet, StringBuilder line);
+
+    /**
+     * <p>Writes a record</p>
+     *
+     * @param header - export data
+     * @param record - the record
+     * @param line - output
+     * @throws IllegalArgumentException if a value does not fit its field
+     */
+    abstract void record(ExportHeader header, ExportRecord record, StringBuilder line);
+
+    /**
+     * <p>Writes the footer</p>
+     *
+     * @param count - records written
+     * @param totalNet - net amounts sum, in cents
+     * @param line - output
+     * @throws IllegalArgumentException if a value does not fit its field
+     */
+    abstract void footer(int count, long totalNet, StringBuilder line);
+
+    /**
+     * <p>Tells whether the header declares the count and the sum of the records actually written, so the records must be read once before</p>
+     *
+     * @return true if the header needs the totals
+     */
+    boolean declaresTotals() {
+        return false;
+    }
+
+    /**
+     * <p>Tells whether the record is written, by default all of them</p>
+     *
+     * @param record - the record
+     * @return false to leave the record out
+     */
+    boolean accepts(ExportRecord record) {
+        return true;
+    }
+
+    /**
+     * Return contentType value or reference.
+     *
+     * @return contentType value or reference.
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Return extension value or reference.
+     *
+     * @return extension value or reference.
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * <p>Returns the format with the given name, case insensitive</p>
+     *
+     * @param name - format name
+     * @return the format, null if unknown
+     */
+    public static ExportFormat forName(String name) {
+        ExportFormat result = null;
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                result = format;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * <p>Appends an amount in cents as a decimal number, without allocation</p>
+     *
+     * @param line - output
+     * @param cents - amount
+     * @param separator - decimal separator
+     * @return the output
+     */
+    static StringBuilder appendAmount(StringBuilder line, long cents, char separator) {
+        long abs = Math.abs(cents);
+        if (cents < 0L) {
+            line.append('-');
+        }
+        long fraction = abs % 100L;
+        return line.append(abs / 100L).append(separator).append((char) ('0' + fraction / 10L)).append((char) ('0' + fraction % 10L));
+    }
+
+    /**
+     * @param line - output
+     * @param value - text field, may be null
+     * @return the output
+     */
+    private static StringBuilder appendCsv(StringBuilder line, String value) {
+        if (value != null) {
+            if (value.indexOf(';') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                line.append('"');
+                for (int i = 0; i < value.length(); i++) {
+                    char c = value.charAt(i);
+                    line.append(c);
+                    if (c == '"') {
+                        line.append('"');
+                    }
+                }
+                line.append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        return line;
+    }
+
+    /**
+     * @param line - output
+     * @param value - text, may be null
+     * @return the output
+     */
+    private static StringBuilder appendXml(StringBuilder line, String value) {
+        return appendXml(line, value, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param line - output
+     * @param value - text, truncated to the maximum length before escaping, may be null
+     * @param maxLength - maximum length, in characters
+     * @return the output
+     */
+    private static StringBuilder appendXml(StringBuilder line, String value, int maxLength) {
+        if (value != null) {
+            int length = Math.min(value.length(), maxLength);
+            if (length < value.length() && Character.isHighSurrogate(value.charAt(length - 1))) {
+                // non si spezza una coppia surrogata
+                length--;
+            }
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                case '<':
+                    line.append("&lt;");
+                    break;
+                case '>':
+                    line.append("&gt;");
+                    break;
+                case '&':
+                    line.append("&amp;");
+                    break;
+                case '"':
+                    line.append("&quot;");
+                    break;
+                case '\'':
+                    line.append("&apos;");
+                    break;
+                default:
+                    line.append(c);
+                }
+            }
+        }
+        return line;
+    }
+
+    /**
+     * @param line - output
+     * @param value - text, truncated to the width, may be null
+     * @param width - field width
+     * @return the output
+     */
+    private static StringBuilder padRight(StringBuilder line, String value, int width) {
+        int length = value == null ? 0 : Math.min(value.length(), width);
+        if (length > 0) {
+            line.append(value, 0, length);
+        }
+        for (int i = length; i < width; i++) {
+            line.append(' ');
+        }
+        return line;
+    }
+
+    /**
+     * @param line - output
+     * @param value - digits
+     * @param width - field width
+     * @param pad - padding character
+     * @return the output
+     * @throws IllegalArgumentException if the value is wider than the field
+     */
+    private static StringBuilder padLeft(StringBuilder line, String value, int width, char pad) {
+        if (value.length() > width) {
+            throw new IllegalArgumentException("Value [" + value + "] wider than its " + width + " characters field");
+        }
+        for (int i = value.length(); i < width; i++) {
+            line.append(pad);
+        }
+        return line.append(value);
+    }
+
+    /**
+     * <p>Appends a signed amount in cents, zero padded, sign in the first position, without allocation</p>
+     *
+     * @param line - output
+     * @param cents - amount
+     * @param width - field width, sign included
+     * @return the output
+     * @throws IllegalArgumentException if the amount has more digits than the field holds
+     */
+    private static StringBuilder padLeft(StringBuilder line, long cents, int width) {
+        // Long.MIN_VALUE non ha valore assoluto, e comunque non entra in nessun campo
+        long abs = cents == Long.MIN_VALUE ? Long.MAX_VALUE : Math.abs(cents);
+        int digits = 1;
+        for (long rest = abs / 10L; rest > 0L; rest /= 10L) {
+            digits++;
+        }
+        if (cents == Long.MIN_VALUE || digits > width - 1) {
+            throw new IllegalArgumentException("Amount [" + cents + "] wider than its " + width + " characters field");
+        }
+        line.append(cents < 0L ? '-' : '+');
+        for (int i = digits; i < width - 1; i++) {
+            line.append('0');
+        }
+        return line.append(abs);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * ExportHeader.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.export;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * <p>Export wide data written in the header of the formats: period, ordering company and SEPA message identification.</p>
+ * <p>Instances are immutable and thread safe.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class ExportHeader {
+
+    private final String period;
+
+    private final String messageId;
+
+    private final LocalDateTime creationTime;
+
+    private final LocalDate executionDate;
+
+    private final String debtorName;
+
+    private final String debtorIban;
+
+    /**
+     * @param period - payroll period, <code>yyyy-MM</code>
+     * @param messageId - unique message id, at most 35 characters
+     * @param creationTime - creation time
+     * @param executionDate - requested credit transfer date
+     * @param debtorName - ordering company name
+     * @param debtorIban - ordering company account
+     */
+    public ExportHeader(String period, String messageId, LocalDateTime creationTime, LocalDate executionDate, String debtorName, String debtorIban) {
+        this.period = period;
+        this.messageId = messageId;
+        this.creationTime = creationTime;
+        this.executionDate = executionDate;
+        this.debtorName = debtorName;
+        this.debtorIban = debtorIban;
+    }
+
+    /**
+     * Return period value or reference.
+     *
+     * @return period value or reference.
+     */
+    public String getPeriod() {
+        return period;
+    }
+
+    /**
+     * Return messageId value or reference.
+     *
+     * @return messageId value or reference.
+     */
+    public String getMessageId() {
+        return messageId;
+    }
+
+    /**
+     * Return creationTime value or reference.
+     *
+     * @return creationTime value or reference.
+     */
+    public LocalDateTime getCreationTime() {
+        return creationTime;
+    }
+
+    /**
+     * Return executionDate value or reference.
+     *
+     * @return executionDate value or reference.
+     */
+    public LocalDate getExecutionDate() {
+        return executionDate;
+    }
+
+    /**
+     * Return debtorName value or reference.
+     *
+     * @return debtorName value or reference.
+     */
+    public String getDebtorName() {
+        return debtorName;
+    }
+
+    /**
+     * Return debtorIban value or reference.
+     *
+     * @return debtorIban value or reference.
+     */
+    public String getDebtorIban() {
+        return debtorIban;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * ExportRecord.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.export;
+
+/**
+ * <p>One exported employee: master data and payslip amounts, in cents.</p>
+ * <p>A single instance is filled by the {@link ExportSource} for each record and reused for the whole export, so the export allocates nothing per
+ * employee.</p>
+ * <p>Not thread safe.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class ExportRecord {
+
+    private String employeeId;
+
+    private String name;
+
+    private String iban;
+
+    private long gross;
+
+    private long contributions;
+
+    private long taxable;
+
+    private long tax;
+
+    private long net;
+
+    /**
+     * Return employeeId value or reference.
+     *
+     * @return employeeId value or reference.
+     */
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    /**
+     * Set employeeId value or reference.
+     *
+     * @param employeeId - employeeId value or reference.
+     */
+    public void setEmployeeId(String employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    /**
+     * Return name value or reference.
+     *
+     * @return name value or reference.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Set name value or reference.
+     *
+     * @param name - name value or reference.
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Return iban value or reference.
+     *
+     * @return iban value or reference.
+     */
+    public String getIban() {
+        return iban;
+    }
+
+    /**
+     * Set iban value or reference.
+     *
+     * @param iban - iban value or reference.
+     */
+    public void setIban(String iban) {
+        this.iban = iban;
+    }
+
+    /**
+     * Return gross value.
+     *
+     * @return gross value.
+     */
+    public long getGross() {
+        return gross;
+    }
+
+    /**
+     * Set gross value.
+     *
+     * @param gross - gross value, in cents
+     */
+    public void setGross(long gross) {
+        this.gross = gross;
+    }
+
+    /**
+     * Return contributions value.
+     *
+     * @return contributions value.
+     */
+    public long getContributions() {
+        return contributions;
+    }
+
+    /**
+     * Set contributions value.
+     *
+     * @param contributions - contributions value, in cents
+     */
+    public void setContributions(long contributions) {
+        this.contributions = contributions;
+    }
+
+    /**
+     * Return taxable value.
+     *
+     * @return taxable value.
+     */
+    public long getTaxable() {
+        return taxable;
+    }
+
+    /**
+     * Set taxable value.
+     *
+     * @param taxable - taxable value, in cents
+     */
+    public void setTaxable(long taxable) {
+        this.taxable = taxable;
+    }
+
+    /**
+     * Return tax value.
+     *
+     * @return tax value.
+     */
+    public long getTax() {
+        return tax;
+    }
+
+    /**
+     * Set tax value.
+     *
+     * @param tax - tax value, in cents
+     */
+    public void setTax(long tax) {
+        this.tax = tax;
+    }
+
+    /**
+     * Return net value.
+     *
+     * @return net value.
+     */
+    public long getNet() {
+        return net;
+    }
+
+    /**
+     * Set net value.
+     *
+     * @param net - net value, in cents
+     */
+    public void setNet(long net) {
+        this.net = net;
+    }
+}
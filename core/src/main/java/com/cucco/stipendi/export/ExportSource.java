@@ -0,0 +1,44 @@
+/*
+ * ExportSource.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * <p>Cursor over the records of an export. Records are pulled one at a time by {@link ExportStream}, only when the client can accept more data,
+ * so a source should produce them lazily (reading or calculating each employee on request) rather than loading the whole period.</p>
+ * <p>Not thread safe: used by one export at a time.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public interface ExportSource extends Closeable {
+
+    /**
+     * <p>Returns the number of records, written by the ledger header before the records.</p>
+     *
+     * @return records count
+     */
+    int size();
+
+    /**
+     * <p>Returns a new cursor over the same records, from the first. Formats declaring the count and the sum of the transactions before them,
+     * such as SEPA, read the records twice.</p>
+     *
+     * @return the new source, to be closed by the caller
+     * @throws IOException if the records cannot be read again
+     */
+    ExportSource reopen() throws IOException;
+
+    /**
+     * <p>Fills the next record.</p>
+     *
+     * @param record - the record to fill
+     * @return false when there are no more records
+     * @throws IOException if the record cannot be read
+     */
+    boolean next(ExportRecord record) throws IOException;
+}
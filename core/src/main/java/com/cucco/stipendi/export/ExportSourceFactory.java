@@ -0,0 +1,31 @@
+/*
+ * ExportSourceFactory.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.export;
+
+import java.io.IOException;
+
+/**
+ * <p>Opens the export sources of a period. The application publishes its factory into the servlet context under {@link #CONTEXT_ATTRIBUTE}.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@FunctionalInterface
+public interface ExportSourceFactory {
+
+    /**
+     * <p>Servlet context attribute holding the factory</p>
+     */
+    String CONTEXT_ATTRIBUTE = ExportSourceFactory.class.getName();
+
+    /**
+     * <p>Opens the records of a period</p>
+     *
+     * @param period - payroll period, <code>yyyy-MM</code>
+     * @return the source, null if the period has no payroll
+     * @throws IOException if the source cannot be opened
+     */
+    ExportSource open(String period) throws IOException;
+}
@@ -0,0 +1,319 @@
+/*
+ * ExportStream.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * <p>Pull based encoder of an export: each {@link #next()} call produces at most one buffer of bytes, pulling from the {@link ExportSource} only the
+ * records needed to fill it. The caller writes the buffer out when the client is ready to accept it and then asks for the next one, so memory
+ * stays bounded by the buffer size whatever the number of records.</p>
+ * <p>With gzip enabled the bytes are compressed on the fly with a {@link Deflater} into the gzip container (RFC 1952); header and trailer are
+ * written by hand, so compression needs no stream and no intermediate copy.</p>
+ * <p>The buffers, the line builder and the record are reused for the whole export: encoding a record allocates nothing. Formats declaring the
+ * totals in the header, such as SEPA, first read the records through {@link ExportSource#reopen()} to count and sum the records they accept.</p>
+ * <p>Not thread safe: driven by one thread at a time, such as the container thread calling a {@link javax.servlet.WriteListener}.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class ExportStream implements Closeable {
+
+    /**
+     * <p>gzip header: magic, deflate method, no flags, no time, no extra flags, unknown OS</p>
+     */
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+    /**
+     * <p>gzip trailer length: CRC32 and input size</p>
+     */
+    private static final int GZIP_TRAILER_LENGTH = 8;
+
+    /**
+     * <p>Encoding stages</p>
+     */
+    private enum Stage {
+        HEADER, RECORDS, FOOTER, END
+    }
+
+    private final ExportFormat format;
+
+    private final ExportHeader header;
+
+    private final ExportSource source;
+
+    private final ExportRecord record = new ExportRecord();
+
+    private final StringBuilder line = new StringBuilder(256);
+
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+    /**
+     * <p>Characters of the current line not yet encoded</p>
+     */
+    private CharBuffer pending = CharBuffer.allocate(256);
+
+    /**
+     * <p>Encoded bytes</p>
+     */
+    private final ByteBuffer plain;
+
+    /**
+     * <p>Compressed bytes, null without gzip</p>
+     */
+    private final ByteBuffer compressed;
+
+    private final Deflater deflater;
+
+    private final CRC32 crc;
+
+    private Stage stage = Stage.HEADER;
+
+    private int count;
+
+    private long totalNet;
+
+    /**
+     * <p>Records declared by the header of a format with totals, -1 otherwise</p>
+     */
+    private int declaredCount = -1;
+
+    /**
+     * <p>Net amounts sum declared by the header of a format with totals</p>
+     */
+    private long declaredNet;
+
+    private boolean headerWritten;
+
+    private boolean trailerWritten;
+
+    /**
+     * @param format - export format
+     * @param header - export data
+     * @param source - records, closed by {@link #close()}
+     * @param bufferSize - size of the buffers returned by {@link #next()}
+     * @param gzip - true to compress
+     */
+    public ExportStream(ExportFormat format, ExportHeader header, ExportSource source, int bufferSize, boolean gzip) {
+        this.format = format;
+        this.header = header;
+        this.source = source;
+        this.plain = ByteBuffer.allocate(bufferSize);
+        this.pending.flip();
+        if (gzip) {
+            this.compressed = ByteBuffer.allocate(Math.max(bufferSize, GZIP_HEADER.length + GZIP_TRAILER_LENGTH));
+            this.deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            this.crc = new CRC32();
+        } else {
+            this.compressed = null;
+            this.deflater = null;
+            this.crc = null;
+        }
+    }
+
+    /**
+     * <p>Returns the next bytes of the export. The buffer is owned by the stream and is overwritten by the next call: write it out first.</p>
+     *
+     * @return a buffer ready to be read, never empty; null at the end of the export
+     * @throws IOException if the source fails
+     */
+    public ByteBuffer next() throws IOException {
+        ByteBuffer result;
+        if (compressed == null) {
+            fillPlain();
+            result = plain;
+        } else {
+            fillCompressed();
+            result = compressed;
+        }
+        return result.hasRemaining() ? result : null;
+    }
+
+    /**
+     * <p>Fills the plain buffer with the encoded records and flips it</p>
+     *
+     * @throws IOException if the source fails
+     */
+    private void fillPlain() throws IOException {
+        plain.clear();
+        while (plain.hasRemaining()) {
+            if (pending.hasRemaining()) {
+                CoderResult result = encoder.encode(pending, plain, false);
+                if (result.isOverflow()) {
+                    break;
+                }
+            } else if (!nextLine()) {
+                break;
+            }
+        }
+        plain.flip();
+    }
+
+    /**
+     * <p>Fills the compressed buffer deflating the plain bytes and flips it</p>
+     *
+     * @throws IOException if the source fails
+     */
+    private void fillCompressed() throws IOException {
+        compressed.clear();
+        if (!headerWritten) {
+            compressed.put(GZIP_HEADER);
+            headerWritten = true;
+        }
+        while (compressed.hasRemaining() && !deflater.finished()) {
+            if (deflater.needsInput()) {
+                fillPlain();
+                if (plain.hasRemaining()) {
+                    crc.update(plain.array(), plain.position(), plain.remaining());
+                    deflater.setInput(plain.array(), plain.position(), plain.remaining());
+                } else {
+                    deflater.finish();
+                }
+            }
+            int written = deflater.deflate(compressed.array(), compressed.position(), compressed.remaining());
+            compressed.position(compressed.position() + written);
+        }
+        if (deflater.finished() && !trailerWritten && compressed.remaining() >= GZIP_TRAILER_LENGTH) {
+            putIntLittleEndian((int) crc.getValue());
+            putIntLittleEndian((int) deflater.getBytesRead());
+            trailerWritten = true;
+        }
+        compressed.flip();
+    }
+
+    /**
+     * @param value - value appended to the compressed buffer, least significant byte first
+     */
+    private void putIntLittleEndian(int value) {
+        compressed.put((byte) value).put((byte) (value >>> 8)).put((byte) (value >>> 16)).put((byte) (value >>> 24));
+    }
+
+    /**
+     * <p>Formats the next header, record or footer line into the pending characters</p>
+     *
+     * @return false at the end of the export
+     * @throws IOException if the source fails or a value does not fit the format
+     */
+    private boolean nextLine() throws IOException {
+        line.setLength(0);
+        try {
+            if (!formatLine()) {
+                return false;
+            }
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            // un valore che non entra nel formato interrompe l'esportazione invece di troncarlo
+            throw new IOException("Export aborted after [" + count + "] records: " + e.getMessage(), e);
+        }
+        if (pending.capacity() < line.length()) {
+            pending = CharBuffer.allocate(Math.max(line.length(), pending.capacity() * 2));
+        }
+        pending.clear();
+        line.getChars(0, line.length(), pending.array(), 0);
+        pending.limit(line.length());
+        return true;
+    }
+
+    /**
+     * <p>Formats the next header, record or footer line into {@link #line}</p>
+     *
+     * @return false at the end of the export
+     * @throws IOException if the source fails
+     * @throws IllegalArgumentException if a value does not fit the format
+     * @throws ArithmeticException if the net total overflows
+     */
+    private boolean formatLine() throws IOException {
+        switch (stage) {
+        case HEADER:
+            if (format.declaresTotals()) {
+                prescan();
+                format.header(header, declaredCount, declaredNet, line);
+            } else {
+                format.header(header, source.size(), 0L, line);
+            }
+            stage = Stage.RECORDS;
+            break;
+        case RECORDS:
+            if (nextAccepted(source)) {
+                format.record(header, record, line);
+                count++;
+                totalNet = Math.addExact(totalNet, record.getNet());
+            } else {
+                if (declaredCount >= 0 && (count != declaredCount || totalNet != declaredNet)) {
+                    throw new IOException("Export records changed while writing: declared [" + declaredCount + "] records, written [" + count + "]");
+                }
+                format.footer(count, totalNet, line);
+                stage = Stage.FOOTER;
+            }
+            break;
+        default:
+            stage = Stage.END;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * <p>Counts and sums the records accepted by the format, reading them from a reopened source</p>
+     *
+     * @throws IOException if the source fails
+     */
+    private void prescan() throws IOException {
+        int accepted = 0;
+        long net = 0L;
+        try (ExportSource first = source.reopen()) {
+            while (nextAccepted(first)) {
+                accepted++;
+                net = Math.addExact(net, record.getNet());
+            }
+        }
+        declaredCount = accepted;
+        declaredNet = net;
+    }
+
+    /**
+     * <p>Fills the record with the next record accepted by the format</p>
+     *
+     * @param from - the source
+     * @return false when there are no more records
+     * @throws IOException if the source fails
+     */
+    private boolean nextAccepted(ExportSource from) throws IOException {
+        boolean found = false;
+        while (!found && from.next(record)) {
+            found = format.accepts(record);
+        }
+        return found;
+    }
+
+    /**
+     * Return the number of records written so far.
+     *
+     * @return records count
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * <p>Closes the source and releases the compressor</p>
+     *
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        if (deflater != null) {
+            deflater.end();
+        }
+        source.close();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * PayrollExportSource.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.export;
+
+import com.cucco.stipendi.payroll.PayrollCalculator;
+import com.cucco.stipendi.payroll.Payslip;
+
+/**
+ * <p>Export source calculating each employee when the record is requested, with the same {@link PayrollCalculator} of the payroll run: the export
+ * holds only the master data arrays and one {@link Payslip}.</p>
+ * <p>Not thread safe.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class PayrollExportSource implements ExportSource {
+
+    private final String[] employeeIds;
+
+    private final String[] names;
+
+    private final String[] ibans;
+
+    private final PayrollCalculator calculator;
+
+    private final Payslip payslip = new Payslip();
+
+    /**
+     * <p>Next employee index</p>
+     */
+    private int index;
+
+    /**
+     * @param employeeIds - employee ids, by employee index
+     * @param names - employee names, by employee index
+     * @param ibans - employee accounts, by employee index
+     * @param calculator - employee calculation
+     */
+    public PayrollExportSource(String[] employeeIds, String[] names, String[] ibans, PayrollCalculator calculator) {
+        this.employeeIds = employeeIds;
+        this.names = names;
+        this.ibans = ibans;
+        this.calculator = calculator;
+    }
+
+    /**
+     * @see com.cucco.stipendi.export.ExportSource#size()
+     */
+    @Override
+    public int size() {
+        return employeeIds.length;
+    }
+
+    /**
+     * @see com.cucco.stipendi.export.ExportSource#reopen()
+     */
+    @Override
+    public ExportSource reopen() {
+        return new PayrollExportSource(employeeIds, names, ibans, calculator);
+    }
+
+    /**
+     * @see com.cucco.stipendi.export.ExportSource#next(com.cucco.stipendi.export.ExportRecord)
+     */
+    @Override
+    public boolean next(ExportRecord record) {
+        if (index >= employeeIds.length) {
+            return false;
+        }
+        payslip.reset(index);
+        calculator.calculate(index, payslip);
+        record.setEmployeeId(employeeIds[index]);
+        record.setName(names[index]);
+        record.setIban(ibans[index]);
+        record.setGross(payslip.getGross());
+        record.setContributions(payslip.getContributions());
+        record.setTaxable(payslip.getTaxable());
+        record.setTax(payslip.getTax());
+        record.setNet(payslip.getNet());
+        index++;
+        return true;
+    }
+
+    /**
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() {
+        /* Nulla da fare. */
+    }
+}
@@ -0,0 +1,436 @@
+/*
+ * CsvBatch.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.importer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * <p>Batch of CSV records parsed from a memory mapped chunk.</p>
+ * <p>Records are not copied: the batch holds the start and end offsets of each field into the mapped chunk, and the typed getters parse numbers
+ * straight from the mapped bytes. Strings are created only by {@link #getString(int, int)}. Columns are addressed by their zero based index in
+ * the file; {@link #column(String)} translates the names of the configured column mapping.</p>
+ * <p>The batch is reused by its parsing thread for the next records as soon as the consumer returns: consumers must copy out the values they
+ * keep. Not thread safe.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class CsvBatch {
+
+    /**
+     * <p>Largest amount integer part, so that the cents fit a long</p>
+     */
+    private static final long MAX_UNITS = Long.MAX_VALUE / 100L - 1L;
+
+    /**
+     * <p>Mapped chunk</p>
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * <p>Chunk view used for bulk copies</p>
+     */
+    private final ByteBuffer view;
+
+    /**
+     * <p>File charset</p>
+     */
+    private final Charset charset;
+
+    /**
+     * <p>Quote character, unescaped by {@link #getString(int, int)}</p>
+     */
+    private final byte quote;
+
+    /**
+     * <p>Column indexes by mapped name</p>
+     */
+    private final Map<String, Integer> columns;
+
+    /**
+     * <p>Chunk start offset into the file</p>
+     */
+    private final long chunkOffset;
+
+    /**
+     * <p>Records capacity</p>
+     */
+    private final int capacity;
+
+    /**
+     * <p>Index of the first field of each record, plus the end of the last record</p>
+     */
+    private final int[] firstField;
+
+    /**
+     * <p>Offset of the line of each record into the chunk</p>
+     */
+    private final int[] lineStart;
+
+    private int[] fieldStart = new int[1024];
+
+    private int[] fieldEnd = new int[1024];
+
+    /**
+     * <p>True for quoted fields containing doubled quotes</p>
+     */
+    private boolean[] fieldEscaped = new boolean[1024];
+
+    private int fieldCount;
+
+    private int size;
+
+    /**
+     * <p>String decoding scratch buffer</p>
+     */
+    private byte[] scratch = new byte[256];
+
+    /**
+     * @param buffer - mapped chunk
+     * @param chunkOffset - chunk start offset into the file
+     * @param charset - file charset
+     * @param quote - quote character
+     * @param columns - column indexes by mapped name
+     * @param capacity - records capacity
+     */
+    CsvBatch(ByteBuffer buffer, long chunkOffset, Charset charset, byte quote, Map<String, Integer> columns, int capacity) {
+        this.buffer = buffer;
+        this.view = buffer.duplicate();
+        this.chunkOffset = chunkOffset;
+        this.charset = charset;
+        this.quote = quote;
+        this.columns = columns;
+        this.capacity = capacity;
+        this.firstField = new int[capacity + 1];
+        this.lineStart = new int[capacity];
+    }
+
+    /**
+     * <p>Starts a new record</p>
+     *
+     * @param offset - line offset into the chunk
+     */
+    void beginRecord(int offset) {
+        firstField[size] = fieldCount;
+        lineStart[size] = offset;
+    }
+
+    /**
+     * <p>Adds a field to the current record</p>
+     *
+     * @param start - first byte offset
+     * @param end - end offset, exclusive
+     * @param escaped - true if the field contains doubled quotes
+     */
+    void addField(int start, int end, boolean escaped) {
+        if (fieldCount == fieldStart.length) {
+            int length = fieldCount * 2;
+            fieldStart = Arrays.copyOf(fieldStart, length);
+            fieldEnd = Arrays.copyOf(fieldEnd, length);
+            fieldEscaped = Arrays.copyOf(fieldEscaped, length);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = end;
+        fieldEscaped[fieldCount] = escaped;
+        fieldCount++;
+    }
+
+    /**
+     * <p>Completes the current record, or discards it</p>
+     *
+     * @param keep - false to discard the record fields
+     * @return true if the batch is full
+     */
+    boolean endRecord(boolean keep) {
+        if (keep) {
+            size++;
+            firstField[size] = fieldCount;
+        } else {
+            fieldCount = firstField[size];
+        }
+        return size == capacity;
+    }
+
+    /**
+     * <p>Returns the number of fields of the record being parsed</p>
+     *
+     * @return fields count
+     */
+    int currentFields() {
+        return fieldCount - firstField[size];
+    }
+
+    /**
+     * <p>Returns true if the record being parsed is an empty line</p>
+     *
+     * @return true if empty
+     */
+    boolean currentEmpty() {
+        int first = firstField[size];
+        return fieldCount - first == 1 && fieldEnd[first] == fieldStart[first];
+    }
+
+    /**
+     * <p>Empties the batch for reuse</p>
+     */
+    void clear() {
+        size = 0;
+        fieldCount = 0;
+    }
+
+    /**
+     * Return the number of records.
+     *
+     * @return records count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * <p>Returns the file column of a mapped name</p>
+     *
+     * @param name - mapped name
+     * @return the zero based column index, -1 if not mapped
+     */
+    public int column(String name) {
+        Integer column = columns.get(name);
+        return column == null ? -1 : column.intValue();
+    }
+
+    /**
+     * <p>Returns the number of fields of a record</p>
+     *
+     * @param record - record index
+     * @return fields count
+     */
+    public int fields(int record) {
+        return firstField[record + 1] - firstField[record];
+    }
+
+    /**
+     * <p>Returns the offset of the record line into the file, for error messages</p>
+     *
+     * @param record - record index
+     * @return the file offset
+     */
+    public long offset(int record) {
+        return chunkOffset + lineStart[record];
+    }
+
+    /**
+     * @param record - record index
+     * @param column - column index
+     * @return the field index, -1 if the record has no such column
+     */
+    private int field(int record, int column) {
+        int field = firstField[record] + column;
+        return column >= 0 && field < firstField[record + 1] ? field : -1;
+    }
+
+    /**
+     * <p>Returns true if the field is missing or empty</p>
+     *
+     * @param record - record index
+     * @param column - column index
+     * @return true if empty
+     */
+    public boolean isEmpty(int record, int column) {
+        int field = field(record, column);
+        return field < 0 || fieldEnd[field] == fieldStart[field];
+    }
+
+    /**
+     * <p>Decodes the field, the only getter that allocates.</p>
+     *
+     * @param record - record index
+     * @param column - column index
+     * @return the value, null if the record has no such column
+     */
+    public String getString(int record, int column) {
+        int field = field(record, column);
+        if (field < 0) {
+            return null;
+        }
+        int length = fieldEnd[field] - fieldStart[field];
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        view.clear();
+        view.position(fieldStart[field]);
+        view.get(scratch, 0, length);
+        if (fieldEscaped[field]) {
+            int j = 0;
+            for (int i = 0; i < length; i++, j++) {
+                scratch[j] = scratch[i];
+                if (scratch[i] == quote) {
+                    i++;
+                }
+            }
+            length = j;
+        }
+        return new String(scratch, 0, length, charset);
+    }
+
+    /**
+     * <p>Parses the field as a <code>long</code>, straight from the mapped bytes. Surrounding blanks are ignored.</p>
+     *
+     * @param record - record index
+     * @param column - column index
+     * @param defaultValue - value returned for missing or empty fields
+     * @return the value
+     * @throws NumberFormatException if the field is not an integer
+     */
+    public long getLong(int record, int column, long defaultValue) {
+        int field = field(record, column);
+        if (field < 0) {
+            return defaultValue;
+        }
+        int start = trimStart(fieldStart[field], fieldEnd[field]);
+        int end = trimEnd(start, fieldEnd[field]);
+        if (start == end) {
+            return defaultValue;
+        }
+        boolean negative = buffer.get(start) == '-';
+        if (negative || buffer.get(start) == '+') {
+            start++;
+        }
+        if (start == end) {
+            throw numberFormat(record, column);
+        }
+        long value = 0L;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw numberFormat(record, column);
+            }
+            // accumula in negativo per coprire Long.MIN_VALUE
+            if (value < (Long.MIN_VALUE + digit) / 10L) {
+                throw numberFormat(record, column);
+            }
+            value = value * 10L - digit;
+        }
+        if (!negative && value == Long.MIN_VALUE) {
+            throw numberFormat(record, column);
+        }
+        return negative ? value : -value;
+    }
+
+    /**
+     * <p>Parses the field as an <code>int</code>, straight from the mapped bytes.</p>
+     *
+     * @param record - record index
+     * @param column - column index
+     * @param defaultValue - value returned for missing or empty fields
+     * @return the value
+     * @throws NumberFormatException if the field is not an int
+     */
+    public int getInt(int record, int column, int defaultValue) {
+        long value = getLong(record, column, defaultValue);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw numberFormat(record, column);
+        }
+        return (int) value;
+    }
+
+    /**
+     * <p>Parses a decimal amount into cents, straight from the mapped bytes. Both '.' and ',' are accepted as decimal separator, no grouping
+     * separator; digits beyond the cent are rounded half up.</p>
+     *
+     * @param record - record index
+     * @param column - column index
+     * @param defaultValue - value returned for missing or empty fields
+     * @return the amount, in cents
+     * @throws NumberFormatException if the field is not an amount
+     */
+    public long getCents(int record, int column, long defaultValue) {
+        int field = field(record, column);
+        if (field < 0) {
+            return defaultValue;
+        }
+        int start = trimStart(fieldStart[field], fieldEnd[field]);
+        int end = trimEnd(start, fieldEnd[field]);
+        if (start == end) {
+            return defaultValue;
+        }
+        boolean negative = buffer.get(start) == '-';
+        if (negative || buffer.get(start) == '+') {
+            start++;
+        }
+        long units = 0L;
+        long cents = 0L;
+        int decimals = -1;
+        boolean digits = false;
+        boolean roundUp = false;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if ((b == '.' || b == ',') && decimals < 0) {
+                decimals = 0;
+            } else if (b >= '0' && b <= '9') {
+                digits = true;
+                if (decimals < 0) {
+                    units = units * 10L + (b - '0');
+                    if (units > MAX_UNITS) {
+                        throw numberFormat(record, column);
+                    }
+                } else if (decimals < 2) {
+                    cents = cents * 10L + (b - '0');
+                    decimals++;
+                } else if (decimals == 2) {
+                    roundUp = b >= '5';
+                    decimals++;
+                }
+            } else {
+                throw numberFormat(record, column);
+            }
+        }
+        if (!digits) {
+            throw numberFormat(record, column);
+        }
+        if (decimals == 1) {
+            cents *= 10L;
+        }
+        long value = units * 100L + (roundUp ? cents + 1L : cents);
+        return negative ? -value : value;
+    }
+
+    /**
+     * @param start - field start
+     * @param end - field end
+     * @return the first non blank offset
+     */
+    private int trimStart(int start, int end) {
+        int i = start;
+        while (i < end && buffer.get(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @param start - trimmed field start
+     * @param end - field end
+     * @return the offset after the last non blank
+     */
+    private int trimEnd(int start, int end) {
+        int i = end;
+        while (i > start && buffer.get(i - 1) == ' ') {
+            i--;
+        }
+        return i;
+    }
+
+    /**
+     * @param record - record index
+     * @param column - column index
+     * @return the exception
+     */
+    private NumberFormatException numberFormat(int record, int column) {
+        return new NumberFormatException("Not a number at offset " + offset(record) + ", column " + column + ": " + getString(record, column));
+    }
+}
@@ -0,0 +1,23 @@
+/*
+ * CsvBatchConsumer.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.importer;
+
+/**
+ * <p>Receives the parsed records of an import, a batch at a time. Called concurrently by the parsing threads, in no particular order.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@FunctionalInterface
+public interface CsvBatchConsumer {
+
+    /**
+     * <p>Consumes a batch. The batch is reused when this method returns.</p>
+     *
+     * @param batch - the records
+     * @throws Exception to abort the import
+     */
+    void accept(CsvBatch batch) throws Exception;
+}
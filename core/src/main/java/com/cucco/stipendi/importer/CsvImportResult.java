@@ -0,0 +1,94 @@
+/*
+ * CsvImportResult.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.importer;
+
+/**
+ * <p>Outcome of an import.</p>
+ * <p>Instances are immutable and thread safe.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class CsvImportResult {
+
+    private final long records;
+
+    private final long rejected;
+
+    private final long bytes;
+
+    private final int chunks;
+
+    private final long elapsedMillis;
+
+    /**
+     * @param records - records handed to the consumer
+     * @param rejected - lines rejected for missing columns
+     * @param bytes - file size
+     * @param chunks - parsed chunks
+     * @param elapsedMillis - import duration
+     */
+    CsvImportResult(long records, long rejected, long bytes, int chunks, long elapsedMillis) {
+        this.records = records;
+        this.rejected = rejected;
+        this.bytes = bytes;
+        this.chunks = chunks;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Return records value.
+     *
+     * @return records value.
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * Return rejected value.
+     *
+     * @return rejected value.
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Return bytes value.
+     *
+     * @return bytes value.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Return chunks value.
+     *
+     * @return chunks value.
+     */
+    public int getChunks() {
+        return chunks;
+    }
+
+    /**
+     * Return elapsedMillis value.
+     *
+     * @return elapsedMillis value.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder("CsvImportResult [records=").append(records).append(", rejected=").append(rejected).append(", bytes=").append(bytes)
+                .append(", chunks=").append(chunks).append(", elapsedMillis=").append(elapsedMillis).append(']').toString();
+    }
+}
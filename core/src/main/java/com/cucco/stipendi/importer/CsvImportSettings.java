@@ -0,0 +1,206 @@
+/*
+ * CsvImportSettings.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.importer;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+import com.cucco.stipendi.utility.Config;
+
+/**
+ * <p>Settings of a CSV import, read from the configuration keys prefixed by <code>import.&lt;name&gt;.</code>:</p>
+ * <ul>
+ * <li><code>delimiter</code>, field delimiter, a single ASCII character or <code>tab</code>, default <code>;</code>;</li>
+ * <li><code>quote</code>, quote character, default <code>"</code>;</li>
+ * <li><code>header</code>, true if the first line holds the column names, default true;</li>
+ * <li><code>charset</code>, file charset, ASCII compatible, default UTF-8;</li>
+ * <li><code>columns</code>, column mapping <code>name:column</code>, comma separated, where column is a zero based index or a header name;</li>
+ * <li><code>chunkSize</code>, bytes mapped and parsed by a task, default 64 MB;</li>
+ * <li><code>batchSize</code>, records handed to the consumer at once, default 1024;</li>
+ * <li><code>parallelism</code>, parsing threads, default the available processors.</li>
+ * </ul>
+ * <p>Example:</p>
+ *
+ * <pre>
+ * import.attendance.delimiter=;
+ * import.attendance.columns=employeeId:MATRICOLA,day:DATA,minutes:3
+ * </pre>
+ * <p>Instances are immutable and thread safe.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class CsvImportSettings {
+
+    /**
+     * <p>Prefix of the import keys</p>
+     */
+    public static final String KEY_PREFIX = "import.";
+
+    private static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    private static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private final String name;
+
+    private final byte delimiter;
+
+    private final byte quote;
+
+    private final boolean header;
+
+    private final Charset charset;
+
+    private final Map<String, String> columns;
+
+    private final int chunkSize;
+
+    private final int batchSize;
+
+    private final int parallelism;
+
+    /**
+     * @param name - import name
+     * @param delimiter - field delimiter
+     * @param quote - quote character
+     * @param header - true if the file has a header line
+     * @param charset - file charset
+     * @param columns - column mapping
+     * @param chunkSize - chunk size, in bytes
+     * @param batchSize - batch size, in records
+     * @param parallelism - parsing threads
+     */
+    private CsvImportSettings(String name, byte delimiter, byte quote, boolean header, Charset charset, Map<String, String> columns, int chunkSize,
+            int batchSize, int parallelism) {
+        this.name = name;
+        this.delimiter = delimiter;
+        this.quote = quote;
+        this.header = header;
+        this.charset = charset;
+        this.columns = columns;
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * <p>Reads the settings of an import from the configuration.</p>
+     *
+     * @param config - the configuration
+     * @param name - import name
+     * @return the settings
+     * @throws IllegalArgumentException if the delimiter, the quote or the charset are not valid
+     */
+    public static CsvImportSettings from(Config config, String name) {
+        String prefix = KEY_PREFIX + name + ".";
+        String delimiter = config.get(prefix + "delimiter", ";");
+        String quote = config.get(prefix + "quote", "\"");
+        Charset charset = Charset.forName(config.get(prefix + "charset", StandardCharsets.UTF_8.name()).trim());
+        if ("\n;".getBytes(charset).length != 2) {
+            throw new IllegalArgumentException("Charset not ASCII compatible: " + charset);
+        }
+        int parallelism = config.get(prefix + "parallelism", 0);
+        return new CsvImportSettings(name, asciiByte("tab".equalsIgnoreCase(delimiter.trim()) ? "\t" : delimiter, "delimiter"),
+                asciiByte(quote, "quote"), config.get(prefix + "header", true), charset,
+                config.getMap(prefix + "columns", Collections.<String, String> emptyMap()),
+                Math.max(1024, config.get(prefix + "chunkSize", DEFAULT_CHUNK_SIZE)), Math.max(1, config.get(prefix + "batchSize", DEFAULT_BATCH_SIZE)),
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param value - single character value
+     * @param what - setting name, for the error message
+     * @return the character byte
+     */
+    private static byte asciiByte(String value, String what) {
+        if (value.length() != 1 || value.charAt(0) > 127 || value.charAt(0) == '\n') {
+            throw new IllegalArgumentException("Import " + what + " must be a single ASCII character: [" + value + "]");
+        }
+        return (byte) value.charAt(0);
+    }
+
+    /**
+     * Return name value or reference.
+     *
+     * @return name value or reference.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Return delimiter value.
+     *
+     * @return delimiter value.
+     */
+    public byte getDelimiter() {
+        return delimiter;
+    }
+
+    /**
+     * Return quote value.
+     *
+     * @return quote value.
+     */
+    public byte getQuote() {
+        return quote;
+    }
+
+    /**
+     * Return header value.
+     *
+     * @return header value.
+     */
+    public boolean isHeader() {
+        return header;
+    }
+
+    /**
+     * Return charset value or reference.
+     *
+     * @return charset value or reference.
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Return the column mapping.
+     *
+     * @return unmodifiable name to column map
+     */
+    public Map<String, String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Return chunkSize value.
+     *
+     * @return chunkSize value.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Return batchSize value.
+     *
+     * @return batchSize value.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Return parallelism value.
+     *
+     * @return parallelism value.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * CsvImporter.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.importer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * <p>Bulk CSV import: employee master data, attendance and time clock exports.</p>
+ * <p>The file is split into chunks of about {@link CsvImportSettings#getChunkSize()} bytes, each ending at a line boundary, and the chunks are
+ * memory mapped and parsed in parallel. The tokenizer reads the mapped bytes in place and records only field offsets into a {@link CsvBatch}, which
+ * is handed to the consumer when full; nothing is copied or decoded unless the consumer asks for a string. Throughput is bound by the disk and the
+ * page cache rather than by a single reader thread. Files larger than 2 GB are supported, since each chunk is mapped on its own.</p>
+ * <p>Quoted fields may contain delimiters and doubled quotes but not line breaks: a chunk boundary could otherwise split a record. Lines with fewer
+ * fields than the highest mapped column are rejected and counted; empty lines are skipped.</p>
+ * <p>Thread safe: an importer can run several imports at once.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class CsvImporter {
+
+    /**
+     * <p>Logger instance</p>
+     */
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * <p>Bytes read at a time while looking for a line boundary</p>
+     */
+    private static final int SCAN_SIZE = 8192;
+
+    /**
+     * <p>UTF-8 byte order mark, as decoded</p>
+     */
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+    /**
+     * <p>Import settings</p>
+     */
+    private final CsvImportSettings settings;
+
+    /**
+     * @param settings - import settings
+     */
+    public CsvImporter(CsvImportSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * <p>Imports the file and waits for the completion.</p>
+     *
+     * @param file - the CSV file
+     * @param consumer - receives the record batches, concurrently
+     * @return the import outcome
+     * @throws IOException if the file cannot be read, a mapped column is not in the header, or the consumer fails
+     */
+    public CsvImportResult importFile(File file, CsvBatchConsumer consumer) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long dataStart = 0L;
+            List<String> header = Collections.emptyList();
+            if (settings.isHeader()) {
+                dataStart = nextLine(channel, 0L, size);
+                header = parseHeader(channel, dataStart);
+            }
+            Map<String, Integer> columns = resolveColumns(header);
+            int required = 0;
+            for (Integer column : columns.values()) {
+                required = Math.max(required, column.intValue() + 1);
+            }
+            List<Callable<long[]>> tasks = new ArrayList<Callable<long[]>>();
+            for (long chunkStart = dataStart; chunkStart < size;) {
+                long chunkEnd = chunkStart + settings.getChunkSize() >= size ? size : nextLine(channel, chunkStart + settings.getChunkSize(), size);
+                tasks.add(new ChunkTask(channel, chunkStart, chunkEnd, columns, required, consumer));
+                chunkStart = chunkEnd;
+            }
+            ForkJoinPool pool = new ForkJoinPool(Math.min(settings.getParallelism(), Math.max(1, tasks.size())));
+            long records = 0L;
+            long rejected = 0L;
+            try {
+                for (Future<long[]> future : pool.invokeAll(tasks)) {
+                    long[] counts = future.get();
+                    records += counts[0];
+                    rejected += counts[1];
+                }
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Import interrupted", e);
+            } finally {
+                pool.shutdownNow();
+            }
+            CsvImportResult result = new CsvImportResult(records, rejected, size, tasks.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            logger.info("Import [{}] of [{}]: [{}]", settings.getName(), file, result);
+            return result;
+        }
+    }
+
+    /**
+     * <p>Returns the offset following the first line feed at or after <code>position</code></p>
+     *
+     * @param channel - the file
+     * @param position - scan start
+     * @param size - file size
+     * @return the next line start, the file size if there is none
+     * @throws IOException on reading errors
+     */
+    private static long nextLine(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_SIZE);
+        long offset = position;
+        while (offset < size) {
+            scan.clear();
+            int read = channel.read(scan, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    /**
+     * @param channel - the file
+     * @param end - header line end
+     * @return the column names
+     * @throws IOException on reading errors
+     */
+    private List<String> parseHeader(FileChannel channel, long end) throws IOException {
+        ByteBuffer line = ByteBuffer.allocate((int) end);
+        while (line.hasRemaining() && channel.read(line, line.position()) > 0) {
+            /* Nulla da fare. */
+        }
+        line.flip();
+        CsvBatch batch = new CsvBatch(line, 0L, settings.getCharset(), settings.getQuote(), Collections.<String, Integer> emptyMap(), 1);
+        List<String> names = new ArrayList<String>();
+        try {
+            tokenize(line, batch, 0, line.limit(), 0, (header) -> {
+                for (int i = 0; i < header.fields(0); i++) {
+                    String name = header.getString(0, i).trim();
+                    names.add(i == 0 && name.startsWith(BYTE_ORDER_MARK) ? name.substring(1) : name);
+                }
+            });
+        } catch (Exception e) {
+            throw new IOException("Wrong header", e);
+        }
+        return names;
+    }
+
+    /**
+     * <p>Resolves the column mapping against the header</p>
+     *
+     * @param header - header column names, empty without header
+     * @return the column indexes by mapped name
+     * @throws IOException if a mapped column is neither an index nor a header name
+     */
+    private Map<String, Integer> resolveColumns(List<String> header) throws IOException {
+        Map<String, Integer> columns = new HashMap<String, Integer>();
+        for (Map.Entry<String, String> entry : settings.getColumns().entrySet()) {
+            String column = entry.getValue().trim();
+            int index = header.indexOf(column);
+            if (index < 0) {
+                try {
+                    index = Integer.parseInt(column);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Column [" + column + "] of [" + entry.getKey() + "] not found in header " + header);
+                }
+            }
+            columns.put(entry.getKey(), Integer.valueOf(index));
+        }
+        return Collections.unmodifiableMap(columns);
+    }
+
+    /**
+     * <p>Splits the lines of the region into records and fields, handing the batch to the consumer each time it fills up.</p>
+     *
+     * @param buffer - mapped region
+     * @param batch - the batch to fill
+     * @param from - first offset
+     * @param limit - end offset, exclusive
+     * @param required - minimum fields of a record
+     * @param consumer - batch consumer
+     * @return the rejected lines count
+     * @throws Exception thrown by the consumer
+     */
+    private long tokenize(ByteBuffer buffer, CsvBatch batch, int from, int limit, int required, CsvBatchConsumer consumer) throws Exception {
+        byte delimiter = settings.getDelimiter();
+        byte quote = settings.getQuote();
+        long rejected = 0L;
+        int pos = from;
+        while (pos < limit) {
+            batch.beginRecord(pos);
+            boolean endOfLine = false;
+            while (!endOfLine) {
+                if (pos < limit && buffer.get(pos) == quote) {
+                    int start = ++pos;
+                    boolean escaped = false;
+                    while (pos < limit) {
+                        if (buffer.get(pos) == quote) {
+                            if (pos + 1 < limit && buffer.get(pos + 1) == quote) {
+                                escaped = true;
+                                pos += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        pos++;
+                    }
+                    int end = pos;
+                    while (pos < limit && buffer.get(pos) != delimiter && buffer.get(pos) != '\n') {
+                        pos++;
+                    }
+                    batch.addField(start, Math.min(end, limit), escaped);
+                } else {
+                    int start = pos;
+                    byte b = 0;
+                    while (pos < limit && (b = buffer.get(pos)) != delimiter && b != '\n') {
+                        pos++;
+                    }
+                    int end = pos;
+                    if (end > start && buffer.get(end - 1) == '\r' && (pos == limit || b == '\n')) {
+                        end--;
+                    }
+                    batch.addField(start, end, false);
+                }
+                if (pos < limit && buffer.get(pos) == delimiter) {
+                    pos++;
+                } else {
+                    pos++;
+                    endOfLine = true;
+                }
+            }
+            boolean keep = !batch.currentEmpty() && batch.currentFields() >= required;
+            if (!keep && !batch.currentEmpty()) {
+                rejected++;
+            }
+            if (batch.endRecord(keep)) {
+                consumer.accept(batch);
+                batch.clear();
+            }
+        }
+        if (batch.size() > 0) {
+            consumer.accept(batch);
+            batch.clear();
+        }
+        return rejected;
+    }
+
+    /**
+     * <p>Maps and parses a chunk; returns the records and rejected counts</p>
+     */
+    private final class ChunkTask implements Callable<long[]> {
+
+        private final FileChannel channel;
+
+        private final long start;
+
+        private final long end;
+
+        private final Map<String, Integer> columns;
+
+        private final int required;
+
+        private final CsvBatchConsumer consumer;
+
+        /**
+         * @param channel - the file
+         * @param start - chunk start
+         * @param end - chunk end, exclusive
+         * @param columns - column indexes by mapped name
+         * @param required - minimum fields of a record
+         * @param consumer - batch consumer
+         */
+        private ChunkTask(FileChannel channel, long start, long end, Map<String, Integer> columns, int required, CsvBatchConsumer consumer) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.columns = columns;
+            this.required = required;
+            this.consumer = consumer;
+        }
+
+        /**
+         * @see java.util.concurrent.Callable#call()
+         */
+        @Override
+        public long[] call() throws Exception {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            CountingConsumer counting = new CountingConsumer(consumer);
+            CsvBatch batch = new CsvBatch(buffer, start, settings.getCharset(), settings.getQuote(), columns, settings.getBatchSize());
+            long rejected = tokenize(buffer, batch, 0, buffer.limit(), required, counting);
+            if (rejected > 0L) {
+                logger.warn("Import [{}]: [{}] lines rejected between offsets [{}] and [{}]", settings.getName(), Long.valueOf(rejected),
+                        Long.valueOf(start), Long.valueOf(end));
+            }
+            return new long[] { counting.records, rejected };
+        }
+    }
+
+    /**
+     * <p>Counts the records handed to the consumer</p>
+     */
+    private static final class CountingConsumer implements CsvBatchConsumer {
+
+        private final CsvBatchConsumer consumer;
+
+        private long records;
+
+        /**
+         * @param consumer - the consumer
+         */
+        private CountingConsumer(CsvBatchConsumer consumer) {
+            this.consumer = consumer;
+        }
+
+        /**
+         * @see com.cucco.stipendi.importer.CsvBatchConsumer#accept(com.cucco.stipendi.importer.CsvBatch)
+         */
+        @Override
+        public void accept(CsvBatch batch) throws Exception {
+            records += batch.size();
+            consumer.accept(batch);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * DependencyGraph.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.payroll;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Dependencies of the employee results on configuration keys and input records, as declared into the {@link Payslip} by the calculator.</p>
+ * <p>Keys and records are interned into integer nodes; each employee keeps the array of its nodes and each node the sorted array of its
+ * dependent employees, the reverse index used to find the employees affected by a change. Postings are sparse: a record of one employee costs
+ * one int. After a recalculation, {@link #index(int[])} updates the postings of the recalculated employees only, removing their previous
+ * nodes and adding the recorded ones, so the cost follows the recalculated employees and the nodes they touch. Nodes are never removed: their
+ * number is bounded by the distinct keys and records of the tenant.</p>
+ * <p>{@link #record(int, Payslip)} may be called concurrently for distinct employees; the recorded nodes are published by
+ * {@link #index(int[])}. Index updates and queries are synchronized.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class DependencyGraph {
+
+    private static final int[] NO_NODES = new int[0];
+
+    /**
+     * <p>Configuration key nodes, by key name</p>
+     */
+    private final Map<String, Integer> keyNodes = new ConcurrentHashMap<String, Integer>();
+
+    /**
+     * <p>Input record nodes, by record id</p>
+     */
+    private final Map<String, Integer> recordNodes = new ConcurrentHashMap<String, Integer>();
+
+    private final AtomicInteger nodeCount = new AtomicInteger();
+
+    /**
+     * <p>Indexed nodes by employee</p>
+     */
+    private final int[][] edges;
+
+    /**
+     * <p>Nodes recorded by the running calculation, by employee; null if not recalculated</p>
+     */
+    private final int[][] recorded;
+
+    /**
+     * <p>Sorted dependent employees by node, null if none; guarded by this</p>
+     */
+    private int[][] postings = new int[0][];
+
+    /**
+     * @param size - number of employees
+     */
+    public DependencyGraph(int size) {
+        this.edges = new int[size][];
+        this.recorded = new int[size][];
+        Arrays.fill(edges, NO_NODES);
+    }
+
+    /**
+     * <p>Records the dependencies declared into the payslip, replacing the previous ones of the employee at the next {@link #index(int[])}.</p>
+     *
+     * @param employee - employee index
+     * @param payslip - the calculated payslip
+     */
+    public void record(int employee, Payslip payslip) {
+        int keyCount = payslip.getKeyCount();
+        int[] nodes = new int[keyCount + payslip.getRecordCount()];
+        for (int i = 0; i < keyCount; i++) {
+            nodes[i] = intern(keyNodes, payslip.getKey(i));
+        }
+        for (int i = keyCount; i < nodes.length; i++) {
+            nodes[i] = intern(recordNodes, payslip.getRecord(i - keyCount));
+        }
+        recorded[employee] = nodes;
+    }
+
+    /**
+     * @param nodes - key or record nodes
+     * @param name - key name or record id
+     * @return the node
+     */
+    private int intern(Map<String, Integer> nodes, String name) {
+        Integer node = nodes.get(name);
+        if (node == null) {
+            node = nodes.computeIfAbsent(name, n -> Integer.valueOf(nodeCount.getAndIncrement()));
+        }
+        return node.intValue();
+    }
+
+    /**
+     * <p>Replaces, into the reverse index, the dependencies of the recalculated employees with the recorded ones.</p>
+     *
+     * @param employees - recalculated employees, ascending
+     */
+    public synchronized void index(int[] employees) {
+        int count = nodeCount.get();
+        if (postings.length < count) {
+            postings = Arrays.copyOf(postings, count);
+        }
+        // Conteggio delle rimozioni e delle aggiunte per nodo, poi liste compatte per nodo
+        int[] removedStart = new int[count + 1];
+        int[] addedStart = new int[count + 1];
+        for (int employee : employees) {
+            if (recorded[employee] != null) {
+                for (int node : edges[employee]) {
+                    removedStart[node + 1]++;
+                }
+                for (int node : recorded[employee]) {
+                    addedStart[node + 1]++;
+                }
+            }
+        }
+        for (int node = 0; node < count; node++) {
+            removedStart[node + 1] += removedStart[node];
+            addedStart[node + 1] += addedStart[node];
+        }
+        int[] removed = new int[removedStart[count]];
+        int[] added = new int[addedStart[count]];
+        int[] removedEnd = Arrays.copyOf(removedStart, count);
+        int[] addedEnd = Arrays.copyOf(addedStart, count);
+        for (int employee : employees) {
+            if (recorded[employee] != null) {
+                for (int node : edges[employee]) {
+                    removed[removedEnd[node]++] = employee;
+                }
+                for (int node : recorded[employee]) {
+                    // Un nodo dichiarato due volte dallo stesso dipendente conta una volta
+                    if (addedEnd[node] == addedStart[node] || added[addedEnd[node] - 1] != employee) {
+                        added[addedEnd[node]++] = employee;
+                    }
+                }
+                edges[employee] = recorded[employee];
+                recorded[employee] = null;
+            }
+        }
+        for (int node = 0; node < count; node++) {
+            if (removedEnd[node] > removedStart[node] || addedEnd[node] > addedStart[node]) {
+                postings[node] = merge(postings[node], removed, removedStart[node], removedEnd[node], added, addedStart[node], addedEnd[node]);
+            }
+        }
+    }
+
+    /**
+     * <p>Returns <code>(posting - removed) + added</code>, all sorted</p>
+     *
+     * @param posting - current posting, may be null
+     * @param removed - removed employees
+     * @param removedFrom - first removed
+     * @param removedTo - last removed, excluded
+     * @param added - added employees
+     * @param addedFrom - first added
+     * @param addedTo - last added, excluded
+     * @return the new posting, null if empty
+     */
+    private static int[] merge(int[] posting, int[] removed, int removedFrom, int removedTo, int[] added, int addedFrom, int addedTo) {
+        int[] current = posting != null ? posting : NO_NODES;
+        int[] merged = new int[current.length + addedTo - addedFrom];
+        int size = 0;
+        int r = removedFrom;
+        int a = addedFrom;
+        for (int employee : current) {
+            while (r < removedTo && removed[r] < employee) {
+                r++;
+            }
+            if (r == removedTo || removed[r] != employee) {
+                while (a < addedTo && added[a] < employee) {
+                    merged[size++] = added[a++];
+                }
+                if (a < addedTo && added[a] == employee) {
+                    a++;
+                }
+                merged[size++] = employee;
+            }
+        }
+        while (a < addedTo) {
+            merged[size++] = added[a++];
+        }
+        return size == 0 ? null : size == merged.length ? merged : Arrays.copyOf(merged, size);
+    }
+
+    /**
+     * <p>Returns the employees depending on at least one of the keys.</p>
+     *
+     * @param keys - changed configuration keys
+     * @return the affected employees, a new set
+     */
+    public synchronized BitSet affectedByKeys(Collection<String> keys) {
+        BitSet affected = new BitSet();
+        for (String key : keys) {
+            or(affected, keyNodes.get(key));
+        }
+        return affected;
+    }
+
+    /**
+     * <p>Returns the employees depending on the input record.</p>
+     *
+     * @param recordId - changed record id
+     * @return the affected employees, a new set
+     */
+    public synchronized BitSet affectedByRecord(String recordId) {
+        BitSet affected = new BitSet();
+        or(affected, recordNodes.get(recordId));
+        return affected;
+    }
+
+    /**
+     * @param affected - the result
+     * @param node - the node, null if unknown
+     */
+    private void or(BitSet affected, Integer node) {
+        if (node != null && node.intValue() < postings.length && postings[node.intValue()] != null) {
+            for (int employee : postings[node.intValue()]) {
+                affected.set(employee);
+            }
+        }
+    }
+
+    /**
+     * Return the number of employees.
+     *
+     * @return employees count
+     */
+    public int size() {
+        return edges.length;
+    }
+
+    /**
+     * Return the number of interned keys and records.
+     *
+     * @return nodes count
+     */
+    public int getNodeCount() {
+        return nodeCount.get();
+    }
+}
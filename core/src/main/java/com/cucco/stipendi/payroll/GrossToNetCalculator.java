@@ -0,0 +1,172 @@
+/*
+ * GrossToNetCalculator.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.payroll;
+
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.cucco.stipendi.money.Money;
+import com.cucco.stipendi.tax.BracketTable;
+import com.cucco.stipendi.tax.TaxTables;
+import com.cucco.stipendi.utility.Config;
+import com.cucco.stipendi.utility.ConfigSnapshot;
+
+/**
+ * <p>Monthly gross to net calculation on the {@link TaxTables}: employee contributions, then income tax and surcharges withheld on the monthly
+ * taxable projected over twelve months. Gross amounts are read from an array and net amounts written to another, both indexed by employee.</p>
+ * <p>Employees may be given a municipality code: those whose municipality has its own brackets
+ * ({@link TaxTables#municipalSurchargeKey(String)}) use them instead of the default ones. Every payslip declares the keys it was calculated
+ * with, for the {@link IncrementalPayroll}.</p>
+ * <p>Tables and rates are taken from a single configuration snapshot when the calculator is created, so a run is consistent even if the
+ * configuration is reloaded meanwhile.</p>
+ * <p>Thread safe, allocation free.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class GrossToNetCalculator implements PayrollCalculator {
+
+    /**
+     * <p>Months used to project the monthly taxable</p>
+     */
+    private static final long MONTHS = 12L;
+
+    private static final RoundingMode ROUNDING = Money.ROUNDING;
+
+    private final long contributionRate;
+
+    private final BracketTable additionalContribution;
+
+    private final BracketTable incomeTax;
+
+    private final BracketTable regionalSurcharge;
+
+    private final BracketTable municipalSurcharge;
+
+    /**
+     * <p>Municipal surcharge brackets by employee, null if every employee uses the default ones</p>
+     */
+    private final BracketTable[] municipalTables;
+
+    /**
+     * <p>Key of the municipal surcharge brackets by employee, null if every employee uses the default ones</p>
+     */
+    private final String[] municipalKeys;
+
+    /**
+     * <p>Monthly gross amounts, in cents</p>
+     */
+    private final long[] gross;
+
+    /**
+     * <p>Monthly net amounts, in cents, written by the calculation; may be null</p>
+     */
+    private final long[] net;
+
+    /**
+     * @param config - configuration holding the tax tables
+     * @param gross - monthly gross amounts by employee, in cents
+     * @param net - array receiving the net amounts, may be null
+     */
+    public GrossToNetCalculator(Config config, long[] gross, long[] net) {
+        this(config, gross, null, net);
+    }
+
+    /**
+     * @param config - configuration holding the tax tables
+     * @param gross - monthly gross amounts by employee, in cents
+     * @param municipalities - municipality codes by employee, may be null as a whole or by employee
+     * @param net - array receiving the net amounts, may be null
+     */
+    public GrossToNetCalculator(Config config, long[] gross, String[] municipalities, long[] net) {
+        ConfigSnapshot snapshot = config.getSnapshot();
+        this.contributionRate = snapshot.get(TaxTables.EMPLOYEE_CONTRIBUTION).getMicros();
+        this.additionalContribution = snapshot.get(TaxTables.EMPLOYEE_ADDITIONAL_CONTRIBUTION);
+        this.incomeTax = snapshot.get(TaxTables.IRPEF);
+        this.regionalSurcharge = snapshot.get(TaxTables.REGIONAL_SURCHARGE);
+        this.municipalSurcharge = snapshot.get(TaxTables.MUNICIPAL_SURCHARGE);
+        this.gross = gross;
+        this.net = net;
+        if (municipalities != null) {
+            this.municipalTables = new BracketTable[municipalities.length];
+            this.municipalKeys = new String[municipalities.length];
+            Map<String, BracketTable> tables = new HashMap<String, BracketTable>();
+            Map<String, String> keys = new HashMap<String, String>();
+            for (int i = 0; i < municipalities.length; i++) {
+                String municipality = municipalities[i];
+                if (municipality != null) {
+                    BracketTable table = tables.get(municipality);
+                    if (table == null) {
+                        String key = TaxTables.municipalSurchargeKey(municipality);
+                        table = municipalTable(snapshot.get(key));
+                        tables.put(municipality, table);
+                        keys.put(municipality, key);
+                    }
+                    municipalTables[i] = table;
+                    municipalKeys[i] = keys.get(municipality);
+                }
+            }
+        } else {
+            this.municipalTables = null;
+            this.municipalKeys = null;
+        }
+    }
+
+    /**
+     * @param value - raw value of a municipality brackets, may be null
+     * @return the brackets, null if missing or not valid
+     */
+    private static BracketTable municipalTable(String value) {
+        BracketTable table = null;
+        if (value != null) {
+            try {
+                table = BracketTable.parse(value);
+            } catch (IllegalArgumentException e) {
+                table = null;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * @see com.cucco.stipendi.payroll.PayrollCalculator#calculate(int, com.cucco.stipendi.payroll.Payslip)
+     */
+    @Override
+    public void calculate(int employee, Payslip payslip) {
+        long amount = gross[employee];
+        long contributions = Money.addCents(Money.multiplyCents(amount, contributionRate, ROUNDING),
+                Money.divideCents(additionalContribution.progressive(Math.multiplyExact(amount, MONTHS), ROUNDING), MONTHS, ROUNDING));
+        long taxable = Money.subtractCents(amount, contributions);
+        long annualTaxable = Money.roundCentsToUnit(Math.multiplyExact(taxable, MONTHS), ROUNDING);
+        BracketTable municipal = municipalSurcharge;
+        payslip.dependsOnKey(TaxTables.EMPLOYEE_CONTRIBUTION.getName());
+        payslip.dependsOnKey(TaxTables.EMPLOYEE_ADDITIONAL_CONTRIBUTION.getName());
+        payslip.dependsOnKey(TaxTables.IRPEF.getName());
+        payslip.dependsOnKey(TaxTables.REGIONAL_SURCHARGE.getName());
+        if (municipalKeys != null && municipalKeys[employee] != null) {
+            // Dipende dalla chiave del comune anche se assente: aggiungerla cambia il risultato
+            payslip.dependsOnKey(municipalKeys[employee]);
+            if (municipalTables[employee] != null) {
+                municipal = municipalTables[employee];
+            }
+        }
+        if (municipal == municipalSurcharge) {
+            payslip.dependsOnKey(TaxTables.MUNICIPAL_SURCHARGE.getName());
+        }
+        long annualTax = Money.addCents(Money.addCents(incomeTax.progressive(annualTaxable, ROUNDING),
+                regionalSurcharge.progressive(annualTaxable, ROUNDING)), municipal.flat(annualTaxable, ROUNDING));
+        long tax = Money.divideCents(annualTax, MONTHS, ROUNDING);
+        long netAmount = Money.subtractCents(taxable, tax);
+        payslip.setGross(amount);
+        payslip.setContributions(contributions);
+        payslip.setTaxable(taxable);
+        payslip.setTax(tax);
+        payslip.setNet(netAmount);
+        if (net != null) {
+            net[employee] = netAmount;
+        }
+    }
+}
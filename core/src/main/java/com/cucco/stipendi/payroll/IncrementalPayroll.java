@@ -0,0 +1,382 @@
+/*
+ * IncrementalPayroll.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.payroll;
+
+import java.io.Closeable;
+import java.util.BitSet;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.cucco.stipendi.money.Money;
+import com.cucco.stipendi.utility.Config;
+import com.cucco.stipendi.utility.ConfigChange;
+import com.cucco.stipendi.utility.ConfigChangeListener;
+import com.cucco.stipendi.utility.ConfigSnapshot;
+
+/**
+ * <p>Payroll of a tenant kept up to date by recalculating only the employees affected by a change.</p>
+ * <p>The first {@link #recompute()} calculates every employee through the {@link PayrollEngine}, keeping the amounts of each employee and the
+ * {@link DependencyGraph} of the keys and records each result was calculated with. Afterwards:</p>
+ * <ul>
+ * <li>a configuration published by the {@link Config} (a {@link com.cucco.stipendi.utility.ParameterReader} reload) marks the employees depending
+ * on the changed keys: a new municipal surcharge marks the employees of that municipality only;</li>
+ * <li>{@link #recordChanged(String)} and {@link #employeeChanged(int)} mark the employees depending on a changed input record;</li>
+ * </ul>
+ * <p>and the next {@link #recompute()} recalculates the marked employees only, applying to the totals, overall and by group, the difference
+ * between the new and the previous amounts. A configuration published during a recalculation is compared with the snapshot the recalculation
+ * started from, so no change is lost.</p>
+ * <p>Marking is cheap and thread safe, so it runs on the reloading thread; recalculations are serialized.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class IncrementalPayroll implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private final PayrollEngine engine;
+
+    private final String tenantId;
+
+    private final Config config;
+
+    /**
+     * <p>Builds the calculator on the current configuration</p>
+     */
+    private final Function<Config, PayrollCalculator> calculators;
+
+    private final int size;
+
+    /**
+     * <p>Aggregation group by employee, null without groups</p>
+     */
+    private final int[] groups;
+
+    private final long[] gross;
+
+    private final long[] contributions;
+
+    private final long[] taxable;
+
+    private final long[] tax;
+
+    private final long[] net;
+
+    private final DependencyGraph graph;
+
+    private final PayrollTotals totals = new PayrollTotals();
+
+    /**
+     * <p>Totals by group</p>
+     */
+    private final PayrollTotals[] groupTotals;
+
+    /**
+     * <p>Employees to recalculate, guarded by itself</p>
+     */
+    private final BitSet dirty = new BitSet();
+
+    private final ConfigChangeListener listener = this::configChanged;
+
+    /**
+     * <p>True after the first calculation, guarded by this</p>
+     */
+    private boolean calculated;
+
+    /**
+     * @param engine - the payroll engine
+     * @param tenantId - tenant id, selects the engine pool
+     * @param config - configuration the results depend on
+     * @param size - number of employees
+     * @param groups - aggregation group by employee, from 0, may be null
+     * @param calculators - builds the calculator on the current configuration; the calculator should declare its dependencies into the payslip
+     */
+    public IncrementalPayroll(PayrollEngine engine, String tenantId, Config config, int size, int[] groups,
+            Function<Config, PayrollCalculator> calculators) {
+        this.engine = engine;
+        this.tenantId = tenantId;
+        this.config = config;
+        this.calculators = calculators;
+        this.size = size;
+        this.groups = groups;
+        this.gross = new long[size];
+        this.contributions = new long[size];
+        this.taxable = new long[size];
+        this.tax = new long[size];
+        this.net = new long[size];
+        this.graph = new DependencyGraph(size);
+        int groupCount = 0;
+        if (groups != null) {
+            for (int group : groups) {
+                groupCount = Math.max(groupCount, group + 1);
+            }
+        }
+        this.groupTotals = new PayrollTotals[groupCount];
+        for (int i = 0; i < groupCount; i++) {
+            groupTotals[i] = new PayrollTotals();
+        }
+        config.addPrefixChangeListener("", listener);
+    }
+
+    /**
+     * <p>Calculates every employee the first time, then the employees marked since the previous call. Amounts and totals change only when every
+     * employee has been calculated: if a calculation fails they are left as they were and the employees stay marked for the next call.</p>
+     *
+     * @return the number of calculated employees
+     * @throws ArithmeticException if a total exceeds 64 bits
+     */
+    public synchronized int recompute() {
+        int[] employees;
+        synchronized (dirty) {
+            if (!calculated) {
+                dirty.set(0, size);
+            }
+            employees = dirty.stream().toArray();
+            dirty.clear();
+        }
+        if (employees.length > 0) {
+            long start = System.nanoTime();
+            ConfigSnapshot snapshot = config.getSnapshot();
+            long[] results = new long[employees.length * 5];
+            long[] sums = new long[(groupTotals.length + 1) * 5];
+            boolean completed = false;
+            try {
+                PayrollCalculator calculator = calculators.apply(config);
+                engine.run(tenantId, employees.length, (index, payslip) -> {
+                    int employee = employees[index];
+                    payslip.reset(employee);
+                    calculator.calculate(employee, payslip);
+                    results[index * 5] = payslip.getGross();
+                    results[index * 5 + 1] = payslip.getContributions();
+                    results[index * 5 + 2] = payslip.getTaxable();
+                    results[index * 5 + 3] = payslip.getTax();
+                    results[index * 5 + 4] = payslip.getNet();
+                    // le dipendenze registrate valgono solo dopo index()
+                    graph.record(employee, payslip);
+                });
+                // Differenze con gli importi precedenti: in coda i totali generali, prima quelli per gruppo
+                int overall = groupTotals.length * 5;
+                for (int i = 0; i < employees.length; i++) {
+                    int employee = employees[i];
+                    int group = groups != null ? groups[employee] * 5 : -1;
+                    for (int amount = 0; amount < 5; amount++) {
+                        long delta = Money.subtractCents(results[i * 5 + amount], amounts(amount)[employee]);
+                        sums[overall + amount] = Money.addCents(sums[overall + amount], delta);
+                        if (group >= 0) {
+                            sums[group + amount] = Money.addCents(sums[group + amount], delta);
+                        }
+                    }
+                }
+                completed = true;
+            } finally {
+                if (!completed) {
+                    // calcolo non concluso: gli importi restano quelli precedenti e i dipendenti da ricalcolare
+                    synchronized (dirty) {
+                        for (int employee : employees) {
+                            dirty.set(employee);
+                        }
+                    }
+                }
+            }
+            graph.index(employees);
+            for (int i = 0; i < employees.length; i++) {
+                for (int amount = 0; amount < 5; amount++) {
+                    amounts(amount)[employees[i]] = results[i * 5 + amount];
+                }
+            }
+            long count = calculated ? 0L : 1L;
+            if (groups != null) {
+                long[] groupCounts = new long[groupTotals.length];
+                for (int employee : employees) {
+                    groupCounts[groups[employee]] += count;
+                }
+                for (int group = 0; group < groupTotals.length; group++) {
+                    int offset = group * 5;
+                    groupTotals[group].add(groupCounts[group], sums[offset], sums[offset + 1], sums[offset + 2], sums[offset + 3], sums[offset + 4]);
+                }
+            }
+            int overall = groupTotals.length * 5;
+            totals.add(count * employees.length, sums[overall], sums[overall + 1], sums[overall + 2], sums[overall + 3], sums[overall + 4]);
+            calculated = true;
+            ConfigSnapshot current = config.getSnapshot();
+            if (current.getVersion() != snapshot.getVersion()) {
+                // Configurazione cambiata durante il calcolo: confronto con lo snapshot iniziale
+                mark(graph.affectedByKeys(ConfigChange.between(snapshot, current).getChangedKeys()));
+            }
+            logger.info("Tenant [{}]: recalculated [{}] of [{}] employees in [{}] ms", tenantId, employees.length, size,
+                    (System.nanoTime() - start) / 1000000L);
+        }
+        return employees.length;
+    }
+
+    /**
+     * @param amount - 0 gross, 1 contributions, 2 taxable, 3 tax, 4 net
+     * @return the amounts by employee
+     */
+    private long[] amounts(int amount) {
+        switch (amount) {
+        case 0:
+            return gross;
+        case 1:
+            return contributions;
+        case 2:
+            return taxable;
+        case 3:
+            return tax;
+        default:
+            return net;
+        }
+    }
+
+    /**
+     * <p>Marks the employees depending on the changed keys.</p>
+     *
+     * @param change - the configuration change
+     */
+    private void configChanged(ConfigChange change) {
+        BitSet affected = graph.affectedByKeys(change.getChangedKeys());
+        mark(affected);
+        logger.debug("Tenant [{}]: [{}] employees affected by [{}]", tenantId, affected.cardinality(), change.getChangedKeys());
+    }
+
+    /**
+     * <p>Marks the employees depending on a changed input record.</p>
+     *
+     * @param recordId - the record id declared by the calculator
+     */
+    public void recordChanged(String recordId) {
+        mark(graph.affectedByRecord(recordId));
+    }
+
+    /**
+     * <p>Marks an employee whose own input data changed.</p>
+     *
+     * @param employee - employee index
+     */
+    public void employeeChanged(int employee) {
+        synchronized (dirty) {
+            dirty.set(employee);
+        }
+    }
+
+    /**
+     * @param affected - employees to mark
+     */
+    private void mark(BitSet affected) {
+        synchronized (dirty) {
+            dirty.or(affected);
+        }
+    }
+
+    /**
+     * Return the number of employees waiting for a recalculation.
+     *
+     * @return marked employees count
+     */
+    public int getPendingCount() {
+        synchronized (dirty) {
+            return dirty.cardinality();
+        }
+    }
+
+    /**
+     * Return the overall totals.
+     *
+     * @return the totals, updated by every recalculation
+     */
+    public PayrollTotals getTotals() {
+        return totals;
+    }
+
+    /**
+     * <p>Returns the totals of a group</p>
+     *
+     * @param group - group index
+     * @return the totals, updated by every recalculation
+     */
+    public PayrollTotals getTotals(int group) {
+        return groupTotals[group];
+    }
+
+    /**
+     * Return the number of groups.
+     *
+     * @return groups count
+     */
+    public int getGroupCount() {
+        return groupTotals.length;
+    }
+
+    /**
+     * <p>Returns the gross amount of an employee</p>
+     *
+     * @param employee - employee index
+     * @return gross amount, in cents
+     */
+    public long getGross(int employee) {
+        return gross[employee];
+    }
+
+    /**
+     * <p>Returns the contributions of an employee</p>
+     *
+     * @param employee - employee index
+     * @return contributions, in cents
+     */
+    public long getContributions(int employee) {
+        return contributions[employee];
+    }
+
+    /**
+     * <p>Returns the taxable amount of an employee</p>
+     *
+     * @param employee - employee index
+     * @return taxable amount, in cents
+     */
+    public long getTaxable(int employee) {
+        return taxable[employee];
+    }
+
+    /**
+     * <p>Returns the tax of an employee</p>
+     *
+     * @param employee - employee index
+     * @return tax, in cents
+     */
+    public long getTax(int employee) {
+        return tax[employee];
+    }
+
+    /**
+     * <p>Returns the net amount of an employee</p>
+     *
+     * @param employee - employee index
+     * @return net amount, in cents
+     */
+    public long getNet(int employee) {
+        return net[employee];
+    }
+
+    /**
+     * Return the dependency graph.
+     *
+     * @return the graph
+     */
+    public DependencyGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * <p>Stops following the configuration.</p>
+     *
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() {
+        config.removeChangeListener(listener);
+    }
+}
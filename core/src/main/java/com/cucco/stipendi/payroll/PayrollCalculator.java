@@ -0,0 +1,25 @@
+/*
+ * PayrollCalculator.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.payroll;
+
+/**
+ * <p>Calculation of a single employee, invoked by {@link PayrollEngine} concurrently from its worker threads.</p>
+ * <p>Implementations must be thread safe and should not allocate: read the input from shared arrays, keep intermediate values in the
+ * {@link Payslip} and write the outputs to per employee slots.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@FunctionalInterface
+public interface PayrollCalculator {
+
+    /**
+     * <p>Calculates an employee, filling the payslip amounts.</p>
+     *
+     * @param employee - employee index, from 0 to the run size
+     * @param payslip - the worker thread payslip, reset for this employee
+     */
+    void calculate(int employee, Payslip payslip);
+}
@@ -0,0 +1,348 @@
+/*
+ * PayrollEngine.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.payroll;
+
+import java.io.Closeable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.cucco.stipendi.money.Money;
+import com.cucco.stipendi.utility.Config;
+import com.cucco.stipendi.utility.ConfigKey;
+
+/**
+ * <p>Batch payroll calculation engine.</p>
+ * <p>A run splits the employee index range in halves, recursively, down to chunks of {@link #CHUNK_SIZE} employees, as fork/join tasks: idle
+ * workers steal the larger pending halves, so the load balances itself even when employees have very different costs. Each worker thread owns a
+ * {@link Payslip} reused for all its employees and sums its chunk locally, merging into the striped {@link PayrollTotals} once per chunk: the
+ * threads share nothing while calculating and the throughput grows with the cores.</p>
+ * <p>Parameters are read at the start of each run from the given configuration, normally the {@link com.cucco.stipendi.utility.ParameterReader}:</p>
+ * <ul>
+ * <li>{@link #PARALLELISM}, worker threads, 0 for the available processors;</li>
+ * <li>{@link #CHUNK_SIZE}, employees calculated by a task without further splitting;</li>
+ * <li>{@link #TENANT_THREAD_CAP}, maximum worker threads of a tenant, 0 for no cap.</li>
+ * </ul>
+ * <p>All the tenants share a single pool sized to the parallelism, which is therefore the global limit of the worker threads. A run of a
+ * capped tenant does not split recursively: it starts as many lanes as the cap, each a single task taking the next chunk from a shared
+ * cursor until the range is exhausted, so the tenant never occupies more threads than the cap and leaves the others to the other tenants.
+ * The pool is replaced when the parallelism changes; the replaced pool completes the runs in progress and then terminates, while a run that
+ * finds it already shut down is resubmitted to the new one.</p>
+ * <p>Thread safe: runs of the same or different tenants can be started concurrently.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class PayrollEngine implements Closeable {
+
+    /**
+     * <p>Logger instance</p>
+     */
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * <p>Worker threads of a run, 0 for the available processors</p>
+     */
+    public static final ConfigKey<Integer> PARALLELISM = ConfigKey.of("payrollParallelism", 0);
+
+    /**
+     * <p>Employees calculated by a single task</p>
+     */
+    public static final ConfigKey<Integer> CHUNK_SIZE = ConfigKey.of("payrollChunkSize", 512);
+
+    /**
+     * <p>Maximum worker threads of a tenant, 0 for no cap</p>
+     */
+    public static final ConfigKey<Integer> TENANT_THREAD_CAP = ConfigKey.of("payrollTenantThreadCap", 0);
+
+    /**
+     * <p>Engine parameters</p>
+     */
+    private final Config parameters;
+
+    /**
+     * <p>Worker pool shared by the tenants, null until the first run or after {@link #close()}</p>
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * @param parameters - engine parameters, read at the start of each run
+     */
+    public PayrollEngine(Config parameters) {
+        this.parameters = parameters;
+    }
+
+    /**
+     * <p>Calculates the employees from 0 to <code>size</code> and waits for the completion.</p>
+     *
+     * @param tenantId - tenant id, null for the runs without tenant
+     * @param size - number of employees
+     * @param calculator - employee calculation
+     * @return the run totals
+     * @throws RuntimeException the first exception thrown by the calculator
+     */
+    public PayrollTotals run(String tenantId, int size, PayrollCalculator calculator) {
+        long start = System.nanoTime();
+        int chunkSize = Math.max(1, parameters.get(CHUNK_SIZE).intValue());
+        int cap = parameters.get(TENANT_THREAD_CAP).intValue();
+        PayrollTotals totals = new PayrollTotals();
+        ForkJoinPool pool = null;
+        ForkJoinTask<Void> submitted = null;
+        while (submitted == null) {
+            pool = pool();
+            // i task non sono riutilizzabili dopo un rifiuto: se ne crea uno nuovo ad ogni tentativo
+            RecursiveAction task = cap > 0 && cap < pool.getParallelism() ? new LanesTask(size, chunkSize, cap, calculator, totals)
+                    : new ChunkTask(0, size, chunkSize, calculator, totals);
+            try {
+                submitted = pool.submit(task);
+            } catch (RejectedExecutionException e) {
+                // il pool e' stato sostituito tra pool() e submit: si riprova sul nuovo, altrimenti l'errore e' reale
+                if (!pool.isShutdown()) {
+                    throw e;
+                }
+                logger.debug("Payroll run [{}]: pool replaced, resubmitting", tenantId);
+            }
+        }
+        submitted.join();
+        if (logger.isInfoEnabled()) {
+            logger.info("Payroll run [{}]: [{}] employees, [{}] threads, [{}] ms", tenantId, Integer.valueOf(size),
+                    Integer.valueOf(cap > 0 ? Math.min(cap, pool.getParallelism()) : pool.getParallelism()), Long.valueOf(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        }
+        return totals;
+    }
+
+    /**
+     * <p>Returns the shared pool, replacing it if the parallelism changed.</p>
+     *
+     * @return the pool
+     */
+    private synchronized ForkJoinPool pool() {
+        int parallelism = parameters.get(PARALLELISM).intValue();
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        if (pool == null || pool.getParallelism() != parallelism || pool.isShutdown()) {
+            if (pool != null) {
+                pool.shutdown();
+            }
+            logger.info("Payroll pool: [{}] threads", Integer.valueOf(parallelism));
+            pool = new ForkJoinPool(parallelism, new WorkerFactory(), null, false);
+        }
+        return pool;
+    }
+
+    /**
+     * <p>Shuts the pool down. Runs in progress complete.</p>
+     *
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public synchronized void close() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    /**
+     * <p>Calculates a range of employees with the worker payslip and merges the subtotals</p>
+     *
+     * @param from - first employee, inclusive
+     * @param to - last employee, exclusive
+     * @param calculator - employee calculation
+     * @param totals - run totals
+     */
+    private static void calculate(int from, int to, PayrollCalculator calculator, PayrollTotals totals) {
+        Thread thread = Thread.currentThread();
+        Payslip payslip = thread instanceof Worker ? ((Worker) thread).payslip : new Payslip();
+        long gross = 0L;
+        long contributions = 0L;
+        long taxable = 0L;
+        long tax = 0L;
+        long net = 0L;
+        for (int i = from; i < to; i++) {
+            payslip.reset(i);
+            calculator.calculate(i, payslip);
+            gross = Money.addCents(gross, payslip.getGross());
+            contributions = Money.addCents(contributions, payslip.getContributions());
+            taxable = Money.addCents(taxable, payslip.getTaxable());
+            tax = Money.addCents(tax, payslip.getTax());
+            net = Money.addCents(net, payslip.getNet());
+        }
+        totals.add(to - from, gross, contributions, taxable, tax, net);
+    }
+
+    /**
+     * <p>Calculates a range of employees, splitting it while larger than the chunk size</p>
+     */
+    private static final class ChunkTask extends RecursiveAction {
+
+        /**
+         * <p>Serial uid</p>
+         */
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+
+        private final int to;
+
+        private final int chunkSize;
+
+        private final PayrollCalculator calculator;
+
+        private final PayrollTotals totals;
+
+        /**
+         * @param from - first employee, inclusive
+         * @param to - last employee, exclusive
+         * @param chunkSize - chunk size
+         * @param calculator - employee calculation
+         * @param totals - run totals
+         */
+        private ChunkTask(int from, int to, int chunkSize, PayrollCalculator calculator, PayrollTotals totals) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.calculator = calculator;
+            this.totals = totals;
+        }
+
+        /**
+         * @see java.util.concurrent.RecursiveAction#compute()
+         */
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                calculate(from, to, calculator, totals);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkTask(from, middle, chunkSize, calculator, totals), new ChunkTask(middle, to, chunkSize, calculator, totals));
+            }
+        }
+    }
+
+    /**
+     * <p>Calculates a run of a capped tenant on a fixed number of lanes sharing a chunk cursor</p>
+     */
+    private static final class LanesTask extends RecursiveAction {
+
+        /**
+         * <p>Serial uid</p>
+         */
+        private static final long serialVersionUID = 1L;
+
+        private final int size;
+
+        private final int chunkSize;
+
+        private final int lanes;
+
+        private final PayrollCalculator calculator;
+
+        private final PayrollTotals totals;
+
+        /**
+         * <p>First employee of the next chunk</p>
+         */
+        private final AtomicLong cursor = new AtomicLong();
+
+        /**
+         * @param size - number of employees
+         * @param chunkSize - chunk size
+         * @param lanes - number of lanes, the tenant thread cap
+         * @param calculator - employee calculation
+         * @param totals - run totals
+         */
+        private LanesTask(int size, int chunkSize, int lanes, PayrollCalculator calculator, PayrollTotals totals) {
+            this.size = size;
+            this.chunkSize = chunkSize;
+            this.lanes = lanes;
+            this.calculator = calculator;
+            this.totals = totals;
+        }
+
+        /**
+         * @see java.util.concurrent.RecursiveAction#compute()
+         */
+        @Override
+        protected void compute() {
+            Lane[] tasks = new Lane[lanes];
+            for (int i = 0; i < lanes; i++) {
+                tasks[i] = new Lane();
+            }
+            invokeAll(tasks);
+        }
+
+        /**
+         * <p>Single task calculating chunks until the cursor reaches the end: it never runs on more than one thread</p>
+         */
+        private final class Lane extends RecursiveAction {
+
+            /**
+             * <p>Serial uid</p>
+             */
+            private static final long serialVersionUID = 1L;
+
+            /**
+             * @see java.util.concurrent.RecursiveAction#compute()
+             */
+            @Override
+            protected void compute() {
+                long from;
+                // cursore long: gli incrementi oltre la fine non possono traboccare
+                while ((from = cursor.getAndAdd(chunkSize)) < size) {
+                    calculate((int) from, (int) Math.min(size, from + chunkSize), calculator, totals);
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Worker thread owning its scratch payslip</p>
+     */
+    private static final class Worker extends ForkJoinWorkerThread {
+
+        /**
+         * <p>Scratch payslip, confined to this thread</p>
+         */
+        private final Payslip payslip = new Payslip();
+
+        /**
+         * @param pool - owning pool
+         */
+        private Worker(ForkJoinPool pool) {
+            super(pool);
+        }
+    }
+
+    /**
+     * <p>Creates the named workers of the pool</p>
+     */
+    private static final class WorkerFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+
+        /**
+         * <p>Thread counter</p>
+         */
+        private final AtomicInteger counter = new AtomicInteger();
+
+        /**
+         * @see java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory#newThread(java.util.concurrent.ForkJoinPool)
+         */
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = new Worker(pool);
+            thread.setName("stipendi-payroll-" + counter.incrementAndGet());
+            return thread;
+        }
+    }
+}
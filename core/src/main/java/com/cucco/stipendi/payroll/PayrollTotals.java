@@ -0,0 +1,114 @@
+/*
+ * PayrollTotals.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.payroll;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.cucco.stipendi.money.Money;
+
+/**
+ * <p>Totals of a payroll run, merged by the worker threads through {@link LongAdder}s: each adder is striped per thread, so the merge of a
+ * chunk never contends on a single counter. Workers add their chunk subtotals once per chunk, not once per employee.</p>
+ * <p>Thread safe.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class PayrollTotals {
+
+    private final LongAdder employees = new LongAdder();
+
+    private final LongAdder gross = new LongAdder();
+
+    private final LongAdder contributions = new LongAdder();
+
+    private final LongAdder taxable = new LongAdder();
+
+    private final LongAdder tax = new LongAdder();
+
+    private final LongAdder net = new LongAdder();
+
+    /**
+     * <p>Merges the subtotals of a chunk</p>
+     *
+     * @param employeesCount - employees in the chunk
+     * @param grossSum - gross sum, in cents
+     * @param contributionsSum - contributions sum, in cents
+     * @param taxableSum - taxable sum, in cents
+     * @param taxSum - tax sum, in cents
+     * @param netSum - net sum, in cents
+     */
+    void add(long employeesCount, long grossSum, long contributionsSum, long taxableSum, long taxSum, long netSum) {
+        employees.add(employeesCount);
+        gross.add(grossSum);
+        contributions.add(contributionsSum);
+        taxable.add(taxableSum);
+        tax.add(taxSum);
+        net.add(netSum);
+    }
+
+    /**
+     * Return the number of calculated employees.
+     *
+     * @return employees count
+     */
+    public long getEmployees() {
+        return employees.sum();
+    }
+
+    /**
+     * Return gross value.
+     *
+     * @return gross value.
+     */
+    public Money getGross() {
+        return Money.ofCents(gross.sum());
+    }
+
+    /**
+     * Return contributions value.
+     *
+     * @return contributions value.
+     */
+    public Money getContributions() {
+        return Money.ofCents(contributions.sum());
+    }
+
+    /**
+     * Return taxable value.
+     *
+     * @return taxable value.
+     */
+    public Money getTaxable() {
+        return Money.ofCents(taxable.sum());
+    }
+
+    /**
+     * Return tax value.
+     *
+     * @return tax value.
+     */
+    public Money getTax() {
+        return Money.ofCents(tax.sum());
+    }
+
+    /**
+     * Return net value.
+     *
+     * @return net value.
+     */
+    public Money getNet() {
+        return Money.ofCents(net.sum());
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder("PayrollTotals [employees=").append(getEmployees()).append(", gross=").append(getGross()).append(", contributions=")
+                .append(getContributions()).append(", tax=").append(getTax()).append(", net=").append(getNet()).append(']').toString();
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Payslip.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.payroll;
+
+import java.util.Arrays;
+
+/**
+ * <p>Mutable result of the calculation of one employee, filled by a {@link PayrollCalculator}.</p>
+ * <p>{@link PayrollEngine} keeps one instance per worker thread and reuses it for every employee the thread calculates, so the calculation of
+ * an employee allocates nothing; the {@link #lines(int)} buffer grows to the largest size requested and is then reused as well. Calculators must
+ * copy out whatever they want to keep: the content is overwritten by the next employee. Amounts are in cents.</p>
+ * <p>Calculators may also declare the configuration keys and the input records the result depends on ({@link #dependsOnKey(String)},
+ * {@link #dependsOnRecord(String)}), so that {@link IncrementalPayroll} recalculates the employee only when one of them changes.</p>
+ * <p>Not thread safe: confined to its worker thread.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class Payslip {
+
+    /**
+     * <p>Employee index into the run</p>
+     */
+    private int employee;
+
+    private long gross;
+
+    private long contributions;
+
+    private long taxable;
+
+    private long tax;
+
+    private long net;
+
+    /**
+     * <p>Scratch buffer for the payslip lines</p>
+     */
+    private long[] lines = new long[16];
+
+    /**
+     * <p>Configuration keys read by the calculation</p>
+     */
+    private String[] keys = new String[8];
+
+    private int keyCount;
+
+    /**
+     * <p>Input records read by the calculation</p>
+     */
+    private String[] records = new String[4];
+
+    private int recordCount;
+
+    /**
+     * <p>Clears the amounts before the calculation of an employee</p>
+     *
+     * @param employee - employee index
+     */
+    public void reset(int employee) {
+        this.employee = employee;
+        this.gross = 0L;
+        this.contributions = 0L;
+        this.taxable = 0L;
+        this.tax = 0L;
+        this.net = 0L;
+        this.keyCount = 0;
+        this.recordCount = 0;
+    }
+
+    /**
+     * <p>Returns the scratch buffer, with at least the given length. The content is not cleared between employees.</p>
+     *
+     * @param minLength - minimum length
+     * @return the buffer
+     */
+    public long[] lines(int minLength) {
+        if (lines.length < minLength) {
+            lines = Arrays.copyOf(lines, Math.max(minLength, lines.length * 2));
+        }
+        return lines;
+    }
+
+    /**
+     * <p>Declares that the result depends on a configuration key. Keys missing from the configuration count too: adding them changes the
+     * result.</p>
+     *
+     * @param key - configuration key name
+     */
+    public void dependsOnKey(String key) {
+        if (keyCount == keys.length) {
+            keys = Arrays.copyOf(keys, keyCount * 2);
+        }
+        keys[keyCount++] = key;
+    }
+
+    /**
+     * <p>Declares that the result depends on an input record, identified by the caller (for instance <code>attendance/2026-10/E0042</code>).</p>
+     *
+     * @param recordId - input record id
+     */
+    public void dependsOnRecord(String recordId) {
+        if (recordCount == records.length) {
+            records = Arrays.copyOf(records, recordCount * 2);
+        }
+        records[recordCount++] = recordId;
+    }
+
+    /**
+     * Return the number of declared configuration keys.
+     *
+     * @return keys count
+     */
+    public int getKeyCount() {
+        return keyCount;
+    }
+
+    /**
+     * <p>Returns a declared configuration key</p>
+     *
+     * @param index - from 0 to {@link #getKeyCount()}
+     * @return the key name
+     */
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Return the number of declared input records.
+     *
+     * @return records count
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * <p>Returns a declared input record</p>
+     *
+     * @param index - from 0 to {@link #getRecordCount()}
+     * @return the record id
+     */
+    public String getRecord(int index) {
+        return records[index];
+    }
+
+    /**
+     * Return employee value.
+     *
+     * @return employee value.
+     */
+    public int getEmployee() {
+        return employee;
+    }
+
+    /**
+     * Return gross value.
+     *
+     * @return gross value.
+     */
+    public long getGross() {
+        return gross;
+    }
+
+    /**
+     * Set gross value.
+     *
+     * @param gross - gross value, in cents
+     */
+    public void setGross(long gross) {
+        this.gross = gross;
+    }
+
+    /**
+     * Return contributions value.
+     *
+     * @return contributions value.
+     */
+    public long getContributions() {
+        return contributions;
+    }
+
+    /**
+     * Set contributions value.
+     *
+     * @param contributions - contributions value, in cents
+     */
+    public void setContributions(long contributions) {
+        this.contributions = contributions;
+    }
+
+    /**
+     * Return taxable value.
+     *
+     * @return taxable value.
+     */
+    public long getTaxable() {
+        return taxable;
+    }
+
+    /**
+     * Set taxable value.
+     *
+     * @param taxable - taxable value, in cents
+     */
+    public void setTaxable(long taxable) {
+        this.taxable = taxable;
+    }
+
+    /**
+     * Return tax value.
+     *
+     * @return tax value.
+     */
+    public long getTax() {
+        return tax;
+    }
+
+    /**
+     * Set tax value.
+     *
+     * @param tax - tax value, in cents
+     */
+    public void setTax(long tax) {
+        this.tax = tax;
+    }
+
+    /**
+     * Return net value.
+     *
+     * @return net value.
+     */
+    public long getNet() {
+        return net;
+    }
+
+    /**
+     * Set net value.
+     *
+     * @param net - net value, in cents
+     */
+    public void setNet(long net) {
+        this.net = net;
+    }
+}
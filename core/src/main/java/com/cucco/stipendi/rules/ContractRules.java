@@ -0,0 +1,218 @@
+/*
+ * ContractRules.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.rules;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+import com.cucco.stipendi.money.Money;
+import com.cucco.stipendi.money.Rate;
+import com.cucco.stipendi.utility.Config;
+
+/**
+ * <p>Rules of a collective contract (CCNL), read from the decision tables <code>ccnl.&lt;contract&gt;.*</code> (see {@link DecisionTable}).
+ * Example:</p>
+ *
+ * <pre>
+ * ccnl.commercio.seniority=level:(List)Q|1|2|*,months:(List)36..|36..|36..|36..,amount:(List)25.82|24.84|22.83|20.66
+ * ccnl.commercio.overtime=dayType:(List)HOLIDAY|SUNDAY|*|*,night:(List)*|*|true|false,multiplier:(List)1.50|1.30|1.50|1.15
+ * ccnl.commercio.allowances=shift:(List)NIGHT|HOLIDAY|NIGHT_HOLIDAY,level:(List)*|*|*,rate:(List)15%|30%|50%
+ * </pre>
+ * <p>A table is compiled by {@link Config#getCompiled(String, String, BiFunction)} the first time it is evaluated against a configuration
+ * version and then cached by that version, so only the contracts actually evaluated are compiled, and no key is registered per contract; a
+ * reload discards the compiled tables with the old version. Evaluating a rule then looks up one code per input and reads the matching rule.
+ * A table that is not valid counts as a configuration parse failure and matches nothing.</p>
+ * <p>Instances are immutable and thread safe.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class ContractRules {
+
+    /**
+     * <p>Rules by contract code</p>
+     */
+    private static final Map<String, ContractRules> CONTRACTS = new ConcurrentHashMap<String, ContractRules>();
+
+    private static final String[] SENIORITY_INPUTS = { "level", "months" };
+
+    private static final boolean[] SENIORITY_NUMERIC = { false, true };
+
+    private static final String[] SENIORITY_OUTPUTS = { "amount" };
+
+    private static final String[] OVERTIME_INPUTS = { "dayType", "night" };
+
+    private static final boolean[] OVERTIME_NUMERIC = { false, false };
+
+    private static final String[] OVERTIME_OUTPUTS = { "multiplier" };
+
+    private static final String[] ALLOWANCE_INPUTS = { "shift", "level" };
+
+    private static final boolean[] ALLOWANCE_NUMERIC = { false, false };
+
+    private static final String[] ALLOWANCE_OUTPUTS = { "rate" };
+
+    /**
+     * <p>Kinds of the tables compiled by {@link Config#getCompiled(String, String, BiFunction)}</p>
+     */
+    private static final String SENIORITY_KIND = "ccnl.seniority";
+
+    private static final String OVERTIME_KIND = "ccnl.overtime";
+
+    private static final String ALLOWANCE_KIND = "ccnl.allowances";
+
+    private final String contract;
+
+    /**
+     * <p>Key of the monthly seniority step by level and months of seniority</p>
+     */
+    private final String seniority;
+
+    /**
+     * <p>Key of the overtime multiplier by day type and night work</p>
+     */
+    private final String overtime;
+
+    /**
+     * <p>Key of the allowance rate on the hourly pay by shift and level</p>
+     */
+    private final String allowances;
+
+    /**
+     * @param contract - contract code
+     */
+    private ContractRules(String contract) {
+        this.contract = contract;
+        String prefix = "ccnl." + contract + ".";
+        this.seniority = prefix + "seniority";
+        this.overtime = prefix + "overtime";
+        this.allowances = prefix + "allowances";
+    }
+
+    /**
+     * <p>Returns the rules of a contract.</p>
+     *
+     * @param contract - contract code, as used in the configuration keys
+     * @return the rules
+     */
+    public static ContractRules of(String contract) {
+        ContractRules rules = CONTRACTS.get(contract);
+        if (rules == null) {
+            rules = CONTRACTS.computeIfAbsent(contract, ContractRules::new);
+        }
+        return rules;
+    }
+
+    /**
+     * <p>Returns the monthly seniority amount.</p>
+     *
+     * @param config - the configuration
+     * @param level - contract level
+     * @param months - months of seniority
+     * @return the amount, zero if no rule matches
+     */
+    public Money seniorityAmount(Config config, String level, long months) {
+        DecisionTable table = table(config, SENIORITY_KIND, seniority, ContractRules::compileSeniority);
+        int rule = table.getRuleCount() == 0 ? DecisionTable.NO_RULE : table.match(table.code(0, level), table.code(1, months));
+        Money amount = rule != DecisionTable.NO_RULE ? table.getMoney(rule, 0) : null;
+        return amount != null ? amount : Money.ZERO;
+    }
+
+    /**
+     * <p>Returns the overtime multiplier of the hourly pay.</p>
+     *
+     * @param config - the configuration
+     * @param dayType - day type, for instance <code>WEEKDAY</code>, <code>SUNDAY</code>, <code>HOLIDAY</code>
+     * @param night - true for night work
+     * @return the multiplier, one if no rule matches
+     */
+    public Rate overtimeMultiplier(Config config, String dayType, boolean night) {
+        DecisionTable table = table(config, OVERTIME_KIND, overtime, ContractRules::compileOvertime);
+        int rule = table.getRuleCount() == 0 ? DecisionTable.NO_RULE : table.match(table.code(0, dayType), table.code(1, Boolean.toString(night)));
+        Rate multiplier = rule != DecisionTable.NO_RULE ? table.getRate(rule, 0) : null;
+        return multiplier != null ? multiplier : Rate.ONE;
+    }
+
+    /**
+     * <p>Returns the allowance rate on the hourly pay.</p>
+     *
+     * @param config - the configuration
+     * @param shift - shift type, for instance <code>NIGHT</code>, <code>HOLIDAY</code>
+     * @param level - contract level
+     * @return the rate, zero if no rule matches
+     */
+    public Rate allowanceRate(Config config, String shift, String level) {
+        DecisionTable table = table(config, ALLOWANCE_KIND, allowances, ContractRules::compileAllowances);
+        int rule = table.getRuleCount() == 0 ? DecisionTable.NO_RULE : table.match(table.code(0, shift), table.code(1, level));
+        Rate rate = rule != DecisionTable.NO_RULE ? table.getRate(rule, 0) : null;
+        return rate != null ? rate : Rate.ZERO;
+    }
+
+    /**
+     * @param config - the configuration
+     * @param kind - table kind
+     * @param key - table key
+     * @param compiler - table compiler
+     * @return the compiled table, {@link DecisionTable#EMPTY} if missing or not valid
+     */
+    private static DecisionTable table(Config config, String kind, String key, BiFunction<String, Class<String>, DecisionTable> compiler) {
+        DecisionTable table = config.getCompiled(kind, key, compiler);
+        return table != null ? table : DecisionTable.EMPTY;
+    }
+
+    /**
+     * @param value - raw table
+     * @param type - unused
+     * @return the seniority table, null if not valid
+     */
+    private static DecisionTable compileSeniority(String value, Class<String> type) {
+        return compile(value, SENIORITY_INPUTS, SENIORITY_NUMERIC, SENIORITY_OUTPUTS);
+    }
+
+    /**
+     * @param value - raw table
+     * @param type - unused
+     * @return the overtime table, null if not valid
+     */
+    private static DecisionTable compileOvertime(String value, Class<String> type) {
+        return compile(value, OVERTIME_INPUTS, OVERTIME_NUMERIC, OVERTIME_OUTPUTS);
+    }
+
+    /**
+     * @param value - raw table
+     * @param type - unused
+     * @return the allowances table, null if not valid
+     */
+    private static DecisionTable compileAllowances(String value, Class<String> type) {
+        return compile(value, ALLOWANCE_INPUTS, ALLOWANCE_NUMERIC, ALLOWANCE_OUTPUTS);
+    }
+
+    /**
+     * @param value - raw table
+     * @param inputs - input column names
+     * @param numeric - numeric inputs
+     * @param outputs - output column names
+     * @return the table, null if not valid
+     */
+    private static DecisionTable compile(String value, String[] inputs, boolean[] numeric, String[] outputs) {
+        DecisionTable table;
+        try {
+            table = DecisionTable.parse(value, inputs, numeric, outputs);
+        } catch (IllegalArgumentException e) {
+            table = null;
+        }
+        return table;
+    }
+
+    /**
+     * Return contract value or reference.
+     *
+     * @return contract value or reference.
+     */
+    public String getContract() {
+        return contract;
+    }
+}
@@ -0,0 +1,556 @@
+/*
+ * DecisionTable.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.rules;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import com.cucco.stipendi.money.Money;
+import com.cucco.stipendi.money.Rate;
+
+/**
+ * <p>Compiled decision table: collective contract rules such as seniority steps, overtime multipliers and night or holiday allowances.</p>
+ * <p>The configuration value uses the map syntax of {@link com.cucco.stipendi.utility.Config#get(String, Map, String, String, String)}: a
+ * comma separated list of columns, each <code>name:(List)cell|cell|...</code>, one cell per rule. The input and output columns are declared by
+ * the code reading the table ({@link #parse(String, String[], boolean[], String[])}), every column must have the same number of cells.
+ * Example:</p>
+ *
+ * <pre>
+ * ccnl.commercio.seniority=level:(List)Q|1|*,months:(List)..24|..24|24..,amount:(List)0|0|25.82
+ * </pre>
+ * <p>Input cells are a value, <code>*</code> (any value) or, for numeric inputs, an integral value or a range <code>from..to</code>, lower
+ * bound included, upper bound excluded, either bound optional. Whether an input is numeric is declared by the reading code, and the cells are
+ * validated against it while compiling: a range in a categorical column, or a number that cannot be parsed, rejects the whole table, so
+ * evaluating it never parses anything. Output cells are kept as text and, when they can be parsed, as {@link Money} and {@link Rate}. When
+ * more rules match, the first one wins.</p>
+ * <p>The table is compiled once per configuration version into a dense array with one cell per combination of input codes: the values of
+ * each categorical input (plus one code for the values not listed) and the intervals between the range bounds of each numeric input. Evaluating
+ * the table is a code lookup per input, a hash for categorical values and a binary search among a handful of bounds for numeric ones, and one
+ * array read.</p>
+ * <p>Instances are immutable and thread safe.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class DecisionTable {
+
+    /**
+     * <p>The empty table: no rules, nothing matches</p>
+     */
+    public static final DecisionTable EMPTY = new DecisionTable(new Input[0], new int[] { -1 }, new int[0], 0, new String[0][0]);
+
+    /**
+     * <p>Returned when no rule matches</p>
+     */
+    public static final int NO_RULE = -1;
+
+    /**
+     * <p>Maximum number of compiled cells</p>
+     */
+    private static final int MAX_CELLS = 1 << 22;
+
+    private static final String RECORD_SEPARATOR = ",";
+
+    private static final String FIELD_SEPARATOR = ":";
+
+    private static final String SUBFIELD_SEPARATOR = "\\|";
+
+    private static final String LIST_PREFIX = "(List)";
+
+    private static final String ANY = "*";
+
+    private static final String RANGE = "..";
+
+    private final Input[] inputs;
+
+    /**
+     * <p>Matching rule by combination of input codes, {@link #NO_RULE} if none</p>
+     */
+    private final int[] cells;
+
+    /**
+     * <p>Distance between consecutive codes of each input into {@link #cells}</p>
+     */
+    private final int[] strides;
+
+    private final int ruleCount;
+
+    /**
+     * <p>Output cells by output and rule</p>
+     */
+    private final String[][] outputs;
+
+    /**
+     * <p>Output cells parsed as amounts, null if not an amount</p>
+     */
+    private final Money[][] amounts;
+
+    /**
+     * <p>Output cells parsed as rates, null if not a rate</p>
+     */
+    private final Rate[][] rates;
+
+    /**
+     * @param inputs - compiled inputs
+     * @param cells - matching rules
+     * @param strides - input strides
+     * @param ruleCount - number of rules
+     * @param outputs - output cells
+     */
+    private DecisionTable(Input[] inputs, int[] cells, int[] strides, int ruleCount, String[][] outputs) {
+        this.inputs = inputs;
+        this.cells = cells;
+        this.strides = strides;
+        this.ruleCount = ruleCount;
+        this.outputs = outputs;
+        this.amounts = new Money[outputs.length][ruleCount];
+        this.rates = new Rate[outputs.length][ruleCount];
+        for (int i = 0; i < outputs.length; i++) {
+            for (int rule = 0; rule < ruleCount; rule++) {
+                amounts[i][rule] = parseMoney(outputs[i][rule]);
+                rates[i][rule] = parseRate(outputs[i][rule]);
+            }
+        }
+    }
+
+    /**
+     * <p>Parses and compiles a table, see the class description for the format.</p>
+     *
+     * @param value - the configuration value
+     * @param inputNames - input column names, in evaluation order
+     * @param numericInputs - true for the inputs evaluated with {@link #code(int, long)}, false for the ones evaluated with
+     *            {@link #code(int, String)}
+     * @param outputNames - output column names
+     * @return the table
+     * @throws IllegalArgumentException if the value is not a table with the given columns, has cells not valid for their input, or is too large
+     */
+    public static DecisionTable parse(String value, String[] inputNames, boolean[] numericInputs, String[] outputNames) {
+        Map<String, String[]> columns = new LinkedHashMap<String, String[]>();
+        int ruleCount = -1;
+        for (String token : value.split(RECORD_SEPARATOR)) {
+            if (!token.trim().isEmpty()) {
+                String[] field = token.split(FIELD_SEPARATOR, 2);
+                if (field.length != 2) {
+                    throw new IllegalArgumentException("Not a decision table column: " + token);
+                }
+                String cells = field[1].trim();
+                if (cells.startsWith(LIST_PREFIX)) {
+                    cells = cells.substring(LIST_PREFIX.length());
+                }
+                String[] column = cells.split(SUBFIELD_SEPARATOR, -1);
+                for (int i = 0; i < column.length; i++) {
+                    column[i] = column[i].trim();
+                }
+                if (ruleCount >= 0 && column.length != ruleCount) {
+                    throw new IllegalArgumentException("Column " + field[0].trim() + " has " + column.length + " cells instead of " + ruleCount);
+                }
+                ruleCount = column.length;
+                columns.put(field[0].trim(), column);
+            }
+        }
+        if (columns.size() != inputNames.length + outputNames.length) {
+            throw new IllegalArgumentException("Decision table columns " + columns.keySet() + " do not match " + Arrays.toString(inputNames) + " "
+                    + Arrays.toString(outputNames));
+        }
+        Input[] inputs = new Input[inputNames.length];
+        String[][] inputCells = new String[inputNames.length][];
+        for (int i = 0; i < inputs.length; i++) {
+            inputCells[i] = column(columns, inputNames[i]);
+            inputs[i] = Input.compile(inputNames[i], inputCells[i], numericInputs[i]);
+        }
+        String[][] outputs = new String[outputNames.length][];
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i] = column(columns, outputNames[i]);
+        }
+        int[] strides = new int[inputs.length];
+        long size = 1L;
+        for (int i = inputs.length - 1; i >= 0; i--) {
+            strides[i] = (int) size;
+            size *= inputs[i].codeCount;
+            if (size > MAX_CELLS) {
+                throw new IllegalArgumentException("Decision table too large: more than " + MAX_CELLS + " combinations");
+            }
+        }
+        int[] cells = new int[(int) size];
+        Arrays.fill(cells, NO_RULE);
+        int[] from = new int[inputs.length];
+        int[] to = new int[inputs.length];
+        for (int rule = 0; rule < ruleCount; rule++) {
+            for (int i = 0; i < inputs.length; i++) {
+                inputs[i].codes(inputCells[i][rule], from, to, i);
+            }
+            fill(cells, strides, from, to, 0, 0, rule);
+        }
+        return new DecisionTable(inputs, cells, strides, Math.max(ruleCount, 0), outputs);
+    }
+
+    /**
+     * @param columns - parsed columns
+     * @param name - column name
+     * @return the column cells
+     * @throws IllegalArgumentException if missing
+     */
+    private static String[] column(Map<String, String[]> columns, String name) {
+        String[] column = columns.get(name);
+        if (column == null) {
+            throw new IllegalArgumentException("Decision table column missing: " + name);
+        }
+        return column;
+    }
+
+    /**
+     * <p>Assigns the rule to the combinations of the code ranges not taken by a previous rule</p>
+     *
+     * @param cells - matching rules
+     * @param strides - input strides
+     * @param from - first code of each input, included
+     * @param to - last code of each input, excluded
+     * @param input - current input
+     * @param offset - offset of the codes chosen so far
+     * @param rule - the rule
+     */
+    private static void fill(int[] cells, int[] strides, int[] from, int[] to, int input, int offset, int rule) {
+        if (input == strides.length) {
+            if (cells[offset] == NO_RULE) {
+                cells[offset] = rule;
+            }
+        } else {
+            for (int code = from[input]; code < to[input]; code++) {
+                fill(cells, strides, from, to, input + 1, offset + code * strides[input], rule);
+            }
+        }
+    }
+
+    /**
+     * @param value - output cell
+     * @return the amount, null if not valid
+     */
+    private static Money parseMoney(String value) {
+        Money amount = null;
+        if (!value.isEmpty()) {
+            try {
+                amount = Money.parse(value);
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                amount = null;
+            }
+        }
+        return amount;
+    }
+
+    /**
+     * @param value - output cell
+     * @return the rate, null if not valid
+     */
+    private static Rate parseRate(String value) {
+        Rate rate = null;
+        if (!value.isEmpty()) {
+            try {
+                rate = Rate.parse(value);
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                rate = null;
+            }
+        }
+        return rate;
+    }
+
+    /**
+     * <p>Returns the code of a categorical input value.</p>
+     *
+     * @param input - input index
+     * @param value - the value, may be null
+     * @return the code
+     * @throws IllegalArgumentException if the input was declared numeric
+     */
+    public int code(int input, String value) {
+        return inputs[input].code(value);
+    }
+
+    /**
+     * <p>Returns the code of a numeric input value, also accepted by a categorical input listing integral values.</p>
+     *
+     * @param input - input index
+     * @param value - the value
+     * @return the code
+     */
+    public int code(int input, long value) {
+        return inputs[input].code(value);
+    }
+
+    /**
+     * <p>Returns the first rule matching the input codes.</p>
+     *
+     * @param codes - a code for each input
+     * @return the rule, {@link #NO_RULE} if none
+     */
+    public int match(int... codes) {
+        int offset = 0;
+        for (int i = 0; i < strides.length; i++) {
+            offset += codes[i] * strides[i];
+        }
+        return ruleCount == 0 ? NO_RULE : cells[offset];
+    }
+
+    /**
+     * <p>Returns the first rule matching a table with one input.</p>
+     *
+     * @param code - code of the input
+     * @return the rule, {@link #NO_RULE} if none
+     */
+    public int match(int code) {
+        return ruleCount == 0 ? NO_RULE : cells[code];
+    }
+
+    /**
+     * <p>Returns the first rule matching a table with two inputs.</p>
+     *
+     * @param code0 - code of the first input
+     * @param code1 - code of the second input
+     * @return the rule, {@link #NO_RULE} if none
+     */
+    public int match(int code0, int code1) {
+        return ruleCount == 0 ? NO_RULE : cells[code0 * strides[0] + code1];
+    }
+
+    /**
+     * <p>Returns an output cell as text</p>
+     *
+     * @param rule - matched rule
+     * @param output - output index
+     * @return the cell
+     */
+    public String getString(int rule, int output) {
+        return outputs[output][rule];
+    }
+
+    /**
+     * <p>Returns an output cell as an amount</p>
+     *
+     * @param rule - matched rule
+     * @param output - output index
+     * @return the amount, null if the cell is not an amount
+     */
+    public Money getMoney(int rule, int output) {
+        return amounts[output][rule];
+    }
+
+    /**
+     * <p>Returns an output cell as a rate</p>
+     *
+     * @param rule - matched rule
+     * @param output - output index
+     * @return the rate, null if the cell is not a rate
+     */
+    public Rate getRate(int rule, int output) {
+        return rates[output][rule];
+    }
+
+    /**
+     * Return the number of rules.
+     *
+     * @return rules count
+     */
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    /**
+     * Return the number of compiled combinations.
+     *
+     * @return cells count
+     */
+    public int getCellCount() {
+        return cells.length;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder("DecisionTable [inputs=").append(Arrays.toString(inputs)).append(", rules=").append(ruleCount).append(", cells=")
+                .append(cells.length).append(']').toString();
+    }
+
+    /**
+     * <p>Compiled input column: value codes for a categorical input, interval bounds for a numeric one</p>
+     */
+    private static final class Input {
+
+        private final String name;
+
+        /**
+         * <p>Codes of the listed values, null for a numeric input</p>
+         */
+        private final Map<String, Integer> values;
+
+        /**
+         * <p>Sorted interval bounds, null for a categorical input</p>
+         */
+        private final long[] bounds;
+
+        /**
+         * <p>Number of codes</p>
+         */
+        private final int codeCount;
+
+        /**
+         * @param name - column name
+         * @param values - value codes
+         * @param bounds - interval bounds
+         */
+        private Input(String name, Map<String, Integer> values, long[] bounds) {
+            this.name = name;
+            this.values = values;
+            this.bounds = bounds;
+            this.codeCount = values != null ? values.size() + 1 : bounds.length + 1;
+        }
+
+        /**
+         * @param name - column name
+         * @param cells - column cells
+         * @param numeric - true for a numeric input
+         * @return the compiled input
+         * @throws IllegalArgumentException if a cell is not valid for the input
+         */
+        private static Input compile(String name, String[] cells, boolean numeric) {
+            Input input;
+            if (numeric) {
+                TreeSet<Long> bounds = new TreeSet<Long>();
+                for (String cell : cells) {
+                    if (!isAny(cell)) {
+                        long[] range = range(cell);
+                        if (range[0] != Long.MIN_VALUE) {
+                            bounds.add(Long.valueOf(range[0]));
+                        }
+                        if (range[1] != Long.MAX_VALUE) {
+                            bounds.add(Long.valueOf(range[1]));
+                        }
+                    }
+                }
+                long[] sorted = new long[bounds.size()];
+                int i = 0;
+                for (Long bound : bounds) {
+                    sorted[i++] = bound.longValue();
+                }
+                input = new Input(name, null, sorted);
+            } else {
+                Map<String, Integer> values = new HashMap<String, Integer>();
+                for (String cell : cells) {
+                    if (cell.contains(RANGE)) {
+                        throw new IllegalArgumentException("Range " + cell + " in the categorical input " + name);
+                    }
+                    if (!isAny(cell) && !values.containsKey(cell)) {
+                        values.put(cell, Integer.valueOf(values.size()));
+                    }
+                }
+                input = new Input(name, values, null);
+            }
+            return input;
+        }
+
+        /**
+         * @param cell - input cell
+         * @return true for the any value
+         */
+        private static boolean isAny(String cell) {
+            return cell.isEmpty() || ANY.equals(cell);
+        }
+
+        /**
+         * @param cell - a range or a single value
+         * @return lower bound included and upper bound excluded
+         * @throws IllegalArgumentException if not a range
+         */
+        private static long[] range(String cell) {
+            long[] range;
+            int separator = cell.indexOf(RANGE);
+            if (separator < 0) {
+                long value = Long.parseLong(cell);
+                if (value == Long.MAX_VALUE) {
+                    throw new IllegalArgumentException("Value out of range: " + cell);
+                }
+                range = new long[] { value, value + 1 };
+            } else {
+                String lower = cell.substring(0, separator).trim();
+                String upper = cell.substring(separator + RANGE.length()).trim();
+                range = new long[] { lower.isEmpty() ? Long.MIN_VALUE : Long.parseLong(lower), upper.isEmpty() ? Long.MAX_VALUE : Long.parseLong(upper) };
+                if (range[0] >= range[1]) {
+                    throw new IllegalArgumentException("Empty range: " + cell);
+                }
+            }
+            return range;
+        }
+
+        /**
+         * <p>Sets the code range covered by a cell</p>
+         *
+         * @param cell - input cell
+         * @param from - first codes, set at index
+         * @param to - last codes, excluded, set at index
+         * @param index - input index
+         */
+        private void codes(String cell, int[] from, int[] to, int index) {
+            if (isAny(cell)) {
+                from[index] = 0;
+                to[index] = codeCount;
+            } else if (values != null) {
+                from[index] = values.get(cell).intValue();
+                to[index] = from[index] + 1;
+            } else {
+                long[] range = range(cell);
+                from[index] = range[0] == Long.MIN_VALUE ? 0 : code(range[0]);
+                to[index] = range[1] == Long.MAX_VALUE ? codeCount : code(range[1]);
+            }
+        }
+
+        /**
+         * @param value - categorical value, may be null
+         * @return the code, the last one for values not listed
+         * @throws IllegalArgumentException if the input is numeric
+         */
+        private int code(String value) {
+            if (values == null) {
+                throw new IllegalArgumentException("Input " + name + " is numeric");
+            }
+            Integer listed = value != null ? values.get(value) : null;
+            return listed != null ? listed.intValue() : codeCount - 1;
+        }
+
+        /**
+         * @param value - numeric value
+         * @return the interval code: the number of bounds not above the value
+         */
+        private int code(long value) {
+            int code;
+            if (bounds != null) {
+                int low = 0;
+                int high = bounds.length - 1;
+                while (low <= high) {
+                    int middle = (low + high) >>> 1;
+                    if (bounds[middle] <= value) {
+                        low = middle + 1;
+                    } else {
+                        high = middle - 1;
+                    }
+                }
+                code = low;
+            } else {
+                code = code(Long.toString(value));
+            }
+            return code;
+        }
+
+        /**
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -1,134 +1,292 @@
-/*
- * Starter.java
- * 
- * 15 lug 2022
- */
-package com.cucco.stipendi.servlet;
-
-import java.io.File;
-import java.util.concurrent.TimeUnit;
-
-import javax.servlet.ServletException;
-import javax.servlet.annotation.WebInitParam;
-import javax.servlet.annotation.WebServlet;
-import javax.servlet.http.HttpServlet;
-
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-import org.apache.logging.log4j.core.LoggerContext;
-
-import com.cucco.stipendi.utility.Utility;
-
-/**
- * <p>Executive summary - A precise and concise description for the object. Useful to describe groupings of methods and introduce major terms.</p>
- * <p>State Information - Specify the state information associated with the object, described in a manner that decouples the states from the operations that may query or change these states. This should also include whether instances of this class are thread safe. (For multi-state objects, a state diagram may be the clearest way to present this information.) If the class allows only single state instances, such as java.lang.Integer, and for interfaces, this section may be skipped.</p>
- * 
- *
- * @author giovanni -- Auriga S.p.A.
- */
-@WebServlet(urlPatterns = "stipendi", loadOnStartup = 1, initParams = {
-        @WebInitParam(name = Starter.APP_CONF_FILE_NAME_PARAMETER, value = "stipendi.conf"),
-        @WebInitParam(name = Starter.LOG_CONF_FILE_NAME_PARAMETER, value = "stipendi.log4j2.xml"),
-})
-public class Starter extends HttpServlet {
-
-    /**
-     * <p>Serial uid</p>
-     */
-    private static final long serialVersionUID = 1L;
-
-    /**
-     * <p>Servlet init parameter used to specify configuration files path. This parameter is optional, if not present the value contained into "configfile.path"
-     *  system property will be used as configuration file path</p>
-     */
-    public static final String CONF_PATH_PARAMETER = "config_path";
-
-    /**
-     * <p>Servlet init parameter used to retrieve application conf file name</p>
-     */
-    public static final String APP_CONF_FILE_NAME_PARAMETER = "config_file_name";
-
-    /**
-     * <p>Servlet init parameter used to retrieve application log4j2 configuration file name</p>
-     */
-    public static final String LOG_CONF_FILE_NAME_PARAMETER = "log_config_file_name";
-
-    /**
-     * <p>Configuration default path</p>
-     */
-    private static final String DEFAULT_PATH = "${configfile.path}";
-
-    private static Logger logger = LogManager.getLogger();
-
-    /**
-     * <p>Logger context instance</p>
-     */
-    private transient LoggerContext loggerContext;
-
-    /**
-     * <p>Conf reader singleton instance. This servlet will configure file from which read configuration properties</p>
-     */
-    //@EJB
-    //private ParameterReader parameterReader;
-
-    /**
-     * @see javax.servlet.GenericServlet#init()
-     */
-    @Override
-    public void init() throws ServletException {
-        String configPath = getInitParameter(CONF_PATH_PARAMETER);
-        String configFileName = getInitParameter(APP_CONF_FILE_NAME_PARAMETER);
-        String log4j2FileName = getInitParameter(LOG_CONF_FILE_NAME_PARAMETER);
-        System.out.println(">>>STARTING... READING CONFIGURATIONS FILE<<<");
-        String confPath = resolvePath(configPath, configFileName);
-        String log4jPath = resolvePath(configPath, log4j2FileName);
-        System.out.println(String.format("Module conf path: [%s], log4j2 path: [%s]", confPath, log4jPath));
-        File log4jConfiguration = new File(log4jPath);
-        loggerContext = LoggerContext.getContext(false);
-        loggerContext.setConfigLocation(log4jConfiguration.toURI());
-
-        logger.info("Log4j initialized successfully");
-        //File confFile = new File(confPath);
-        //parameterReader.setPropertyFile(confFile);
-        //logger.info("CUCCO parametro:[" + parameterReader.get("test", ""));
-        //System.out.println("CUCCO parametro:[" + parameterReader.get("test", ""));
-    }
-
-    /**
-     * <p>Resolve the path with input: first will be checked for path and file name system property existence, if not then the defaults value
-     * will be used to retrieve full file path </p>
-     *
-     * @param pathParameter - path system property value
-     * @param fileName - file name system property
-     * @return the resolved path
-     */
-    private static String resolvePath(String pathParameter, String fileName) {
-        String pathProperty = DEFAULT_PATH;
-        if (pathParameter != null) {
-            pathProperty = pathParameter;
-        }
-        String normalizedPath = normalizePath(pathProperty);
-        return new StringBuilder(normalizedPath).append(fileName).toString();
-    }
-
-    /**
-     * <p>Normalize the path separator files.</p>
-     *
-     * @param path - the path to be normalized
-     * @return the normalized path
-     */
-    private static String normalizePath(String path) {
-        return Utility.normalizePath(Utility.replaceEnvRefereces(path));
-    }
-
-    /**
-     * @see javax.servlet.GenericServlet#destroy()
-     */
-    @Override
-    public void destroy() {
-        super.destroy();
-        if (this.loggerContext != null) {
-            this.loggerContext.stop(4, TimeUnit.SECONDS);
-        }
-    }
-}
+/*
+ * Starter.java
+ * 
+ * 15 lug 2022
+ */
+package com.cucco.stipendi.servlet;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.ejb.EJB;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebInitParam;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.async.AsyncLoggerContextSelector;
+import org.apache.logging.log4j.core.util.Constants;
+
+import com.cucco.stipendi.bootstrap.Bootstrap;
+import com.cucco.stipendi.bootstrap.Bootstrap.Phase;
+import com.cucco.stipendi.bootstrap.WarmUp;
+import com.cucco.stipendi.utility.ParameterReader;
+import com.cucco.stipendi.utility.Utility;
+
+/**
+ * <p>Executive summary - A precise and concise description for the object. Useful to describe groupings of methods and introduce major terms.</p>
+ * <p>State Information - Specify the state information associated with the object, described in a manner that decouples the states from the operations that may query or change these states. This should also include whether instances of this class are thread safe. (For multi-state objects, a state diagram may be the clearest way to present this information.) If the class allows only single state instances, such as java.lang.Integer, and for interfaces, this section may be skipped.</p>
+ * 
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@WebServlet(urlPatterns = "stipendi", loadOnStartup = 1, initParams = {
+        @WebInitParam(name = Starter.APP_CONF_FILE_NAME_PARAMETER, value = "stipendi.conf"),
+        @WebInitParam(name = Starter.LOG_CONF_FILE_NAME_PARAMETER, value = "stipendi.log4j2.xml"),
+        @WebInitParam(name = Starter.ASYNC_LOGGING_PARAMETER, value = "false"),
+        @WebInitParam(name = Starter.ASYNC_LOG_CONF_FILE_NAME_PARAMETER, value = "stipendi.log4j2.async.xml"),
+        @WebInitParam(name = Starter.WARMUP_ITERATIONS_PARAMETER, value = "20000"),
+})
+public class Starter extends HttpServlet {
+
+    /**
+     * <p>Serial uid</p>
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * <p>Servlet init parameter used to specify configuration files path. This parameter is optional, if not present the value contained into "configfile.path"
+     *  system property will be used as configuration file path</p>
+     */
+    public static final String CONF_PATH_PARAMETER = "config_path";
+
+    /**
+     * <p>Servlet init parameter used to retrieve application conf file name</p>
+     */
+    public static final String APP_CONF_FILE_NAME_PARAMETER = "config_file_name";
+
+    /**
+     * <p>Servlet init parameter used to retrieve application log4j2 configuration file name</p>
+     */
+    public static final String LOG_CONF_FILE_NAME_PARAMETER = "log_config_file_name";
+
+    /**
+     * <p>Servlet init parameter enabling asynchronous logging: when true the log4j2 configuration is read from the file named by
+     * {@link #ASYNC_LOG_CONF_FILE_NAME_PARAMETER}, whose loggers are all asynchronous</p>
+     */
+    public static final String ASYNC_LOGGING_PARAMETER = "async_logging";
+
+    /**
+     * <p>Servlet init parameter used to retrieve the asynchronous log4j2 configuration file name</p>
+     */
+    public static final String ASYNC_LOG_CONF_FILE_NAME_PARAMETER = "async_log_config_file_name";
+
+    /**
+     * <p>Servlet init parameter selecting what logging threads do when the ring buffer is full: <code>Default</code> waits for a free slot,
+     * <code>Discard</code> drops the events up to the {@link #ASYNC_DISCARD_THRESHOLD_PARAMETER} level. Optional</p>
+     */
+    public static final String ASYNC_QUEUE_FULL_POLICY_PARAMETER = "async_queue_full_policy";
+
+    /**
+     * <p>Servlet init parameter with the most severe level discarded by the <code>Discard</code> policy, default INFO. Optional</p>
+     */
+    public static final String ASYNC_DISCARD_THRESHOLD_PARAMETER = "async_discard_threshold";
+
+    /**
+     * <p>Servlet init parameter with the ring buffer size, in events. Optional</p>
+     */
+    public static final String ASYNC_RING_BUFFER_SIZE_PARAMETER = "async_ring_buffer_size";
+
+    /**
+     * <p>Servlet init parameter with the number of JIT warm-up iterations run before the node reports ready, 0 disables the warm-up</p>
+     */
+    public static final String WARMUP_ITERATIONS_PARAMETER = "warmup_iterations";
+
+    /**
+     * <p>Configuration default path</p>
+     */
+    private static final String DEFAULT_PATH = "${configfile.path}";
+
+    private static Logger logger = LogManager.getLogger();
+
+    /**
+     * <p>Logger context instance</p>
+     */
+    private transient LoggerContext loggerContext;
+
+    /**
+     * <p>Conf reader singleton instance. This servlet will configure file from which read configuration properties</p>
+     */
+    @EJB
+    private transient ParameterReader parameterReader;
+
+    /**
+     * <p>Container executor running the bootstrap phases</p>
+     */
+    @Resource
+    private transient ManagedExecutorService executor;
+
+    /**
+     * <p>Bootstrap phases, published into the servlet context for the readiness check</p>
+     */
+    private transient Bootstrap bootstrap;
+
+    /**
+     * <p>Resolved application configuration file path</p>
+     */
+    private transient volatile String confPath;
+
+    /**
+     * <p>Resolved log4j2 configuration file path</p>
+     */
+    private transient volatile String log4jPath;
+
+    /**
+     * <p>Runs the bootstrap phases: path resolution, then log4j2 initialization and configuration loading in parallel, then the JIT warm-up.
+     * The method returns as soon as log4j2 and the configuration are ready; the node reports ready only when the warm-up is over too.</p>
+     *
+     * @see javax.servlet.GenericServlet#init()
+     */
+    @Override
+    public void init() throws ServletException {
+        String configPath = getInitParameter(CONF_PATH_PARAMETER);
+        String configFileName = getInitParameter(APP_CONF_FILE_NAME_PARAMETER);
+        boolean asyncLogging = Boolean.parseBoolean(getInitParameter(ASYNC_LOGGING_PARAMETER));
+        String log4j2FileName = getInitParameter(asyncLogging ? ASYNC_LOG_CONF_FILE_NAME_PARAMETER : LOG_CONF_FILE_NAME_PARAMETER);
+        int warmUpIterations = warmUpIterations(getInitParameter(WARMUP_ITERATIONS_PARAMETER));
+        if (asyncLogging) {
+            configureAsyncLogging();
+        }
+
+        bootstrap = new Bootstrap(executor != null ? executor : ForkJoinPool.commonPool());
+        Phase paths = bootstrap.phase("paths", () -> {
+            confPath = resolvePath(configPath, configFileName);
+            log4jPath = resolvePath(configPath, log4j2FileName);
+        });
+        Phase log4j = bootstrap.phase("log4j", () -> initializeLog4j(asyncLogging), paths);
+        Phase config = bootstrap.phase("config", () -> parameterReader.setPropertyFile(new File(confPath)), paths);
+        bootstrap.phase("warmup", () -> WarmUp.run(parameterReader, warmUpIterations), log4j, config);
+        getServletContext().setAttribute(Bootstrap.CONTEXT_ATTRIBUTE, bootstrap);
+
+        bootstrap.start().whenComplete((result, error) -> {
+            if (error == null) {
+                logger.info("Bootstrap completed, node ready, phase durations in ms: {}", bootstrap.getPhaseDurations());
+            } else {
+                logger.error("Bootstrap failed, node not ready: {}", bootstrap.getPhases(), error);
+            }
+        });
+        try {
+            CompletableFuture.allOf(log4j.getCompletion(), config.getCompletion()).join();
+        } catch (CompletionException e) {
+            throw new ServletException("Bootstrap failed: " + bootstrap.getPhases(), e.getCause());
+        }
+    }
+
+    /**
+     * <p>Configures log4j2 on the resolved file</p>
+     *
+     * @param asyncLogging - true if asynchronous logging has been requested
+     */
+    private void initializeLog4j(boolean asyncLogging) {
+        File log4jConfiguration = new File(log4jPath);
+        loggerContext = LoggerContext.getContext(false);
+        loggerContext.setConfigLocation(log4jConfiguration.toURI());
+
+        logger.info("Log4j initialized successfully, asynchronous logging: [{}]", Boolean.valueOf(asyncLogging));
+        logger.info("Module conf path: [{}], log4j2 path: [{}]", confPath, log4jPath);
+        if (asyncLogging) {
+            checkAsyncLogging();
+        }
+    }
+
+    /**
+     * <p>Parses the warm-up iterations init parameter</p>
+     *
+     * @param value - parameter value, may be null
+     * @return the iterations, {@link WarmUp#DEFAULT_ITERATIONS} if missing or not a number
+     */
+    private static int warmUpIterations(String value) {
+        int iterations = WarmUp.DEFAULT_ITERATIONS;
+        if (value != null) {
+            try {
+                iterations = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                iterations = WarmUp.DEFAULT_ITERATIONS;
+            }
+        }
+        return iterations;
+    }
+
+    /**
+     * <p>Publishes the asynchronous logging init parameters as the log4j2 system properties read when the configuration starts its ring buffer.
+     * Properties already set on the JVM command line win.</p>
+     */
+    private void configureAsyncLogging() {
+        setDefaultProperty("log4j2.AsyncQueueFullPolicy", getInitParameter(ASYNC_QUEUE_FULL_POLICY_PARAMETER));
+        setDefaultProperty("log4j2.DiscardThreshold", getInitParameter(ASYNC_DISCARD_THRESHOLD_PARAMETER));
+        setDefaultProperty("AsyncLoggerConfig.RingBufferSize", getInitParameter(ASYNC_RING_BUFFER_SIZE_PARAMETER));
+    }
+
+    /**
+     * <p>Sets the system property, unless it is already set or the value is missing.</p>
+     *
+     * @param name - property name
+     * @param value - property value, may be null
+     */
+    private static void setDefaultProperty(String name, String value) {
+        if (value != null && System.getProperty(name) == null) {
+            System.setProperty(name, value);
+        }
+    }
+
+    /**
+     * <p>Warns about the settings that can only be chosen on the JVM command line, before log4j2 starts: without them logging is asynchronous
+     * but not garbage free, or asynchronous only for the loggers declared as such.</p>
+     */
+    private static void checkAsyncLogging() {
+        if (!Constants.ENABLE_THREADLOCALS || !Constants.ENABLE_DIRECT_ENCODERS) {
+            logger.warn("Asynchronous logging is not garbage free, start the JVM with -Dlog4j2.enableThreadlocals=true -Dlog4j2.enableDirectEncoders=true");
+        }
+        if (!AsyncLoggerContextSelector.isSelected()) {
+            logger.info("Loggers are asynchronous as declared by the configuration, start the JVM with -Dlog4j2.contextSelector={} to make all of them asynchronous",
+                    AsyncLoggerContextSelector.class.getName());
+        }
+    }
+
+    /**
+     * <p>Resolve the path with input: first will be checked for path and file name system property existence, if not then the defaults value
+     * will be used to retrieve full file path </p>
+     *
+     * @param pathParameter - path system property value
+     * @param fileName - file name system property
+     * @return the resolved path
+     */
+    private static String resolvePath(String pathParameter, String fileName) {
+        String pathProperty = DEFAULT_PATH;
+        if (pathParameter != null) {
+            pathProperty = pathParameter;
+        }
+        String normalizedPath = normalizePath(pathProperty);
+        return new StringBuilder(normalizedPath).append(fileName).toString();
+    }
+
+    /**
+     * <p>Normalize the path separator files.</p>
+     *
+     * @param path - the path to be normalized
+     * @return the normalized path
+     */
+    private static String normalizePath(String path) {
+        return Utility.normalizePath(Utility.replaceEnvRefereces(path));
+    }
+
+    /**
+     * @see javax.servlet.GenericServlet#destroy()
+     */
+    @Override
+    public void destroy() {
+        super.destroy();
+        getServletContext().removeAttribute(Bootstrap.CONTEXT_ATTRIBUTE);
+        if (this.loggerContext != null) {
+            this.loggerContext.stop(4, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * StandaloneRuntime.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.standalone;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+
+import com.cucco.stipendi.utility.Config;
+import com.cucco.stipendi.utility.ReloadableConfig;
+import com.cucco.stipendi.utility.Utility;
+
+/**
+ * <p>Plain Java bootstrap for batch jobs and command line tools, without the application server: resolves the configuration paths as the
+ * {@link com.cucco.stipendi.servlet.Starter} servlet does, configures log4j2, loads the configuration and reloads it from a single daemon thread
+ * of a {@link ScheduledExecutorService}, at the <code>readerRefreshIntertime</code> rate, in place of the EJB timer.</p>
+ * <p>Paths are read from system properties: <code>stipendi.config.path</code> (default <code>${configfile.path}</code>),
+ * <code>stipendi.config.file</code> (default <code>stipendi.conf</code>) and <code>stipendi.log.file</code> (default
+ * <code>stipendi.log4j2.xml</code>).</p>
+ * <p>Example:</p>
+ * <pre>
+ * try (StandaloneRuntime runtime = StandaloneRuntime.start()) {
+ *     Config config = runtime.getConfig();
+ *     ...
+ * }
+ * </pre>
+ * <p>Startup time is dominated by log4j2 initialization, done once on the given file: short lived processes should run with
+ * <code>-XX:TieredStopAtLevel=1</code> and a small heap, e.g. <code>-Xmx64m</code>.</p>
+ * <p>Instances are thread safe.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class StandaloneRuntime implements Closeable {
+
+    /**
+     * <p>System property with the configuration files directory</p>
+     */
+    public static final String CONF_PATH_PROPERTY = "stipendi.config.path";
+
+    /**
+     * <p>System property with the application configuration file name</p>
+     */
+    public static final String APP_CONF_FILE_NAME_PROPERTY = "stipendi.config.file";
+
+    /**
+     * <p>System property with the log4j2 configuration file name</p>
+     */
+    public static final String LOG_CONF_FILE_NAME_PROPERTY = "stipendi.log.file";
+
+    /**
+     * <p>Configuration default path</p>
+     */
+    private static final String DEFAULT_PATH = "${configfile.path}";
+
+    /**
+     * <p>log4j2 system property with the configuration file used when log4j2 starts</p>
+     */
+    private static final String LOG4J_CONFIGURATION_FILE_PROPERTY = "log4j.configurationFile";
+
+    /**
+     * <p>The loaded configuration</p>
+     */
+    private final ReloadableConfig config;
+
+    /**
+     * <p>Reload scheduler, a single daemon thread</p>
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * <p>Logger context, null if log4j2 has not been configured by this runtime</p>
+     */
+    private final LoggerContext loggerContext;
+
+    /**
+     * <p>Current reload task</p>
+     */
+    private ScheduledFuture<?> reloadTask;
+
+    /**
+     * <p>Current reload intertime, in milliseconds</p>
+     */
+    private long intertime;
+
+    /**
+     * @param configFile - application configuration file
+     * @param log4jFile - log4j2 configuration file, null to keep the current log4j2 configuration
+     */
+    private StandaloneRuntime(File configFile, File log4jFile) {
+        if (log4jFile != null) {
+            /*
+             * se log4j2 non e' ancora partito lo si avvia direttamente sul file, evitando di caricare prima la configurazione di default
+             */
+            if (System.getProperty(LOG4J_CONFIGURATION_FILE_PROPERTY) == null) {
+                System.setProperty(LOG4J_CONFIGURATION_FILE_PROPERTY, log4jFile.getAbsolutePath());
+            }
+            loggerContext = LoggerContext.getContext(false);
+            if (!log4jFile.getAbsoluteFile().toURI().equals(loggerContext.getConfigLocation())) {
+                loggerContext.setConfigLocation(log4jFile.toURI());
+            }
+        } else {
+            loggerContext = null;
+        }
+        config = new ReloadableConfig();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stipendi-config-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        config.setPropertyFile(configFile);
+        config.addChangeListener(ReloadableConfig.REFRESH_INTERTIME_PARAMETER, change -> schedule());
+        schedule();
+    }
+
+    /**
+     * <p>Starts a runtime on the configuration files found with the system properties.</p>
+     *
+     * @return the started runtime
+     */
+    public static StandaloneRuntime start() {
+        String configPath = System.getProperty(CONF_PATH_PROPERTY, DEFAULT_PATH);
+        String confPath = resolvePath(configPath, System.getProperty(APP_CONF_FILE_NAME_PROPERTY, "stipendi.conf"));
+        String log4jPath = resolvePath(configPath, System.getProperty(LOG_CONF_FILE_NAME_PROPERTY, "stipendi.log4j2.xml"));
+        return start(new File(confPath), new File(log4jPath));
+    }
+
+    /**
+     * <p>Starts a runtime on the given files.</p>
+     *
+     * @param configFile - application configuration file
+     * @param log4jFile - log4j2 configuration file, null to keep the current log4j2 configuration
+     * @return the started runtime
+     */
+    public static StandaloneRuntime start(File configFile, File log4jFile) {
+        long start = System.nanoTime();
+        StandaloneRuntime runtime = new StandaloneRuntime(configFile, log4jFile);
+        Log.logger.info("Standalone runtime started in [{}] ms, configuration [{}] version [{}]",
+                Long.valueOf(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)), configFile, Long.valueOf(runtime.config.getVersion()));
+        return runtime;
+    }
+
+    /**
+     * <p>Schedules the reload task at the configured intertime, if changed.</p>
+     */
+    private synchronized void schedule() {
+        long readerRefreshIntertime = config.get(ReloadableConfig.REFRESH_INTERTIME_PARAMETER, ReloadableConfig.DEFAULT_REFRESH_INTERTIME);
+        if (readerRefreshIntertime != intertime && !scheduler.isShutdown()) {
+            if (reloadTask != null) {
+                reloadTask.cancel(false);
+            }
+            intertime = readerRefreshIntertime;
+            reloadTask = scheduler.scheduleWithFixedDelay(config::readConf, intertime, intertime, TimeUnit.MILLISECONDS);
+            Log.logger.trace("Standalone config reader intertime set to [{}] ms", Long.valueOf(intertime));
+        }
+    }
+
+    /**
+     * <p>Resolve the path with input, as the Starter servlet does.</p>
+     *
+     * @param pathParameter - path property value
+     * @param fileName - file name
+     * @return the resolved path
+     */
+    private static String resolvePath(String pathParameter, String fileName) {
+        return new StringBuilder(Utility.normalizePath(Utility.replaceEnvRefereces(pathParameter))).append(fileName).toString();
+    }
+
+    /**
+     * Return config value or reference.
+     *
+     * @return config value or reference.
+     */
+    public Config getConfig() {
+        return config;
+    }
+
+    /**
+     * <p>Stops the reload thread and log4j2.</p>
+     *
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        if (loggerContext != null) {
+            loggerContext.stop(4, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * <p>Configuration check tool: starts the runtime, prints the loaded configuration summary and exits.</p>
+     *
+     * @param args - not used
+     */
+    public static void main(String[] args) {
+        long start = System.nanoTime();
+        try (StandaloneRuntime runtime = start()) {
+            Config config = runtime.getConfig();
+            System.out.println(String.format("Configuration version [%d], [%d] keys, started in [%d] ms", Long.valueOf(config.getVersion()),
+                    Integer.valueOf(config.getSnapshot().size()), Long.valueOf(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))));
+        }
+    }
+
+    /**
+     * <p>Logger holder: the logger is created after log4j2 has been configured, to keep the runtime from starting log4j2 twice</p>
+     */
+    private static final class Log {
+
+        /**
+         * <p>Logger instance</p>
+         */
+        private static final Logger logger = LogManager.getLogger(StandaloneRuntime.class);
+    }
+}
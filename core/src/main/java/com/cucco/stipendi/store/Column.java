@@ -0,0 +1,94 @@
+/*
+ * Column.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.store;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * <p>Column of a {@link ColumnarStore}: fixed width values stored off-heap, in direct buffer segments of {@link ColumnarStore#SEGMENT_ROWS}
+ * rows. Growing a column allocates a new segment and never copies the existing ones; the heap holds only the segment references.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public abstract class Column {
+
+    /**
+     * <p>Column name</p>
+     */
+    private final String name;
+
+    /**
+     * <p>Value width, in bytes</p>
+     */
+    private final int width;
+
+    /**
+     * <p>Allocated segments</p>
+     */
+    ByteBuffer[] segments = new ByteBuffer[0];
+
+    /**
+     * @param name - column name
+     * @param width - value width, in bytes
+     */
+    Column(String name, int width) {
+        this.name = name;
+        this.width = width;
+    }
+
+    /**
+     * <p>Allocates the segment holding the given row, if missing</p>
+     *
+     * @param segment - segment index
+     */
+    void ensureSegment(int segment) {
+        if (segment >= segments.length) {
+            ByteBuffer[] grown = Arrays.copyOf(segments, segment + 1);
+            for (int i = segments.length; i <= segment; i++) {
+                grown[i] = ByteBuffer.allocateDirect(ColumnarStore.SEGMENT_ROWS * width).order(ByteOrder.nativeOrder());
+                segmentAllocated(i, grown[i]);
+            }
+            segments = grown;
+        }
+    }
+
+    /**
+     * <p>Called when a new segment is allocated, to build the typed views</p>
+     *
+     * @param segment - segment index
+     * @param buffer - the segment buffer
+     */
+    abstract void segmentAllocated(int segment, ByteBuffer buffer);
+
+    /**
+     * Return name value or reference.
+     *
+     * @return name value or reference.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * <p>Returns the off-heap bytes allocated by the column</p>
+     *
+     * @return allocated bytes
+     */
+    public long getAllocatedBytes() {
+        return (long) segments.length * ColumnarStore.SEGMENT_ROWS * width;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder(getClass().getSimpleName()).append(" [name=").append(name).append(", segments=").append(segments.length).append(']')
+                .toString();
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * ColumnarStore.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.store;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Column oriented, off-heap employee store for the aggregate reports: cost centre totals, headcount by contract, average gross by level.</p>
+ * <p>Each column keeps its values in direct buffer segments of {@link #SEGMENT_ROWS} rows: millions of employees cost a few references on the
+ * heap instead of millions of objects, and the garbage collector never scans them. Strings are dictionary encoded ({@link DictionaryColumn}).
+ * Reports are built from column operators, filters returning a {@link Selection} bitmap and aggregates consuming it, each one a sequential scan
+ * of primitive values:</p>
+ *
+ * <pre>
+ * Selection open = contract.equalTo("TI").and(level.between(3, 5));
+ * Map&lt;String, Long&gt; costs = costCentre.decode(gross.sumBy(costCentre, open));
+ * </pre>
+ * <p>Off-heap memory is released when the store is garbage collected.</p>
+ * <p>Thread safety: rows are appended and set by a single loader thread; once the store is published (for instance through a volatile field or a
+ * concurrent map), any number of threads can run reports on it concurrently.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class ColumnarStore {
+
+    /**
+     * <p>Rows per segment, as a power of two</p>
+     */
+    static final int SEGMENT_SHIFT = 16;
+
+    /**
+     * <p>Rows per segment</p>
+     */
+    public static final int SEGMENT_ROWS = 1 << SEGMENT_SHIFT;
+
+    /**
+     * <p>Row index mask inside a segment</p>
+     */
+    static final int SEGMENT_MASK = SEGMENT_ROWS - 1;
+
+    /**
+     * <p>Columns, by name</p>
+     */
+    private final Map<String, Column> columns;
+
+    /**
+     * <p>Rows count</p>
+     */
+    private volatile int size;
+
+    /**
+     * @param builder - the column definitions
+     */
+    private ColumnarStore(Builder builder) {
+        Map<String, Column> built = new LinkedHashMap<String, Column>();
+        for (int i = 0; i < builder.names.size(); i++) {
+            String name = builder.names.get(i);
+            Column column;
+            switch (builder.types.get(i).intValue()) {
+            case Builder.LONG:
+                column = new LongColumn(this, name);
+                break;
+            case Builder.INT:
+                column = new IntColumn(this, name);
+                break;
+            default:
+                column = new DictionaryColumn(this, name);
+            }
+            built.put(name, column);
+        }
+        this.columns = Collections.unmodifiableMap(built);
+    }
+
+    /**
+     * <p>Appends a row, with zero values, allocating a new segment in every column when needed</p>
+     *
+     * @return the new row index
+     */
+    public int addRow() {
+        int row = size;
+        if ((row & SEGMENT_MASK) == 0) {
+            for (Column column : columns.values()) {
+                column.ensureSegment(row >>> SEGMENT_SHIFT);
+            }
+        }
+        size = row + 1;
+        return row;
+    }
+
+    /**
+     * Return the number of rows.
+     *
+     * @return rows count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * <p>Selects all the rows</p>
+     *
+     * @return the selection
+     */
+    public Selection all() {
+        return new Selection(size).not();
+    }
+
+    /**
+     * <p>Returns a long column</p>
+     *
+     * @param name - column name
+     * @return the column
+     * @throws IllegalArgumentException if there is no such long column
+     */
+    public LongColumn longColumn(String name) {
+        return column(name, LongColumn.class);
+    }
+
+    /**
+     * <p>Returns an int column</p>
+     *
+     * @param name - column name
+     * @return the column
+     * @throws IllegalArgumentException if there is no such int column
+     */
+    public IntColumn intColumn(String name) {
+        return column(name, IntColumn.class);
+    }
+
+    /**
+     * <p>Returns a dictionary column</p>
+     *
+     * @param name - column name
+     * @return the column
+     * @throws IllegalArgumentException if there is no such dictionary column
+     */
+    public DictionaryColumn dictionaryColumn(String name) {
+        return column(name, DictionaryColumn.class);
+    }
+
+    /**
+     * @param name - column name
+     * @param type - column type
+     * @return the column
+     */
+    private <C extends Column> C column(String name, Class<C> type) {
+        Column column = columns.get(name);
+        if (!type.isInstance(column)) {
+            throw new IllegalArgumentException("No " + type.getSimpleName() + " named " + name);
+        }
+        return type.cast(column);
+    }
+
+    /**
+     * <p>Returns the off-heap bytes allocated by all the columns</p>
+     *
+     * @return allocated bytes
+     */
+    public long getAllocatedBytes() {
+        long bytes = 0L;
+        for (Column column : columns.values()) {
+            bytes += column.getAllocatedBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder("ColumnarStore [size=").append(size).append(", columns=").append(columns.keySet()).append(", allocatedBytes=")
+                .append(getAllocatedBytes()).append(']').toString();
+    }
+
+    /**
+     * <p>Defines the columns of a store</p>
+     */
+    public static final class Builder {
+
+        private static final int LONG = 0;
+
+        private static final int INT = 1;
+
+        private static final int DICTIONARY = 2;
+
+        private final List<String> names = new ArrayList<String>();
+
+        private final List<Integer> types = new ArrayList<Integer>();
+
+        /**
+         * <p>Adds a long column</p>
+         *
+         * @param name - column name
+         * @return this builder
+         */
+        public Builder longColumn(String name) {
+            return add(name, LONG);
+        }
+
+        /**
+         * <p>Adds an int column</p>
+         *
+         * @param name - column name
+         * @return this builder
+         */
+        public Builder intColumn(String name) {
+            return add(name, INT);
+        }
+
+        /**
+         * <p>Adds a dictionary encoded string column</p>
+         *
+         * @param name - column name
+         * @return this builder
+         */
+        public Builder dictionaryColumn(String name) {
+            return add(name, DICTIONARY);
+        }
+
+        /**
+         * @param name - column name
+         * @param type - column type
+         * @return this builder
+         */
+        private Builder add(String name, int type) {
+            if (names.contains(name)) {
+                throw new IllegalArgumentException("Duplicate column " + name);
+            }
+            names.add(name);
+            types.add(Integer.valueOf(type));
+            return this;
+        }
+
+        /**
+         * <p>Builds the empty store</p>
+         *
+         * @return the store
+         */
+        public ColumnarStore build() {
+            return new ColumnarStore(this);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * DictionaryColumn.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Dictionary encoded string column, for low cardinality values such as cost centres, contract codes and municipalities. Each distinct string
+ * is stored once on the heap and rows hold its <code>int</code> code off-heap, so filters compare integers and the codes are the group keys of
+ * the aggregates.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class DictionaryColumn extends IntColumn {
+
+    /**
+     * <p>Codes by value</p>
+     */
+    private final Map<String, Integer> codes = new HashMap<String, Integer>();
+
+    /**
+     * <p>Values by code</p>
+     */
+    private final List<String> values = new ArrayList<String>();
+
+    /**
+     * @param store - owning store
+     * @param name - column name
+     */
+    DictionaryColumn(ColumnarStore store, String name) {
+        super(store, name);
+    }
+
+    /**
+     * <p>Sets the value of a row, adding it to the dictionary if new</p>
+     *
+     * @param row - row index
+     * @param value - the value, not null
+     */
+    public void set(int row, String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = Integer.valueOf(values.size());
+            codes.put(value, code);
+            values.add(value);
+        }
+        set(row, code.intValue());
+    }
+
+    /**
+     * <p>Returns the value of a row</p>
+     *
+     * @param row - row index
+     * @return the value
+     */
+    public String getString(int row) {
+        return values.get(get(row));
+    }
+
+    /**
+     * <p>Returns the code of a value</p>
+     *
+     * @param value - the value
+     * @return the code, -1 if the value is not in the dictionary
+     */
+    public int code(String value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code.intValue();
+    }
+
+    /**
+     * <p>Returns the value of a code</p>
+     *
+     * @param code - the code
+     * @return the value
+     */
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    /**
+     * <p>Selects the rows equal to the value</p>
+     *
+     * @param value - the value
+     * @return the selected rows, empty if the value is not in the dictionary
+     */
+    public Selection equalTo(String value) {
+        int code = code(value);
+        return code < 0 ? new Selection(store.size()) : equalTo(code);
+    }
+
+    /**
+     * <p>Returns the dictionary size, without scanning</p>
+     *
+     * @see com.cucco.stipendi.store.IntColumn#cardinality()
+     */
+    @Override
+    public int cardinality() {
+        return values.size();
+    }
+
+    /**
+     * <p>Returns the per code results of an aggregate keyed by value, skipping the zero results</p>
+     *
+     * @param byCode - aggregate results by code, as returned by {@link LongColumn#sumBy(IntColumn, Selection)} or {@link #countBy(Selection)}
+     * @return results by value
+     */
+    public Map<String, Long> decode(long[] byCode) {
+        Map<String, Long> result = new HashMap<String, Long>();
+        for (int code = 0; code < byCode.length; code++) {
+            if (byCode[code] != 0L) {
+                result.put(values.get(code), Long.valueOf(byCode[code]));
+            }
+        }
+        return result;
+    }
+}
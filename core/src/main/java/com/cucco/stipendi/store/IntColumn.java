@@ -0,0 +1,197 @@
+/*
+ * IntColumn.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.store;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * <p>Column of <code>int</code> values, such as levels or counts. Non negative values can be used as group keys by the aggregates.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class IntColumn extends Column {
+
+    /**
+     * <p>Typed views of the segments</p>
+     */
+    private IntBuffer[] views = new IntBuffer[0];
+
+    /**
+     * <p>Store owning the column</p>
+     */
+    final ColumnarStore store;
+
+    /**
+     * @param store - owning store
+     * @param name - column name
+     */
+    IntColumn(ColumnarStore store, String name) {
+        super(name, Integer.BYTES);
+        this.store = store;
+    }
+
+    /**
+     * @see com.cucco.stipendi.store.Column#segmentAllocated(int, java.nio.ByteBuffer)
+     */
+    @Override
+    void segmentAllocated(int segment, ByteBuffer buffer) {
+        if (segment >= views.length) {
+            views = Arrays.copyOf(views, segment + 1);
+        }
+        views[segment] = buffer.asIntBuffer();
+    }
+
+    /**
+     * @param segment - segment index
+     * @return the segment view
+     */
+    IntBuffer view(int segment) {
+        return views[segment];
+    }
+
+    /**
+     * <p>Returns the value of a row</p>
+     *
+     * @param row - row index
+     * @return the value
+     */
+    public int get(int row) {
+        return views[row >>> ColumnarStore.SEGMENT_SHIFT].get(row & ColumnarStore.SEGMENT_MASK);
+    }
+
+    /**
+     * <p>Sets the value of a row</p>
+     *
+     * @param row - row index
+     * @param value - the value
+     */
+    public void set(int row, int value) {
+        views[row >>> ColumnarStore.SEGMENT_SHIFT].put(row & ColumnarStore.SEGMENT_MASK, value);
+    }
+
+    /**
+     * <p>Returns the number of distinct group keys: the maximum value plus one</p>
+     *
+     * @return the key cardinality
+     * @throws IllegalStateException if a value is negative
+     */
+    public int cardinality() {
+        int rows = store.size();
+        int max = -1;
+        int min = 0;
+        for (int segment = 0; segment * ColumnarStore.SEGMENT_ROWS < rows; segment++) {
+            IntBuffer view = views[segment];
+            int count = Math.min(ColumnarStore.SEGMENT_ROWS, rows - segment * ColumnarStore.SEGMENT_ROWS);
+            for (int i = 0; i < count; i++) {
+                int value = view.get(i);
+                max = Math.max(max, value);
+                min = Math.min(min, value);
+            }
+        }
+        if (min < 0) {
+            throw new IllegalStateException("Negative values cannot be group keys: " + getName());
+        }
+        return max + 1;
+    }
+
+    /**
+     * <p>Selects the rows equal to the value</p>
+     *
+     * @param value - the value
+     * @return the selected rows
+     */
+    public Selection equalTo(int value) {
+        int rows = store.size();
+        Selection selection = new Selection(rows);
+        long[] words = selection.words();
+        for (int segment = 0; segment * ColumnarStore.SEGMENT_ROWS < rows; segment++) {
+            IntBuffer view = views[segment];
+            int base = segment * ColumnarStore.SEGMENT_ROWS;
+            int count = Math.min(ColumnarStore.SEGMENT_ROWS, rows - base);
+            for (int i = 0; i < count; i++) {
+                long match = view.get(i) == value ? 1L : 0L;
+                words[(base + i) >>> 6] |= match << (i & 63);
+            }
+        }
+        return selection;
+    }
+
+    /**
+     * <p>Selects the rows between the bounds, inclusive</p>
+     *
+     * @param min - lower bound
+     * @param max - upper bound
+     * @return the selected rows
+     */
+    public Selection between(int min, int max) {
+        int rows = store.size();
+        Selection selection = new Selection(rows);
+        long[] words = selection.words();
+        long width = (long) max - min;
+        for (int segment = 0; segment * ColumnarStore.SEGMENT_ROWS < rows; segment++) {
+            IntBuffer view = views[segment];
+            int base = segment * ColumnarStore.SEGMENT_ROWS;
+            int count = Math.min(ColumnarStore.SEGMENT_ROWS, rows - base);
+            for (int i = 0; i < count; i++) {
+                long offset = (long) view.get(i) - min;
+                long match = offset >= 0L && offset <= width ? 1L : 0L;
+                words[(base + i) >>> 6] |= match << (i & 63);
+            }
+        }
+        return selection;
+    }
+
+    /**
+     * <p>Counts the selected rows by value: <code>result[value]</code> is the number of rows with that value.</p>
+     *
+     * @param selection - selected rows, null for all the rows
+     * @return counts by value, sized to the {@link #cardinality()}
+     */
+    public long[] countBy(Selection selection) {
+        int rows = store.size();
+        long[] counts = new long[cardinality()];
+        for (int segment = 0; segment * ColumnarStore.SEGMENT_ROWS < rows; segment++) {
+            IntBuffer view = views[segment];
+            int base = segment * ColumnarStore.SEGMENT_ROWS;
+            int count = Math.min(ColumnarStore.SEGMENT_ROWS, rows - base);
+            if (selection == null) {
+                for (int i = 0; i < count; i++) {
+                    counts[view.get(i)]++;
+                }
+            } else {
+                long[] words = selection.words();
+                for (int i = 0; i < count; i++) {
+                    counts[view.get(i)] += (words[(base + i) >>> 6] >>> (i & 63)) & 1L;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * <p>Returns the sum of the selected rows</p>
+     *
+     * @param selection - selected rows, null for all the rows
+     * @return the sum
+     */
+    public long sum(Selection selection) {
+        int rows = store.size();
+        long sum = 0L;
+        for (int segment = 0; segment * ColumnarStore.SEGMENT_ROWS < rows; segment++) {
+            IntBuffer view = views[segment];
+            int base = segment * ColumnarStore.SEGMENT_ROWS;
+            int count = Math.min(ColumnarStore.SEGMENT_ROWS, rows - base);
+            long[] words = selection == null ? null : selection.words();
+            for (int i = 0; i < count; i++) {
+                long mask = words == null ? -1L : -((words[(base + i) >>> 6] >>> (i & 63)) & 1L);
+                sum += view.get(i) & mask;
+            }
+        }
+        return sum;
+    }
+}
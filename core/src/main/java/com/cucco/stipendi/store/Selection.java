@@ -0,0 +1,137 @@
+/*
+ * Selection.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.store;
+
+/**
+ * <p>Set of selected rows of a {@link ColumnarStore}, as a bitmap: one bit per row, on the heap. Filters return selections, combined with
+ * {@link #and(Selection)}, {@link #or(Selection)} and {@link #not()}, and aggregates read them without branching.</p>
+ * <p>Not thread safe: the combining methods modify the selection in place.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class Selection {
+
+    /**
+     * <p>Number of rows covered</p>
+     */
+    private final int rows;
+
+    /**
+     * <p>Bitmap words</p>
+     */
+    private final long[] words;
+
+    /**
+     * <p>Creates an empty selection</p>
+     *
+     * @param rows - number of rows covered
+     */
+    Selection(int rows) {
+        this.rows = rows;
+        this.words = new long[(rows + 63) >>> 6];
+    }
+
+    /**
+     * @return the bitmap words
+     */
+    long[] words() {
+        return words;
+    }
+
+    /**
+     * <p>Returns true if the row is selected</p>
+     *
+     * @param row - row index
+     * @return true if selected
+     */
+    public boolean contains(int row) {
+        return (words[row >>> 6] & (1L << (row & 63))) != 0L;
+    }
+
+    /**
+     * <p>Keeps only the rows selected by both</p>
+     *
+     * @param other - the other selection, over the same rows
+     * @return this selection
+     */
+    public Selection and(Selection other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= other.words[i];
+        }
+        return this;
+    }
+
+    /**
+     * <p>Adds the rows selected by the other</p>
+     *
+     * @param other - the other selection, over the same rows
+     * @return this selection
+     */
+    public Selection or(Selection other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+        return this;
+    }
+
+    /**
+     * <p>Inverts the selection</p>
+     *
+     * @return this selection
+     */
+    public Selection not() {
+        for (int i = 0; i < words.length; i++) {
+            words[i] = ~words[i];
+        }
+        if ((rows & 63) != 0) {
+            words[words.length - 1] &= (1L << (rows & 63)) - 1L;
+        }
+        return this;
+    }
+
+    /**
+     * <p>Returns the number of selected rows</p>
+     *
+     * @return selected rows count
+     */
+    public int count() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * <p>Returns the next selected row</p>
+     *
+     * @param from - first row to check
+     * @return the next selected row, -1 if none
+     */
+    public int next(int from) {
+        int index = from >>> 6;
+        if (index >= words.length) {
+            return -1;
+        }
+        long word = words[index] & (-1L << (from & 63));
+        while (word == 0L) {
+            if (++index == words.length) {
+                return -1;
+            }
+            word = words[index];
+        }
+        return (index << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Return the number of rows covered.
+     *
+     * @return rows count
+     */
+    public int getRows() {
+        return rows;
+    }
+}
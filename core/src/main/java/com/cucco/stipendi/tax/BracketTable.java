@@ -0,0 +1,258 @@
+/*
+ * BracketTable.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.tax;
+
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+import com.cucco.stipendi.money.Money;
+import com.cucco.stipendi.money.Rate;
+
+/**
+ * <p>Compiled bracket table: income tax brackets, regional and municipal surcharges, contribution rates with ceilings.</p>
+ * <p>The configuration value is a comma separated list of <code>threshold:rate</code> pairs, thresholds in euros and rates as decimals or
+ * percentages, in any order: <code>0:23%,28000:35%,50000:43%</code>. Each threshold is the lower bound of its bracket, the last bracket has no
+ * upper bound and amounts below the first threshold are out of the table (no tax).</p>
+ * <p>The pairs are compiled once into sorted primitive arrays of cents and millionths, together with the exact tax accumulated up to each
+ * threshold; a lookup is a branch free binary search followed by one multiplication, without allocation. Tables are immutable and meant to be
+ * read through a {@link com.cucco.stipendi.utility.ConfigKey} or {@link com.cucco.stipendi.utility.Config#getBracketTable(String, BracketTable)},
+ * which compile them once per configuration version.</p>
+ * <p>Instances are immutable and thread safe.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class BracketTable {
+
+    /**
+     * <p>The empty table: no brackets, no tax</p>
+     */
+    public static final BracketTable EMPTY = new BracketTable(new long[0], new long[0]);
+
+    private static final String RECORD_SEPARATOR = ",";
+
+    private static final String FIELD_SEPARATOR = ":";
+
+    /**
+     * <p>Lower bounds of the brackets, in cents, ascending</p>
+     */
+    private final long[] thresholds;
+
+    /**
+     * <p>Rates of the brackets, in millionths</p>
+     */
+    private final long[] rates;
+
+    /**
+     * <p>Exact progressive tax accumulated below each threshold, in cents times millionths, not rounded</p>
+     */
+    private final long[] accumulated;
+
+    /**
+     * @param thresholds - sorted thresholds, owned by the instance
+     * @param rates - rates, owned by the instance
+     * @throws ArithmeticException if the accumulated tax exceeds 64 bits
+     */
+    private BracketTable(long[] thresholds, long[] rates) {
+        this.thresholds = thresholds;
+        this.rates = rates;
+        this.accumulated = new long[thresholds.length];
+        for (int i = 1; i < thresholds.length; i++) {
+            accumulated[i] = Math.addExact(accumulated[i - 1], Math.multiplyExact(thresholds[i] - thresholds[i - 1], rates[i - 1]));
+        }
+    }
+
+    /**
+     * <p>Builds a table from thresholds and rates.</p>
+     *
+     * @param thresholds - lower bounds of the brackets, distinct
+     * @param rates - rates of the brackets
+     * @return the table
+     * @throws IllegalArgumentException if the arrays lengths differ, thresholds are repeated or too large
+     */
+    public static BracketTable of(Money[] thresholds, Rate[] rates) {
+        if (thresholds.length != rates.length) {
+            throw new IllegalArgumentException("Thresholds and rates count differ");
+        }
+        long[][] pairs = new long[thresholds.length][];
+        for (int i = 0; i < thresholds.length; i++) {
+            pairs[i] = new long[] { thresholds[i].getCents(), rates[i].getMicros() };
+        }
+        return compile(pairs);
+    }
+
+    /**
+     * <p>Parses a table, see the class description for the format.</p>
+     *
+     * @param value - the configuration value
+     * @return the table
+     * @throws IllegalArgumentException if the value is not a table; {@link NumberFormatException} for a wrong amount or rate
+     */
+    public static BracketTable parse(String value) {
+        String[] token = value.split(RECORD_SEPARATOR);
+        long[][] pairs = new long[token.length][];
+        for (int i = 0; i < token.length; i++) {
+            String[] field = token[i].split(FIELD_SEPARATOR);
+            if (field.length != 2) {
+                throw new IllegalArgumentException("Not a threshold:rate pair: " + token[i]);
+            }
+            pairs[i] = new long[] { Money.parse(field[0]).getCents(), Rate.parse(field[1]).getMicros() };
+        }
+        return compile(pairs);
+    }
+
+    /**
+     * @param pairs - threshold and rate pairs, sorted in place
+     * @return the table
+     * @throws IllegalArgumentException if thresholds are repeated or too large
+     */
+    private static BracketTable compile(long[][] pairs) {
+        Arrays.sort(pairs, (a, b) -> Long.compare(a[0], b[0]));
+        long[] thresholds = new long[pairs.length];
+        long[] rates = new long[pairs.length];
+        for (int i = 0; i < pairs.length; i++) {
+            if (i > 0 && pairs[i][0] == pairs[i - 1][0]) {
+                throw new IllegalArgumentException("Repeated threshold: " + Money.ofCents(pairs[i][0]));
+            }
+            thresholds[i] = pairs[i][0];
+            rates[i] = pairs[i][1];
+        }
+        try {
+            return thresholds.length == 0 ? EMPTY : new BracketTable(thresholds, rates);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Thresholds out of range", e);
+        }
+    }
+
+    /**
+     * <p>Returns the index of the bracket containing the amount, -1 if the amount is below the first threshold. The search loop has a fixed
+     * number of iterations for a given table and a conditional move in place of the branch on the comparison.</p>
+     *
+     * @param cents - amount, in cents
+     * @return the bracket index
+     */
+    public int indexOf(long cents) {
+        long[] bounds = thresholds;
+        int n = bounds.length;
+        if (n == 0 || cents < bounds[0]) {
+            return -1;
+        }
+        int base = 0;
+        while (n > 1) {
+            int half = n >>> 1;
+            base = bounds[base + half] <= cents ? base + half : base;
+            n -= half;
+        }
+        return base;
+    }
+
+    /**
+     * <p>Returns the rate of the bracket containing the amount, in millionths; zero below the first threshold.</p>
+     *
+     * @param cents - amount, in cents
+     * @return the marginal rate, in millionths
+     */
+    public long rateMicros(long cents) {
+        int index = indexOf(cents);
+        return index < 0 ? 0L : rates[index];
+    }
+
+    /**
+     * <p>Returns the progressive tax on the amount: each bracket rate applies to the part of the amount falling in the bracket. The sum is exact
+     * and rounded once, to the cent.</p>
+     *
+     * @param cents - taxable amount, in cents
+     * @param mode - rounding mode
+     * @return the tax, in cents
+     * @throws ArithmeticException on overflow
+     */
+    public long progressive(long cents, RoundingMode mode) {
+        int index = indexOf(cents);
+        long tax = 0L;
+        if (index >= 0) {
+            long exact = Math.addExact(accumulated[index], Math.multiplyExact(cents - thresholds[index], rates[index]));
+            tax = Money.divideCents(exact, Rate.MICROS_PER_UNIT, mode);
+        }
+        return tax;
+    }
+
+    /**
+     * <p>Returns the amount times the rate of the bracket containing it: the whole amount is taxed at a single rate, as for the surcharges with
+     * exemption thresholds.</p>
+     *
+     * @param cents - taxable amount, in cents
+     * @param mode - rounding mode
+     * @return the tax, in cents
+     * @throws ArithmeticException on overflow
+     */
+    public long flat(long cents, RoundingMode mode) {
+        int index = indexOf(cents);
+        return index < 0 ? 0L : Money.multiplyCents(cents, rates[index], mode);
+    }
+
+    /**
+     * <p>Returns the progressive tax on the amount rounded half up to the cent</p>
+     *
+     * @param amount - taxable amount
+     * @return the tax
+     */
+    public Money progressive(Money amount) {
+        return Money.ofCents(progressive(amount.getCents(), Money.ROUNDING));
+    }
+
+    /**
+     * <p>Returns the flat tax on the amount rounded half up to the cent</p>
+     *
+     * @param amount - taxable amount
+     * @return the tax
+     */
+    public Money flat(Money amount) {
+        return Money.ofCents(flat(amount.getCents(), Money.ROUNDING));
+    }
+
+    /**
+     * Return the number of brackets.
+     *
+     * @return brackets count
+     */
+    public int size() {
+        return thresholds.length;
+    }
+
+    /**
+     * <p>Returns the lower bound of a bracket</p>
+     *
+     * @param index - bracket index
+     * @return the threshold
+     */
+    public Money getThreshold(int index) {
+        return Money.ofCents(thresholds[index]);
+    }
+
+    /**
+     * <p>Returns the rate of a bracket</p>
+     *
+     * @param index - bracket index
+     * @return the rate
+     */
+    public Rate getRate(int index) {
+        return Rate.ofMicros(rates[index]);
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("BracketTable [");
+        for (int i = 0; i < thresholds.length; i++) {
+            if (i > 0) {
+                builder.append(RECORD_SEPARATOR);
+            }
+            builder.append(Money.ofCents(thresholds[i])).append(FIELD_SEPARATOR).append(Rate.ofMicros(rates[i]));
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * TaxTables.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.tax;
+
+import com.cucco.stipendi.money.Rate;
+import com.cucco.stipendi.utility.Config;
+import com.cucco.stipendi.utility.ConfigKey;
+
+/**
+ * <p>Configuration keys of the tax and contribution tables.</p>
+ * <p>Tables are read through typed {@link ConfigKey}s, so each configuration version compiles them once, when the snapshot is built or on first
+ * access, and {@link Config#get(ConfigKey)} returns the compiled table with an array read. Values that are not valid tables fall back to
+ * {@link BracketTable#EMPTY}. Example:</p>
+ *
+ * <pre>
+ * tax.irpef.brackets=0:23%,28000:35%,50000:43%
+ * tax.regional.brackets=0:1.23%
+ * tax.municipal.brackets=0:0%,10000:0.8%
+ * tax.municipal.F205.brackets=0:0%,23000:0.8%
+ * contribution.employee.rate=9.19%
+ * contribution.employee.additional.brackets=0:0%,55448:1%
+ * </pre>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class TaxTables {
+
+    /**
+     * <p>Income tax (IRPEF) brackets, progressive</p>
+     */
+    public static final ConfigKey<BracketTable> IRPEF = ConfigKey.of("tax.irpef.brackets", BracketTable.class, BracketTable.EMPTY);
+
+    /**
+     * <p>Regional surcharge brackets, progressive</p>
+     */
+    public static final ConfigKey<BracketTable> REGIONAL_SURCHARGE = ConfigKey.of("tax.regional.brackets", BracketTable.class, BracketTable.EMPTY);
+
+    /**
+     * <p>Municipal surcharge brackets, flat with exemption threshold</p>
+     */
+    public static final ConfigKey<BracketTable> MUNICIPAL_SURCHARGE = ConfigKey.of("tax.municipal.brackets", BracketTable.class,
+            BracketTable.EMPTY);
+
+    /**
+     * <p>Employee social contribution rate</p>
+     */
+    public static final ConfigKey<Rate> EMPLOYEE_CONTRIBUTION = ConfigKey.of("contribution.employee.rate", Rate.ZERO);
+
+    /**
+     * <p>Additional employee contribution above the ceiling, progressive</p>
+     */
+    public static final ConfigKey<BracketTable> EMPLOYEE_ADDITIONAL_CONTRIBUTION = ConfigKey.of("contribution.employee.additional.brackets",
+            BracketTable.class, BracketTable.EMPTY);
+
+    /**
+     * <p>Returns the key of the municipal surcharge brackets of one municipality, <code>tax.municipal.&lt;code&gt;.brackets</code>.
+     * Municipalities without their own key use {@link #MUNICIPAL_SURCHARGE}.</p>
+     *
+     * @param municipality - municipality code
+     * @return the key name
+     */
+    public static String municipalSurchargeKey(String municipality) {
+        return "tax.municipal." + municipality + ".brackets";
+    }
+
+    /**
+     * <p>Not instantiable</p>
+     */
+    private TaxTables() {
+    }
+}
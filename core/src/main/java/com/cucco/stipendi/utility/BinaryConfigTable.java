@@ -0,0 +1,477 @@
+/*
+ * BinaryConfigTable.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * <p>Read only view of a precompiled configuration snapshot, the binary file produced by {@link ConfigSnapshotCompiler} next to the text
+ * configuration file.</p>
+ * <p>The file is memory mapped and used in place: opening it costs the checksum verification only, keys and values are decoded on first access and
+ * cached. Numeric and boolean values carry a pre-typed payload, computed at build time with the same rules of {@link Config} (<code>0x</code> hex
+ * prefix, true/false literals), readable with {@link #getLong(String, long)}, {@link #getDouble(String, double)} and
+ * {@link #getBoolean(String, boolean)} without any string parsing: the primitive getters of {@link Config} read them when the current snapshot
+ * is backed by a table.</p>
+ * <p>Layout, big endian:</p>
+ * <pre>
+ * header : int magic, short format version, short reserved, byte[32] SHA-256 of the source text file,
+ *          byte[32] ASCII name of the charset the source was decoded with, zero padded, int entry count, int slot count (power of two), int data offset, int data length
+ * slots  : slot count x (int key hash, int key offset, int key length, int value offset, int value length,
+ *          byte flags, 3 bytes padding, long long payload, long double payload), key offset -1 for empty slots
+ * data   : UTF-8 keys and values
+ * trailer: long CRC32 of all the preceding bytes
+ * </pre>
+ * <p>The text file is decoded with the platform charset, so the same bytes may hold different values on another platform: a snapshot is
+ * current only if both the source digest and the charset match.</p>
+ * <p>Keys are placed by open addressing with linear probing on {@link String#hashCode()}. Instances are immutable and thread safe: the decoding
+ * caches are written racily with immutable strings.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class BinaryConfigTable extends AbstractMap<String, String> {
+
+    /**
+     * <p>Suffix appended to the text configuration file name to get the snapshot file name</p>
+     */
+    public static final String FILE_SUFFIX = ".snap";
+
+    /**
+     * <p>File magic number, "STPC"</p>
+     */
+    static final int MAGIC = 0x53545043;
+
+    /**
+     * <p>Current format version</p>
+     */
+    static final short FORMAT_VERSION = 3;
+
+    /**
+     * <p>Header length in bytes</p>
+     */
+    static final int HEADER_LENGTH = 88;
+
+    /**
+     * <p>Slot length in bytes</p>
+     */
+    static final int SLOT_LENGTH = 40;
+
+    /**
+     * <p>Length of the source digest</p>
+     */
+    static final int DIGEST_LENGTH = 32;
+
+    /**
+     * <p>Length of the charset name field</p>
+     */
+    static final int CHARSET_LENGTH = 32;
+
+    /**
+     * <p>Flag: the long payload holds the value parsed as long</p>
+     */
+    static final byte FLAG_LONG = 1;
+
+    /**
+     * <p>Flag: the double payload holds the value parsed as double</p>
+     */
+    static final byte FLAG_DOUBLE = 2;
+
+    /**
+     * <p>Flag: the value is a boolean literal</p>
+     */
+    static final byte FLAG_BOOLEAN = 4;
+
+    /**
+     * <p>Flag: the boolean literal is true</p>
+     */
+    static final byte FLAG_TRUE = 8;
+
+    /**
+     * <p>Flag: the value contains <code>${name}</code> references, resolved when the snapshot is built</p>
+     */
+    static final byte FLAG_TEMPLATE = 16;
+
+    /**
+     * <p>The whole file content</p>
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * <p>Number of keys</p>
+     */
+    private final int size;
+
+    /**
+     * <p>Number of slots</p>
+     */
+    private final int slotCount;
+
+    /**
+     * <p>Data section offset</p>
+     */
+    private final int dataOffset;
+
+    /**
+     * <p>Decoded keys cache, by slot</p>
+     */
+    private final String[] keys;
+
+    /**
+     * <p>Decoded values cache, by slot</p>
+     */
+    private final String[] values;
+
+    /**
+     * <p>Lazily created entry set view</p>
+     */
+    private transient Set<Map.Entry<String, String>> entrySet;
+
+    /**
+     * @param buffer - verified file content
+     */
+    private BinaryConfigTable(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.size = buffer.getInt(72);
+        this.slotCount = buffer.getInt(76);
+        this.dataOffset = buffer.getInt(80);
+        this.keys = new String[slotCount];
+        this.values = new String[slotCount];
+    }
+
+    /**
+     * <p>Returns the snapshot file associated with a text configuration file.</p>
+     *
+     * @param propertyFile - text configuration file
+     * @return the snapshot file, which may not exist
+     */
+    public static File snapshotFileOf(File propertyFile) {
+        return new File(propertyFile.getPath() + FILE_SUFFIX);
+    }
+
+    /**
+     * <p>Maps and verifies a snapshot file, returning it only if it has been compiled from a text file with the given digest, decoded with the
+     * platform charset.</p>
+     *
+     * @param snapshotFile - the snapshot file
+     * @param sourceDigest - SHA-256 of the current text configuration file
+     * @return the table, null if the snapshot file does not exist or is stale
+     * @throws IOException if the file cannot be read or is corrupted
+     */
+    public static BinaryConfigTable openIfCurrent(File snapshotFile, byte[] sourceDigest) throws IOException {
+        if (!snapshotFile.isFile()) {
+            return null;
+        }
+        BinaryConfigTable table = open(MappedPropertiesLoader.map(snapshotFile));
+        boolean current = Arrays.equals(table.getSourceDigest(), sourceDigest) && Charset.defaultCharset().name().equals(table.getSourceCharset());
+        return current ? table : null;
+    }
+
+    /**
+     * <p>Verifies magic number, format version, layout and checksum of a snapshot content.</p>
+     *
+     * @param content - the snapshot content
+     * @return the table
+     * @throws IOException if the content is not a valid snapshot
+     */
+    public static BinaryConfigTable open(ByteBuffer content) throws IOException {
+        ByteBuffer buffer = content.slice();
+        int length = buffer.remaining();
+        if (length < HEADER_LENGTH + 8 || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a configuration snapshot");
+        }
+        if (buffer.getShort(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported configuration snapshot version: " + buffer.getShort(4));
+        }
+        int slots = buffer.getInt(76);
+        long dataEnd = (long) buffer.getInt(80) + buffer.getInt(84);
+        if (Integer.bitCount(slots) != 1 || buffer.getInt(80) != HEADER_LENGTH + (long) slots * SLOT_LENGTH || dataEnd != length - 8) {
+            throw new IOException("Malformed configuration snapshot");
+        }
+        CRC32 crc = new CRC32();
+        ByteBuffer checked = buffer.duplicate();
+        checked.limit(length - 8);
+        crc.update(checked);
+        if (crc.getValue() != buffer.getLong(length - 8)) {
+            throw new IOException("Configuration snapshot checksum mismatch");
+        }
+        return new BinaryConfigTable(buffer);
+    }
+
+    /**
+     * <p>Returns the digest of the text file the snapshot was compiled from.</p>
+     *
+     * @return SHA-256 of the source file
+     */
+    public byte[] getSourceDigest() {
+        byte[] digest = new byte[DIGEST_LENGTH];
+        ByteBuffer source = buffer.duplicate();
+        source.position(8);
+        source.get(digest);
+        return digest;
+    }
+
+    /**
+     * <p>Returns the name of the charset the text file was decoded with.</p>
+     *
+     * @return canonical charset name
+     */
+    public String getSourceCharset() {
+        int length = 0;
+        while (length < CHARSET_LENGTH && buffer.get(8 + DIGEST_LENGTH + length) != 0) {
+            length++;
+        }
+        ByteBuffer name = buffer.duplicate();
+        name.position(8 + DIGEST_LENGTH);
+        name.limit(8 + DIGEST_LENGTH + length);
+        return StandardCharsets.US_ASCII.decode(name).toString();
+    }
+
+    /**
+     * @see java.util.AbstractMap#get(java.lang.Object)
+     */
+    @Override
+    public String get(Object key) {
+        int slot = key instanceof String ? slotOf((String) key) : -1;
+        return slot < 0 ? null : value(slot);
+    }
+
+    /**
+     * @see java.util.AbstractMap#containsKey(java.lang.Object)
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && slotOf((String) key) >= 0;
+    }
+
+    /**
+     * <p>Returns the pre-typed long value, equal to {@link Config#get(String, long)} on the same text.</p>
+     *
+     * @param key - configuration key
+     * @param defaultValue - value used if missing or not a long
+     * @return the value
+     */
+    public long getLong(String key, long defaultValue) {
+        int slot = slotOf(key);
+        return slot >= 0 && (flags(slot) & FLAG_LONG) != 0 ? buffer.getLong(slotPosition(slot) + 24) : defaultValue;
+    }
+
+    /**
+     * <p>Returns the pre-typed double value, equal to {@link Config#get(String, double)} on the same text.</p>
+     *
+     * @param key - configuration key
+     * @param defaultValue - value used if missing or not a double
+     * @return the value
+     */
+    public double getDouble(String key, double defaultValue) {
+        int slot = slotOf(key);
+        return slot >= 0 && (flags(slot) & FLAG_DOUBLE) != 0 ? Double.longBitsToDouble(buffer.getLong(slotPosition(slot) + 32)) : defaultValue;
+    }
+
+    /**
+     * <p>Returns the pre-typed boolean value, equal to {@link Config#get(String, boolean)} on the same text.</p>
+     *
+     * @param key - configuration key
+     * @param defaultValue - value used if missing or not a boolean literal
+     * @return the value
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        int slot = slotOf(key);
+        return slot >= 0 && (flags(slot) & FLAG_BOOLEAN) != 0 ? (flags(slot) & FLAG_TRUE) != 0 : defaultValue;
+    }
+
+    /**
+     * <p>Tells whether the value of the key has the given pre-typed payload. Values holding references are never pre-typed: the payload was
+     * computed on the raw text, before the resolution.</p>
+     *
+     * @param key - configuration key
+     * @param flag - {@link #FLAG_LONG}, {@link #FLAG_DOUBLE} or {@link #FLAG_BOOLEAN}
+     * @return true if the payload can be read in place of the text value
+     */
+    boolean isTyped(String key, byte flag) {
+        int slot = slotOf(key);
+        return slot >= 0 && (flags(slot) & (flag | FLAG_TEMPLATE)) == flag;
+    }
+
+    /**
+     * <p>Resolves the values flagged as templates, replacing them into the decoded values cache. Must be called before publishing the table,
+     * see {@link ConfigSnapshot#of(BinaryConfigTable)}: raw values are read through the lookup while resolving.</p>
+     *
+     * @param lookup - reference lookup
+     */
+    void resolveTemplates(Function<String, String> lookup) {
+        String[] resolved = new String[slotCount];
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (!isEmptySlot(slot) && (flags(slot) & FLAG_TEMPLATE) != 0) {
+                resolved[slot] = Template.compile(value(slot)).resolve(lookup, null);
+            }
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (resolved[slot] != null) {
+                values[slot] = resolved[slot];
+            }
+        }
+    }
+
+    /**
+     * @see java.util.AbstractMap#size()
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @see java.util.AbstractMap#entrySet()
+     */
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        Set<Map.Entry<String, String>> entries = entrySet;
+        if (entries == null) {
+            entries = new EntrySet();
+            entrySet = entries;
+        }
+        return entries;
+    }
+
+    /**
+     * @param key - the key
+     * @return the slot holding key, -1 if missing
+     */
+    private int slotOf(String key) {
+        int hash = key.hashCode();
+        int mask = slotCount - 1;
+        int slot = hash & mask;
+        while (!isEmptySlot(slot)) {
+            if (buffer.getInt(slotPosition(slot)) == hash && key.equals(key(slot))) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * @param slot - slot index
+     * @return the slot position into the buffer
+     */
+    private static int slotPosition(int slot) {
+        return HEADER_LENGTH + slot * SLOT_LENGTH;
+    }
+
+    /**
+     * @param slot - slot index
+     * @return true if the slot is empty
+     */
+    private boolean isEmptySlot(int slot) {
+        return buffer.getInt(slotPosition(slot) + 4) < 0;
+    }
+
+    /**
+     * @param slot - slot index
+     * @return the slot flags
+     */
+    private byte flags(int slot) {
+        return buffer.get(slotPosition(slot) + 20);
+    }
+
+    /**
+     * @param slot - slot index
+     * @return the decoded key
+     */
+    private String key(int slot) {
+        String key = keys[slot];
+        if (key == null) {
+            key = decode(buffer.getInt(slotPosition(slot) + 4), buffer.getInt(slotPosition(slot) + 8));
+            keys[slot] = key;
+        }
+        return key;
+    }
+
+    /**
+     * @param slot - slot index
+     * @return the decoded value
+     */
+    private String value(int slot) {
+        String value = values[slot];
+        if (value == null) {
+            value = decode(buffer.getInt(slotPosition(slot) + 12), buffer.getInt(slotPosition(slot) + 16));
+            values[slot] = value;
+        }
+        return value;
+    }
+
+    /**
+     * @param offset - offset into the data section
+     * @param length - length in bytes
+     * @return the decoded string
+     */
+    private String decode(int offset, int length) {
+        ByteBuffer data = buffer.duplicate();
+        data.position(dataOffset + offset);
+        data.limit(dataOffset + offset + length);
+        return StandardCharsets.UTF_8.decode(data).toString();
+    }
+
+    /**
+     * <p>Entry set view, iterating the occupied slots</p>
+     */
+    private final class EntrySet extends AbstractSet<Map.Entry<String, String>> {
+
+        /**
+         * @see java.util.AbstractCollection#iterator()
+         */
+        @Override
+        public Iterator<Map.Entry<String, String>> iterator() {
+            return new Iterator<Map.Entry<String, String>>() {
+
+                private int next = advance(0);
+
+                private int advance(int from) {
+                    int slot = from;
+                    while (slot < slotCount && isEmptySlot(slot)) {
+                        slot++;
+                    }
+                    return slot;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next < slotCount;
+                }
+
+                @Override
+                public Map.Entry<String, String> next() {
+                    if (next >= slotCount) {
+                        throw new NoSuchElementException();
+                    }
+                    Map.Entry<String, String> entry = new AbstractMap.SimpleImmutableEntry<String, String>(key(next), value(next));
+                    next = advance(next + 1);
+                    return entry;
+                }
+            };
+        }
+
+        /**
+         * @see java.util.AbstractCollection#size()
+         */
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
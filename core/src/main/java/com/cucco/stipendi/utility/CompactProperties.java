@@ -0,0 +1,286 @@
+/*
+ * CompactProperties.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <p>Immutable string to string map stored in three parallel arrays with open addressing and linear probing.</p>
+ * <p>Compared with {@link java.util.Properties}, which is a synchronized {@link java.util.Hashtable}, there is no entry object per key and no
+ * locking on lookup: the footprint is three array slots per capacity unit plus the strings themselves. Capacity is kept a power of two at
+ * most half full. Instances are built with a {@link Builder} and are thread safe once built.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class CompactProperties extends AbstractMap<String, String> {
+
+    /**
+     * <p>Key hashes, meaningful only where keys are not null</p>
+     */
+    private final int[] hashes;
+
+    /**
+     * <p>Keys, null for empty slots</p>
+     */
+    private final String[] keys;
+
+    /**
+     * <p>Values, parallel to keys</p>
+     */
+    private final String[] values;
+
+    /**
+     * <p>Number of keys</p>
+     */
+    private final int size;
+
+    /**
+     * <p>Lazily created entry set view</p>
+     */
+    private transient Set<Map.Entry<String, String>> entrySet;
+
+    /**
+     * @param hashes - key hashes
+     * @param keys - keys
+     * @param values - values
+     * @param size - number of keys
+     */
+    private CompactProperties(int[] hashes, String[] keys, String[] values, int size) {
+        this.hashes = hashes;
+        this.keys = keys;
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * @see java.util.AbstractMap#get(java.lang.Object)
+     */
+    @Override
+    public String get(Object key) {
+        int slot = key instanceof String ? slotOf(hashes, keys, (String) key) : -1;
+        return slot >= 0 && keys[slot] != null ? values[slot] : null;
+    }
+
+    /**
+     * @see java.util.AbstractMap#containsKey(java.lang.Object)
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @see java.util.AbstractMap#size()
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @see java.util.AbstractMap#entrySet()
+     */
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        Set<Map.Entry<String, String>> entries = entrySet;
+        if (entries == null) {
+            entries = new EntrySet();
+            entrySet = entries;
+        }
+        return entries;
+    }
+
+    /**
+     * <p>Spreads the string hash so that keys sharing a prefix do not cluster.</p>
+     *
+     * @param key - the key
+     * @return the spread hash
+     */
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * <p>Returns the slot holding key, or the empty slot where it should be inserted.</p>
+     *
+     * @param hashes - key hashes
+     * @param keys - keys
+     * @param key - the key
+     * @return the slot
+     */
+    private static int slotOf(int[] hashes, String[] keys, String key) {
+        int hash = hash(key);
+        int mask = keys.length - 1;
+        int slot = hash & mask;
+        String current = keys[slot];
+        while (current != null && (hashes[slot] != hash || !current.equals(key))) {
+            slot = (slot + 1) & mask;
+            current = keys[slot];
+        }
+        return slot;
+    }
+
+    /**
+     * <p>Entry set view, iterating the occupied slots</p>
+     */
+    private final class EntrySet extends AbstractSet<Map.Entry<String, String>> {
+
+        /**
+         * @see java.util.AbstractCollection#iterator()
+         */
+        @Override
+        public Iterator<Map.Entry<String, String>> iterator() {
+            return new Iterator<Map.Entry<String, String>>() {
+
+                private int next = advance(0);
+
+                private int advance(int from) {
+                    int slot = from;
+                    while (slot < keys.length && keys[slot] == null) {
+                        slot++;
+                    }
+                    return slot;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next < keys.length;
+                }
+
+                @Override
+                public Map.Entry<String, String> next() {
+                    if (next >= keys.length) {
+                        throw new NoSuchElementException();
+                    }
+                    Map.Entry<String, String> entry = new AbstractMap.SimpleImmutableEntry<String, String>(keys[next], values[next]);
+                    next = advance(next + 1);
+                    return entry;
+                }
+            };
+        }
+
+        /**
+         * @see java.util.AbstractCollection#size()
+         */
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * <p>Mutable builder. A later put on the same key replaces the value, as {@link java.util.Properties#load(java.io.Reader)} does.</p>
+     * <p>Not thread safe.</p>
+     */
+    public static final class Builder {
+
+        /**
+         * <p>Key hashes</p>
+         */
+        private int[] hashes;
+
+        /**
+         * <p>Keys</p>
+         */
+        private String[] keys;
+
+        /**
+         * <p>Values</p>
+         */
+        private String[] values;
+
+        /**
+         * <p>Number of keys</p>
+         */
+        private int size;
+
+        /**
+         * <p>Creates a builder sized for the expected number of keys.</p>
+         *
+         * @param expectedSize - expected number of keys
+         */
+        public Builder(int expectedSize) {
+            int capacity = 16;
+            while (capacity < expectedSize * 2 && capacity < (1 << 30)) {
+                capacity <<= 1;
+            }
+            allocate(capacity);
+        }
+
+        /**
+         * <p>Adds or replaces a key.</p>
+         *
+         * @param key - the key, not null
+         * @param value - the value, not null
+         * @return this builder
+         */
+        public Builder put(String key, String value) {
+            if (key == null || value == null) {
+                throw new NullPointerException();
+            }
+            int slot = slotOf(hashes, keys, key);
+            if (keys[slot] == null) {
+                if ((size + 1) * 2 > keys.length) {
+                    rehash(keys.length << 1);
+                    slot = slotOf(hashes, keys, key);
+                }
+                hashes[slot] = hash(key);
+                keys[slot] = key;
+                size++;
+            }
+            values[slot] = value;
+            return this;
+        }
+
+        /**
+         * <p>Builds the immutable map. The builder must not be used afterwards.</p>
+         *
+         * @return the built map
+         */
+        public CompactProperties build() {
+            CompactProperties properties = new CompactProperties(hashes, keys, values, size);
+            hashes = null;
+            keys = null;
+            values = null;
+            return properties;
+        }
+
+        /**
+         * @param capacity - new capacity, a power of two
+         */
+        private void allocate(int capacity) {
+            hashes = new int[capacity];
+            keys = new String[capacity];
+            values = new String[capacity];
+        }
+
+        /**
+         * @param capacity - new capacity, a power of two
+         */
+        private void rehash(int capacity) {
+            int[] oldHashes = hashes;
+            String[] oldKeys = keys;
+            String[] oldValues = values;
+            allocate(capacity);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int slot = slotOf(hashes, keys, oldKeys[i]);
+                    hashes[slot] = oldHashes[i];
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+            Arrays.fill(oldKeys, null);
+        }
+    }
+}
@@ -1,685 +1,1155 @@
-/*
- * Config.java
- * 
- * 14 lug 2022
- */
-package com.cucco.stipendi.utility;
-
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.math.BigDecimal;
-import java.net.InetSocketAddress;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Hashtable;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
-import java.util.Properties;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-/**
- * <p>Executive summary - A precise and concise description for the object. Useful to describe groupings of methods and introduce major terms.</p>
- * <p>State Information - Specify the state information associated with the object, described in a manner that decouples the states from the operations that may query or change these states. This should also include whether instances of this class are thread safe. (For multi-state objects, a state diagram may be the clearest way to present this information.) If the class allows only single state instances, such as java.lang.Integer, and for interfaces, this section may be skipped.</p>
- * 
- *
- * @author giovanni -- Auriga S.p.A.
- */
-public class Config {
-    protected Properties conf;
-
-    protected static final LinkedList<String> TRUE = new LinkedList<String>();
-    static {
-        TRUE.add("true");
-        TRUE.add("vero");
-        TRUE.add("on");
-        TRUE.add("yes");
-        TRUE.add("si");
-        TRUE.add("1");
-    }
-
-    protected static final LinkedList<String> FALSE = new LinkedList<String>();
-    static {
-        FALSE.add("false");
-        FALSE.add("falso");
-        FALSE.add("off");
-        FALSE.add("no");
-        FALSE.add("0");
-    }
-
-    private static final String LIST_CLASS_NAME = List.class.getSimpleName();
-
-    private static final String RECORD_SEPARATOR = ",";
-
-    private static final String FIELD_SEPARATOR = ":";
-
-    private static final String SUBFIELD_SEPARATOR = "\\|";
-
-    protected static final Map<String, Class<?>> primitiveMap = new HashMap<String, Class<?>>();
-    static {
-        primitiveMap.put("Boolean", Boolean.class);
-        primitiveMap.put("Byte", Byte.class);
-        primitiveMap.put("Character", Character.class);
-        primitiveMap.put("Short", Short.class);
-        primitiveMap.put("Integer", Integer.class);
-        primitiveMap.put("Long", Long.class);
-        primitiveMap.put("Float", Float.class);
-        primitiveMap.put("Double", Double.class);
-        primitiveMap.put("String", String.class);
-    }
-
-    /**
-     * <p>Default constructor.</p>
-     */
-    public Config() {
-    }
-
-    /**
-     * 
-     * @param conf
-     */
-    public void setConf(Properties conf) {
-        this.conf = conf;
-    }
-
-    /**
-     * 
-     * @param key
-     * @param defaultValue
-     * @return
-     */
-    public String get(String key, String defaultValue) {
-        String value = defaultValue;
-        if (conf != null) {
-            synchronized (conf) {
-                value = conf.getProperty(key);
-                if (value == null) {
-                    value = defaultValue;
-                }
-            }
-        }
-        return value;
-    }
-
-    /**
-     * 
-     * @param key
-     * @param defaultValue
-     * @return
-     */
-    public int get(String key, int defaultValue) {
-        int value = defaultValue;
-        if (conf != null) {
-            synchronized (conf) {
-                String strValue = conf.getProperty(key);
-                if (strValue != null) {
-                    try {
-                        strValue = strValue.trim();
-                        if (strValue.startsWith("0x")) {
-                            value = Integer.parseInt(strValue.substring(2), 16);
-                        } else {
-                            value = Integer.parseInt(strValue);
-                        }
-                    } catch (NumberFormatException e) {
-                        value = defaultValue;
-                    }
-                }
-            }
-        }
-        return value;
-    }
-
-    /**
-     * 
-     * @param key
-     * @param defaultValue
-     * @return
-     */
-    public byte get(String key, byte defaultValue) {
-        byte value = defaultValue;
-        if (conf != null) {
-            synchronized (conf) {
-                String strValue = conf.getProperty(key);
-                if (strValue != null) {
-                    try {
-                        strValue = strValue.trim();
-                        if (strValue.startsWith("0x")) {
-                            value = Byte.parseByte(strValue.substring(2), 16);
-                        } else {
-                            value = Byte.parseByte(strValue);
-                        }
-                    } catch (NumberFormatException e) {
-                        value = defaultValue;
-                    }
-                }
-            }
-        }
-        return value;
-    }
-
-    /**
-     * 
-     * @param key
-     * @param defaultValue
-     * @return
-     */
-    public long get(String key, long defaultValue) {
-        long value = defaultValue;
-        if (conf != null) {
-            synchronized (conf) {
-                String strValue = conf.getProperty(key);
-                if (strValue != null) {
-                    try {
-                        strValue = strValue.trim();
-                        if (strValue.startsWith("0x")) {
-                            value = Long.parseLong(strValue.substring(2), 16);
-                        } else {
-                            value = Long.parseLong(strValue);
-                        }
-                    } catch (NumberFormatException e) {
-                        value = defaultValue;
-                    }
-                }
-            }
-        }
-        return value;
-    }
-
-    /**
-     * 
-     * @param key
-     * @param defaultValue
-     * @return
-     */
-    public double get(String key, double defaultValue) {
-        double value = defaultValue;
-        if (conf != null) {
-            synchronized (conf) {
-                String strValue = conf.getProperty(key);
-                if (strValue != null) {
-                    strValue = strValue.trim();
-                    try {
-                        value = Double.parseDouble(strValue);
-                    } catch (NumberFormatException e) {
-                        value = defaultValue;
-                    }
-                }
-            }
-        }
-        return value;
-    }
-
-    /**
-     * 
-     * @param key
-     * @param defaultValue
-     * @return
-     */
-    public boolean get(String key, boolean defaultValue) {
-        boolean value = defaultValue;
-        if (conf != null) {
-            synchronized (conf) {
-                String strValue = conf.getProperty(key);
-                if (strValue != null) {
-                    strValue = strValue.toLowerCase();
-                    strValue = strValue.trim();
-                    if (TRUE.contains(strValue)) {
-                        value = true;
-                    } else if (FALSE.contains(strValue)) {
-                        value = false;
-                    }
-                }
-            }
-        }
-        return value;
-    }
-
-    /**
-     * 
-     * @param key
-     * @param defaultValue
-     * @return
-     */
-    public LinkedList<String> get(String key, LinkedList<String> defaultValue) {
-        LinkedList<String> value = defaultValue;
-        if (conf != null) {
-            synchronized (conf) {
-                String strValue = conf.getProperty(key);
-                if (strValue != null) {
-                    value = new LinkedList<String>();
-                    String token[] = strValue.split(RECORD_SEPARATOR);
-                    for (int i = 0; i < token.length; i++) {
-                        value.add(token[i].trim());
-                    }
-                }
-            }
-        }
-        return value;
-    }
-
-    /**
-     * 
-     * @param key
-     * @param defaultValue
-     * @param fieldSeparator
-     * @return
-     */
-    public LinkedList<String> get(String key, LinkedList<String> defaultValue, String fieldSeparator) {
-        LinkedList<String> value = defaultValue;
-        if (conf != null) {
-            synchronized (conf) {
-                String strValue = conf.getProperty(key);
-                if (strValue != null) {
-                    value = new LinkedList<String>();
-                    String token[] = strValue.split(fieldSeparator);
-                    for (int i = 0; i < token.length; i++) {
-                        value.add(token[i].trim());
-                    }
-                }
-            }
-        }
-        return value;
-    }
-
-    /**
-     * 
-     * @param key
-     * @param defaultValue
-     * @return
-     */
-    public Collection<String> get(String key, Collection<String> defaultValue) {
-        Collection<String> value = defaultValue;
-        if (conf != null) {
-            synchronized (conf) {
-                String strValue = conf.getProperty(key);
-                if (strValue != null) {
-                    value = new LinkedList<String>();
-                    String token[] = strValue.split(RECORD_SEPARATOR);
-                    for (int i = 0; i < token.length; i++) {
-                        value.add(token[i].trim());
-                    }
-                }
-            }
-        }
-        return value;
-    }
-
-    /**
-     * 
-     * @param key
-     * @param defaultValue
-     * @return
-     */
-    public int[] get(String key, int[] defaultValue) {
-        int[] value = null;
-
-        if (conf != null) {
-            synchronized (conf) {
-                String strValue = conf.getProperty(key);
-                if (strValue != null) {
-                    String[] strValues = strValue.split(RECORD_SEPARATOR);
-                    value = new int[strValues.length];
-                    boolean error = false;
-                    int i = 0;
-                    while (i < strValues.length && !error) {
-                        try {
-                            value[i] = Integer.parseInt(strValues[i].trim());
-                        } catch (NumberFormatException e) {
-                            error = true;
-                            value = null;
-                        }
-                        i++;
-                    }
-                }
-            }
-        }
-
-        if (value == null) {
-            value = defaultValue;
-        }
-
-        return value;
-    }
-
-    /**
-     * 
-     * @param key
-     * @param defaultValue
-     * @return
-     */
-    public Hashtable<String, String> get(String key, Hashtable<String, String> defaultValue) {
-        Hashtable<String, String> value = defaultValue;
-        if (conf != null) {
-            synchronized (conf) {
-                String strValue = conf.getProperty(key);
-                if (strValue != null) {
-                    value = new Hashtable<String, String>();
-                    String[] token = strValue.split(RECORD_SEPARATOR);
-                    for (int i = 0; i < token.length; i++) {
-                        String[] subToken = token[i].split(FIELD_SEPARATOR);
-                        if (subToken.length == 2) {
-                            value.put(subToken[0].trim(), subToken[1].trim());
-                        }
-                    }
-                }
-            }
-        }
-        return value;
-    }
-
-    /**
-     * 
-     * @param key
-     * @param defaultValue
-     * @param recordSeparator
-     * @param fieldSeparator
-     * @return
-     */
-    public Hashtable<String, String> get(String key, Hashtable<String, String> defaultValue, String recordSeparator, String fieldSeparator) {
-        Hashtable<String, String> value = defaultValue;
-        if (conf != null) {
-            synchronized (conf) {
-                String strValue = conf.getProperty(key);
-                if (strValue != null) {
-                    value = new Hashtable<String, String>();
-                    String[] token = strValue.split(recordSeparator);
-                    for (int i = 0; i < token.length; i++) {
-                        String[] subToken = token[i].split(fieldSeparator);
-                        if (subToken.length == 2) {
-                            value.put(subToken[0].trim(), subToken[1].trim());
-                        }
-                    }
-                }
-            }
-        }
-        return value;
-    }
-
-    /**
-     * 
-     * @param key
-     * @param defaultValue
-     * @return
-     */
-    public Hashtable<String, Object> get(String key, Map<String, Object> defaultValue) {
-        return get(key, defaultValue, RECORD_SEPARATOR, FIELD_SEPARATOR, SUBFIELD_SEPARATOR);
-    }
-
-    /**
-     * 
-     * @param key
-     * @param defaultValue
-     * @param recordSeparator
-     * @param fieldSeparator
-     * @return
-     */
-    public Hashtable<String, Object> get(String key, Map<String, Object> defaultValue, String recordSeparator, String fieldSeparator) {
-        return get(key, defaultValue, recordSeparator, fieldSeparator, SUBFIELD_SEPARATOR);
-    }
-
-    /**
-     * @param key
-     * @param defaultValue
-     * @param recordSeparator
-     * @param fieldSeparator
-     * @param subfieldSeparator
-     * @return
-     */
-    public Hashtable<String, Object> get(String key, Map<String, Object> defaultValue, String recordSeparator, String fieldSeparator, String subfieldSeparator) {
-        Hashtable<String, Object> value = new Hashtable<String, Object>(defaultValue);
-        if (conf != null) {
-            synchronized (conf) {
-                String strValue = conf.getProperty(key);
-                if (strValue != null) {
-                    value = new Hashtable<String, Object>();
-                    String[] token = strValue.split(recordSeparator);
-                    Pattern objectPattern = Pattern.compile("^\\(([A-Za-z]+)\\)(.+)$");
-                    for (int i = 0; i < token.length; i++) {
-                        String[] subToken = token[i].split(fieldSeparator);
-                        if (subToken.length == 2) {
-                            String valueToken = subToken[1].trim();
-                            Matcher m = objectPattern.matcher(valueToken);
-                            if (m.matches() && m.groupCount() == 2) {
-                                try {
-                                    Object obj = null;
-                                    if (primitiveMap.containsKey(m.group(1))) {
-                                        Class<?> clazz = primitiveMap.get(m.group(1));
-                                        Method method = clazz.getMethod("valueOf", String.class);
-                                        int mods = method.getModifiers();
-                                        if (Modifier.isStatic(mods) && Modifier.isPublic(mods)) {
-                                            obj = method.invoke(null, m.group(2));
-                                            value.put(subToken[0].trim(), obj);
-                                        }
-                                    } else if (LIST_CLASS_NAME.equals(m.group(1))) {
-                                        value.put(subToken[0].trim(), buildList(m.group(2), subfieldSeparator));
-                                    } else {
-                                        value.put(subToken[0].trim(), valueToken);
-                                    }
-                                } catch (Exception e) {
-                                    /*
-                                     * Nulla da fare.
-                                     */
-                                }
-                            } else {
-                                value.put(subToken[0].trim(), valueToken);
-                            }
-
-                        }
-                    }
-                }
-            }
-        }
-        return value;
-    }
-
-    /**
-     * 
-     * @param key
-     * @param defaultValue
-     * @return BigDecimal
-     */
-    public BigDecimal get(String key, BigDecimal defaultValue) {
-        BigDecimal value = defaultValue;
-        if (conf != null) {
-            synchronized (conf) {
-                String strValue = conf.getProperty(key);
-                if (strValue != null) {
-                    try {
-                        strValue = strValue.trim();
-                        value = new BigDecimal(strValue);
-                    } catch (NumberFormatException e) {
-                        value = defaultValue;
-                    }
-                }
-            }
-        }
-        return value;
-    }
-
-    /**
-     * 
-     * @param key
-     * @param defaultValue
-     * @return
-     */
-    public InetSocketAddress get(String key, InetSocketAddress defaultValue) {
-        InetSocketAddress value = defaultValue;
-        if (conf != null) {
-            synchronized (conf) {
-                String strValue = conf.getProperty(key);
-                if (strValue != null) {
-                    String[] addrPart = strValue.trim().split(FIELD_SEPARATOR);
-                    if (addrPart.length == 2) {
-                        try {
-                            value = new InetSocketAddress(addrPart[0].trim(), Integer.parseInt(addrPart[1].trim()));
-                        } catch (NumberFormatException e) {
-                            /*
-                             * Nulla da fare.
-                             */
-                        }
-                    }
-                }
-            }
-        }
-
-        return value;
-    }
-
-    /**
-     * <p>Builds a list populated with the given value string splitted by fieldSeparator</p>
-     * @param value
-     * @param fieldSeparator
-     * @return
-     */
-    private List<String> buildList(String value, String fieldSeparator) {
-        List<String> list = null;
-        if (value != null) {
-            list = Arrays.asList(value.split(fieldSeparator));
-        }
-        return list;
-    }
-
-    /**
-     * 
-     * <p>Use this method to retrieve any kind of enum hashtable from configuration file.</p>
-     * 
-     * @param key - key to be searched in the configuration file
-     * @param defaultValue - default value
-     * @param enumClass - Enum class 
-     * @return Hashtable<String, T> - returns an hashtable with the specific String value and Enum type.
-     */
-    public <T extends Enum<?>> Hashtable<String, T> get(String key, Hashtable<String, T> defaultValue, Class<T> enumClass) {
-
-        Hashtable<String, T> value = defaultValue;
-
-        if (conf != null) {
-            synchronized (conf) {
-                String strValue = conf.getProperty(key);
-                if (strValue != null) {
-                    value = new Hashtable<String, T>();
-
-                    String[] token = strValue.split(RECORD_SEPARATOR);
-
-                    for (int i = 0; i < token.length; i++) {
-
-                        String[] subToken = token[i].split(FIELD_SEPARATOR);
-
-                        if (subToken.length == 2) {
-
-                            T enumValueToBeAdd = getEnumValue(enumClass, subToken[1].trim());
-                            value.put(subToken[0].trim(), enumValueToBeAdd);
-
-                        }
-
-                    }
-
-                }
-            }
-        }
-
-        return value;
-
-    }
-
-    /**
-     * 
-     * <p>Use this method to retrieve any kind of enum hashtable from configuration file.</p>
-     * 
-     * @param key - key to be searched in the configuration file
-     * @param defaultValue - default value
-     * @param enumClass - Enum class 
-     * @return Hashtable<T, String> - returns an hashtable with the specific Enum value and String type.
-     */
-    public <T extends Enum<?>> Hashtable<T, String> getMapWithEnumKey(String key, Hashtable<T, String> defaultValue, Class<T> enumClass) {
-
-        Hashtable<T, String> value = defaultValue;
-
-        if (conf != null) {
-            synchronized (conf) {
-                String strValue = conf.getProperty(key);
-                if (strValue != null) {
-                    value = new Hashtable<T, String>();
-
-                    String[] token = strValue.split(RECORD_SEPARATOR);
-
-                    for (int i = 0; i < token.length; i++) {
-
-                        String[] subToken = token[i].split(FIELD_SEPARATOR);
-
-                        if (subToken.length == 2) {
-
-                            T enumValueToBeAdd = getEnumValue(enumClass, subToken[0].trim());
-                            value.put(enumValueToBeAdd, subToken[1].trim());
-
-                        }
-
-                    }
-
-                }
-            }
-        }
-
-        return value;
-
-    }
-
-    /**
-     * 
-     * <p>Use this method to retrieve any kind of enum list from the configuration file</p>
-     * 
-     * @param key - key to be searched in the configuration file
-     * @param enumClass - Enum class 
-     * @param defaultValue - the default list
-     * @return List<T> - returns a list of objects of the specific Enum type.
-     */
-    public <T extends Enum<?>> List<T> get(String key, List<T> defaultValue, Class<T> enumClass) {
-        List<T> value = defaultValue;
-
-        if (conf != null) {
-            synchronized (conf) {
-                String strValue = conf.getProperty(key);
-                if (strValue != null) {
-                    value = new LinkedList<T>();
-                    String[] token = strValue.split(RECORD_SEPARATOR);
-
-                    for (int i = 0; i < token.length; i++) {
-                        T valueToBeAdd = getEnumValue(enumClass, token[i].trim());
-
-                        if (valueToBeAdd != null) {
-                            value.add(valueToBeAdd);
-                        }
-                    }
-                }
-            }
-        }
-
-        return value;
-    }
-
-    /**
-     * <p>Checks if the specified enumName is a valid enumerator value for the enumClass.</p>
-     * <p>In this case the relevant Enum value is returned.</p>
-     *
-     * @param enumClass - enum class name
-     * @param enumName - value to be searched in the enumerator
-     * @return returnEnumValue or null if the value is not present in the enum
-     */
-    public static <T extends Enum<?>> T getEnumValue(Class<T> enumClass, String enumName) {
-        boolean matched = false;
-        T returnEnumValue = null;
-
-        java.util.Iterator<T> it = Arrays.asList(enumClass.getEnumConstants()).iterator();
-        while (!matched && it.hasNext()) {
-            T object = it.next();
-
-            matched = object.toString().equals(enumName);
-            if (matched) {
-                returnEnumValue = object;
-            }
-        }
-
-        return returnEnumValue;
-    }
-}
+/*
+ * Config.java
+ * 
+ * 14 lug 2022
+ */
+package com.cucco.stipendi.utility;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.BiFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.cucco.stipendi.money.Money;
+import com.cucco.stipendi.money.Rate;
+import com.cucco.stipendi.tax.BracketTable;
+
+/**
+ * <p>Executive summary - A precise and concise description for the object. Useful to describe groupings of methods and introduce major terms.</p>
+ * <p>State Information - Specify the state information associated with the object, described in a manner that decouples the states from the operations that may query or change these states. This should also include whether instances of this class are thread safe. (For multi-state objects, a state diagram may be the clearest way to present this information.) If the class allows only single state instances, such as java.lang.Integer, and for interfaces, this section may be skipped.</p>
+ * 
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class Config {
+    /**
+     * <p>The current configuration snapshot. Readers take the reference once per lookup and never lock: a reload publishes a whole new snapshot.</p>
+     */
+    protected volatile ConfigSnapshot snapshot = ConfigSnapshot.EMPTY;
+
+    /**
+     * <p>Listeners notified of the key level changes between published snapshots</p>
+     */
+    private final ConfigChangeNotifier changeNotifier = new ConfigChangeNotifier();
+
+    /**
+     * <p>Access and reload counters, collected only when {@link ConfigMetrics#ENABLED}</p>
+     */
+    private final ConfigMetrics metrics = new ConfigMetrics(this);
+
+    /**
+     * <p>Effective-dated history of the published snapshots, recorded only when {@link ConfigHistory#ENABLED}</p>
+     */
+    private final ConfigHistory history = new ConfigHistory();
+
+    protected static final LinkedList<String> TRUE = new LinkedList<String>();
+    static {
+        TRUE.add("true");
+        TRUE.add("vero");
+        TRUE.add("on");
+        TRUE.add("yes");
+        TRUE.add("si");
+        TRUE.add("1");
+    }
+
+    protected static final LinkedList<String> FALSE = new LinkedList<String>();
+    static {
+        FALSE.add("false");
+        FALSE.add("falso");
+        FALSE.add("off");
+        FALSE.add("no");
+        FALSE.add("0");
+    }
+
+    private static final String LIST_CLASS_NAME = List.class.getSimpleName();
+
+    private static final String RECORD_SEPARATOR = ",";
+
+    private static final String FIELD_SEPARATOR = ":";
+
+    private static final String SUBFIELD_SEPARATOR = "\\|";
+
+    /**
+     * <p>Typed map token: <code>(Type)value</code></p>
+     */
+    private static final Pattern OBJECT_PATTERN = Pattern.compile("^\\(([A-Za-z]+)\\)(.+)$");
+
+    /**
+     * <p>Kinds of the values cached by {@link ConfigSnapshot#derive(String, String, Class, java.util.function.BiFunction)}</p>
+     */
+    private static final String LIST_KIND = "list";
+
+    private static final String INT_ARRAY_KIND = "intArray";
+
+    private static final String LONG_ARRAY_KIND = "longArray";
+
+    private static final String MAP_KIND = "map";
+
+    private static final String ENUM_MAP_KIND = "enumMap";
+
+    private static final String ENUM_KEY_MAP_KIND = "enumKeyMap";
+
+    private static final String ENUM_LIST_KIND = "enumList";
+
+    private static final String MONEY_KIND = "money";
+
+    private static final String RATE_KIND = "rate";
+
+    private static final String BRACKET_TABLE_KIND = "bracketTable";
+
+    protected static final Map<String, Class<?>> primitiveMap = new HashMap<String, Class<?>>();
+    static {
+        primitiveMap.put("Boolean", Boolean.class);
+        primitiveMap.put("Byte", Byte.class);
+        primitiveMap.put("Character", Character.class);
+        primitiveMap.put("Short", Short.class);
+        primitiveMap.put("Integer", Integer.class);
+        primitiveMap.put("Long", Long.class);
+        primitiveMap.put("Float", Float.class);
+        primitiveMap.put("Double", Double.class);
+        primitiveMap.put("String", String.class);
+    }
+
+    /**
+     * <p>Default constructor.</p>
+     */
+    public Config() {
+    }
+
+    /**
+     * <p>Publishes a new snapshot built from the given properties. The properties are copied, later changes to them are not seen by this config.</p>
+     *
+     * @param conf
+     */
+    public void setConf(Properties conf) {
+        setSnapshot(ConfigSnapshot.of(conf));
+    }
+
+    /**
+     * <p>Publishes the given snapshot with a single reference swap, then notifies the registered listeners of the changed keys. Publishers must be
+     * serialized by the caller.</p>
+     *
+     * @param snapshot - the snapshot to publish, null means empty configuration
+     */
+    public void setSnapshot(ConfigSnapshot snapshot) {
+        ConfigSnapshot previous = this.snapshot;
+        ConfigSnapshot current = snapshot == null ? ConfigSnapshot.EMPTY : snapshot;
+        this.snapshot = current;
+        if (current.get(ConfigHistory.ENABLED).booleanValue()) {
+            history.add(current);
+        }
+        changeNotifier.fire(previous, current);
+    }
+
+    /**
+     * <p>Returns the configuration in force on the date, from the {@link ConfigHistory} of the published snapshots. Dates before the first
+     * recorded version get the first one.</p>
+     *
+     * @param date - the date
+     * @return the snapshot in force on the date
+     * @throws IllegalStateException if no version has been recorded, <code>configHistory=true</code> missing
+     */
+    public ConfigSnapshot asOf(LocalDate date) {
+        return history.asOf(date);
+    }
+
+    /**
+     * Return history value or reference.
+     *
+     * @return history value or reference.
+     */
+    public ConfigHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * <p>Subscribes a listener to the changes of a single key.</p>
+     *
+     * @param key - configuration key
+     * @param listener - the listener
+     */
+    public void addChangeListener(String key, ConfigChangeListener listener) {
+        changeNotifier.addKeyListener(key, listener);
+    }
+
+    /**
+     * <p>Subscribes a listener to the changes of every key starting with prefix. The empty prefix subscribes to every key.</p>
+     *
+     * @param prefix - key prefix
+     * @param listener - the listener
+     */
+    public void addPrefixChangeListener(String prefix, ConfigChangeListener listener) {
+        changeNotifier.addPrefixListener(prefix, listener);
+    }
+
+    /**
+     * <p>Removes every subscription of the listener.</p>
+     *
+     * @param listener - the listener
+     */
+    public void removeChangeListener(ConfigChangeListener listener) {
+        changeNotifier.removeListener(listener);
+    }
+
+    /**
+     * Return the current snapshot.
+     *
+     * @return current snapshot, never null
+     */
+    public ConfigSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Return metrics value or reference.
+     *
+     * @return metrics value or reference.
+     */
+    public ConfigMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * <p>Returns the raw value of the key, recording the read.</p>
+     *
+     * @param key - configuration key
+     * @return the raw value or null if the key is not present
+     */
+    private String read(String key) {
+        metrics.keyRead(key);
+        return snapshot.get(key);
+    }
+
+    /**
+     * <p>Records the parse failure of the key, the first time it fails on the given snapshot only: a malformed value read on every request counts
+     * once per configuration version.</p>
+     *
+     * @param current - the snapshot holding the malformed value
+     * @param key - configuration key
+     */
+    private void parseFailure(ConfigSnapshot current, String key) {
+        if (current.parseFailed(key)) {
+            metrics.parseFailure(key);
+        }
+    }
+
+    /**
+     * Return the current configuration version.
+     *
+     * @return current snapshot version, 0 if no configuration has been loaded yet
+     */
+    public long getVersion() {
+        return snapshot.getVersion();
+    }
+
+    /**
+     * <p>Returns the value of a typed key, converted once per configuration version.</p>
+     *
+     * @param key - the typed key
+     * @return the converted value, or the key default value if missing or not convertible
+     */
+    public <T> T get(ConfigKey<T> key) {
+        metrics.keyRead(key.getName());
+        return snapshot.get(key);
+    }
+
+    /**
+     * <p>Returns the value converted to the given type by the {@link ConverterRegistry}.</p>
+     *
+     * @param key - configuration key
+     * @param type - the value type
+     * @param defaultValue - value returned when the key is missing or not convertible
+     * @return the converted value
+     */
+    public <T> T get(String key, Class<T> type, T defaultValue) {
+        return ConverterRegistry.convert(type, read(key), defaultValue);
+    }
+
+    /**
+     * 
+     * @param key
+     * @param defaultValue
+     * @return
+     */
+    public String get(String key, String defaultValue) {
+        String value = defaultValue;
+        value = read(key);
+        if (value == null) {
+            value = defaultValue;
+        }
+        return value;
+    }
+
+    /**
+     * 
+     * @param key
+     * @param defaultValue
+     * @return
+     */
+    public int get(String key, int defaultValue) {
+        int value = defaultValue;
+        BinaryConfigTable table = snapshot.getTable();
+        String strValue = null;
+        // Long.MIN_VALUE (fuori dal campo degli int) se non precompilato
+        long typed = table != null && table.isTyped(key, BinaryConfigTable.FLAG_LONG) ? table.getLong(key, 0L) : Long.MIN_VALUE;
+        if (typed == (int) typed) {
+            metrics.keyRead(key);
+            value = (int) typed;
+        } else {
+            strValue = read(key);
+        }
+        if (strValue != null) {
+            try {
+                strValue = strValue.trim();
+                if (strValue.startsWith("0x")) {
+                    value = Integer.parseInt(strValue.substring(2), 16);
+                } else {
+                    value = Integer.parseInt(strValue);
+                }
+            } catch (NumberFormatException e) {
+                parseFailure(snapshot, key);
+                value = defaultValue;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 
+     * @param key
+     * @param defaultValue
+     * @return
+     */
+    public byte get(String key, byte defaultValue) {
+        byte value = defaultValue;
+        String strValue = read(key);
+        if (strValue != null) {
+            try {
+                strValue = strValue.trim();
+                if (strValue.startsWith("0x")) {
+                    value = Byte.parseByte(strValue.substring(2), 16);
+                } else {
+                    value = Byte.parseByte(strValue);
+                }
+            } catch (NumberFormatException e) {
+                parseFailure(snapshot, key);
+                value = defaultValue;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 
+     * @param key
+     * @param defaultValue
+     * @return
+     */
+    public long get(String key, long defaultValue) {
+        long value = defaultValue;
+        BinaryConfigTable table = snapshot.getTable();
+        String strValue = null;
+        if (table != null && table.isTyped(key, BinaryConfigTable.FLAG_LONG)) {
+            metrics.keyRead(key);
+            value = table.getLong(key, defaultValue);
+        } else {
+            strValue = read(key);
+        }
+        if (strValue != null) {
+            try {
+                strValue = strValue.trim();
+                if (strValue.startsWith("0x")) {
+                    value = Long.parseLong(strValue.substring(2), 16);
+                } else {
+                    value = Long.parseLong(strValue);
+                }
+            } catch (NumberFormatException e) {
+                parseFailure(snapshot, key);
+                value = defaultValue;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 
+     * @param key
+     * @param defaultValue
+     * @return
+     */
+    public double get(String key, double defaultValue) {
+        double value = defaultValue;
+        BinaryConfigTable table = snapshot.getTable();
+        String strValue = null;
+        if (table != null && table.isTyped(key, BinaryConfigTable.FLAG_DOUBLE)) {
+            metrics.keyRead(key);
+            value = table.getDouble(key, defaultValue);
+        } else {
+            strValue = read(key);
+        }
+        if (strValue != null) {
+            strValue = strValue.trim();
+            try {
+                value = Double.parseDouble(strValue);
+            } catch (NumberFormatException e) {
+                parseFailure(snapshot, key);
+                value = defaultValue;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 
+     * @param key
+     * @param defaultValue
+     * @return
+     */
+    public boolean get(String key, boolean defaultValue) {
+        boolean value = defaultValue;
+        BinaryConfigTable table = snapshot.getTable();
+        String strValue = null;
+        if (table != null && table.isTyped(key, BinaryConfigTable.FLAG_BOOLEAN)) {
+            metrics.keyRead(key);
+            value = table.getBoolean(key, defaultValue);
+        } else {
+            strValue = read(key);
+        }
+        if (strValue != null) {
+            strValue = strValue.toLowerCase();
+            strValue = strValue.trim();
+            if (TRUE.contains(strValue)) {
+                value = true;
+            } else if (FALSE.contains(strValue)) {
+                value = false;
+            } else {
+                parseFailure(snapshot, key);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 
+     * @param key
+     * @param defaultValue
+     * @return
+     */
+    public LinkedList<String> get(String key, LinkedList<String> defaultValue) {
+        LinkedList<String> value = defaultValue;
+        String strValue = read(key);
+        if (strValue != null) {
+            value = new LinkedList<String>();
+            String token[] = strValue.split(RECORD_SEPARATOR);
+            for (int i = 0; i < token.length; i++) {
+                value.add(token[i].trim());
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 
+     * @param key
+     * @param defaultValue
+     * @param fieldSeparator
+     * @return
+     */
+    public LinkedList<String> get(String key, LinkedList<String> defaultValue, String fieldSeparator) {
+        LinkedList<String> value = defaultValue;
+        String strValue = read(key);
+        if (strValue != null) {
+            value = new LinkedList<String>();
+            String token[] = strValue.split(fieldSeparator);
+            for (int i = 0; i < token.length; i++) {
+                value.add(token[i].trim());
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 
+     * @param key
+     * @param defaultValue
+     * @return
+     */
+    public Collection<String> get(String key, Collection<String> defaultValue) {
+        Collection<String> value = defaultValue;
+        String strValue = read(key);
+        if (strValue != null) {
+            value = new LinkedList<String>();
+            String token[] = strValue.split(RECORD_SEPARATOR);
+            for (int i = 0; i < token.length; i++) {
+                value.add(token[i].trim());
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 
+     * @param key
+     * @param defaultValue
+     * @return
+     */
+    public int[] get(String key, int[] defaultValue) {
+        int[] value = null;
+
+        String strValue = read(key);
+        if (strValue != null) {
+            String[] strValues = strValue.split(RECORD_SEPARATOR);
+            value = new int[strValues.length];
+            boolean error = false;
+            int i = 0;
+            while (i < strValues.length && !error) {
+                try {
+                    value[i] = Integer.parseInt(strValues[i].trim());
+                } catch (NumberFormatException e) {
+                    parseFailure(snapshot, key);
+                    error = true;
+                    value = null;
+                }
+                i++;
+            }
+        }
+
+        if (value == null) {
+            value = defaultValue;
+        }
+
+        return value;
+    }
+
+    /**
+     * 
+     * @param key
+     * @param defaultValue
+     * @return
+     */
+    public Hashtable<String, String> get(String key, Hashtable<String, String> defaultValue) {
+        Hashtable<String, String> value = defaultValue;
+        String strValue = read(key);
+        if (strValue != null) {
+            value = new Hashtable<String, String>();
+            String[] token = strValue.split(RECORD_SEPARATOR);
+            for (int i = 0; i < token.length; i++) {
+                String[] subToken = token[i].split(FIELD_SEPARATOR);
+                if (subToken.length == 2) {
+                    value.put(subToken[0].trim(), subToken[1].trim());
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 
+     * @param key
+     * @param defaultValue
+     * @param recordSeparator
+     * @param fieldSeparator
+     * @return
+     */
+    public Hashtable<String, String> get(String key, Hashtable<String, String> defaultValue, String recordSeparator, String fieldSeparator) {
+        Hashtable<String, String> value = defaultValue;
+        String strValue = read(key);
+        if (strValue != null) {
+            value = new Hashtable<String, String>();
+            String[] token = strValue.split(recordSeparator);
+            for (int i = 0; i < token.length; i++) {
+                String[] subToken = token[i].split(fieldSeparator);
+                if (subToken.length == 2) {
+                    value.put(subToken[0].trim(), subToken[1].trim());
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 
+     * @param key
+     * @param defaultValue
+     * @return
+     */
+    public Hashtable<String, Object> get(String key, Map<String, Object> defaultValue) {
+        return get(key, defaultValue, RECORD_SEPARATOR, FIELD_SEPARATOR, SUBFIELD_SEPARATOR);
+    }
+
+    /**
+     * 
+     * @param key
+     * @param defaultValue
+     * @param recordSeparator
+     * @param fieldSeparator
+     * @return
+     */
+    public Hashtable<String, Object> get(String key, Map<String, Object> defaultValue, String recordSeparator, String fieldSeparator) {
+        return get(key, defaultValue, recordSeparator, fieldSeparator, SUBFIELD_SEPARATOR);
+    }
+
+    /**
+     * @param key
+     * @param defaultValue
+     * @param recordSeparator
+     * @param fieldSeparator
+     * @param subfieldSeparator
+     * @return
+     */
+    public Hashtable<String, Object> get(String key, Map<String, Object> defaultValue, String recordSeparator, String fieldSeparator, String subfieldSeparator) {
+        Hashtable<String, Object> value = new Hashtable<String, Object>(defaultValue);
+        String strValue = read(key);
+        if (strValue != null) {
+            value = new Hashtable<String, Object>();
+            String[] token = strValue.split(recordSeparator);
+            for (int i = 0; i < token.length; i++) {
+                String[] subToken = token[i].split(fieldSeparator);
+                if (subToken.length == 2) {
+                    String valueToken = subToken[1].trim();
+                    Matcher m = OBJECT_PATTERN.matcher(valueToken);
+                    if (m.matches() && m.groupCount() == 2) {
+                        try {
+                            Class<?> clazz = primitiveMap.get(m.group(1));
+                            if (clazz != null) {
+                                value.put(subToken[0].trim(), ConverterRegistry.valueOf(clazz, m.group(2)));
+                            } else if (LIST_CLASS_NAME.equals(m.group(1))) {
+                                value.put(subToken[0].trim(), buildList(m.group(2), subfieldSeparator));
+                            } else {
+                                value.put(subToken[0].trim(), valueToken);
+                            }
+                        } catch (Exception e) {
+                            parseFailure(snapshot, key);
+                        }
+                    } else {
+                        value.put(subToken[0].trim(), valueToken);
+                    }
+
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 
+     * @param key
+     * @param defaultValue
+     * @return BigDecimal
+     */
+    public BigDecimal get(String key, BigDecimal defaultValue) {
+        BigDecimal value = defaultValue;
+        String strValue = read(key);
+        if (strValue != null) {
+            try {
+                strValue = strValue.trim();
+                value = new BigDecimal(strValue);
+            } catch (NumberFormatException e) {
+                parseFailure(snapshot, key);
+                value = defaultValue;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * <p>Returns the amount, rounded to the cent like {@link Money#parse(String)}. The value is parsed once per configuration version.</p>
+     *
+     * @param key - configuration key
+     * @param defaultValue - value returned when the key is missing or not an amount
+     * @return Money
+     */
+    public Money get(String key, Money defaultValue) {
+        Money value = derive(MONEY_KIND, key, String.class, Config::buildMoney);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * <p>Returns the rate, written as a decimal (<code>0.0919</code>) or a percentage (<code>9.19%</code>). The value is parsed once per
+     * configuration version.</p>
+     *
+     * @param key - configuration key
+     * @param defaultValue - value returned when the key is missing or not a rate
+     * @return Rate
+     */
+    public Rate get(String key, Rate defaultValue) {
+        Rate value = derive(RATE_KIND, key, String.class, Config::buildRate);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * <p>Returns the compiled bracket table, see {@link BracketTable} for the format. The table is compiled once per configuration version.</p>
+     *
+     * @param key - configuration key
+     * @param defaultValue - value returned when the key is missing or not a table
+     * @return BracketTable
+     */
+    public BracketTable getBracketTable(String key, BracketTable defaultValue) {
+        BracketTable value = derive(BRACKET_TABLE_KIND, key, String.class, Config::buildBracketTable);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * <p>Returns the value of the key compiled by the given compiler, once per configuration version and only when first requested, for the
+     * values whose key names are not known in advance and so cannot be declared as {@link ConfigKey}s. The kind tells apart the compiled forms
+     * of the same key and is compared by identity: kinds and compilers must be constants, so that a cache hit allocates nothing.</p>
+     *
+     * @param kind - compiled form, a constant
+     * @param key - configuration key
+     * @param compiler - compiles the raw value, returning null if it is not valid; the second argument is always <code>String.class</code>
+     * @return the compiled value, null if the key is missing or not valid
+     */
+    public <T> T getCompiled(String kind, String key, BiFunction<String, Class<String>, T> compiler) {
+        return derive(kind, key, String.class, compiler);
+    }
+
+    /**
+     * 
+     * @param key
+     * @param defaultValue
+     * @return
+     */
+    public InetSocketAddress get(String key, InetSocketAddress defaultValue) {
+        InetSocketAddress value = defaultValue;
+        String strValue = read(key);
+        if (strValue != null) {
+            String[] addrPart = strValue.trim().split(FIELD_SEPARATOR);
+            if (addrPart.length == 2) {
+                try {
+                    value = new InetSocketAddress(addrPart[0].trim(), Integer.parseInt(addrPart[1].trim()));
+                } catch (NumberFormatException e) {
+                    parseFailure(snapshot, key);
+                }
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * <p>Builds a list populated with the given value string splitted by fieldSeparator</p>
+     * @param value
+     * @param fieldSeparator
+     * @return
+     */
+    private List<String> buildList(String value, String fieldSeparator) {
+        List<String> list = null;
+        if (value != null) {
+            list = Arrays.asList(value.split(fieldSeparator));
+        }
+        return list;
+    }
+
+    /**
+     * 
+     * <p>Use this method to retrieve any kind of enum hashtable from configuration file.</p>
+     * 
+     * @param key - key to be searched in the configuration file
+     * @param defaultValue - default value
+     * @param enumClass - Enum class 
+     * @return Hashtable<String, T> - returns an hashtable with the specific String value and Enum type.
+     */
+    public <T extends Enum<?>> Hashtable<String, T> get(String key, Hashtable<String, T> defaultValue, Class<T> enumClass) {
+
+        Hashtable<String, T> value = defaultValue;
+
+        String strValue = read(key);
+        if (strValue != null) {
+            value = new Hashtable<String, T>();
+
+            String[] token = strValue.split(RECORD_SEPARATOR);
+
+            for (int i = 0; i < token.length; i++) {
+
+                String[] subToken = token[i].split(FIELD_SEPARATOR);
+
+                if (subToken.length == 2) {
+
+                    T enumValueToBeAdd = getEnumValue(enumClass, subToken[1].trim());
+                    value.put(subToken[0].trim(), enumValueToBeAdd);
+
+                }
+
+            }
+
+        }
+
+        return value;
+
+    }
+
+    /**
+     * 
+     * <p>Use this method to retrieve any kind of enum hashtable from configuration file.</p>
+     * 
+     * @param key - key to be searched in the configuration file
+     * @param defaultValue - default value
+     * @param enumClass - Enum class 
+     * @return Hashtable<T, String> - returns an hashtable with the specific Enum value and String type.
+     */
+    public <T extends Enum<?>> Hashtable<T, String> getMapWithEnumKey(String key, Hashtable<T, String> defaultValue, Class<T> enumClass) {
+
+        Hashtable<T, String> value = defaultValue;
+
+        String strValue = read(key);
+        if (strValue != null) {
+            value = new Hashtable<T, String>();
+
+            String[] token = strValue.split(RECORD_SEPARATOR);
+
+            for (int i = 0; i < token.length; i++) {
+
+                String[] subToken = token[i].split(FIELD_SEPARATOR);
+
+                if (subToken.length == 2) {
+
+                    T enumValueToBeAdd = getEnumValue(enumClass, subToken[0].trim());
+                    value.put(enumValueToBeAdd, subToken[1].trim());
+
+                }
+
+            }
+
+        }
+
+        return value;
+
+    }
+
+    /**
+     * 
+     * <p>Use this method to retrieve any kind of enum list from the configuration file</p>
+     * 
+     * @param key - key to be searched in the configuration file
+     * @param enumClass - Enum class 
+     * @param defaultValue - the default list
+     * @return List<T> - returns a list of objects of the specific Enum type.
+     */
+    public <T extends Enum<?>> List<T> get(String key, List<T> defaultValue, Class<T> enumClass) {
+        List<T> value = defaultValue;
+
+        String strValue = read(key);
+        if (strValue != null) {
+            value = new LinkedList<T>();
+            String[] token = strValue.split(RECORD_SEPARATOR);
+
+            for (int i = 0; i < token.length; i++) {
+                T valueToBeAdd = getEnumValue(enumClass, token[i].trim());
+
+                if (valueToBeAdd != null) {
+                    value.add(valueToBeAdd);
+                }
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * <p>Returns the comma separated values as an immutable list, like {@link #get(String, LinkedList)}. The list is parsed once per configuration
+     * version and shared by every caller.</p>
+     *
+     * @param key - configuration key
+     * @param defaultValue - value returned when the key is missing
+     * @return immutable, array backed, list
+     */
+    public List<String> getList(String key, List<String> defaultValue) {
+        List<String> value = derive(LIST_KIND, key, String.class, Config::buildImmutableList);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * <p>Returns the comma separated int values, like {@link #get(String, int[])}. The array is parsed once per configuration version and shared
+     * by every caller.</p>
+     *
+     * @param key - configuration key
+     * @param defaultValue - value returned when the key is missing or any value is not a number
+     * @return immutable array
+     */
+    public ImmutableIntArray getIntArray(String key, ImmutableIntArray defaultValue) {
+        ImmutableIntArray value = derive(INT_ARRAY_KIND, key, String.class, Config::buildIntArray);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * <p>Returns the comma separated long values. The array is parsed once per configuration version and shared by every caller.</p>
+     *
+     * @param key - configuration key
+     * @param defaultValue - value returned when the key is missing or any value is not a number
+     * @return immutable array
+     */
+    public ImmutableLongArray getLongArray(String key, ImmutableLongArray defaultValue) {
+        ImmutableLongArray value = derive(LONG_ARRAY_KIND, key, String.class, Config::buildLongArray);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * <p>Returns the <code>key:value</code> comma separated pairs as an immutable map, like {@link #get(String, Hashtable)}. The map is parsed once
+     * per configuration version and shared by every caller.</p>
+     *
+     * @param key - configuration key
+     * @param defaultValue - value returned when the key is missing
+     * @return immutable, open addressing, map
+     */
+    public Map<String, String> getMap(String key, Map<String, String> defaultValue) {
+        Map<String, String> value = derive(MAP_KIND, key, String.class, Config::buildCompactMap);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * <p>Returns the <code>key:ENUM</code> comma separated pairs as an immutable map, like {@link #get(String, Hashtable, Class)}. Pairs with an
+     * unknown enum name are skipped. The map is parsed once per configuration version and shared by every caller.</p>
+     *
+     * @param key - configuration key
+     * @param defaultValue - value returned when the key is missing
+     * @param enumClass - enum class
+     * @return immutable map
+     */
+    public <E extends Enum<E>> Map<String, E> getEnumMap(String key, Map<String, E> defaultValue, Class<E> enumClass) {
+        Map<String, E> value = derive(ENUM_MAP_KIND, key, enumClass, Config::buildEnumMap);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * <p>Returns the <code>ENUM:value</code> comma separated pairs as an immutable {@link EnumMap}, like
+     * {@link #getMapWithEnumKey(String, Hashtable, Class)}. Pairs with an unknown enum name are skipped. The map is parsed once per configuration
+     * version and shared by every caller.</p>
+     *
+     * @param key - configuration key
+     * @param defaultValue - value returned when the key is missing
+     * @param enumClass - enum class
+     * @return immutable map
+     */
+    public <E extends Enum<E>> Map<E, String> getEnumKeyMap(String key, Map<E, String> defaultValue, Class<E> enumClass) {
+        Map<E, String> value = derive(ENUM_KEY_MAP_KIND, key, enumClass, Config::buildEnumKeyMap);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * <p>Returns the comma separated enum names as an immutable list, like {@link #get(String, List, Class)}. Unknown names are skipped. The list
+     * is parsed once per configuration version and shared by every caller.</p>
+     *
+     * @param key - configuration key
+     * @param defaultValue - value returned when the key is missing
+     * @param enumClass - enum class
+     * @return immutable, array backed, list
+     */
+    public <E extends Enum<E>> List<E> getEnumList(String key, List<E> defaultValue, Class<E> enumClass) {
+        List<E> value = derive(ENUM_LIST_KIND, key, enumClass, Config::buildEnumList);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * <p>Returns the value of the key parsed once per snapshot, recording the read and the parse failure, once per snapshot.</p>
+     *
+     * @param kind - result kind
+     * @param key - configuration key
+     * @param type - builder argument
+     * @param builder - the parser, a non capturing method reference
+     * @return the parsed value, null if missing or not parsable
+     */
+    private <T, A> T derive(String kind, String key, Class<A> type, BiFunction<String, Class<A>, T> builder) {
+        metrics.keyRead(key);
+        ConfigSnapshot current = snapshot;
+        T value = current.derive(kind, key, type, builder);
+        if (value == null && current.get(key) != null) {
+            parseFailure(current, key);
+        }
+        return value;
+    }
+
+    /**
+     * @param value - raw value
+     * @param type - unused
+     * @return the amount, null if not an amount
+     */
+    private static Money buildMoney(String value, Class<String> type) {
+        Money result;
+        try {
+            result = Money.parse(value);
+        } catch (NumberFormatException e) {
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * @param value - raw value
+     * @param type - unused
+     * @return the rate, null if not a rate
+     */
+    private static Rate buildRate(String value, Class<String> type) {
+        Rate result;
+        try {
+            result = Rate.parse(value);
+        } catch (NumberFormatException e) {
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * @param value - raw value
+     * @param type - unused
+     * @return the table, null if not a table
+     */
+    private static BracketTable buildBracketTable(String value, Class<String> type) {
+        BracketTable result;
+        try {
+            result = BracketTable.parse(value);
+        } catch (IllegalArgumentException e) {
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * @param value - raw value
+     * @param type - unused
+     * @return immutable list of the trimmed values
+     */
+    private static List<String> buildImmutableList(String value, Class<String> type) {
+        String[] token = value.split(RECORD_SEPARATOR);
+        for (int i = 0; i < token.length; i++) {
+            token[i] = token[i].trim();
+        }
+        return Collections.unmodifiableList(Arrays.asList(token));
+    }
+
+    /**
+     * @param value - raw value
+     * @param type - unused
+     * @return the parsed array, null if any value is not a number
+     */
+    private static ImmutableIntArray buildIntArray(String value, Class<String> type) {
+        String[] token = value.split(RECORD_SEPARATOR);
+        int[] result = new int[token.length];
+        try {
+            for (int i = 0; i < token.length; i++) {
+                result[i] = Integer.parseInt(token[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            result = null;
+        }
+        return result != null ? ImmutableIntArray.wrap(result) : null;
+    }
+
+    /**
+     * @param value - raw value
+     * @param type - unused
+     * @return the parsed array, null if any value is not a number
+     */
+    private static ImmutableLongArray buildLongArray(String value, Class<String> type) {
+        String[] token = value.split(RECORD_SEPARATOR);
+        long[] result = new long[token.length];
+        try {
+            for (int i = 0; i < token.length; i++) {
+                result[i] = Long.parseLong(token[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            result = null;
+        }
+        return result != null ? ImmutableLongArray.wrap(result) : null;
+    }
+
+    /**
+     * @param value - raw value
+     * @param type - unused
+     * @return the parsed map
+     */
+    private static Map<String, String> buildCompactMap(String value, Class<String> type) {
+        String[] token = value.split(RECORD_SEPARATOR);
+        CompactProperties.Builder builder = new CompactProperties.Builder(token.length);
+        for (int i = 0; i < token.length; i++) {
+            String[] subToken = token[i].split(FIELD_SEPARATOR);
+            if (subToken.length == 2) {
+                builder.put(subToken[0].trim(), subToken[1].trim());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @param value - raw value
+     * @param enumClass - enum class
+     * @return the parsed map
+     */
+    private static <E extends Enum<E>> Map<String, E> buildEnumMap(String value, Class<E> enumClass) {
+        String[] token = value.split(RECORD_SEPARATOR);
+        Map<String, E> result = new HashMap<String, E>(token.length * 2);
+        for (int i = 0; i < token.length; i++) {
+            String[] subToken = token[i].split(FIELD_SEPARATOR);
+            if (subToken.length == 2) {
+                E enumValue = ConverterRegistry.enumValue(enumClass, subToken[1].trim());
+                if (enumValue != null) {
+                    result.put(subToken[0].trim(), enumValue);
+                }
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * @param value - raw value
+     * @param enumClass - enum class
+     * @return the parsed map
+     */
+    private static <E extends Enum<E>> Map<E, String> buildEnumKeyMap(String value, Class<E> enumClass) {
+        Map<E, String> result = new EnumMap<E, String>(enumClass);
+        String[] token = value.split(RECORD_SEPARATOR);
+        for (int i = 0; i < token.length; i++) {
+            String[] subToken = token[i].split(FIELD_SEPARATOR);
+            if (subToken.length == 2) {
+                E enumValue = ConverterRegistry.enumValue(enumClass, subToken[0].trim());
+                if (enumValue != null) {
+                    result.put(enumValue, subToken[1].trim());
+                }
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * @param value - raw value
+     * @param enumClass - enum class
+     * @return the parsed list
+     */
+    @SuppressWarnings("unchecked")
+    private static <E extends Enum<E>> List<E> buildEnumList(String value, Class<E> enumClass) {
+        String[] token = value.split(RECORD_SEPARATOR);
+        E[] result = (E[]) Array.newInstance(enumClass, token.length);
+        int size = 0;
+        for (int i = 0; i < token.length; i++) {
+            E enumValue = ConverterRegistry.enumValue(enumClass, token[i].trim());
+            if (enumValue != null) {
+                result[size++] = enumValue;
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList(size == result.length ? result : Arrays.copyOf(result, size)));
+    }
+
+    /**
+     * <p>Checks if the specified enumName is a valid enumerator value for the enumClass.</p>
+     * <p>In this case the relevant Enum value is returned.</p>
+     *
+     * @param enumClass - enum class name
+     * @param enumName - value to be searched in the enumerator
+     * @return returnEnumValue or null if the value is not present in the enum
+     */
+    public static <T extends Enum<?>> T getEnumValue(Class<T> enumClass, String enumName) {
+        return ConverterRegistry.enumValue(enumClass, enumName);
+    }
+}
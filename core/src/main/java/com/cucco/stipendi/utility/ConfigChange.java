@@ -0,0 +1,179 @@
+/*
+ * ConfigChange.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>Key level difference between two configuration snapshots.</p>
+ * <p>Instances are immutable. The key sets delivered to a {@link ConfigChangeListener} only contain the keys the listener subscribed to.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class ConfigChange {
+
+    /**
+     * <p>The replaced snapshot</p>
+     */
+    private final ConfigSnapshot previous;
+
+    /**
+     * <p>The published snapshot</p>
+     */
+    private final ConfigSnapshot current;
+
+    /**
+     * <p>Keys present only into the published snapshot</p>
+     */
+    private final Set<String> addedKeys;
+
+    /**
+     * <p>Keys present only into the replaced snapshot</p>
+     */
+    private final Set<String> removedKeys;
+
+    /**
+     * <p>Keys present into both snapshots with different values</p>
+     */
+    private final Set<String> modifiedKeys;
+
+    /**
+     * @param previous - replaced snapshot
+     * @param current - published snapshot
+     * @param addedKeys - added keys
+     * @param removedKeys - removed keys
+     * @param modifiedKeys - modified keys
+     */
+    private ConfigChange(ConfigSnapshot previous, ConfigSnapshot current, Set<String> addedKeys, Set<String> removedKeys, Set<String> modifiedKeys) {
+        this.previous = previous;
+        this.current = current;
+        this.addedKeys = Collections.unmodifiableSet(addedKeys);
+        this.removedKeys = Collections.unmodifiableSet(removedKeys);
+        this.modifiedKeys = Collections.unmodifiableSet(modifiedKeys);
+    }
+
+    /**
+     * <p>Computes the key level difference between two snapshots.</p>
+     *
+     * @param previous - the replaced snapshot
+     * @param current - the published snapshot
+     * @return the difference, possibly empty
+     */
+    public static ConfigChange between(ConfigSnapshot previous, ConfigSnapshot current) {
+        Set<String> added = new LinkedHashSet<String>();
+        Set<String> removed = new LinkedHashSet<String>();
+        Set<String> modified = new LinkedHashSet<String>();
+        Map<String, String> previousValues = previous.asMap();
+        for (Map.Entry<String, String> entry : current.asMap().entrySet()) {
+            String previousValue = previousValues.get(entry.getKey());
+            if (previousValue == null) {
+                added.add(entry.getKey());
+            } else if (!previousValue.equals(entry.getValue())) {
+                modified.add(entry.getKey());
+            }
+        }
+        for (String key : previousValues.keySet()) {
+            if (!current.containsKey(key)) {
+                removed.add(key);
+            }
+        }
+        return new ConfigChange(previous, current, added, removed, modified);
+    }
+
+    /**
+     * <p>Returns the same change restricted to the given keys.</p>
+     *
+     * @param keys - keys of interest
+     * @return the restricted change
+     */
+    ConfigChange restrictTo(Set<String> keys) {
+        Set<String> added = new LinkedHashSet<String>(addedKeys);
+        Set<String> removed = new LinkedHashSet<String>(removedKeys);
+        Set<String> modified = new LinkedHashSet<String>(modifiedKeys);
+        added.retainAll(keys);
+        removed.retainAll(keys);
+        modified.retainAll(keys);
+        return new ConfigChange(previous, current, added, removed, modified);
+    }
+
+    /**
+     * <p>Returns all the changed keys: added, removed and modified.</p>
+     *
+     * @return changed keys
+     */
+    public Set<String> getChangedKeys() {
+        Set<String> keys = new LinkedHashSet<String>(addedKeys);
+        keys.addAll(modifiedKeys);
+        keys.addAll(removedKeys);
+        return keys;
+    }
+
+    /**
+     * <p>Returns true if no key changed.</p>
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return addedKeys.isEmpty() && removedKeys.isEmpty() && modifiedKeys.isEmpty();
+    }
+
+    /**
+     * Return previous value or reference.
+     *
+     * @return previous value or reference.
+     */
+    public ConfigSnapshot getPrevious() {
+        return previous;
+    }
+
+    /**
+     * Return current value or reference.
+     *
+     * @return current value or reference.
+     */
+    public ConfigSnapshot getCurrent() {
+        return current;
+    }
+
+    /**
+     * Return addedKeys value or reference.
+     *
+     * @return addedKeys value or reference.
+     */
+    public Set<String> getAddedKeys() {
+        return addedKeys;
+    }
+
+    /**
+     * Return removedKeys value or reference.
+     *
+     * @return removedKeys value or reference.
+     */
+    public Set<String> getRemovedKeys() {
+        return removedKeys;
+    }
+
+    /**
+     * Return modifiedKeys value or reference.
+     *
+     * @return modifiedKeys value or reference.
+     */
+    public Set<String> getModifiedKeys() {
+        return modifiedKeys;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder("ConfigChange [").append(previous.getVersion()).append("->").append(current.getVersion()).append(", added=")
+                .append(addedKeys).append(", removed=").append(removedKeys).append(", modified=").append(modifiedKeys).append(']').toString();
+    }
+}
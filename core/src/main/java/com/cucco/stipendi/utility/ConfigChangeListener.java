@@ -0,0 +1,23 @@
+/*
+ * ConfigChangeListener.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+/**
+ * <p>Receives the key level changes published by a {@link Config}.</p>
+ * <p>Listeners are invoked on the thread publishing the new snapshot (the configuration reload thread), after the snapshot has been swapped in, so
+ * they must be quick and must not block.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public interface ConfigChangeListener {
+
+    /**
+     * <p>Called once per published snapshot, only if at least one of the subscribed keys changed.</p>
+     *
+     * @param change - the change, restricted to the subscribed keys
+     */
+    void configChanged(ConfigChange change);
+}
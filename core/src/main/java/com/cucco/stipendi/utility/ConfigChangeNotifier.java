@@ -0,0 +1,158 @@
+/*
+ * ConfigChangeNotifier.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * <p>Keeps the {@link ConfigChangeListener}s registered on a {@link Config} and dispatches the key level changes to them.</p>
+ * <p>Listeners subscribe to an exact key or to a key prefix (the empty prefix matches every key). The difference between snapshots is computed only
+ * when at least one listener is registered. Registration is thread safe and may happen while changes are being dispatched.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+final class ConfigChangeNotifier {
+
+    /**
+     * <p>Logger instance</p>
+     */
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * <p>Listeners subscribed to an exact key</p>
+     */
+    private final Map<String, List<ConfigChangeListener>> keyListeners = new ConcurrentHashMap<String, List<ConfigChangeListener>>();
+
+    /**
+     * <p>Listeners subscribed to a key prefix</p>
+     */
+    private final List<PrefixListener> prefixListeners = new CopyOnWriteArrayList<PrefixListener>();
+
+    /**
+     * <p>Subscribes a listener to an exact key.</p>
+     *
+     * @param key - configuration key
+     * @param listener - the listener
+     */
+    void addKeyListener(String key, ConfigChangeListener listener) {
+        keyListeners.computeIfAbsent(key, k -> new CopyOnWriteArrayList<ConfigChangeListener>()).add(listener);
+    }
+
+    /**
+     * <p>Subscribes a listener to all the keys starting with prefix.</p>
+     *
+     * @param prefix - key prefix, the empty string matches every key
+     * @param listener - the listener
+     */
+    void addPrefixListener(String prefix, ConfigChangeListener listener) {
+        prefixListeners.add(new PrefixListener(prefix, listener));
+    }
+
+    /**
+     * <p>Removes every subscription of the listener.</p>
+     *
+     * @param listener - the listener
+     */
+    void removeListener(ConfigChangeListener listener) {
+        for (List<ConfigChangeListener> listeners : keyListeners.values()) {
+            listeners.remove(listener);
+        }
+        for (PrefixListener prefixListener : prefixListeners) {
+            if (prefixListener.listener == listener) {
+                prefixListeners.remove(prefixListener);
+            }
+        }
+    }
+
+    /**
+     * <p>Returns true if no listener is registered.</p>
+     *
+     * @return true if empty
+     */
+    boolean isEmpty() {
+        if (!prefixListeners.isEmpty()) {
+            return false;
+        }
+        for (List<ConfigChangeListener> listeners : keyListeners.values()) {
+            if (!listeners.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * <p>Computes the difference between the snapshots and notifies each interested listener once, with the change restricted to its keys.</p>
+     *
+     * @param previous - replaced snapshot
+     * @param current - published snapshot
+     */
+    void fire(ConfigSnapshot previous, ConfigSnapshot current) {
+        if (previous == current || isEmpty()) {
+            return;
+        }
+        ConfigChange change = ConfigChange.between(previous, current);
+        if (change.isEmpty()) {
+            return;
+        }
+        logger.debug("Configuration changed: [{}]", change);
+        Map<ConfigChangeListener, Set<String>> interested = new IdentityHashMap<ConfigChangeListener, Set<String>>();
+        for (String key : change.getChangedKeys()) {
+            List<ConfigChangeListener> listeners = keyListeners.get(key);
+            if (listeners != null) {
+                for (ConfigChangeListener listener : listeners) {
+                    interested.computeIfAbsent(listener, l -> new LinkedHashSet<String>()).add(key);
+                }
+            }
+            for (PrefixListener prefixListener : prefixListeners) {
+                if (key.startsWith(prefixListener.prefix)) {
+                    interested.computeIfAbsent(prefixListener.listener, l -> new LinkedHashSet<String>()).add(key);
+                }
+            }
+        }
+        for (Map.Entry<ConfigChangeListener, Set<String>> entry : interested.entrySet()) {
+            try {
+                entry.getKey().configChanged(change.restrictTo(entry.getValue()));
+            } catch (RuntimeException e) {
+                logger.error("Exception notifying configuration change to [{}]", entry.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * <p>Prefix subscription</p>
+     */
+    private static final class PrefixListener {
+
+        /**
+         * <p>Key prefix</p>
+         */
+        private final String prefix;
+
+        /**
+         * <p>Subscribed listener</p>
+         */
+        private final ConfigChangeListener listener;
+
+        /**
+         * @param prefix - key prefix
+         * @param listener - subscribed listener
+         */
+        private PrefixListener(String prefix, ConfigChangeListener listener) {
+            this.prefix = prefix;
+            this.listener = listener;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * ConfigFileTracker.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * <p>Detects the changes of a configuration file, so that an unchanged file is never parsed twice.</p>
+ * <p>The cheap file metadata (last modified time and length) is checked first; when it differs the file content is read and its SHA-256 digest
+ * compared with the last loaded one, so touching the file without changing it does not cause a reload either.</p>
+ * <p>Not thread safe: callers serialize the readings.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+final class ConfigFileTracker {
+
+    /**
+     * <p>Digest algorithm used to compare the file content</p>
+     */
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    /**
+     * <p>Tracked file</p>
+     */
+    private final File file;
+
+    /**
+     * <p>Last modified time of the last loaded content</p>
+     */
+    private long lastModified = -1L;
+
+    /**
+     * <p>Length of the last loaded content</p>
+     */
+    private long length = -1L;
+
+    /**
+     * <p>Digest of the last loaded content</p>
+     */
+    private byte[] digest;
+
+    /**
+     * @param file - the file to track
+     */
+    ConfigFileTracker(File file) {
+        this.file = file;
+    }
+
+    /**
+     * <p>Returns the file content if it changed since the last call returning content, null otherwise.</p>
+     *
+     * @param mapped - true to memory map the file instead of reading it on heap
+     * @return the new file content or null if unchanged
+     * @throws IOException on reading errors
+     */
+    ByteBuffer readIfChanged(boolean mapped) throws IOException {
+        long currentLastModified = file.lastModified();
+        long currentLength = file.length();
+        if (digest != null && currentLastModified == lastModified && currentLength == length) {
+            return null;
+        }
+        ByteBuffer content = mapped ? MappedPropertiesLoader.map(file) : ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        byte[] currentDigest = digest(content);
+        lastModified = currentLastModified;
+        length = currentLength;
+        if (Arrays.equals(currentDigest, digest)) {
+            return null;
+        }
+        digest = currentDigest;
+        return content;
+    }
+
+    /**
+     * <p>Tells whether the file metadata changed since the last call, without reading the content. A missing file counts as a file with no
+     * metadata, so its creation and deletion are changes.</p>
+     *
+     * @return true if the file has been created, modified or deleted since the last call, true on the first call
+     */
+    boolean metadataChanged() {
+        long currentLastModified = file.lastModified();
+        long currentLength = file.length();
+        boolean changed = currentLastModified != lastModified || currentLength != length;
+        lastModified = currentLastModified;
+        length = currentLength;
+        return changed;
+    }
+
+    /**
+     * <p>Returns the digest of the last content returned by {@link #readIfChanged(boolean)}.</p>
+     *
+     * @return SHA-256 of the last loaded content, null if nothing has been loaded
+     */
+    byte[] getDigest() {
+        return digest == null ? null : digest.clone();
+    }
+
+    /**
+     * <p>Forgets the last loaded content, the next reading will return the file content.</p>
+     */
+    void reset() {
+        digest = null;
+        lastModified = -1L;
+        length = -1L;
+    }
+
+    /**
+     * <p>Loads the file content as properties, decoding it with the platform charset as {@link java.io.FileReader} does.</p>
+     *
+     * @param content - the file content
+     * @return the loaded properties
+     * @throws IOException on malformed content
+     */
+    static Properties load(ByteBuffer content) throws IOException {
+        byte[] bytes;
+        if (content.hasArray() && content.arrayOffset() == 0 && content.position() == 0 && content.remaining() == content.array().length) {
+            bytes = content.array();
+        } else {
+            bytes = new byte[content.remaining()];
+            content.duplicate().get(bytes);
+        }
+        Properties properties = new Properties();
+        try (Reader reader = new InputStreamReader(new ByteArrayInputStream(bytes))) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    /**
+     * @param content - file content
+     * @return the content digest
+     */
+    private static byte[] digest(ByteBuffer content) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            messageDigest.update(content.duplicate());
+            return messageDigest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " not available", e);
+        }
+    }
+
+    /**
+     * Return file value or reference.
+     *
+     * @return file value or reference.
+     */
+    File getFile() {
+        return file;
+    }
+}
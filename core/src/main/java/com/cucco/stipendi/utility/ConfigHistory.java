@@ -0,0 +1,144 @@
+/*
+ * ConfigHistory.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * <p>Effective-dated history of the configurations published by a {@link Config}, for the retroactive adjustments ("conguagli") which need the
+ * rates in force on a past date.</p>
+ * <p>Each published snapshot is valid from its effective date, the <code>configEffectiveFrom</code> key (<code>2026-01-01</code> or
+ * <code>01/01/2026</code>) or, when missing, the publication date, until the effective date of the next one. A snapshot with the same effective
+ * date as the last one replaces it (a correction); a snapshot dated before the last one is ignored with a warning, as it would rewrite the
+ * following versions.</p>
+ * <p>{@link #asOf(LocalDate)} finds the version in force with a binary search over the effective dates and returns the recorded snapshot itself:
+ * its version, typed keys and tables are the ones converted when it was published, so a batch recalculating twelve months never converts a value
+ * twice and never reloads a file.</p>
+ * <p>Instances are thread safe.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class ConfigHistory {
+
+    /**
+     * <p>Records the history of the published snapshots</p>
+     */
+    public static final ConfigKey<Boolean> ENABLED = ConfigKey.of("configHistory", false);
+
+    /**
+     * <p>Date from which a snapshot is in force, the publication date if missing</p>
+     */
+    public static final ConfigKey<LocalDate> EFFECTIVE_FROM = ConfigKey.of("configEffectiveFrom", LocalDate.class, (LocalDate) null);
+
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * <p>Effective dates, as epoch days, by version index; sorted</p>
+     */
+    private long[] effectiveDays = new long[16];
+
+    /**
+     * <p>Recorded snapshots, by version index</p>
+     */
+    private ConfigSnapshot[] snapshots = new ConfigSnapshot[16];
+
+    /**
+     * <p>Number of versions</p>
+     */
+    private int count;
+
+    /**
+     * <p>Records a published snapshot.</p>
+     *
+     * @param snapshot - the published snapshot
+     * @return true if recorded, false if dated before the last version
+     */
+    public synchronized boolean add(ConfigSnapshot snapshot) {
+        LocalDate effectiveFrom = snapshot.get(EFFECTIVE_FROM);
+        if (effectiveFrom == null) {
+            effectiveFrom = Instant.ofEpochMilli(snapshot.getTimestamp()).atZone(ZoneId.systemDefault()).toLocalDate();
+        }
+        long day = effectiveFrom.toEpochDay();
+        boolean added = true;
+        if (count > 0 && day < effectiveDays[count - 1]) {
+            logger.warn("Configuration version [{}] effective from [{}] is before the last one: not recorded", snapshot.getVersion(), effectiveFrom);
+            added = false;
+        } else {
+            if (count > 0 && day == effectiveDays[count - 1]) {
+                // Stessa data: la nuova versione corregge l'ultima
+                count--;
+            } else if (count == effectiveDays.length) {
+                effectiveDays = Arrays.copyOf(effectiveDays, count * 2);
+                snapshots = Arrays.copyOf(snapshots, count * 2);
+            }
+            effectiveDays[count] = day;
+            snapshots[count++] = snapshot;
+            logger.debug("Configuration version [{}] recorded effective from [{}]", snapshot.getVersion(), effectiveFrom);
+        }
+        return added;
+    }
+
+    /**
+     * <p>Returns the configuration in force on the date. Nothing is known about the dates before the first version: for them the first version
+     * is returned, as the closest one.</p>
+     *
+     * @param date - the date
+     * @return the recorded snapshot, read only
+     * @throws IllegalStateException if no version has been recorded
+     */
+    public synchronized ConfigSnapshot asOf(LocalDate date) {
+        if (count == 0) {
+            throw new IllegalStateException("No configuration version recorded, is " + ENABLED.getName() + " set?");
+        }
+        return snapshots[Math.max(0, indexOf(date.toEpochDay()))];
+    }
+
+    /**
+     * <p>Returns the date from which the configuration in force on the date is valid.</p>
+     *
+     * @param date - the date
+     * @return the effective date, null if the date is before the first version
+     */
+    public synchronized LocalDate effectiveFrom(LocalDate date) {
+        int version = indexOf(date.toEpochDay());
+        return version >= 0 ? LocalDate.ofEpochDay(effectiveDays[version]) : null;
+    }
+
+    /**
+     * Return the number of recorded versions.
+     *
+     * @return versions count
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * <p>Returns the last version effective on the day</p>
+     *
+     * @param day - epoch day
+     * @return the version index, -1 if before the first version
+     */
+    private int indexOf(long day) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (effectiveDays[middle] <= day) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low - 1;
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * ConfigKey.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.cucco.stipendi.money.Money;
+import com.cucco.stipendi.money.Rate;
+
+/**
+ * <p>Typed handle for a configuration key.</p>
+ * <p>A key is declared once, typically as a <code>static final</code> constant, and receives a unique integer slot. Every {@link ConfigSnapshot} converts
+ * the raw value of each registered key once and stores the result into a typed array indexed by slot, so {@link Config#get(ConfigKey)} costs an
+ * array access: no hashing, no string parsing and no allocation. Keys are never unregistered, so they should not be created per call.</p>
+ * <p>Instances are immutable and thread safe.</p>
+ *
+ * @param <T> the converted value type
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class ConfigKey<T> {
+
+    /**
+     * <p>Logger instance</p>
+     */
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * <p>All the registered keys, indexed by slot</p>
+     */
+    private static volatile ConfigKey<?>[] registeredKeys = new ConfigKey<?>[0];
+
+    /**
+     * <p>Configuration key name</p>
+     */
+    private final String name;
+
+    /**
+     * <p>Value used when the key is missing or cannot be converted</p>
+     */
+    private final T defaultValue;
+
+    /**
+     * <p>Value converter</p>
+     */
+    private final ValueConverter<T> converter;
+
+    /**
+     * <p>Slot assigned at registration</p>
+     */
+    private final int slot;
+
+    /**
+     * @param name - configuration key name
+     * @param defaultValue - default value
+     * @param converter - value converter
+     * @param slot - assigned slot
+     */
+    private ConfigKey(String name, T defaultValue, ValueConverter<T> converter, int slot) {
+        this.name = name;
+        this.defaultValue = defaultValue;
+        this.converter = converter;
+        this.slot = slot;
+    }
+
+    /**
+     * <p>Declares a new key with a custom converter.</p>
+     *
+     * @param name - configuration key name
+     * @param defaultValue - value used when the key is missing or cannot be converted, may be null
+     * @param converter - value converter
+     * @return the registered key
+     */
+    public static synchronized <T> ConfigKey<T> of(String name, T defaultValue, ValueConverter<T> converter) {
+        if (name == null || converter == null) {
+            throw new IllegalArgumentException("Key name and converter are mandatory");
+        }
+        ConfigKey<?>[] keys = registeredKeys;
+        ConfigKey<T> key = new ConfigKey<T>(name, defaultValue, converter, keys.length);
+        ConfigKey<?>[] newKeys = Arrays.copyOf(keys, keys.length + 1);
+        newKeys[key.slot] = key;
+        registeredKeys = newKeys;
+        return key;
+    }
+
+    /**
+     * <p>Declares a key converted by the {@link ConverterRegistry} converter of the type.</p>
+     *
+     * @param name - configuration key name
+     * @param type - value type
+     * @param defaultValue - default value
+     * @return the registered key
+     * @throws IllegalArgumentException if no converter exists for the type
+     */
+    public static <T> ConfigKey<T> of(String name, Class<T> type, T defaultValue) {
+        ValueConverter<T> converter = ConverterRegistry.converterFor(type);
+        if (converter == null) {
+            throw new IllegalArgumentException("No converter for " + type.getName());
+        }
+        return of(name, defaultValue, converter);
+    }
+
+    /**
+     * <p>Declares a string key. The value is returned as is, like {@link Config#get(String, String)}.</p>
+     *
+     * @param name - configuration key name
+     * @param defaultValue - default value
+     * @return the registered key
+     */
+    public static ConfigKey<String> of(String name, String defaultValue) {
+        return of(name, String.class, defaultValue);
+    }
+
+    /**
+     * <p>Declares an int key. Values prefixed by <code>0x</code> are read as hexadecimal, like {@link Config#get(String, int)}.</p>
+     *
+     * @param name - configuration key name
+     * @param defaultValue - default value
+     * @return the registered key
+     */
+    public static ConfigKey<Integer> of(String name, int defaultValue) {
+        return of(name, Integer.class, Integer.valueOf(defaultValue));
+    }
+
+    /**
+     * <p>Declares a long key. Values prefixed by <code>0x</code> are read as hexadecimal, like {@link Config#get(String, long)}.</p>
+     *
+     * @param name - configuration key name
+     * @param defaultValue - default value
+     * @return the registered key
+     */
+    public static ConfigKey<Long> of(String name, long defaultValue) {
+        return of(name, Long.class, Long.valueOf(defaultValue));
+    }
+
+    /**
+     * <p>Declares a double key.</p>
+     *
+     * @param name - configuration key name
+     * @param defaultValue - default value
+     * @return the registered key
+     */
+    public static ConfigKey<Double> of(String name, double defaultValue) {
+        return of(name, Double.class, Double.valueOf(defaultValue));
+    }
+
+    /**
+     * <p>Declares a boolean key, accepting the same true/false literals as {@link Config#get(String, boolean)}.</p>
+     *
+     * @param name - configuration key name
+     * @param defaultValue - default value
+     * @return the registered key
+     */
+    public static ConfigKey<Boolean> of(String name, boolean defaultValue) {
+        return of(name, Boolean.class, Boolean.valueOf(defaultValue));
+    }
+
+    /**
+     * <p>Declares a {@link BigDecimal} key.</p>
+     *
+     * @param name - configuration key name
+     * @param defaultValue - default value
+     * @return the registered key
+     */
+    public static ConfigKey<BigDecimal> of(String name, BigDecimal defaultValue) {
+        return of(name, BigDecimal.class, defaultValue);
+    }
+
+    /**
+     * <p>Declares a {@link Money} key, rounded to the cent like {@link Money#parse(String)}.</p>
+     *
+     * @param name - configuration key name
+     * @param defaultValue - default value
+     * @return the registered key
+     */
+    public static ConfigKey<Money> of(String name, Money defaultValue) {
+        return of(name, Money.class, defaultValue);
+    }
+
+    /**
+     * <p>Declares a {@link Rate} key, written as a decimal (<code>0.0919</code>) or a percentage (<code>9.19%</code>).</p>
+     *
+     * @param name - configuration key name
+     * @param defaultValue - default value
+     * @return the registered key
+     */
+    public static ConfigKey<Rate> of(String name, Rate defaultValue) {
+        return of(name, Rate.class, defaultValue);
+    }
+
+    /**
+     * <p>Converts the raw value falling back to the default value. Snapshots convert every registered key when they are built, so a converter
+     * failure never propagates: it would abort the publication of the whole configuration.</p>
+     *
+     * @param rawValue - the raw value, may be null
+     * @return the converted value
+     */
+    T convert(String rawValue) {
+        T value = defaultValue;
+        if (rawValue != null) {
+            try {
+                T parsed = converter.convert(rawValue);
+                if (parsed != null) {
+                    value = parsed;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Cannot convert key [{}] value [{}], using default [{}]", name, rawValue, defaultValue, e);
+                value = defaultValue;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * <p>Returns the keys registered so far, indexed by slot.</p>
+     *
+     * @return registered keys, must not be modified
+     */
+    static ConfigKey<?>[] registeredKeys() {
+        return registeredKeys;
+    }
+
+    /**
+     * <p>Returns the keys registered so far.</p>
+     *
+     * @return unmodifiable list of the registered keys, by slot
+     */
+    public static List<ConfigKey<?>> getRegisteredKeys() {
+        return Collections.unmodifiableList(Arrays.asList(registeredKeys));
+    }
+
+    /**
+     * Return name value.
+     *
+     * @return name value.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Return defaultValue value.
+     *
+     * @return defaultValue value.
+     */
+    public T getDefaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * Return slot value.
+     *
+     * @return slot value.
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder("ConfigKey [name=").append(name).append(", slot=").append(slot).append(']').toString();
+    }
+}
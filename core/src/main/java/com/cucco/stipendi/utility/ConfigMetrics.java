@@ -0,0 +1,440 @@
+/*
+ * ConfigMetrics.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * <p>Access and reload counters of a {@link Config}: reads and parse failures by key, reload time histogram, reload lock wait time. Exposed as an
+ * MXBean ({@link #register(String)}) and in the Prometheus text format ({@link #writeText(String, Appendable)}).</p>
+ * <p>Collection is enabled by the <code>stipendi.config.metrics</code> system property, read once at class initialization. The flag is a
+ * constant for the JIT compiler: when disabled every recording method compiles to nothing and the configuration getters pay no cost at all.
+ * When enabled, counters are {@link LongAdder}s, striped under contention, so concurrent readers do not serialize on a shared counter.</p>
+ * <p>Instances are thread safe.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class ConfigMetrics implements ConfigMetricsMXBean {
+
+    /**
+     * <p>System property enabling metrics collection</p>
+     */
+    public static final String ENABLED_PROPERTY = "stipendi.config.metrics";
+
+    /**
+     * <p>True if metrics are collected</p>
+     */
+    public static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    /**
+     * <p>JMX domain of the registered MXBeans</p>
+     */
+    public static final String JMX_DOMAIN = "com.cucco.stipendi";
+
+    /**
+     * <p>Upper bounds of the reload time histogram buckets, in microseconds. A last, unbounded, bucket collects longer reloads</p>
+     */
+    private static final long[] RELOAD_BUCKETS_MICROS = { 100L, 250L, 500L, 1000L, 2500L, 5000L, 10000L, 25000L, 50000L, 100000L, 250000L,
+            500000L, 1000000L, 2500000L, 5000000L, 10000000L };
+
+    /**
+     * <p>Nanoseconds per millisecond, as double</p>
+     */
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * <p>Nanoseconds per second, as double</p>
+     */
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * <p>The measured configuration</p>
+     */
+    private final Config config;
+
+    /**
+     * <p>Reads by key</p>
+     */
+    private final Map<String, LongAdder> keyReads = new ConcurrentHashMap<String, LongAdder>();
+
+    /**
+     * <p>Parse failures by key</p>
+     */
+    private final Map<String, LongAdder> parseFailures = new ConcurrentHashMap<String, LongAdder>();
+
+    /**
+     * <p>Reload time histogram buckets</p>
+     */
+    private final LongAdder[] reloadBuckets = new LongAdder[RELOAD_BUCKETS_MICROS.length + 1];
+
+    /**
+     * <p>Total reload time, in nanoseconds</p>
+     */
+    private final LongAdder reloadNanos = new LongAdder();
+
+    /**
+     * <p>Longest reload time, in nanoseconds</p>
+     */
+    private final LongAccumulator reloadMaxNanos = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * <p>Failed reloads</p>
+     */
+    private final LongAdder reloadFailures = new LongAdder();
+
+    /**
+     * <p>Reload lock acquisitions</p>
+     */
+    private final LongAdder lockWaits = new LongAdder();
+
+    /**
+     * <p>Total reload lock wait time, in nanoseconds</p>
+     */
+    private final LongAdder lockWaitNanos = new LongAdder();
+
+    /**
+     * @param config - the measured configuration
+     */
+    ConfigMetrics(Config config) {
+        this.config = config;
+        for (int i = 0; i < reloadBuckets.length; i++) {
+            reloadBuckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * <p>Returns the start time of a measure, 0 if metrics are disabled.</p>
+     *
+     * @return current {@link System#nanoTime()}
+     */
+    static long start() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * <p>Records a key read.</p>
+     *
+     * @param key - configuration key
+     */
+    void keyRead(String key) {
+        if (ENABLED && key != null) {
+            increment(keyReads, key);
+        }
+    }
+
+    /**
+     * <p>Records a value which could not be parsed.</p>
+     *
+     * @param key - configuration key
+     */
+    void parseFailure(String key) {
+        if (ENABLED && key != null) {
+            increment(parseFailures, key);
+        }
+    }
+
+    /**
+     * <p>Records the acquisition of the reload lock.</p>
+     *
+     * @param start - time the acquisition started, as returned by {@link #start()}
+     * @return the acquisition time, start of the reload measure
+     */
+    long lockAcquired(long start) {
+        long now = start;
+        if (ENABLED) {
+            now = System.nanoTime();
+            lockWaits.increment();
+            lockWaitNanos.add(now - start);
+        }
+        return now;
+    }
+
+    /**
+     * <p>Records a reload which published a new snapshot.</p>
+     *
+     * @param start - reload start time, as returned by {@link #start()}
+     */
+    void reloadCompleted(long start) {
+        if (ENABLED) {
+            long nanos = System.nanoTime() - start;
+            long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+            int bucket = 0;
+            while (bucket < RELOAD_BUCKETS_MICROS.length && micros > RELOAD_BUCKETS_MICROS[bucket]) {
+                bucket++;
+            }
+            reloadBuckets[bucket].increment();
+            reloadNanos.add(nanos);
+            reloadMaxNanos.accumulate(nanos);
+        }
+    }
+
+    /**
+     * <p>Records a failed reload.</p>
+     */
+    void reloadFailed() {
+        if (ENABLED) {
+            reloadFailures.increment();
+        }
+    }
+
+    /**
+     * <p>Increments the counter of the key, creating it on first use.</p>
+     *
+     * @param counters - counters by key
+     * @param key - configuration key
+     */
+    private static void increment(Map<String, LongAdder> counters, String key) {
+        LongAdder counter = counters.get(key);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * <p>Returns the sum of the counters.</p>
+     *
+     * @param counters - counters by key
+     * @return counters sum
+     */
+    private static long sum(Map<String, LongAdder> counters) {
+        long sum = 0L;
+        for (LongAdder counter : counters.values()) {
+            sum += counter.sum();
+        }
+        return sum;
+    }
+
+    /**
+     * <p>Returns a sorted copy of the counters.</p>
+     *
+     * @param counters - counters by key
+     * @return counter values by key
+     */
+    private static Map<String, Long> snapshot(Map<String, LongAdder> counters) {
+        Map<String, Long> values = new TreeMap<String, Long>();
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            values.put(entry.getKey(), Long.valueOf(entry.getValue().sum()));
+        }
+        return values;
+    }
+
+    /**
+     * @see com.cucco.stipendi.utility.ConfigMetricsMXBean#getVersion()
+     */
+    @Override
+    public long getVersion() {
+        return config.getVersion();
+    }
+
+    /**
+     * @see com.cucco.stipendi.utility.ConfigMetricsMXBean#getReadCount()
+     */
+    @Override
+    public long getReadCount() {
+        return sum(keyReads);
+    }
+
+    /**
+     * @see com.cucco.stipendi.utility.ConfigMetricsMXBean#getKeyReads()
+     */
+    @Override
+    public Map<String, Long> getKeyReads() {
+        return snapshot(keyReads);
+    }
+
+    /**
+     * @see com.cucco.stipendi.utility.ConfigMetricsMXBean#getParseFailureCount()
+     */
+    @Override
+    public long getParseFailureCount() {
+        return sum(parseFailures);
+    }
+
+    /**
+     * @see com.cucco.stipendi.utility.ConfigMetricsMXBean#getParseFailures()
+     */
+    @Override
+    public Map<String, Long> getParseFailures() {
+        return snapshot(parseFailures);
+    }
+
+    /**
+     * @see com.cucco.stipendi.utility.ConfigMetricsMXBean#getReloadCount()
+     */
+    @Override
+    public long getReloadCount() {
+        long count = 0L;
+        for (LongAdder bucket : reloadBuckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * @see com.cucco.stipendi.utility.ConfigMetricsMXBean#getReloadFailureCount()
+     */
+    @Override
+    public long getReloadFailureCount() {
+        return reloadFailures.sum();
+    }
+
+    /**
+     * @see com.cucco.stipendi.utility.ConfigMetricsMXBean#getReloadMeanMillis()
+     */
+    @Override
+    public double getReloadMeanMillis() {
+        long count = getReloadCount();
+        return count == 0L ? 0d : reloadNanos.sum() / NANOS_PER_MILLI / count;
+    }
+
+    /**
+     * @see com.cucco.stipendi.utility.ConfigMetricsMXBean#getReloadMaxMillis()
+     */
+    @Override
+    public double getReloadMaxMillis() {
+        return reloadMaxNanos.get() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * @see com.cucco.stipendi.utility.ConfigMetricsMXBean#getReloadHistogram()
+     */
+    @Override
+    public Map<String, Long> getReloadHistogram() {
+        Map<String, Long> histogram = new LinkedHashMap<String, Long>();
+        for (int i = 0; i < reloadBuckets.length; i++) {
+            String bound = i < RELOAD_BUCKETS_MICROS.length ? Double.toString(RELOAD_BUCKETS_MICROS[i] / 1000d) : "+Inf";
+            histogram.put(bound, Long.valueOf(reloadBuckets[i].sum()));
+        }
+        return histogram;
+    }
+
+    /**
+     * @see com.cucco.stipendi.utility.ConfigMetricsMXBean#getLockWaitCount()
+     */
+    @Override
+    public long getLockWaitCount() {
+        return lockWaits.sum();
+    }
+
+    /**
+     * @see com.cucco.stipendi.utility.ConfigMetricsMXBean#getLockWaitMillis()
+     */
+    @Override
+    public double getLockWaitMillis() {
+        return lockWaitNanos.sum() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * @see com.cucco.stipendi.utility.ConfigMetricsMXBean#reset()
+     */
+    @Override
+    public void reset() {
+        keyReads.clear();
+        parseFailures.clear();
+        for (LongAdder bucket : reloadBuckets) {
+            bucket.reset();
+        }
+        reloadNanos.reset();
+        reloadMaxNanos.reset();
+        reloadFailures.reset();
+        lockWaits.reset();
+        lockWaitNanos.reset();
+    }
+
+    /**
+     * <p>Registers these metrics into the platform MBean server as <code>com.cucco.stipendi:type=ConfigMetrics,name=&lt;name&gt;</code>, replacing
+     * any MXBean previously registered with the same name.</p>
+     *
+     * @param name - configuration name
+     * @return the registered object name
+     * @throws JMException on registration errors
+     */
+    public ObjectName register(String name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=ConfigMetrics,name=" + ObjectName.quote(name));
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+        server.registerMBean(this, objectName);
+        return objectName;
+    }
+
+    /**
+     * <p>Unregisters the MXBean, if registered.</p>
+     *
+     * @param objectName - the name returned by {@link #register(String)}, may be null
+     * @throws JMException on unregistration errors
+     */
+    public static void unregister(ObjectName objectName) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (objectName != null && server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+    }
+
+    /**
+     * <p>Writes the metrics in the Prometheus text exposition format, labelled with the configuration name.</p>
+     *
+     * @param name - configuration name
+     * @param out - the output
+     * @throws IOException on write errors
+     */
+    public void writeText(String name, Appendable out) throws IOException {
+        String config = "config=\"" + escape(name) + "\"";
+        out.append("# TYPE stipendi_config_version gauge\n");
+        out.append("stipendi_config_version{").append(config).append("} ").append(Long.toString(getVersion())).append('\n');
+        out.append("# TYPE stipendi_config_key_reads_total counter\n");
+        for (Map.Entry<String, Long> entry : getKeyReads().entrySet()) {
+            out.append("stipendi_config_key_reads_total{").append(config).append(",key=\"").append(escape(entry.getKey())).append("\"} ")
+                    .append(entry.getValue().toString()).append('\n');
+        }
+        out.append("# TYPE stipendi_config_parse_failures_total counter\n");
+        for (Map.Entry<String, Long> entry : getParseFailures().entrySet()) {
+            out.append("stipendi_config_parse_failures_total{").append(config).append(",key=\"").append(escape(entry.getKey())).append("\"} ")
+                    .append(entry.getValue().toString()).append('\n');
+        }
+        out.append("# TYPE stipendi_config_reload_seconds histogram\n");
+        long cumulative = 0L;
+        for (int i = 0; i < reloadBuckets.length; i++) {
+            cumulative += reloadBuckets[i].sum();
+            String bound = i < RELOAD_BUCKETS_MICROS.length ? Double.toString(RELOAD_BUCKETS_MICROS[i] / 1000000d) : "+Inf";
+            out.append("stipendi_config_reload_seconds_bucket{").append(config).append(",le=\"").append(bound).append("\"} ")
+                    .append(Long.toString(cumulative)).append('\n');
+        }
+        out.append("stipendi_config_reload_seconds_sum{").append(config).append("} ").append(Double.toString(reloadNanos.sum() / NANOS_PER_SECOND))
+                .append('\n');
+        out.append("stipendi_config_reload_seconds_count{").append(config).append("} ").append(Long.toString(cumulative)).append('\n');
+        out.append("# TYPE stipendi_config_reload_failures_total counter\n");
+        out.append("stipendi_config_reload_failures_total{").append(config).append("} ").append(Long.toString(getReloadFailureCount())).append('\n');
+        out.append("# TYPE stipendi_config_lock_wait_seconds summary\n");
+        out.append("stipendi_config_lock_wait_seconds_sum{").append(config).append("} ").append(Double.toString(lockWaitNanos.sum() / NANOS_PER_SECOND))
+                .append('\n');
+        out.append("stipendi_config_lock_wait_seconds_count{").append(config).append("} ").append(Long.toString(getLockWaitCount())).append('\n');
+    }
+
+    /**
+     * <p>Escapes a label value.</p>
+     *
+     * @param value - label value
+     * @return escaped value
+     */
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * ConfigMetricsMXBean.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import java.util.Map;
+
+/**
+ * <p>JMX view of the {@link ConfigMetrics} of a configuration. Times are in milliseconds.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public interface ConfigMetricsMXBean {
+
+    /**
+     * Return the published configuration version.
+     *
+     * @return current snapshot version
+     */
+    long getVersion();
+
+    /**
+     * Return the total number of key reads.
+     *
+     * @return reads count
+     */
+    long getReadCount();
+
+    /**
+     * Return the number of reads of each key.
+     *
+     * @return reads count by key
+     */
+    Map<String, Long> getKeyReads();
+
+    /**
+     * Return the total number of values which could not be parsed and fell back to the default value, counted once per key and configuration
+     * version.
+     *
+     * @return parse failures count
+     */
+    long getParseFailureCount();
+
+    /**
+     * Return the number of parse failures of each key.
+     *
+     * @return parse failures count by key
+     */
+    Map<String, Long> getParseFailures();
+
+    /**
+     * Return the number of configuration reloads which published a new snapshot.
+     *
+     * @return reloads count
+     */
+    long getReloadCount();
+
+    /**
+     * Return the number of failed configuration reloads.
+     *
+     * @return failed reloads count
+     */
+    long getReloadFailureCount();
+
+    /**
+     * Return the mean reload time.
+     *
+     * @return mean reload time in milliseconds
+     */
+    double getReloadMeanMillis();
+
+    /**
+     * Return the longest reload time.
+     *
+     * @return max reload time in milliseconds
+     */
+    double getReloadMaxMillis();
+
+    /**
+     * Return the reload time histogram: the number of reloads completed within each upper bound, not cumulative.
+     *
+     * @return reloads count by upper bound in milliseconds, <code>+Inf</code> for the overflow bucket
+     */
+    Map<String, Long> getReloadHistogram();
+
+    /**
+     * Return the number of reload lock acquisitions.
+     *
+     * @return lock acquisitions count
+     */
+    long getLockWaitCount();
+
+    /**
+     * Return the total time spent waiting for the reload lock.
+     *
+     * @return lock wait time in milliseconds
+     */
+    double getLockWaitMillis();
+
+    /**
+     * <p>Clears every counter.</p>
+     */
+    void reset();
+}
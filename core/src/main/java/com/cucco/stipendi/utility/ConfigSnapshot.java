@@ -0,0 +1,392 @@
+/*
+ * ConfigSnapshot.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * <p>Immutable, versioned view of a configuration file content.</p>
+ * <p>A snapshot is built once from the loaded {@link Properties} and never changes afterwards, so it can be shared by any number of reader threads
+ * without locking. A configuration reload builds a new snapshot and publishes it with a single reference swap; readers always see either the previous
+ * or the new snapshot, never a partially loaded one. Versions are taken from a global monotonic counter, so two snapshots never share a version.</p>
+ * <p><code>${name}</code> references inside values are resolved once, when the snapshot is built, against system properties, environment
+ * variables and the other keys of the same snapshot, in this order (see {@link Template}). Unresolved references are left as they are.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class ConfigSnapshot {
+
+    /**
+     * <p>Global version generator</p>
+     */
+    private static final AtomicLong VERSION_GENERATOR = new AtomicLong();
+
+    /**
+     * <p>The empty snapshot, used before the first configuration load</p>
+     */
+    public static final ConfigSnapshot EMPTY = new ConfigSnapshot(0L, Collections.<String, String> emptyMap());
+
+    /**
+     * <p>Marker stored into the typed values array for keys converted to null</p>
+     */
+    private static final Object NULL_VALUE = new Object();
+
+    /**
+     * <p>Snapshot version</p>
+     */
+    private final long version;
+
+    /**
+     * <p>Snapshot creation time, in milliseconds</p>
+     */
+    private final long timestamp;
+
+    /**
+     * <p>Configuration values, never modified after construction</p>
+     */
+    private final Map<String, String> values;
+
+    /**
+     * <p>Values of the registered {@link ConfigKey}s, converted once and indexed by key slot. Keys registered after the snapshot creation are
+     * converted on first access and the array is republished grown</p>
+     */
+    private volatile Object[] typedValues;
+
+    /**
+     * <p>Values parsed into collections, by key. Built on first request and shared by every caller of this snapshot</p>
+     */
+    private final Map<String, Derived> derivedValues = new ConcurrentHashMap<String, Derived>();
+
+    /**
+     * <p>Keys whose value failed to parse on this snapshot, recorded once into the metrics</p>
+     */
+    private final Set<String> parseFailures = ConcurrentHashMap.newKeySet();
+
+    /**
+     * <p>Builds a snapshot with the given version and values. The map is owned by the snapshot and must not be modified by the caller.</p>
+     *
+     * @param version - snapshot version
+     * @param values - configuration values
+     */
+    private ConfigSnapshot(long version, Map<String, String> values) {
+        this.version = version;
+        this.timestamp = System.currentTimeMillis();
+        this.values = values;
+        this.typedValues = convert(ConfigKey.registeredKeys(), new Object[0]);
+    }
+
+    /**
+     * <p>Builds a new snapshot copying the given properties. Defaults chained to the properties are included.</p>
+     *
+     * @param properties - the loaded properties, may be null
+     * @return the new snapshot
+     */
+    public static ConfigSnapshot of(Properties properties) {
+        Map<String, String> values = new HashMap<String, String>();
+        if (properties != null) {
+            for (String name : properties.stringPropertyNames()) {
+                values.put(name, properties.getProperty(name));
+            }
+        }
+        return of(values);
+    }
+
+    /**
+     * <p>Builds a new snapshot copying the given values.</p>
+     *
+     * @param values - configuration values, may be null
+     * @return the new snapshot
+     */
+    public static ConfigSnapshot of(Map<String, String> values) {
+        Map<String, String> copy = values == null ? new HashMap<String, String>() : new HashMap<String, String>(values);
+        Map<String, String> resolved = new HashMap<String, String>();
+        Function<String, String> lookup = lookup(copy);
+        for (Map.Entry<String, String> entry : copy.entrySet()) {
+            if (Template.hasReferences(entry.getValue())) {
+                resolved.put(entry.getKey(), Template.compile(entry.getValue()).resolve(lookup, null));
+            }
+        }
+        copy.putAll(resolved);
+        return new ConfigSnapshot(VERSION_GENERATOR.incrementAndGet(), Collections.unmodifiableMap(copy));
+    }
+
+    /**
+     * <p>Builds a new snapshot on the given compact map, without copying it: it is immutable already.</p>
+     *
+     * @param values - configuration values
+     * @return the new snapshot
+     */
+    public static ConfigSnapshot of(CompactProperties values) {
+        CompactProperties resolved = values;
+        for (String value : values.values()) {
+            if (Template.hasReferences(value)) {
+                Function<String, String> lookup = lookup(values);
+                CompactProperties.Builder builder = new CompactProperties.Builder(values.size());
+                for (Map.Entry<String, String> entry : values.entrySet()) {
+                    String entryValue = entry.getValue();
+                    builder.put(entry.getKey(), Template.hasReferences(entryValue) ? Template.compile(entryValue).resolve(lookup, null) : entryValue);
+                }
+                resolved = builder.build();
+                break;
+            }
+        }
+        return new ConfigSnapshot(VERSION_GENERATOR.incrementAndGet(), resolved);
+    }
+
+    /**
+     * <p>Builds a new snapshot on the given precompiled table, without copying it: values are decoded from the mapped file on first access.</p>
+     *
+     * @param values - configuration values
+     * @return the new snapshot
+     */
+    public static ConfigSnapshot of(BinaryConfigTable values) {
+        values.resolveTemplates(lookup(values));
+        return new ConfigSnapshot(VERSION_GENERATOR.incrementAndGet(), values);
+    }
+
+    /**
+     * <p>Returns the lookup used to resolve references: system properties, environment variables, then the raw configuration values.</p>
+     *
+     * @param values - raw configuration values
+     * @return the lookup
+     */
+    private static Function<String, String> lookup(Map<String, String> values) {
+        return name -> {
+            String value = Template.SYSTEM.apply(name);
+            return value != null ? value : values.get(name);
+        };
+    }
+
+    /**
+     * <p>Returns the raw value associated with the key</p>
+     *
+     * @param key - configuration key
+     * @return the raw value or null if the key is not present
+     */
+    public String get(String key) {
+        return values.get(key);
+    }
+
+    /**
+     * <p>Returns the precompiled table backing this snapshot.</p>
+     *
+     * @return the table, null if the snapshot was built from a text file
+     */
+    BinaryConfigTable getTable() {
+        return values instanceof BinaryConfigTable ? (BinaryConfigTable) values : null;
+    }
+
+    /**
+     * <p>Returns the converted value of a typed key. Apart from the first access to a key registered after this snapshot creation, this is a plain
+     * array read.</p>
+     *
+     * @param key - the typed key
+     * @return the converted value, or the key default value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ConfigKey<T> key) {
+        Object[] converted = typedValues;
+        int slot = key.getSlot();
+        Object value = slot < converted.length ? converted[slot] : null;
+        if (value == null) {
+            value = convertMissing(key);
+        }
+        return value == NULL_VALUE ? null : (T) value;
+    }
+
+    /**
+     * <p>Converts the keys registered after the last conversion and republishes the typed values array.</p>
+     *
+     * @param key - the requested key
+     * @return the converted value, possibly {@link #NULL_VALUE}
+     */
+    private synchronized Object convertMissing(ConfigKey<?> key) {
+        Object[] converted = typedValues;
+        if (key.getSlot() >= converted.length) {
+            converted = convert(ConfigKey.registeredKeys(), converted);
+            typedValues = converted;
+        }
+        return converted[key.getSlot()];
+    }
+
+    /**
+     * <p>Returns a copy of <code>converted</code> extended with the conversion of the keys not yet converted.</p>
+     *
+     * @param keys - registered keys
+     * @param converted - already converted values
+     * @return the extended values array
+     */
+    private Object[] convert(ConfigKey<?>[] keys, Object[] converted) {
+        Object[] result = Arrays.copyOf(converted, keys.length);
+        for (int i = converted.length; i < keys.length; i++) {
+            Object value = keys[i].convert(values.get(keys[i].getName()));
+            result[i] = value == null ? NULL_VALUE : value;
+        }
+        return result;
+    }
+
+    /**
+     * <p>Returns the value of the key parsed by the given builder, parsing it only on the first request. Kinds and builders must be constants
+     * (non capturing method references), so that a cache hit allocates nothing.</p>
+     *
+     * @param kind - result kind, compared by identity
+     * @param key - configuration key
+     * @param type - builder argument, part of the cache key
+     * @param builder - parses the raw value, may return null
+     * @return the parsed value, null if the key is missing or the builder returned null
+     */
+    @SuppressWarnings("unchecked")
+    <T, A> T derive(String kind, String key, Class<A> type, BiFunction<String, Class<A>, T> builder) {
+        T value = null;
+        String rawValue = values.get(key);
+        if (rawValue != null) {
+            Derived derived = derivedValues.get(key);
+            while (derived != null && (derived.kind != kind || derived.type != type)) {
+                derived = derived.next;
+            }
+            if (derived != null) {
+                value = (T) derived.value;
+            } else {
+                T built = builder.apply(rawValue, type);
+                derivedValues.compute(key, (k, head) -> new Derived(kind, type, built, head));
+                value = built;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * <p>Returns true if the key is present into this snapshot</p>
+     *
+     * @param key - configuration key
+     * @return true if present
+     */
+    public boolean containsKey(String key) {
+        return values.containsKey(key);
+    }
+
+    /**
+     * <p>Marks the value of the key as not parsable.</p>
+     *
+     * @param key - configuration key
+     * @return true the first time the key is marked on this snapshot
+     */
+    boolean parseFailed(String key) {
+        return parseFailures.add(key);
+    }
+
+    /**
+     * Return the snapshot keys.
+     *
+     * @return unmodifiable key set
+     */
+    public Set<String> keySet() {
+        return values.keySet();
+    }
+
+    /**
+     * Return the snapshot values.
+     *
+     * @return unmodifiable key/value map
+     */
+    public Map<String, String> asMap() {
+        return values;
+    }
+
+    /**
+     * Return the number of keys.
+     *
+     * @return keys count
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Return version value.
+     *
+     * @return version value.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Return timestamp value.
+     *
+     * @return timestamp value.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * <p>Returns a new, mutable, {@link Properties} copy of this snapshot</p>
+     *
+     * @return properties copy
+     */
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        properties.putAll(values);
+        return properties;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder("ConfigSnapshot [version=").append(version).append(", size=").append(values.size()).append(']').toString();
+    }
+
+    /**
+     * <p>Parsed value cache entry, chained with the other kinds parsed from the same key</p>
+     */
+    private static final class Derived {
+
+        /**
+         * <p>Result kind</p>
+         */
+        private final String kind;
+
+        /**
+         * <p>Builder argument</p>
+         */
+        private final Class<?> type;
+
+        /**
+         * <p>Parsed value, may be null</p>
+         */
+        private final Object value;
+
+        /**
+         * <p>Next entry of the same key</p>
+         */
+        private final Derived next;
+
+        /**
+         * @param kind - result kind
+         * @param type - builder argument
+         * @param value - parsed value
+         * @param next - next entry
+         */
+        private Derived(String kind, Class<?> type, Object value, Derived next) {
+            this.kind = kind;
+            this.type = type;
+            this.value = value;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * ConfigSnapshotCompiler.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+/**
+ * <p>Compiles a text configuration file into the binary snapshot read by {@link BinaryConfigTable}.</p>
+ * <p>Run by the assembly module at packaging time, so that the shipped <code>conf</code> directory holds <code>stipendi.conf.snap</code> next to
+ * <code>stipendi.conf</code>. The text file is parsed as {@link ParameterReader} does (platform charset), and the snapshot records the SHA-256 of
+ * the text file and the charset name: editing the text file on the server, or running on a platform with another default charset, makes the
+ * snapshot stale and the reader falls back to the text file.</p>
+ * <p>Usage: <code>ConfigSnapshotCompiler &lt;source file&gt; [target file]</code>, the target defaults to the source file name followed by
+ * {@link BinaryConfigTable#FILE_SUFFIX}.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class ConfigSnapshotCompiler {
+
+    /**
+     * <p>Not instantiable</p>
+     */
+    private ConfigSnapshotCompiler() {
+    }
+
+    /**
+     * <p>Command line entry point.</p>
+     *
+     * @param args - source file and optional target file
+     * @throws IOException on reading or writing errors
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: ConfigSnapshotCompiler <source file> [target file]");
+            System.exit(1);
+        }
+        File source = new File(args[0]);
+        File target = args.length > 1 ? new File(args[1]) : BinaryConfigTable.snapshotFileOf(source);
+        int entries = compile(source, target);
+        System.out.println(String.format("Compiled [%d] configuration entries from [%s] into [%s]", Integer.valueOf(entries), source, target));
+    }
+
+    /**
+     * <p>Compiles the source text file into the target snapshot file. The target is written to a temporary file and moved in place.</p>
+     *
+     * @param source - text configuration file
+     * @param target - snapshot file
+     * @return the number of compiled entries
+     * @throws IOException on reading or writing errors
+     */
+    public static int compile(File source, File target) throws IOException {
+        byte[] content = Files.readAllBytes(source.toPath());
+        Properties properties = ConfigFileTracker.load(ByteBuffer.wrap(content));
+        ByteBuffer snapshot = compile(properties, sha256(content), Charset.defaultCharset());
+        File temporary = new File(target.getPath() + ".tmp");
+        Files.write(temporary.toPath(), snapshot.array());
+        Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return properties.stringPropertyNames().size();
+    }
+
+    /**
+     * <p>Builds the snapshot content.</p>
+     *
+     * @param properties - the parsed configuration
+     * @param sourceDigest - SHA-256 of the source text file
+     * @param sourceCharset - charset the source text file was decoded with
+     * @return the snapshot content, backed by an array
+     */
+    static ByteBuffer compile(Properties properties, byte[] sourceDigest, Charset sourceCharset) {
+        byte[] charsetName = sourceCharset.name().getBytes(StandardCharsets.US_ASCII);
+        if (charsetName.length > BinaryConfigTable.CHARSET_LENGTH) {
+            throw new IllegalArgumentException("Charset name too long: " + sourceCharset.name());
+        }
+        String[] names = properties.stringPropertyNames().toArray(new String[0]);
+        int slotCount = 16;
+        while (slotCount < names.length * 2) {
+            slotCount <<= 1;
+        }
+        byte[][] keyBytes = new byte[names.length][];
+        byte[][] valueBytes = new byte[names.length][];
+        int dataLength = 0;
+        for (int i = 0; i < names.length; i++) {
+            keyBytes[i] = names[i].getBytes(StandardCharsets.UTF_8);
+            valueBytes[i] = properties.getProperty(names[i]).getBytes(StandardCharsets.UTF_8);
+            dataLength += keyBytes[i].length + valueBytes[i].length;
+        }
+        int dataOffset = BinaryConfigTable.HEADER_LENGTH + slotCount * BinaryConfigTable.SLOT_LENGTH;
+        ByteBuffer buffer = ByteBuffer.allocate(dataOffset + dataLength + 8);
+        buffer.putInt(BinaryConfigTable.MAGIC).putShort(BinaryConfigTable.FORMAT_VERSION).putShort((short) 0).put(sourceDigest);
+        buffer.put(charsetName).position(buffer.position() + BinaryConfigTable.CHARSET_LENGTH - charsetName.length);
+        buffer.putInt(names.length).putInt(slotCount).putInt(dataOffset).putInt(dataLength);
+        for (int slot = 0; slot < slotCount; slot++) {
+            buffer.putInt(BinaryConfigTable.HEADER_LENGTH + slot * BinaryConfigTable.SLOT_LENGTH + 4, -1);
+        }
+        int dataPosition = 0;
+        int mask = slotCount - 1;
+        for (int i = 0; i < names.length; i++) {
+            int hash = names[i].hashCode();
+            int slot = hash & mask;
+            while (buffer.getInt(BinaryConfigTable.HEADER_LENGTH + slot * BinaryConfigTable.SLOT_LENGTH + 4) >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            String value = properties.getProperty(names[i]);
+            int position = BinaryConfigTable.HEADER_LENGTH + slot * BinaryConfigTable.SLOT_LENGTH;
+            buffer.putInt(position, hash);
+            buffer.putInt(position + 4, dataPosition);
+            buffer.putInt(position + 8, keyBytes[i].length);
+            buffer.putInt(position + 12, dataPosition + keyBytes[i].length);
+            buffer.putInt(position + 16, valueBytes[i].length);
+            byte flags = 0;
+            Long longValue = parseLong(value);
+            if (longValue != null) {
+                flags |= BinaryConfigTable.FLAG_LONG;
+                buffer.putLong(position + 24, longValue.longValue());
+            }
+            try {
+                buffer.putLong(position + 32, Double.doubleToRawLongBits(Double.parseDouble(value.trim())));
+                flags |= BinaryConfigTable.FLAG_DOUBLE;
+            } catch (NumberFormatException e) {
+                /*
+                 * Nulla da fare.
+                 */
+            }
+            String literal = value.toLowerCase().trim();
+            if (Config.TRUE.contains(literal)) {
+                flags |= BinaryConfigTable.FLAG_BOOLEAN | BinaryConfigTable.FLAG_TRUE;
+            } else if (Config.FALSE.contains(literal)) {
+                flags |= BinaryConfigTable.FLAG_BOOLEAN;
+            }
+            if (Template.hasReferences(value)) {
+                flags |= BinaryConfigTable.FLAG_TEMPLATE;
+            }
+            buffer.put(position + 20, flags);
+            ByteBuffer data = buffer.duplicate();
+            data.position(dataOffset + dataPosition);
+            data.put(keyBytes[i]).put(valueBytes[i]);
+            dataPosition += keyBytes[i].length + valueBytes[i].length;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.capacity() - 8);
+        buffer.putLong(buffer.capacity() - 8, crc.getValue());
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * <p>Parses a long with the rules of {@link Config#get(String, long)}.</p>
+     *
+     * @param value - raw value
+     * @return the parsed long, null if not a long
+     */
+    private static Long parseLong(String value) {
+        try {
+            String strValue = value.trim();
+            return strValue.startsWith("0x") ? Long.valueOf(strValue.substring(2), 16) : Long.valueOf(strValue);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param content - file content
+     * @return the content digest
+     */
+    private static byte[] sha256(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
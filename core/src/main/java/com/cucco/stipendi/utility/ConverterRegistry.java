@@ -0,0 +1,370 @@
+/*
+ * ConverterRegistry.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.cucco.stipendi.money.Money;
+import com.cucco.stipendi.money.Rate;
+
+/**
+ * <p>Registry of the {@link ValueConverter}s used by {@link Config} to turn raw configuration values into typed values.</p>
+ * <p>Converters are resolved once per class and cached into {@link ClassValue}s, so a conversion costs a direct call (or a precomputed
+ * {@link MethodHandle} invocation) and no reflection. Resolution order for a type:</p>
+ * <ol>
+ * <li>converters registered with {@link #register(Class, ValueConverter)};</li>
+ * <li>built-in converters: wrappers and primitives (integers accept the <code>0x</code> hex prefix, booleans the literals of {@link Config#TRUE}
+ * and {@link Config#FALSE}), {@link BigDecimal}, {@link Money}, {@link Rate} (decimal or percentage), {@link Duration} (ISO-8601 or milliseconds), {@link LocalDate} (ISO or
+ * <code>dd/MM/yyyy</code>);</li>
+ * <li>enums, by {@link Enum#toString()} through a hashed index;</li>
+ * <li>a public static <code>valueOf(String)</code>, <code>parse(CharSequence)</code> or <code>parse(String)</code> factory, or a public
+ * <code>(String)</code> constructor, bound once as a {@link MethodHandle}.</li>
+ * </ol>
+ * <p>Thread safe.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class ConverterRegistry {
+
+    /**
+     * <p>Generic type of the bound factory handles</p>
+     */
+    private static final MethodType FACTORY_TYPE = MethodType.methodType(Object.class, String.class);
+
+    /**
+     * <p>Italian date format accepted by the {@link LocalDate} converter</p>
+     */
+    private static final DateTimeFormatter ITALIAN_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    /**
+     * <p>Explicitly registered converters</p>
+     */
+    private static final Map<Class<?>, ValueConverter<?>> registered = new ConcurrentHashMap<Class<?>, ValueConverter<?>>();
+
+    /**
+     * <p>Built-in converters</p>
+     */
+    private static final Map<Class<?>, ValueConverter<?>> builtIn = new HashMap<Class<?>, ValueConverter<?>>();
+    static {
+        ValueConverter<Integer> intConverter = value -> {
+            String strValue = value.trim();
+            return strValue.startsWith("0x") ? Integer.valueOf(strValue.substring(2), 16) : Integer.valueOf(strValue);
+        };
+        ValueConverter<Long> longConverter = value -> {
+            String strValue = value.trim();
+            return strValue.startsWith("0x") ? Long.valueOf(strValue.substring(2), 16) : Long.valueOf(strValue);
+        };
+        ValueConverter<Byte> byteConverter = value -> {
+            String strValue = value.trim();
+            return strValue.startsWith("0x") ? Byte.valueOf(strValue.substring(2), 16) : Byte.valueOf(strValue);
+        };
+        ValueConverter<Short> shortConverter = value -> {
+            String strValue = value.trim();
+            return strValue.startsWith("0x") ? Short.valueOf(strValue.substring(2), 16) : Short.valueOf(strValue);
+        };
+        ValueConverter<Double> doubleConverter = value -> Double.valueOf(value.trim());
+        ValueConverter<Float> floatConverter = value -> Float.valueOf(value.trim());
+        ValueConverter<Boolean> booleanConverter = value -> {
+            String strValue = value.toLowerCase().trim();
+            Boolean result = null;
+            if (Config.TRUE.contains(strValue)) {
+                result = Boolean.TRUE;
+            } else if (Config.FALSE.contains(strValue)) {
+                result = Boolean.FALSE;
+            }
+            return result;
+        };
+        ValueConverter<Character> charConverter = value -> value.length() == 1 ? Character.valueOf(value.charAt(0)) : null;
+        builtIn.put(String.class, value -> value);
+        builtIn.put(Integer.class, intConverter);
+        builtIn.put(int.class, intConverter);
+        builtIn.put(Long.class, longConverter);
+        builtIn.put(long.class, longConverter);
+        builtIn.put(Byte.class, byteConverter);
+        builtIn.put(byte.class, byteConverter);
+        builtIn.put(Short.class, shortConverter);
+        builtIn.put(short.class, shortConverter);
+        builtIn.put(Double.class, doubleConverter);
+        builtIn.put(double.class, doubleConverter);
+        builtIn.put(Float.class, floatConverter);
+        builtIn.put(float.class, floatConverter);
+        builtIn.put(Boolean.class, booleanConverter);
+        builtIn.put(boolean.class, booleanConverter);
+        builtIn.put(Character.class, charConverter);
+        builtIn.put(char.class, charConverter);
+        builtIn.put(BigDecimal.class, value -> new BigDecimal(value.trim()));
+        builtIn.put(Money.class, Money::parse);
+        builtIn.put(Rate.class, Rate::parse);
+        builtIn.put(Duration.class, value -> {
+            String strValue = value.trim();
+            try {
+                return Duration.ofMillis(Long.parseLong(strValue));
+            } catch (NumberFormatException e) {
+                return parseDuration(strValue);
+            }
+        });
+        builtIn.put(LocalDate.class, value -> {
+            String strValue = value.trim();
+            try {
+                return strValue.indexOf('/') > 0 ? LocalDate.parse(strValue, ITALIAN_DATE) : LocalDate.parse(strValue);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * <p>Resolved converters, by class</p>
+     */
+    private static final ClassValue<ValueConverter<?>> converters = new ClassValue<ValueConverter<?>>() {
+        @Override
+        protected ValueConverter<?> computeValue(Class<?> type) {
+            return resolve(type);
+        }
+    };
+
+    /**
+     * <p>Handles of the public static <code>valueOf(String)</code> methods, by class; null handle when there is no such method</p>
+     */
+    private static final ClassValue<MethodHandle[]> valueOfHandles = new ClassValue<MethodHandle[]>() {
+        @Override
+        protected MethodHandle[] computeValue(Class<?> type) {
+            return new MethodHandle[] { staticFactory(type, "valueOf", String.class) };
+        }
+    };
+
+    /**
+     * <p>Enum constants by {@link Enum#toString()}, by enum class</p>
+     */
+    private static final ClassValue<Map<String, Object>> enumIndexes = new ClassValue<Map<String, Object>>() {
+        @Override
+        protected Map<String, Object> computeValue(Class<?> type) {
+            Map<String, Object> index = new HashMap<String, Object>();
+            Object[] constants = type.getEnumConstants();
+            for (int i = constants.length - 1; i >= 0; i--) {
+                index.put(constants[i].toString(), constants[i]);
+            }
+            return Collections.unmodifiableMap(index);
+        }
+    };
+
+    /**
+     * <p>Not instantiable</p>
+     */
+    private ConverterRegistry() {
+    }
+
+    /**
+     * <p>Registers a converter, replacing the one resolved for the type so far.</p>
+     *
+     * @param type - converted type
+     * @param converter - the converter
+     */
+    public static <T> void register(Class<T> type, ValueConverter<? extends T> converter) {
+        registered.put(type, converter);
+        converters.remove(type);
+    }
+
+    /**
+     * <p>Returns the converter for the type.</p>
+     *
+     * @param type - converted type
+     * @return the converter, null if the type cannot be converted from a string
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ValueConverter<T> converterFor(Class<T> type) {
+        return (ValueConverter<T>) converters.get(type);
+    }
+
+    /**
+     * <p>Converts a raw value.</p>
+     *
+     * @param type - converted type
+     * @param value - raw value, may be null
+     * @param defaultValue - value returned when the raw value is null or not convertible
+     * @return the converted value or the default value
+     */
+    public static <T> T convert(Class<T> type, String value, T defaultValue) {
+        T result = defaultValue;
+        ValueConverter<T> converter = converterFor(type);
+        if (value != null && converter != null) {
+            try {
+                T converted = converter.convert(value);
+                if (converted != null) {
+                    result = converted;
+                }
+            } catch (IllegalArgumentException e) {
+                result = defaultValue;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * <p>Invokes the public static <code>valueOf(String)</code> of the class, as the typed tokens of {@link Config#get(String, Map)} require.</p>
+     *
+     * @param type - the class
+     * @param value - the raw value
+     * @return the converted value
+     * @throws NoSuchMethodException if the class has no public static <code>valueOf(String)</code>
+     * @throws Exception any exception thrown by <code>valueOf</code>
+     */
+    public static Object valueOf(Class<?> type, String value) throws Exception {
+        MethodHandle handle = valueOfHandles.get(type)[0];
+        if (handle == null) {
+            throw new NoSuchMethodException(type.getName() + ".valueOf(String)");
+        }
+        try {
+            return (Object) handle.invokeExact(value);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * <p>Returns the enum constant whose {@link Enum#toString()} equals name.</p>
+     *
+     * @param enumClass - enum class
+     * @param name - constant string value
+     * @return the constant, null if none matches
+     */
+    public static <T> T enumValue(Class<T> enumClass, String name) {
+        return enumClass.cast(enumIndexes.get(enumClass).get(name));
+    }
+
+    /**
+     * <p>Returns a converter of decimal amounts into fixed point units, i.e. the amount multiplied by 10^scale, rounded half up. For example with
+     * scale 2 <code>"12.345"</code> becomes 1235 cents. Both '.' and ',' are accepted as decimal separator, like {@link Money#parse(String)}.</p>
+     *
+     * @param scale - number of decimal digits of a unit
+     * @return the converter, throwing {@link NumberFormatException} if the value is not a number or exceeds 64 bits
+     */
+    public static ValueConverter<Long> fixedPoint(int scale) {
+        return value -> {
+            try {
+                return Long.valueOf(new BigDecimal(value.trim().replace(',', '.')).setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+            } catch (ArithmeticException e) {
+                throw new NumberFormatException("Not a " + scale + " decimals fixed point number: " + value);
+            }
+        };
+    }
+
+    /**
+     * @param type - converted type
+     * @return the converter, null if none applies
+     */
+    private static ValueConverter<?> resolve(Class<?> type) {
+        ValueConverter<?> converter = registered.get(type);
+        if (converter == null) {
+            converter = builtIn.get(type);
+        }
+        if (converter == null && type.isEnum()) {
+            converter = value -> enumValue(type, value.trim());
+        }
+        if (converter == null) {
+            MethodHandle handle = staticFactory(type, "valueOf", String.class);
+            if (handle == null) {
+                handle = staticFactory(type, "parse", CharSequence.class);
+            }
+            if (handle == null) {
+                handle = staticFactory(type, "parse", String.class);
+            }
+            if (handle == null) {
+                handle = stringConstructor(type);
+            }
+            if (handle != null) {
+                converter = handleConverter(handle);
+            }
+        }
+        return converter;
+    }
+
+    /**
+     * @param handle - factory handle of type (String)Object
+     * @return a converter invoking the handle, wrapping checked failures into {@link IllegalArgumentException}
+     */
+    private static ValueConverter<Object> handleConverter(MethodHandle handle) {
+        return value -> {
+            try {
+                return (Object) handle.invokeExact(value.trim());
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        };
+    }
+
+    /**
+     * @param type - the class
+     * @param name - factory method name
+     * @param parameterType - factory parameter type
+     * @return the handle of type (String)Object, null if there is no public static factory returning the type
+     */
+    private static MethodHandle staticFactory(Class<?> type, String name, Class<?> parameterType) {
+        try {
+            Method method = type.getMethod(name, parameterType);
+            int mods = method.getModifiers();
+            if (Modifier.isStatic(mods) && Modifier.isPublic(mods) && Modifier.isPublic(type.getModifiers())) {
+                return MethodHandles.publicLookup().unreflect(method).asType(FACTORY_TYPE);
+            }
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            /*
+             * Nulla da fare.
+             */
+        }
+        return null;
+    }
+
+    /**
+     * @param type - the class
+     * @return the handle of type (String)Object of the public (String) constructor, null if none
+     */
+    private static MethodHandle stringConstructor(Class<?> type) {
+        try {
+            if (!Modifier.isAbstract(type.getModifiers()) && Modifier.isPublic(type.getModifiers())) {
+                Constructor<?> constructor = type.getConstructor(String.class);
+                return MethodHandles.publicLookup().unreflectConstructor(constructor).asType(FACTORY_TYPE);
+            }
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            /*
+             * Nulla da fare.
+             */
+        }
+        return null;
+    }
+
+    /**
+     * @param value - ISO-8601 duration
+     * @return the duration
+     */
+    private static Duration parseDuration(String value) {
+        try {
+            return Duration.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+}
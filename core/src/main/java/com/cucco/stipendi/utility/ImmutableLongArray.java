@@ -0,0 +1,144 @@
+/*
+ * ImmutableLongArray.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+/**
+ * <p>Immutable array of <code>long</code> values, without boxing. Used by {@link Config} to share one parsed array among every caller of the same
+ * configuration version.</p>
+ * <p>Instances are immutable and thread safe.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class ImmutableLongArray {
+
+    /**
+     * <p>The empty array</p>
+     */
+    public static final ImmutableLongArray EMPTY = new ImmutableLongArray(new long[0]);
+
+    /**
+     * <p>Values, never modified</p>
+     */
+    private final long[] values;
+
+    /**
+     * @param values - values, owned by the instance
+     */
+    private ImmutableLongArray(long[] values) {
+        this.values = values;
+    }
+
+    /**
+     * <p>Returns an instance holding a copy of the values.</p>
+     *
+     * @param values - the values
+     * @return the immutable array
+     */
+    public static ImmutableLongArray of(long... values) {
+        return values.length == 0 ? EMPTY : new ImmutableLongArray(values.clone());
+    }
+
+    /**
+     * <p>Returns an instance on the given array, without copying it. The caller must not modify the array afterwards.</p>
+     *
+     * @param values - the values
+     * @return the immutable array
+     */
+    static ImmutableLongArray wrap(long[] values) {
+        return values.length == 0 ? EMPTY : new ImmutableLongArray(values);
+    }
+
+    /**
+     * <p>Returns the value at the given index</p>
+     *
+     * @param index - value index
+     * @return the value
+     * @throws ArrayIndexOutOfBoundsException if the index is out of range
+     */
+    public long get(int index) {
+        return values[index];
+    }
+
+    /**
+     * Return the number of values.
+     *
+     * @return values count
+     */
+    public int length() {
+        return values.length;
+    }
+
+    /**
+     * <p>Returns true if the value is present</p>
+     *
+     * @param value - searched value
+     * @return true if present
+     */
+    public boolean contains(long value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * <p>Returns the index of the first occurrence of the value</p>
+     *
+     * @param value - searched value
+     * @return the index, -1 if not present
+     */
+    public int indexOf(long value) {
+        int index = -1;
+        for (int i = 0; i < values.length && index < 0; i++) {
+            if (values[i] == value) {
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * <p>Returns a stream on the values</p>
+     *
+     * @return the stream
+     */
+    public LongStream stream() {
+        return Arrays.stream(values);
+    }
+
+    /**
+     * <p>Returns a mutable copy of the values</p>
+     *
+     * @return array copy
+     */
+    public long[] toArray() {
+        return values.clone();
+    }
+
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || (obj instanceof ImmutableLongArray && Arrays.equals(values, ((ImmutableLongArray) obj).values));
+    }
+
+    /**
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
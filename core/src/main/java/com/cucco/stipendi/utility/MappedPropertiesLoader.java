@@ -0,0 +1,321 @@
+/*
+ * MappedPropertiesLoader.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * <p>Loads a <code>.properties</code> file from a (possibly memory mapped) {@link ByteBuffer} straight into a {@link CompactProperties}.</p>
+ * <p>The grammar is the one of {@link java.util.Properties#load(java.io.Reader)}: comment lines starting with <code>#</code> or <code>!</code>,
+ * line continuation with a trailing backslash, key terminated by the first unescaped <code>=</code>, <code>:</code> or white space, and the
+ * <code>\t \n \r \f \\uXXXX</code> escapes. Content is decoded with the given charset, the platform one by default as {@link java.io.FileReader}
+ * does. For ASCII compatible charsets (UTF-8, ISO-8859-x, windows-125x) the buffer is scanned byte by byte and only the non ASCII runs go through
+ * the decoder; other charsets are decoded once up front.</p>
+ * <p>Lines are assembled into a reusable scratch buffer and strings are created only for keys and values, so the heap cost of a load is the
+ * strings plus the three {@link CompactProperties} arrays.</p>
+ * <p>Not thread safe: use one instance per load.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class MappedPropertiesLoader {
+
+    /**
+     * <p>Rough average entry length, used to size the map</p>
+     */
+    private static final int AVERAGE_ENTRY_LENGTH = 32;
+
+    /**
+     * <p>Content charset</p>
+     */
+    private final Charset charset;
+
+    /**
+     * <p>Byte source, for ASCII compatible charsets</p>
+     */
+    private ByteBuffer bytes;
+
+    /**
+     * <p>Char source: the whole content for other charsets, the pending decoded non ASCII run otherwise</p>
+     */
+    private CharBuffer chars;
+
+    /**
+     * <p>Logical line scratch buffer</p>
+     */
+    private char[] lineBuf = new char[1024];
+
+    /**
+     * <p>Key/value conversion scratch buffer</p>
+     */
+    private char[] convertBuf = new char[1024];
+
+    /**
+     * <p>Creates a loader decoding with the platform charset.</p>
+     */
+    public MappedPropertiesLoader() {
+        this(Charset.defaultCharset());
+    }
+
+    /**
+     * @param charset - content charset
+     */
+    public MappedPropertiesLoader(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * <p>Maps the file read only and loads it. The mapping is released by the garbage collector: on Windows the file may stay locked until then.</p>
+     *
+     * @param file - the properties file
+     * @return the loaded properties
+     * @throws IOException on reading errors
+     */
+    public CompactProperties load(File file) throws IOException {
+        return load(map(file));
+    }
+
+    /**
+     * <p>Maps the file read only.</p>
+     *
+     * @param file - the file
+     * @return the mapped content
+     * @throws IOException on reading errors
+     */
+    public static MappedByteBuffer map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * <p>Loads the properties from the buffer remaining content. The buffer position is not changed.</p>
+     *
+     * @param content - properties content
+     * @return the loaded properties
+     * @throws IllegalArgumentException on malformed <code>\\uXXXX</code> escapes, as {@link java.util.Properties} does
+     */
+    public CompactProperties load(ByteBuffer content) {
+        if (isAsciiCompatible(charset)) {
+            bytes = content.duplicate();
+            chars = null;
+        } else {
+            bytes = null;
+            chars = charset.decode(content.duplicate());
+        }
+        CompactProperties.Builder builder = new CompactProperties.Builder(content.remaining() / AVERAGE_ENTRY_LENGTH);
+        int limit;
+        while ((limit = readLine()) >= 0) {
+            int keyLen = 0;
+            int valueStart = limit;
+            boolean hasSep = false;
+            boolean precedingBackslash = false;
+            while (keyLen < limit) {
+                char c = lineBuf[keyLen];
+                if ((c == '=' || c == ':') && !precedingBackslash) {
+                    valueStart = keyLen + 1;
+                    hasSep = true;
+                    break;
+                } else if ((c == ' ' || c == '\t' || c == '\f') && !precedingBackslash) {
+                    valueStart = keyLen + 1;
+                    break;
+                }
+                precedingBackslash = c == '\\' ? !precedingBackslash : false;
+                keyLen++;
+            }
+            while (valueStart < limit) {
+                char c = lineBuf[valueStart];
+                if (c != ' ' && c != '\t' && c != '\f') {
+                    if (!hasSep && (c == '=' || c == ':')) {
+                        hasSep = true;
+                    } else {
+                        break;
+                    }
+                }
+                valueStart++;
+            }
+            builder.put(convert(0, keyLen), convert(valueStart, limit - valueStart));
+        }
+        bytes = null;
+        chars = null;
+        return builder.build();
+    }
+
+    /**
+     * <p>Reads the next logical line into {@link #lineBuf}, skipping comments and blank lines and joining continuations.</p>
+     *
+     * @return the line length, -1 at end of content
+     */
+    private int readLine() {
+        int len = 0;
+        boolean skipWhiteSpace = true;
+        boolean appendedLineBegin = false;
+        boolean precedingBackslash = false;
+        boolean skipLF = false;
+        while (true) {
+            int next = nextChar();
+            if (next < 0) {
+                if (len == 0) {
+                    return -1;
+                }
+                return precedingBackslash ? len - 1 : len;
+            }
+            char c = (char) next;
+            if (skipLF) {
+                skipLF = false;
+                if (c == '\n') {
+                    continue;
+                }
+            }
+            if (skipWhiteSpace) {
+                if (c == ' ' || c == '\t' || c == '\f') {
+                    continue;
+                }
+                if (!appendedLineBegin && (c == '\r' || c == '\n')) {
+                    continue;
+                }
+                skipWhiteSpace = false;
+                appendedLineBegin = false;
+            }
+            if (len == 0 && (c == '#' || c == '!')) {
+                /*
+                 * Commento: si consuma il resto della riga.
+                 */
+                do {
+                    next = nextChar();
+                } while (next >= 0 && next != '\r' && next != '\n');
+                if (next < 0) {
+                    return -1;
+                }
+                skipWhiteSpace = true;
+                continue;
+            }
+            if (c != '\n' && c != '\r') {
+                if (len == lineBuf.length) {
+                    lineBuf = Arrays.copyOf(lineBuf, len * 2);
+                }
+                lineBuf[len++] = c;
+                precedingBackslash = c == '\\' ? !precedingBackslash : false;
+            } else if (len == 0) {
+                skipWhiteSpace = true;
+            } else if (precedingBackslash && atEnd()) {
+                return len - 1;
+            } else if (precedingBackslash) {
+                len--;
+                skipWhiteSpace = true;
+                appendedLineBegin = true;
+                precedingBackslash = false;
+                skipLF = c == '\r';
+            } else {
+                return len;
+            }
+        }
+    }
+
+    /**
+     * <p>Returns the next decoded char.</p>
+     *
+     * @return the char, -1 at end of content
+     */
+    private int nextChar() {
+        if (chars != null && chars.hasRemaining()) {
+            return chars.get();
+        }
+        if (bytes == null || !bytes.hasRemaining()) {
+            return -1;
+        }
+        byte b = bytes.get();
+        if (b >= 0) {
+            return b;
+        }
+        int start = bytes.position() - 1;
+        while (bytes.hasRemaining() && bytes.get(bytes.position()) < 0) {
+            bytes.position(bytes.position() + 1);
+        }
+        ByteBuffer run = bytes.duplicate();
+        run.position(start);
+        run.limit(bytes.position());
+        chars = charset.decode(run);
+        return chars.hasRemaining() ? chars.get() : nextChar();
+    }
+
+    /**
+     * @return true if there are no more chars to read
+     */
+    private boolean atEnd() {
+        return (chars == null || !chars.hasRemaining()) && (bytes == null || !bytes.hasRemaining());
+    }
+
+    /**
+     * <p>Converts the escapes of a line region into a string.</p>
+     *
+     * @param off - region offset
+     * @param len - region length
+     * @return the converted string
+     */
+    private String convert(int off, int len) {
+        int end = off + len;
+        int backslash = off;
+        while (backslash < end && lineBuf[backslash] != '\\') {
+            backslash++;
+        }
+        if (backslash == end) {
+            return new String(lineBuf, off, len);
+        }
+        if (convertBuf.length < len) {
+            convertBuf = new char[len * 2];
+        }
+        int outLen = 0;
+        int pos = off;
+        while (pos < end) {
+            char c = lineBuf[pos++];
+            if (c == '\\' && pos < end) {
+                c = lineBuf[pos++];
+                if (c == 'u') {
+                    int value = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = pos < end ? Character.digit(lineBuf[pos++], 16) : -1;
+                        if (digit < 0) {
+                            throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                        }
+                        value = (value << 4) + digit;
+                    }
+                    c = (char) value;
+                } else if (c == 't') {
+                    c = '\t';
+                } else if (c == 'r') {
+                    c = '\r';
+                } else if (c == 'n') {
+                    c = '\n';
+                } else if (c == 'f') {
+                    c = '\f';
+                }
+            }
+            convertBuf[outLen++] = c;
+        }
+        return new String(convertBuf, 0, outLen);
+    }
+
+    /**
+     * <p>Returns true if the ASCII range is encoded as single bytes never appearing inside multi byte sequences.</p>
+     *
+     * @param charset - the charset
+     * @return true if ASCII compatible
+     */
+    static boolean isAsciiCompatible(Charset charset) {
+        String name = charset.name();
+        return charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII) || name.startsWith("ISO-8859-")
+                || name.startsWith("windows-125");
+    }
+}
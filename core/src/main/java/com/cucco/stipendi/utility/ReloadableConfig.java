@@ -0,0 +1,211 @@
+/*
+ * ReloadableConfig.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * <p>{@link Config} loaded from a configuration file and reloaded on request, when the file content changes. It holds no scheduling: the
+ * {@link ParameterReader} EJB drives it with the container timer service, the {@link com.cucco.stipendi.standalone.StandaloneRuntime} with a
+ * scheduled executor.</p>
+ * <p>Instances are thread safe: reloads are serialized, reads never wait for them.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class ReloadableConfig extends Config {
+
+    /**
+     * <p>Configuration key enabling the {@link MappedPropertiesLoader}, for configuration files holding large tables</p>
+     */
+    public static final String MAPPED_LOADER_PARAMETER = "readerMappedLoader";
+
+    /**
+     * <p>Configuration key holding the interval between two configuration file readings, in milliseconds</p>
+     */
+    public static final String REFRESH_INTERTIME_PARAMETER = "readerRefreshIntertime";
+
+    /**
+     * <p>Default interval between two configuration file readings, 1 minute</p>
+     */
+    public static final long DEFAULT_REFRESH_INTERTIME = 60000L;
+
+    /**
+     * <p>Logger instance</p>
+     */
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * <p>The property file from which read configuration parameters</p>
+     */
+    private volatile File propertyFile;
+
+    /**
+     * <p>Change detector of the property file, replaced when the property file changes</p>
+     */
+    private ConfigFileTracker fileTracker;
+
+    /**
+     * <p>Change detector of the precompiled snapshot lying next to the property file, replaced with {@link #fileTracker}</p>
+     */
+    private ConfigFileTracker snapshotTracker;
+
+    /**
+     * <p>Serializes configuration readings. Readers never take it: the published snapshot is all they need</p>
+     */
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    /**
+     * Set propertyFile value or reference.
+     *
+     * @param propertyFile Value to set.
+     */
+    public void setPropertyFile(File propertyFile) {
+        this.propertyFile = propertyFile;
+        readConf();
+    }
+
+    /**
+     * Return propertyFile value or reference.
+     *
+     * @return propertyFile value or reference.
+     */
+    public File getPropertyFile() {
+        return propertyFile;
+    }
+
+    /**
+     * <p>Reads the configuration file and, if its content changed since the last reading, publishes it as a new snapshot. Unchanged files are
+     * detected by metadata and content digest and never parsed again. The file is parsed without holding any lock visible to readers, which keep
+     * using the previous snapshot until the new one is swapped in; listeners registered with {@link #addChangeListener(String, ConfigChangeListener)}
+     * are then notified of the changed keys.</p>
+     * <p>When a precompiled snapshot ({@link BinaryConfigTable#FILE_SUFFIX} file) compiled from the current file content lies next to the file,
+     * it is used in place of parsing the text; writing, replacing or removing it causes a reading even if the text file did not change. Otherwise the {@link #MAPPED_LOADER_PARAMETER} value of the new content chooses the parser, on the
+     * first reading too.</p>
+     */
+    public void readConf() {
+        ConfigMetrics metrics = getMetrics();
+        long start = ConfigMetrics.start();
+        reloadLock.lock();
+        try {
+            start = metrics.lockAcquired(start);
+            File file = propertyFile;
+            logger.trace(">>>Start conf file reading: [{}]<<<", file);
+            if (file != null && file.exists()) {
+                if (fileTracker == null || !file.equals(fileTracker.getFile())) {
+                    fileTracker = new ConfigFileTracker(file);
+                    snapshotTracker = new ConfigFileTracker(BinaryConfigTable.snapshotFileOf(file));
+                }
+                if (snapshotTracker.metadataChanged()) {
+                    // snapshot precompilato scritto, sostituito o rimosso: si rivaluta anche a file di testo invariato
+                    fileTracker.reset();
+                }
+                try {
+                    boolean mapped = this.get(MAPPED_LOADER_PARAMETER, false);
+                    ByteBuffer content = fileTracker.readIfChanged(mapped);
+                    if (content != null) {
+                        BinaryConfigTable table = openSnapshot(file);
+                        ConfigSnapshot loaded;
+                        if (table != null) {
+                            loaded = ConfigSnapshot.of(table);
+                        } else {
+                            loaded = load(content, mapped);
+                            if (isMapped(loaded) != mapped) {
+                                // il nuovo contenuto cambia il loader: lo si rilegge subito con quello richiesto
+                                loaded = load(content, !mapped);
+                            }
+                        }
+                        this.setSnapshot(loaded);
+                        metrics.reloadCompleted(start);
+                        logger.trace("Published configuration snapshot: [{}]", snapshot);
+                        reloaded();
+                    } else {
+                        logger.trace("Conf file unchanged, keeping snapshot: [{}]", snapshot);
+                    }
+                } catch (IOException | IllegalArgumentException e) {
+                    fileTracker.reset();
+                    metrics.reloadFailed();
+                    logger.error("Exception during lastReadedProperties reading", e);
+                }
+            } else {
+                logger.error("Cannot find configuration file: [{}]", file);
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * <p>Parses the configuration file content.</p>
+     *
+     * @param content - the file content
+     * @param mapped - true to parse it with the {@link MappedPropertiesLoader}, false with {@link Properties}
+     * @return the parsed snapshot
+     * @throws IOException on malformed content
+     */
+    private static ConfigSnapshot load(ByteBuffer content, boolean mapped) throws IOException {
+        if (mapped) {
+            return ConfigSnapshot.of(new MappedPropertiesLoader().load(content));
+        }
+        return ConfigSnapshot.of(ConfigFileTracker.load(content));
+    }
+
+    /**
+     * <p>Tells whether the given snapshot enables the {@link MappedPropertiesLoader}, as {@link #get(String, boolean)} would on it.</p>
+     *
+     * @param snapshot - a snapshot not yet published
+     * @return the {@link #MAPPED_LOADER_PARAMETER} value, false if missing
+     */
+    private static boolean isMapped(ConfigSnapshot snapshot) {
+        String value = snapshot.get(MAPPED_LOADER_PARAMETER);
+        return value != null && TRUE.contains(value.trim().toLowerCase());
+    }
+
+    /**
+     * <p>Opens the precompiled snapshot shipped next to the configuration file, if it has been compiled from the current file content.</p>
+     *
+     * @param file - the text configuration file
+     * @return the snapshot table, null if missing, stale or unreadable
+     */
+    private BinaryConfigTable openSnapshot(File file) {
+        File snapshotFile = BinaryConfigTable.snapshotFileOf(file);
+        BinaryConfigTable table = null;
+        try {
+            table = BinaryConfigTable.openIfCurrent(snapshotFile, fileTracker.getDigest());
+            if (table == null && snapshotFile.exists()) {
+                logger.info("Configuration snapshot [{}] is stale, reading text file", snapshotFile);
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot read configuration snapshot [{}], reading text file", snapshotFile, e);
+        }
+        return table;
+    }
+
+    /**
+     * <p>Called after a new snapshot has been published, holding the reload lock. Does nothing by default.</p>
+     */
+    protected void reloaded() {
+        /*
+         * Nulla da fare.
+         */
+    }
+
+    /**
+     * <p>Returns a copy of the last read properties: changes to it do not affect this configuration nor other callers.</p>
+     *
+     * @return a new properties instance holding the published snapshot
+     */
+    public Properties getLastReadedProperties() {
+        return snapshot.toProperties();
+    }
+
+}
@@ -0,0 +1,204 @@
+/*
+ * Template.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * <p>String with <code>${name}</code> references, compiled once into literal and variable segments.</p>
+ * <p>A reference name is made of letters, digits, underscore and dot, as {@link Utility#replaceEnvRefereces(String)} always accepted; any other
+ * <code>${...}</code> is literal text. Resolution is recursive: a resolved value containing references is resolved in turn, and a reference that
+ * would resolve to itself, directly or not, is treated as unresolved.</p>
+ * <p>Compiled templates are immutable, thread safe and cached by text.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class Template {
+
+    /**
+     * <p>Lookup on system properties only, the one of {@link Utility#replaceEnvRefereces(String)}</p>
+     */
+    public static final Function<String, String> SYSTEM_PROPERTIES = System::getProperty;
+
+    /**
+     * <p>Lookup on system properties, then on environment variables, used for the configuration values</p>
+     */
+    public static final Function<String, String> SYSTEM = name -> {
+        String value = System.getProperty(name);
+        return value != null ? value : System.getenv(name);
+    };
+
+    /**
+     * <p>Maximum number of cached templates, the cache is cleared when exceeded</p>
+     */
+    private static final int CACHE_SIZE = 4096;
+
+    /**
+     * <p>Compiled templates, by text</p>
+     */
+    private static final Map<String, Template> cache = new ConcurrentHashMap<String, Template>();
+
+    /**
+     * <p>Template text</p>
+     */
+    private final String text;
+
+    /**
+     * <p>Segments: literals at even positions, variable names at odd positions</p>
+     */
+    private final String[] segments;
+
+    /**
+     * @param text - template text
+     * @param segments - compiled segments
+     */
+    private Template(String text, String[] segments) {
+        this.text = text;
+        this.segments = segments;
+    }
+
+    /**
+     * <p>Returns true if the text may contain references: a cheap check avoiding the compilation of plain values.</p>
+     *
+     * @param text - the text, may be null
+     * @return true if the text contains <code>${</code>
+     */
+    public static boolean hasReferences(String text) {
+        return text != null && text.indexOf("${") >= 0;
+    }
+
+    /**
+     * <p>Returns the compiled template of the text, from the cache if already compiled.</p>
+     *
+     * @param text - the template text
+     * @return the compiled template
+     */
+    public static Template compile(String text) {
+        Template template = cache.get(text);
+        if (template == null) {
+            template = parse(text);
+            if (cache.size() >= CACHE_SIZE) {
+                cache.clear();
+            }
+            cache.put(text, template);
+        }
+        return template;
+    }
+
+    /**
+     * <p>Resolves the template.</p>
+     *
+     * @param lookup - returns the raw value of a name, null if unknown
+     * @param missingValue - text used for unresolved references, null to keep the reference text
+     * @return the resolved text
+     */
+    public String resolve(Function<String, String> lookup, String missingValue) {
+        return segments.length == 1 ? text : resolve(lookup, missingValue, new HashSet<String>());
+    }
+
+    /**
+     * Return the referenced names.
+     *
+     * @return referenced names, in order of appearance
+     */
+    public List<String> getVariables() {
+        List<String> variables = new ArrayList<String>();
+        for (int i = 1; i < segments.length; i += 2) {
+            variables.add(segments[i]);
+        }
+        return Collections.unmodifiableList(variables);
+    }
+
+    /**
+     * Return true if the template has no references.
+     *
+     * @return true if constant
+     */
+    public boolean isConstant() {
+        return segments.length == 1;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    /**
+     * @param lookup - name lookup
+     * @param missingValue - text for unresolved references
+     * @param resolving - names being resolved, for cycle detection
+     * @return the resolved text
+     */
+    private String resolve(Function<String, String> lookup, String missingValue, Set<String> resolving) {
+        StringBuilder sb = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < segments.length; i++) {
+            if ((i & 1) == 0) {
+                sb.append(segments[i]);
+            } else {
+                String name = segments[i];
+                String value = resolving.contains(name) ? null : lookup.apply(name);
+                if (value != null && hasReferences(value)) {
+                    resolving.add(name);
+                    value = compile(value).resolve(lookup, missingValue, resolving);
+                    resolving.remove(name);
+                }
+                if (value == null) {
+                    value = missingValue != null ? missingValue : "${" + name + "}";
+                }
+                sb.append(value);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param text - template text
+     * @return the compiled template
+     */
+    private static Template parse(String text) {
+        List<String> segments = new ArrayList<String>();
+        StringBuilder literal = new StringBuilder();
+        int pos = 0;
+        int start = text.indexOf("${");
+        while (start >= 0) {
+            int end = start + 2;
+            while (end < text.length() && isNameChar(text.charAt(end))) {
+                end++;
+            }
+            if (end > start + 2 && end < text.length() && text.charAt(end) == '}') {
+                literal.append(text, pos, start);
+                segments.add(literal.toString());
+                segments.add(text.substring(start + 2, end));
+                literal.setLength(0);
+                pos = end + 1;
+                start = text.indexOf("${", pos);
+            } else {
+                start = text.indexOf("${", start + 1);
+            }
+        }
+        literal.append(text, pos, text.length());
+        segments.add(literal.toString());
+        return new Template(text, segments.toArray(new String[segments.size()]));
+    }
+
+    /**
+     * @param c - a char
+     * @return true if the char can be part of a reference name
+     */
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) && c < 128 || c == '_' || c == '.';
+    }
+}
@@ -0,0 +1,400 @@
+/*
+ * TenantConfigRegistry.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * <p>Keeps one {@link Config} per tenant, each loaded from its own configuration file.</p>
+ * <p>All tenants share a single {@link WatchService}, registered once per configuration directory, and a single reload driver: whoever calls
+ * {@link #poll()} (an EJB timer, a scheduled executor) drains the pending file events and reloads the affected tenants in one batch. Each reload
+ * goes through a {@link ConfigFileTracker}, so spurious events never cause a parse. When the platform has no {@link WatchService} every poll
+ * checks the file metadata of all the tenants instead.</p>
+ * <p>Tenant lookup is a single hash lookup. Keys and values are interned in a registry wide pool, so the thousands of keys repeated in every
+ * tenant file, and the values equal between tenants, are kept in memory once. When a reload batch leaves the pool twice as large as after its
+ * last rebuild, the pool is rebuilt from the live snapshots, so the strings of replaced snapshots and removed tenants are released. Snapshots are stored as
+ * {@link CompactProperties}; files can optionally be memory mapped and parsed by {@link MappedPropertiesLoader}.</p>
+ * <p>Thread safe: registrations and lookups can happen at any time, reloads are serialized.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class TenantConfigRegistry implements Closeable {
+
+    /**
+     * <p>Logger instance</p>
+     */
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * <p>Registered tenants, by tenant id</p>
+     */
+    private final Map<String, Tenant> tenants = new ConcurrentHashMap<String, Tenant>();
+
+    /**
+     * <p>Ids of the tenants reading each configuration file</p>
+     */
+    private final Map<Path, Set<String>> tenantsByFile = new ConcurrentHashMap<Path, Set<String>>();
+
+    /**
+     * <p>Watched configuration directories</p>
+     */
+    private final Map<Path, WatchKey> watchedDirectories = new ConcurrentHashMap<Path, WatchKey>();
+
+    /**
+     * <p>Tenants waiting for the next batch reload</p>
+     */
+    private final Set<String> dirtyTenants = ConcurrentHashMap.newKeySet();
+
+    /**
+     * <p>Minimum pool size triggering a rebuild</p>
+     */
+    private static final int MIN_POOL_LIMIT = 1024;
+
+    /**
+     * <p>Shared pool of keys and values, guarded by the reload lock</p>
+     */
+    private Map<String, String> pool = new HashMap<String, String>();
+
+    /**
+     * <p>Pool size triggering the next rebuild, guarded by the reload lock</p>
+     */
+    private int poolLimit = MIN_POOL_LIMIT;
+
+    /**
+     * <p>Serializes the batch reloads</p>
+     */
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    /**
+     * <p>The shared watch service, null if not available on this platform</p>
+     */
+    private final WatchService watchService;
+
+    /**
+     * <p>True to load the tenant files with {@link MappedPropertiesLoader}</p>
+     */
+    private volatile boolean mappedLoader;
+
+    /**
+     * <p>Creates the registry and its watch service.</p>
+     */
+    public TenantConfigRegistry() {
+        WatchService service = null;
+        try {
+            service = FileSystems.getDefault().newWatchService();
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.warn("WatchService not available, tenant configuration files will be polled", e);
+        }
+        this.watchService = service;
+    }
+
+    /**
+     * <p>Registers a tenant and loads its configuration file. Registering again an existing tenant replaces its file.</p>
+     *
+     * @param tenantId - tenant id
+     * @param file - tenant configuration file
+     * @return the tenant configuration
+     */
+    public Config register(String tenantId, File file) {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        Tenant tenant = new Tenant(new Config(), new ConfigFileTracker(path.toFile()), path);
+        Tenant previous = tenants.put(tenantId, tenant);
+        if (previous != null) {
+            removeFileReference(tenantId, previous.path);
+        }
+        tenantsByFile.computeIfAbsent(path, p -> ConcurrentHashMap.newKeySet()).add(tenantId);
+        watch(path.getParent());
+        reloadLock.lock();
+        try {
+            if (reload(tenantId, tenant)) {
+                trimPool();
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+        return tenant.config;
+    }
+
+    /**
+     * <p>Removes a tenant. Its configuration stays usable by the callers still holding it, but is no more reloaded.</p>
+     *
+     * @param tenantId - tenant id
+     */
+    public void unregister(String tenantId) {
+        Tenant tenant = tenants.remove(tenantId);
+        if (tenant != null) {
+            removeFileReference(tenantId, tenant.path);
+            dirtyTenants.remove(tenantId);
+        }
+    }
+
+    /**
+     * <p>Returns the configuration of a tenant.</p>
+     *
+     * @param tenantId - tenant id
+     * @return the tenant configuration, null if the tenant is not registered
+     */
+    public Config getConfig(String tenantId) {
+        Tenant tenant = tenants.get(tenantId);
+        return tenant == null ? null : tenant.config;
+    }
+
+    /**
+     * Set mappedLoader value: true to load the tenant files with {@link MappedPropertiesLoader}.
+     *
+     * @param mappedLoader Value to set.
+     */
+    public void setMappedLoader(boolean mappedLoader) {
+        this.mappedLoader = mappedLoader;
+    }
+
+    /**
+     * Return the registered tenant ids.
+     *
+     * @return tenant ids, a live view
+     */
+    public Set<String> getTenantIds() {
+        return tenants.keySet();
+    }
+
+    /**
+     * <p>Drains the pending file events and reloads, in one batch, the tenants whose files changed. Without a watch service every tenant is
+     * checked.</p>
+     *
+     * @return the number of tenants whose configuration has been republished
+     */
+    public int poll() {
+        if (watchService == null) {
+            dirtyTenants.addAll(tenants.keySet());
+        } else {
+            WatchKey key = watchService.poll();
+            while (key != null) {
+                Path directory = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        dirtyTenants.addAll(tenants.keySet());
+                    } else {
+                        Set<String> ids = tenantsByFile.get(directory.resolve((Path) event.context()));
+                        if (ids != null) {
+                            dirtyTenants.addAll(ids);
+                        }
+                    }
+                }
+                if (!key.reset()) {
+                    watchedDirectories.remove(directory);
+                }
+                key = watchService.poll();
+            }
+        }
+        return reloadDirty();
+    }
+
+    /**
+     * <p>Checks every tenant file and reloads the changed ones, regardless of the file events received.</p>
+     *
+     * @return the number of tenants whose configuration has been republished
+     */
+    public int reloadAll() {
+        dirtyTenants.addAll(tenants.keySet());
+        return reloadDirty();
+    }
+
+    /**
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+        watchedDirectories.clear();
+    }
+
+    /**
+     * <p>Reloads the tenants marked as dirty.</p>
+     *
+     * @return the number of tenants whose configuration has been republished
+     */
+    private int reloadDirty() {
+        int reloaded = 0;
+        reloadLock.lock();
+        try {
+            for (String tenantId : dirtyTenants) {
+                dirtyTenants.remove(tenantId);
+                Tenant tenant = tenants.get(tenantId);
+                if (tenant != null && reload(tenantId, tenant)) {
+                    reloaded++;
+                }
+            }
+            if (reloaded > 0) {
+                trimPool();
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+        if (reloaded > 0) {
+            logger.debug("Reloaded [{}] tenant configurations", Integer.valueOf(reloaded));
+        }
+        return reloaded;
+    }
+
+    /**
+     * <p>Reloads a tenant configuration if its file changed. Must be called holding the reload lock.</p>
+     *
+     * @param tenantId - tenant id
+     * @param tenant - the tenant
+     * @return true if a new snapshot has been published
+     */
+    private boolean reload(String tenantId, Tenant tenant) {
+        boolean published = false;
+        long start = ConfigMetrics.start();
+        try {
+            if (tenant.path.toFile().exists()) {
+                boolean mapped = mappedLoader;
+                ByteBuffer content = tenant.tracker.readIfChanged(mapped);
+                if (content != null) {
+                    Map<?, ?> loaded = mapped ? new MappedPropertiesLoader().load(content) : ConfigFileTracker.load(content);
+                    tenant.config.setSnapshot(ConfigSnapshot.of(intern(loaded)));
+                    tenant.config.getMetrics().reloadCompleted(start);
+                    published = true;
+                }
+            } else {
+                logger.error("Cannot find configuration file: [{}] for tenant [{}]", tenant.path, tenantId);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            tenant.tracker.reset();
+            tenant.config.getMetrics().reloadFailed();
+            logger.error("Exception reading configuration file [{}] for tenant [{}]", tenant.path, tenantId, e);
+        }
+        return published;
+    }
+
+    /**
+     * <p>Copies the loaded values replacing keys and values with their pooled instances. Non string entries are skipped, as
+     * {@link Properties#stringPropertyNames()} does.</p>
+     *
+     * @param loaded - loaded values
+     * @return the pooled values
+     */
+    private CompactProperties intern(Map<?, ?> loaded) {
+        CompactProperties.Builder builder = new CompactProperties.Builder(loaded.size());
+        for (Map.Entry<?, ?> entry : loaded.entrySet()) {
+            if (entry.getKey() instanceof String && entry.getValue() instanceof String) {
+                builder.put(pooled((String) entry.getKey()), pooled((String) entry.getValue()));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * <p>Must be called holding the reload lock.</p>
+     *
+     * @param value - a string
+     * @return the pooled instance equal to value
+     */
+    private String pooled(String value) {
+        String pooledValue = pool.putIfAbsent(value, value);
+        return pooledValue == null ? value : pooledValue;
+    }
+
+    /**
+     * <p>Rebuilds the pool from the snapshots of the registered tenants, if it grew over the limit. Must be called holding the reload lock.</p>
+     */
+    private void trimPool() {
+        if (pool.size() > poolLimit) {
+            int previousSize = pool.size();
+            Map<String, String> live = new HashMap<String, String>(previousSize);
+            for (Tenant tenant : tenants.values()) {
+                for (Map.Entry<String, String> entry : tenant.config.getSnapshot().asMap().entrySet()) {
+                    live.putIfAbsent(entry.getKey(), entry.getKey());
+                    live.putIfAbsent(entry.getValue(), entry.getValue());
+                }
+            }
+            pool = live;
+            poolLimit = Math.max(MIN_POOL_LIMIT, live.size() * 2);
+            logger.debug("Tenant configuration pool rebuilt: [{}] strings, [{}] before", Integer.valueOf(live.size()), Integer.valueOf(previousSize));
+        }
+    }
+
+    /**
+     * <p>Registers the directory on the watch service, once.</p>
+     *
+     * @param directory - configuration directory
+     */
+    private void watch(Path directory) {
+        if (watchService != null && directory != null) {
+            watchedDirectories.computeIfAbsent(directory, d -> {
+                try {
+                    return d.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                } catch (IOException e) {
+                    logger.error("Cannot watch configuration directory [{}], relying on reloadAll()", d, e);
+                    return null;
+                }
+            });
+        }
+    }
+
+    /**
+     * @param tenantId - tenant id
+     * @param path - configuration file no more read by the tenant
+     */
+    private void removeFileReference(String tenantId, Path path) {
+        Set<String> ids = tenantsByFile.get(path);
+        if (ids != null) {
+            ids.remove(tenantId);
+        }
+    }
+
+    /**
+     * <p>Tenant state</p>
+     */
+    private static final class Tenant {
+
+        /**
+         * <p>Tenant configuration, kept for the tenant lifetime</p>
+         */
+        private final Config config;
+
+        /**
+         * <p>Change detector of the tenant file</p>
+         */
+        private final ConfigFileTracker tracker;
+
+        /**
+         * <p>Absolute tenant file path</p>
+         */
+        private final Path path;
+
+        /**
+         * @param config - tenant configuration
+         * @param tracker - change detector
+         * @param path - tenant file path
+         */
+        private Tenant(Config config, ConfigFileTracker tracker, Path path) {
+            this.config = config;
+            this.tracker = tracker;
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * TenantParameterReader.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.EJB;
+import javax.ejb.Lock;
+import javax.ejb.LockType;
+import javax.ejb.Singleton;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerService;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * <p>Container managed {@link TenantConfigRegistry}: a single EJB timer drives the batch reloads of every tenant configuration, instead of one
+ * {@link ParameterReader} timer per tenant.</p>
+ * <p>The polling interval is read from the <code>tenantReaderRefreshIntertime</code> key of the main configuration (default 5 seconds: a poll
+ * with no file events costs nothing). Lookups never wait on the container lock.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@Singleton(name = TenantParameterReader.TENANT_PARAMETER_READER_EJB_NAME)
+@Lock(LockType.READ)
+public class TenantParameterReader {
+
+    /**
+     * <p>TenantParameterReader EJB name</p>
+     */
+    public static final String TENANT_PARAMETER_READER_EJB_NAME = "TenantParameterReader";
+
+    /**
+     * <p>Default polling intertime</p>
+     */
+    private static final long DEFAULT_INTERTIME = TimeUnit.MILLISECONDS.convert(5, TimeUnit.SECONDS);
+
+    /**
+     * <p>Logger instance</p>
+     */
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * <p>TimerService instance, used to schedule the polling timer</p>
+     */
+    @Resource
+    private TimerService timerService;
+
+    /**
+     * <p>Main configuration, holding the polling intertime</p>
+     */
+    @EJB
+    private ParameterReader parameterReader;
+
+    /**
+     * <p>The tenants registry</p>
+     */
+    private TenantConfigRegistry registry;
+
+    /**
+     * <p>Current polling intertime</p>
+     */
+    private long lastIntertime = DEFAULT_INTERTIME;
+
+    /**
+     * <p>Creates the registry and the polling timer</p>
+     */
+    @PostConstruct
+    private void initialize() {
+        registry = new TenantConfigRegistry();
+        timerService.createTimer(new Date(), lastIntertime, "TenantParameterReader");
+    }
+
+    @PreDestroy
+    private void destroy() {
+        logger.info("destroying TenantParameterReader instance, releasing resources");
+        timerService.getTimers().forEach(Timer::cancel);
+        try {
+            registry.close();
+        } catch (IOException e) {
+            logger.error("Exception closing tenant registry", e);
+        }
+    }
+
+    /**
+     * <p>Registers a tenant and loads its configuration file.</p>
+     *
+     * @param tenantId - tenant id
+     * @param propertyFile - tenant configuration file
+     * @return the tenant configuration
+     */
+    public Config register(String tenantId, File propertyFile) {
+        return registry.register(tenantId, propertyFile);
+    }
+
+    /**
+     * <p>Removes a tenant.</p>
+     *
+     * @param tenantId - tenant id
+     */
+    public void unregister(String tenantId) {
+        registry.unregister(tenantId);
+    }
+
+    /**
+     * <p>Returns the configuration of a tenant.</p>
+     *
+     * @param tenantId - tenant id
+     * @return the tenant configuration, null if not registered
+     */
+    public Config getConfig(String tenantId) {
+        return registry.getConfig(tenantId);
+    }
+
+    /**
+     * <p>Timer callback: reloads the changed tenant configurations in one batch, then checks the polling intertime.</p>
+     */
+    @Timeout
+    public void poll() {
+        registry.setMappedLoader(parameterReader.get(ParameterReader.MAPPED_LOADER_PARAMETER, false));
+        registry.poll();
+        long intertime = parameterReader.get("tenantReaderRefreshIntertime", DEFAULT_INTERTIME);
+        if (intertime != lastIntertime) {
+            lastIntertime = intertime;
+            timerService.getTimers().forEach(Timer::cancel);
+            timerService.createTimer(new Date(), lastIntertime, "TenantParameterReader");
+            logger.trace("TenantParameterReader refresh intertime changed to [{}] ms", Long.valueOf(lastIntertime));
+        }
+    }
+}
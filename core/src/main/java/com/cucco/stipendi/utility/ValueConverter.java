@@ -0,0 +1,25 @@
+/*
+ * ValueConverter.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+/**
+ * <p>Converts a raw configuration value into a typed value. Implementations are registered into {@link ConverterRegistry} and must be thread
+ * safe and stateless.</p>
+ *
+ * @param <T> the converted value type
+ * @author giovanni -- Auriga S.p.A.
+ */
+public interface ValueConverter<T> {
+
+    /**
+     * <p>Converts the raw value.</p>
+     *
+     * @param value - raw value, never null
+     * @return the converted value, null if the value is not valid for the type
+     * @throws IllegalArgumentException if the value is not valid for the type, as {@link NumberFormatException} does
+     */
+    T convert(String value);
+}
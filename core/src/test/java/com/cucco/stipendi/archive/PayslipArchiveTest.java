@@ -0,0 +1,152 @@
+/*
+ * PayslipArchiveTest.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.archive;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.cucco.stipendi.utility.Config;
+
+/**
+ * <p>Crash recovery: the tail of an interrupted write is discarded from the active segment only.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class PayslipArchiveTest {
+
+    /**
+     * <p>Start of a block header cut by a crash</p>
+     */
+    private static final byte[] TORN_BLOCK = { 0x50, 0x53, 0x4c, 0x42, 0, 0, 1, 0, 9, 9 };
+
+    private File directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("payslip-archive").toFile();
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        File[] files = directory.listFiles();
+        for (File file : files != null ? files : new File[0]) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(directory.toPath());
+    }
+
+    @Test
+    public void activeSegmentTailIsTruncated() throws IOException {
+        Config config = config(1L << 20);
+        try (PayslipArchive archive = new PayslipArchive(config)) {
+            for (int i = 0; i < 3; i++) {
+                archive.append("E" + i, "2026-10", payslip(i));
+            }
+            archive.flush();
+        }
+        File active = lastSegment();
+        long length = active.length();
+        append(active, TORN_BLOCK);
+        try (PayslipArchive archive = new PayslipArchive(config)) {
+            assertEquals(length, active.length());
+            for (int i = 0; i < 3; i++) {
+                assertArrayEquals(payslip(i), archive.get("E" + i, "2026-10"));
+            }
+            assertNull(archive.get("E3", "2026-10"));
+            archive.append("E3", "2026-10", payslip(3));
+            archive.flush();
+        }
+        try (PayslipArchive archive = new PayslipArchive(config)) {
+            assertArrayEquals(payslip(3), archive.get("E3", "2026-10"));
+        }
+    }
+
+    @Test
+    public void sealedSegmentIsNotTruncated() throws IOException {
+        // un blocco per segmento: ogni append chiude il segmento
+        Config config = config(1L);
+        try (PayslipArchive archive = new PayslipArchive(config)) {
+            for (int i = 0; i < 3; i++) {
+                archive.append("E" + i, "2026-10", payslip(i));
+            }
+        }
+        File sealed = segments()[0];
+        append(sealed, TORN_BLOCK);
+        long length = sealed.length();
+        Files.delete(ArchiveSegment.indexFile(sealed).toPath());
+        try (PayslipArchive archive = new PayslipArchive(config)) {
+            fail("Corrupted sealed segment opened: " + archive.getSegmentCount() + " segments");
+        } catch (IOException e) {
+            // atteso
+        }
+        assertEquals(length, sealed.length());
+    }
+
+    /**
+     * @param segmentSize - segment size
+     * @return the archive configuration
+     */
+    private Config config(long segmentSize) {
+        Properties properties = new Properties();
+        properties.setProperty("archivePath", directory.getPath());
+        properties.setProperty("archiveSegmentSize", Long.toString(segmentSize));
+        properties.setProperty("archiveBlockSize", "1");
+        properties.setProperty("archiveCompactionInterval", "0");
+        Config config = new Config();
+        config.setConf(properties);
+        return config;
+    }
+
+    /**
+     * @param employee - employee number
+     * @return the payslip content
+     */
+    private static byte[] payslip(int employee) {
+        return ("cedolino E" + employee + " ottobre 2026").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the segment data files, by sequence
+     */
+    private File[] segments() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".dat"));
+        Arrays.sort(files);
+        return files;
+    }
+
+    /**
+     * @return the last segment data file
+     */
+    private File lastSegment() {
+        File[] files = segments();
+        return files[files.length - 1];
+    }
+
+    /**
+     * @param file - a file
+     * @param bytes - bytes appended to the file
+     * @throws IOException if the file cannot be written
+     */
+    private static void append(File file, byte[] bytes) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * CsvExportSourceFactoryTest.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.export;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.cucco.stipendi.utility.Config;
+
+/**
+ * <p>Period files read by the export source factory.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class CsvExportSourceFactoryTest {
+
+    private File directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("export").toFile();
+    }
+
+    @After
+    public void deleteDirectory() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void recordsKeepTheFileOrder() throws IOException {
+        StringBuilder csv = new StringBuilder("ID;NAME;IBAN;GROSS\n");
+        for (int i = 0; i < 1000; i++) {
+            csv.append("E").append(i).append(";Name ").append(i).append(";IT00X").append(i).append(';').append(i).append(",50\n");
+        }
+        write("2026-09.csv", csv.toString());
+        try (ExportSource source = factory("employeeId:ID,name:NAME,iban:IBAN,gross:GROSS").open("2026-09")) {
+            assertEquals(1000, source.size());
+            ExportRecord record = new ExportRecord();
+            for (int i = 0; i < 1000; i++) {
+                assertTrue(source.next(record));
+                assertEquals("E" + i, record.getEmployeeId());
+                assertEquals("Name " + i, record.getName());
+                assertEquals("IT00X" + i, record.getIban());
+                assertEquals(i * 100L + 50L, record.getGross());
+                // senza aliquote configurate il netto coincide con il lordo
+                assertEquals(record.getGross(), record.getNet());
+            }
+            assertFalse(source.next(record));
+        }
+    }
+
+    @Test
+    public void missingPeriodHasNoSource() throws IOException {
+        assertNull(factory("employeeId:ID,name:NAME,iban:IBAN,gross:GROSS").open("2026-09"));
+        assertNull(new CsvExportSourceFactory(new Config()).open("2026-09"));
+    }
+
+    @Test
+    public void unmappedColumnFails() throws IOException {
+        write("2026-09.csv", "ID;NAME;GROSS\nE1;Name;10\n");
+        try {
+            factory("employeeId:ID,name:NAME,gross:GROSS").open("2026-09");
+            fail("Missing iban column accepted");
+        } catch (IOException e) {
+            // atteso
+        }
+    }
+
+    /**
+     * @param columns - column mapping
+     * @return a factory on the test directory, parsing small batches in parallel
+     */
+    private CsvExportSourceFactory factory(String columns) {
+        Properties properties = new Properties();
+        properties.setProperty(CsvExportSourceFactory.DIRECTORY.getName(), directory.getPath());
+        properties.setProperty("import.payroll.columns", columns);
+        properties.setProperty("import.payroll.chunkSize", "1024");
+        properties.setProperty("import.payroll.batchSize", "7");
+        properties.setProperty("import.payroll.parallelism", "4");
+        Config config = new Config();
+        config.setConf(properties);
+        return new CsvExportSourceFactory(config);
+    }
+
+    /**
+     * @param name - file name
+     * @param content - file content
+     * @throws IOException on writing errors
+     */
+    private void write(String name, String content) throws IOException {
+        Files.write(new File(directory, name).toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
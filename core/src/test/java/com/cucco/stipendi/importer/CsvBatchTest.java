@@ -0,0 +1,109 @@
+/*
+ * CsvBatchTest.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.importer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * <p>Number parsing straight from the mapped bytes.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class CsvBatchTest {
+
+    @Test
+    public void getLong() {
+        assertEquals(42L, batch(" 42 ").getLong(0, 0, -1L));
+        assertEquals(-42L, batch("-42").getLong(0, 0, -1L));
+        assertEquals(42L, batch("+42").getLong(0, 0, -1L));
+        assertEquals(Long.MAX_VALUE, batch("9223372036854775807").getLong(0, 0, -1L));
+        assertEquals(Long.MIN_VALUE, batch("-9223372036854775808").getLong(0, 0, -1L));
+        assertEquals(-1L, batch("  ").getLong(0, 0, -1L));
+        assertEquals(-1L, batch("1").getLong(0, 1, -1L));
+    }
+
+    @Test
+    public void getLongRejectsNonNumbers() {
+        assertNotANumber("9223372036854775808", false);
+        assertNotANumber("-9223372036854775809", false);
+        assertNotANumber("-", false);
+        assertNotANumber("12a", false);
+        assertNotANumber("1.5", false);
+    }
+
+    @Test
+    public void getInt() {
+        assertEquals(Integer.MAX_VALUE, batch("2147483647").getInt(0, 0, -1));
+        try {
+            batch("2147483648").getInt(0, 0, -1);
+            fail("int overflow accepted");
+        } catch (NumberFormatException e) {
+            // atteso
+        }
+    }
+
+    @Test
+    public void getCents() {
+        assertEquals(1250L, batch("12,5").getCents(0, 0, -1L));
+        assertEquals(1250L, batch("12.50").getCents(0, 0, -1L));
+        assertEquals(1200L, batch("12").getCents(0, 0, -1L));
+        assertEquals(1200L, batch("12.").getCents(0, 0, -1L));
+        assertEquals(50L, batch(",5").getCents(0, 0, -1L));
+        assertEquals(-50L, batch("-0,5").getCents(0, 0, -1L));
+        assertEquals(-1L, batch("").getCents(0, 0, -1L));
+    }
+
+    @Test
+    public void getCentsRoundsHalfUp() {
+        assertEquals(101L, batch("1,005").getCents(0, 0, -1L));
+        assertEquals(100L, batch("1,0049").getCents(0, 0, -1L));
+        assertEquals(-101L, batch("-1,005").getCents(0, 0, -1L));
+        assertEquals(100L, batch("0,995").getCents(0, 0, -1L));
+    }
+
+    @Test
+    public void getCentsRejectsNonAmounts() {
+        assertNotANumber("1.2.3", true);
+        assertNotANumber("1 000", true);
+        assertNotANumber("+", true);
+        assertNotANumber("\u20ac10", true);
+        assertNotANumber("92233720368547758", true);
+    }
+
+    /**
+     * @param text - field text
+     * @param cents - true to parse as amount, false as long
+     */
+    private static void assertNotANumber(String text, boolean cents) {
+        CsvBatch batch = batch(text);
+        try {
+            long value = cents ? batch.getCents(0, 0, 0L) : batch.getLong(0, 0, 0L);
+            fail("[" + text + "] parsed as " + value);
+        } catch (NumberFormatException e) {
+            // atteso
+        }
+    }
+
+    /**
+     * @param field - the only field of the only record
+     * @return the batch
+     */
+    private static CsvBatch batch(String field) {
+        byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+        CsvBatch batch = new CsvBatch(ByteBuffer.wrap(bytes), 0L, StandardCharsets.UTF_8, (byte) '"', Collections.<String, Integer> emptyMap(), 1);
+        batch.beginRecord(0);
+        batch.addField(0, bytes.length, false);
+        batch.endRecord(true);
+        return batch;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * DecisionTableTest.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.cucco.stipendi.money.Money;
+import com.cucco.stipendi.money.Rate;
+import com.cucco.stipendi.utility.Config;
+
+/**
+ * <p>Decision table compilation and contract rules evaluation.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class DecisionTableTest {
+
+    private static final String[] INPUTS = { "level", "months" };
+
+    private static final boolean[] NUMERIC = { false, true };
+
+    private static final String[] OUTPUTS = { "amount" };
+
+    @Test
+    public void firstMatchingRuleWins() {
+        DecisionTable table = DecisionTable.parse("level:(List)Q|1|*,months:(List)..24|..24|24..,amount:(List)0|5|25.82", INPUTS, NUMERIC,
+                OUTPUTS);
+        assertEquals(3, table.getRuleCount());
+        assertEquals(0, table.match(table.code(0, "Q"), table.code(1, 12L)));
+        assertEquals(1, table.match(table.code(0, "1"), table.code(1, 23L)));
+        assertEquals(2, table.match(table.code(0, "Q"), table.code(1, 24L)));
+        assertEquals(DecisionTable.NO_RULE, table.match(table.code(0, "2"), table.code(1, 0L)));
+        assertEquals("25.82", table.getString(2, 0));
+    }
+
+    @Test
+    public void singleValuesOfNumericInputsAreRanges() {
+        DecisionTable table = DecisionTable.parse("level:(List)*|*,months:(List)12|*,amount:(List)1|2", INPUTS, NUMERIC, OUTPUTS);
+        assertEquals(0, table.match(table.code(0, "Q"), table.code(1, 12L)));
+        assertEquals(1, table.match(table.code(0, "Q"), table.code(1, 13L)));
+    }
+
+    @Test
+    public void cellsAreValidatedWhileCompiling() {
+        assertNotATable("level:(List)1..3,months:(List)*,amount:(List)1");
+        assertNotATable("level:(List)Q,months:(List)abc,amount:(List)1");
+        assertNotATable("level:(List)Q,months:(List)12..x,amount:(List)1");
+        assertNotATable("level:(List)Q,months:(List)24..12,amount:(List)1");
+        assertNotATable("level:(List)Q|1,months:(List)*,amount:(List)1|2");
+        assertNotATable("level:(List)Q,amount:(List)1");
+    }
+
+    @Test
+    public void numericInputsRejectText() {
+        DecisionTable table = DecisionTable.parse("level:(List)Q,months:(List)..24,amount:(List)1", INPUTS, NUMERIC, OUTPUTS);
+        try {
+            table.code(1, "12");
+            fail("Text accepted by a numeric input");
+        } catch (IllegalArgumentException e) {
+            // atteso
+        }
+    }
+
+    @Test
+    public void contractRulesCompileOncePerVersion() {
+        Config config = config("ccnl.test.seniority", "level:(List)Q|*,months:(List)36..|36..,amount:(List)25.82|20.66",
+                "ccnl.test.overtime", "dayType:(List)HOLIDAY|*,night:(List)*|true,multiplier:(List)1.50|1.15");
+        ContractRules rules = ContractRules.of("test");
+        assertSame(rules, ContractRules.of("test"));
+        assertEquals(Money.parse("25.82"), rules.seniorityAmount(config, "Q", 40L));
+        assertEquals(Money.parse("20.66"), rules.seniorityAmount(config, "2", 36L));
+        assertEquals(Money.ZERO, rules.seniorityAmount(config, "2", 35L));
+        assertEquals(Rate.parse("1.50"), rules.overtimeMultiplier(config, "HOLIDAY", false));
+        assertEquals(Rate.parse("1.15"), rules.overtimeMultiplier(config, "WEEKDAY", true));
+        assertEquals(Rate.ONE, rules.overtimeMultiplier(config, "WEEKDAY", false));
+        assertEquals(Rate.ZERO, rules.allowanceRate(config, "NIGHT", "Q"));
+        // la tabella compilata alla prima valutazione resta in cache nella versione corrente
+        DecisionTable compiled = config.getCompiled("ccnl.seniority", "ccnl.test.seniority", (value, type) -> null);
+        assertEquals(2, compiled.getRuleCount());
+        assertSame(compiled, config.getCompiled("ccnl.seniority", "ccnl.test.seniority", (value, type) -> null));
+    }
+
+    @Test
+    public void invalidContractTablesMatchNothing() {
+        Config config = config("ccnl.broken.overtime", "dayType:(List)HOLIDAY,night:(List)0..1,multiplier:(List)2");
+        assertEquals(Rate.ONE, ContractRules.of("broken").overtimeMultiplier(config, "HOLIDAY", true));
+    }
+
+    /**
+     * @param value - raw table with the seniority columns
+     */
+    private static void assertNotATable(String value) {
+        try {
+            DecisionTable.parse(value, INPUTS, NUMERIC, OUTPUTS);
+            fail("Not a valid table: " + value);
+        } catch (IllegalArgumentException e) {
+            // atteso
+        }
+    }
+
+    /**
+     * @param keysAndValues - alternating keys and values
+     * @return the configuration
+     */
+    private static Config config(String... keysAndValues) {
+        Properties properties = new Properties();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            properties.setProperty(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        Config config = new Config();
+        config.setConf(properties);
+        return config;
+    }
+}
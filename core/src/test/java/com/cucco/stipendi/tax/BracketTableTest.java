@@ -0,0 +1,83 @@
+/*
+ * BracketTableTest.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.tax;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.RoundingMode;
+
+import org.junit.Test;
+
+import com.cucco.stipendi.money.Money;
+
+/**
+ * <p>Bracket lookup and progressive tax at and around the thresholds.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class BracketTableTest {
+
+    private final BracketTable irpef = BracketTable.parse("28000:35%, 0:23%, 50000:43%");
+
+    @Test
+    public void indexOfAtThresholds() {
+        assertEquals(-1, irpef.indexOf(-1L));
+        assertEquals(0, irpef.indexOf(0L));
+        assertEquals(0, irpef.indexOf(2799999L));
+        assertEquals(1, irpef.indexOf(2800000L));
+        assertEquals(1, irpef.indexOf(4999999L));
+        assertEquals(2, irpef.indexOf(5000000L));
+        assertEquals(2, irpef.indexOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void progressiveAtThresholds() {
+        assertEquals(0L, irpef.progressive(0L, RoundingMode.HALF_UP));
+        assertEquals(644000L, irpef.progressive(2800000L, RoundingMode.HALF_UP));
+        assertEquals(644000L + 35L, irpef.progressive(2800100L, RoundingMode.HALF_UP));
+        assertEquals(644000L + 770000L, irpef.progressive(5000000L, RoundingMode.HALF_UP));
+        assertEquals(644000L + 770000L + 43L, irpef.progressive(5000100L, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    public void progressiveRoundsOnceToTheCent() {
+        // 1 centesimo al 23% = 0,23 centesimi
+        assertEquals(0L, irpef.progressive(1L, RoundingMode.HALF_UP));
+        assertEquals(1L, irpef.progressive(1L, RoundingMode.UP));
+        // 3 centesimi al 23% = 0,69 centesimi
+        assertEquals(1L, irpef.progressive(3L, RoundingMode.HALF_UP));
+        assertEquals(Money.ofCents(644000L), irpef.progressive(Money.ofUnits(28000L)));
+    }
+
+    @Test
+    public void belowFirstThresholdIsOutOfTheTable() {
+        BracketTable surcharge = BracketTable.parse("10000:0.8%");
+        assertEquals(-1, surcharge.indexOf(999999L));
+        assertEquals(0L, surcharge.rateMicros(999999L));
+        assertEquals(0L, surcharge.flat(999999L, RoundingMode.HALF_UP));
+        assertEquals(0L, surcharge.progressive(999999L, RoundingMode.HALF_UP));
+        assertEquals(8000L, surcharge.rateMicros(1000000L));
+        assertEquals(8000L, surcharge.flat(1000000L, RoundingMode.HALF_UP));
+        assertEquals(0L, surcharge.progressive(1000000L, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    public void emptyTable() {
+        assertEquals(0, BracketTable.EMPTY.size());
+        assertEquals(-1, BracketTable.EMPTY.indexOf(0L));
+        assertEquals(0L, BracketTable.EMPTY.progressive(1000000L, RoundingMode.HALF_UP));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void repeatedThresholdIsRejected() {
+        BracketTable.parse("0:23%,0:35%");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformedPairIsRejected() {
+        BracketTable.parse("0:23%,28000");
+    }
+}
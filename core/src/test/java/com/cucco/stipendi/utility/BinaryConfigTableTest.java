@@ -0,0 +1,129 @@
+/*
+ * BinaryConfigTableTest.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Properties;
+
+import org.junit.Test;
+
+/**
+ * <p>Precompiled snapshots: same values and typed reads as the text file they come from, stale or corrupted files rejected.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class BinaryConfigTableTest {
+
+    /**
+     * <p>Digest of no real file</p>
+     */
+    private static final byte[] DIGEST = new byte[32];
+
+    @Test
+    public void typedReadsMatchTheTextGetters() throws IOException {
+        Properties properties = new Properties();
+        String[] values = { "42", " -7 ", "0x1f", "9223372036854775807", "3000000000", "2.5", "1e3", "true", "Vero", "off", "no", "forse", "",
+                "12,5", "testo" };
+        for (int i = 0; i < values.length; i++) {
+            properties.setProperty("key" + i, values[i]);
+        }
+        Config text = new Config();
+        text.setConf(properties);
+        Config binary = new Config();
+        binary.setSnapshot(ConfigSnapshot.of(table(properties)));
+        assertNotNull(binary.getSnapshot().getTable());
+        for (int i = 0; i <= values.length; i++) {
+            String key = "key" + i;
+            assertEquals(key, text.get(key, (String) null), binary.get(key, (String) null));
+            assertEquals(key, text.get(key, -1), binary.get(key, -1));
+            assertEquals(key, text.get(key, -1L), binary.get(key, -1L));
+            assertEquals(key, text.get(key, -1d), binary.get(key, -1d), 0d);
+            assertEquals(key, text.get(key, false), binary.get(key, false));
+            assertEquals(key, text.get(key, true), binary.get(key, true));
+        }
+    }
+
+    @Test
+    public void allEntriesAreRead() throws IOException {
+        Properties properties = new Properties();
+        for (int i = 0; i < 1000; i++) {
+            properties.setProperty("entry." + i, "valore \u00e8 " + i);
+        }
+        BinaryConfigTable table = table(properties);
+        assertEquals(1000, table.size());
+        HashMap<String, String> expected = new HashMap<String, String>();
+        for (String name : properties.stringPropertyNames()) {
+            expected.put(name, properties.getProperty(name));
+        }
+        assertEquals(expected, new HashMap<String, String>(table));
+        assertNull(table.get("entry.1000"));
+    }
+
+    @Test
+    public void templatesAreResolvedAndNotTyped() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("base", "10");
+        properties.setProperty("derived", "${base}");
+        ConfigSnapshot snapshot = ConfigSnapshot.of(table(properties));
+        Config config = new Config();
+        config.setSnapshot(snapshot);
+        assertEquals("10", snapshot.get("derived"));
+        assertEquals(10, config.get("derived", -1));
+    }
+
+    @Test
+    public void corruptedContentIsRejected() throws IOException {
+        ByteBuffer content = ConfigSnapshotCompiler.compile(ConfigTest.properties("key", "value"), DIGEST, StandardCharsets.UTF_8);
+        content.put(content.capacity() - 10, (byte) (content.get(content.capacity() - 10) ^ 1));
+        try {
+            BinaryConfigTable.open(content);
+            fail("Corrupted snapshot opened");
+        } catch (IOException e) {
+            // atteso
+        }
+    }
+
+    @Test
+    public void snapshotOfAnotherFileIsStale() throws IOException, NoSuchAlgorithmException {
+        File directory = Files.createTempDirectory("binary-config").toFile();
+        File source = new File(directory, "stipendi.properties");
+        File target = BinaryConfigTable.snapshotFileOf(source);
+        try {
+            Files.write(source.toPath(), "key=value\n".getBytes(StandardCharsets.ISO_8859_1));
+            assertEquals(1, ConfigSnapshotCompiler.compile(source, target));
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(source.toPath()));
+            assertNotNull(BinaryConfigTable.openIfCurrent(target, digest));
+            assertNull(BinaryConfigTable.openIfCurrent(target, DIGEST));
+            assertNull(BinaryConfigTable.openIfCurrent(new File(directory, "missing.snap"), digest));
+        } finally {
+            Files.deleteIfExists(target.toPath());
+            Files.delete(source.toPath());
+            Files.delete(directory.toPath());
+        }
+    }
+
+    /**
+     * @param properties - configuration values
+     * @return the compiled table
+     * @throws IOException never
+     */
+    private static BinaryConfigTable table(Properties properties) throws IOException {
+        return BinaryConfigTable.open(ConfigSnapshotCompiler.compile(properties, DIGEST, Charset.defaultCharset()));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * ConfigCollectionsTest.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Hashtable;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * <p>Collection getters: the same content as the legacy mutable getters, parsed once per snapshot and never modifiable.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class ConfigCollectionsTest {
+
+    private final Config config = config("list", " a, b ,c", "ints", "1, 2,3", "longs", "9223372036854775807,-1", "badInts", "1,due",
+            "map", "a:1, b:2, malformed", "units", "SECONDS, UNKNOWN,DAYS", "enumMap", "x:SECONDS,y:DAYS", "enumKeyMap", "SECONDS:s,DAYS:d");
+
+    @Test
+    public void listMatchesTheLegacyGetter() {
+        List<String> list = config.getList("list", null);
+        assertEquals(config.get("list", (LinkedList<String>) null), list);
+        assertSame(list, config.getList("list", null));
+        assertUnmodifiable(() -> list.add("d"));
+    }
+
+    @Test
+    public void arraysMatchTheLegacyGetter() {
+        assertArrayEquals(config.get("ints", (int[]) null), config.getIntArray("ints", null).toArray());
+        assertSame(config.getIntArray("ints", null), config.getIntArray("ints", null));
+        assertArrayEquals(new long[] { Long.MAX_VALUE, -1L }, config.getLongArray("longs", null).toArray());
+        assertSame(ImmutableIntArray.EMPTY, config.getIntArray("badInts", ImmutableIntArray.EMPTY));
+        assertSame(ImmutableIntArray.EMPTY, config.getIntArray("missing", ImmutableIntArray.EMPTY));
+    }
+
+    @Test
+    public void returnedArraysDoNotExposeTheCachedOne() {
+        int[] values = config.getIntArray("ints", null).toArray();
+        values[0] = 100;
+        assertEquals(1, config.getIntArray("ints", null).get(0));
+    }
+
+    @Test
+    public void mapMatchesTheLegacyGetter() {
+        Map<String, String> map = config.getMap("map", null);
+        assertEquals(config.get("map", (Hashtable<String, String>) null), map);
+        assertSame(map, config.getMap("map", null));
+        assertUnmodifiable(() -> map.put("c", "3"));
+    }
+
+    @Test
+    public void enumCollectionsSkipUnknownNames() {
+        List<TimeUnit> units = config.getEnumList("units", null, TimeUnit.class);
+        assertEquals(Arrays.asList(TimeUnit.SECONDS, TimeUnit.DAYS), units);
+        assertEquals(config.get("units", (List<TimeUnit>) null, TimeUnit.class), units);
+        assertUnmodifiable(() -> units.add(TimeUnit.HOURS));
+        assertEquals(TimeUnit.DAYS, config.getEnumMap("enumMap", null, TimeUnit.class).get("y"));
+        Map<TimeUnit, String> keyMap = config.getEnumKeyMap("enumKeyMap", null, TimeUnit.class);
+        assertEquals("s", keyMap.get(TimeUnit.SECONDS));
+        assertUnmodifiable(() -> keyMap.remove(TimeUnit.DAYS));
+    }
+
+    @Test
+    public void newSnapshotIsParsedAgain() {
+        List<String> list = config.getList("list", null);
+        config.setConf(ConfigTest.properties("list", "z"));
+        assertEquals(Arrays.asList("z"), config.getList("list", null));
+        assertEquals(Arrays.asList("a", "b", "c"), list);
+    }
+
+    /**
+     * @param modification - a modification of an immutable collection
+     */
+    private static void assertUnmodifiable(Runnable modification) {
+        try {
+            modification.run();
+            fail("Collection modified");
+        } catch (UnsupportedOperationException e) {
+            // atteso
+        }
+    }
+
+    /**
+     * @param keysAndValues - alternated keys and values
+     * @return the configuration
+     */
+    private static Config config(String... keysAndValues) {
+        Properties properties = new Properties();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            properties.setProperty(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        Config config = new Config();
+        config.setConf(properties);
+        return config;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * ConfigHistoryTest.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.time.LocalDate;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.cucco.stipendi.money.Rate;
+
+/**
+ * <p>Effective-dated lookup of the published configurations.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class ConfigHistoryTest {
+
+    private static final ConfigKey<Rate> INPS = ConfigKey.of("test.history.inps", Rate.ZERO);
+
+    private final Config config = new Config();
+
+    @Test(expected = IllegalStateException.class)
+    public void emptyHistoryFails() {
+        config.setConf(ConfigTest.properties("key", "value"));
+        config.asOf(LocalDate.of(2026, 1, 1));
+    }
+
+    @Test
+    public void versionInForceOnTheDate() {
+        ConfigSnapshot january = publish("2026-01-01", "9.19%");
+        ConfigSnapshot april = publish("01/04/2026", "9.49%");
+        ConfigSnapshot july = publish("2026-07-01", "9.19%");
+        assertEquals(3, config.getHistory().size());
+        assertSame(january, config.asOf(LocalDate.of(2026, 3, 31)));
+        assertSame(april, config.asOf(LocalDate.of(2026, 4, 1)));
+        assertSame(april, config.asOf(LocalDate.of(2026, 6, 30)));
+        assertSame(july, config.asOf(LocalDate.of(2027, 1, 1)));
+        assertEquals(Rate.ofMicros(94900L), config.asOf(LocalDate.of(2026, 5, 15)).get(INPS));
+        assertEquals(LocalDate.of(2026, 4, 1), config.getHistory().effectiveFrom(LocalDate.of(2026, 5, 15)));
+    }
+
+    @Test
+    public void recordedSnapshotsKeepTheirVersion() {
+        ConfigSnapshot january = publish("2026-01-01", "9.19%");
+        publish("2026-02-01", "9.49%");
+        assertEquals(january.getVersion(), config.asOf(LocalDate.of(2026, 1, 15)).getVersion());
+    }
+
+    @Test
+    public void datesBeforeTheFirstVersionGetTheFirst() {
+        ConfigSnapshot january = publish("2026-01-01", "9.19%");
+        assertSame(january, config.asOf(LocalDate.of(2025, 12, 31)));
+        assertNull(config.getHistory().effectiveFrom(LocalDate.of(2025, 12, 31)));
+    }
+
+    @Test
+    public void sameDateCorrectsTheLastVersion() {
+        publish("2026-01-01", "9.19%");
+        publish("2026-04-01", "9.49%");
+        ConfigSnapshot correction = publish("2026-04-01", "9.39%");
+        assertEquals(2, config.getHistory().size());
+        assertSame(correction, config.asOf(LocalDate.of(2026, 4, 1)));
+        assertEquals(Rate.ofMicros(93900L), config.asOf(LocalDate.of(2026, 12, 31)).get(INPS));
+    }
+
+    @Test
+    public void earlierDateIsNotRecorded() {
+        ConfigSnapshot april = publish("2026-04-01", "9.49%");
+        Properties properties = properties("2026-01-01", "9.19%");
+        assertFalse(config.getHistory().add(ConfigSnapshot.of(properties)));
+        assertEquals(1, config.getHistory().size());
+        assertSame(april, config.asOf(LocalDate.of(2026, 5, 1)));
+    }
+
+    @Test
+    public void publicationDateIsTheDefaultEffectiveDate() {
+        Properties properties = ConfigTest.properties(ConfigHistory.ENABLED.getName(), "true");
+        config.setConf(properties);
+        assertSame(config.getSnapshot(), config.asOf(LocalDate.now()));
+    }
+
+    /**
+     * @param effectiveFrom - effective date
+     * @param inps - contribution rate
+     * @return the published snapshot
+     */
+    private ConfigSnapshot publish(String effectiveFrom, String inps) {
+        config.setConf(properties(effectiveFrom, inps));
+        return config.getSnapshot();
+    }
+
+    /**
+     * @param effectiveFrom - effective date
+     * @param inps - contribution rate
+     * @return the version properties, with history enabled
+     */
+    private static Properties properties(String effectiveFrom, String inps) {
+        Properties properties = ConfigTest.properties(ConfigHistory.ENABLED.getName(), "true");
+        properties.setProperty(ConfigHistory.EFFECTIVE_FROM.getName(), effectiveFrom);
+        properties.setProperty(INPS.getName(), inps);
+        return properties;
+    }
+}
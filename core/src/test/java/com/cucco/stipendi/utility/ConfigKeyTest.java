@@ -0,0 +1,143 @@
+/*
+ * ConfigKeyTest.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.cucco.stipendi.money.Money;
+import com.cucco.stipendi.money.Rate;
+
+/**
+ * <p>Typed keys: conversion once per snapshot, fallback to the default value on missing or malformed values.</p>
+ * <p>Keys are never unregistered, so every test declares its own names.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class ConfigKeyTest {
+
+    private static final ConfigKey<Integer> INT = ConfigKey.of("test.key.int", 7);
+
+    private static final ConfigKey<Long> LONG = ConfigKey.of("test.key.long", 7L);
+
+    private static final ConfigKey<Boolean> BOOLEAN = ConfigKey.of("test.key.boolean", false);
+
+    private static final ConfigKey<Double> DOUBLE = ConfigKey.of("test.key.double", 0.5d);
+
+    private static final ConfigKey<String> STRING = ConfigKey.of("test.key.string", "default");
+
+    private static final ConfigKey<BigDecimal> DECIMAL = ConfigKey.of("test.key.decimal", BigDecimal.ONE);
+
+    private static final ConfigKey<Money> MONEY = ConfigKey.of("test.key.money", Money.ZERO);
+
+    private static final ConfigKey<Rate> RATE = ConfigKey.of("test.key.rate", Rate.ZERO);
+
+    @Test
+    public void slotsAreUnique() {
+        assertTrue(INT.getSlot() != LONG.getSlot());
+        assertSame(INT, ConfigKey.getRegisteredKeys().get(INT.getSlot()));
+        assertSame(RATE, ConfigKey.getRegisteredKeys().get(RATE.getSlot()));
+    }
+
+    @Test
+    public void missingKeysReturnTheDefault() {
+        Config config = config(new Properties());
+        assertEquals(Integer.valueOf(7), config.get(INT));
+        assertEquals(Long.valueOf(7L), config.get(LONG));
+        assertEquals(Boolean.FALSE, config.get(BOOLEAN));
+        assertEquals("default", config.get(STRING));
+        assertSame(Money.ZERO, config.get(MONEY));
+    }
+
+    @Test
+    public void valuesAreConvertedLikeTheStringGetters() {
+        Properties properties = new Properties();
+        properties.setProperty(INT.getName(), " 0x1f ");
+        properties.setProperty(LONG.getName(), "-42");
+        properties.setProperty(BOOLEAN.getName(), "Vero");
+        properties.setProperty(DOUBLE.getName(), "2.25");
+        properties.setProperty(STRING.getName(), " spaced ");
+        properties.setProperty(DECIMAL.getName(), "12.345");
+        properties.setProperty(MONEY.getName(), "12,345");
+        properties.setProperty(RATE.getName(), "9.19%");
+        Config config = config(properties);
+        assertEquals(Integer.valueOf(31), config.get(INT));
+        assertEquals(config.get(INT.getName(), 0), config.get(INT).intValue());
+        assertEquals(Long.valueOf(-42L), config.get(LONG));
+        assertEquals(Boolean.TRUE, config.get(BOOLEAN));
+        assertEquals(2.25d, config.get(DOUBLE).doubleValue(), 0d);
+        assertEquals(" spaced ", config.get(STRING));
+        assertEquals(new BigDecimal("12.345"), config.get(DECIMAL));
+        assertEquals(Money.ofCents(1235L), config.get(MONEY));
+        assertEquals(Rate.ofMicros(91900L), config.get(RATE));
+    }
+
+    @Test
+    public void malformedValuesReturnTheDefault() {
+        Properties properties = new Properties();
+        properties.setProperty(INT.getName(), "sette");
+        properties.setProperty(LONG.getName(), "99999999999999999999");
+        properties.setProperty(BOOLEAN.getName(), "forse");
+        properties.setProperty(MONEY.getName(), "1.2.3");
+        Config config = config(properties);
+        assertEquals(Integer.valueOf(7), config.get(INT));
+        assertEquals(Long.valueOf(7L), config.get(LONG));
+        assertEquals(Boolean.FALSE, config.get(BOOLEAN));
+        assertSame(Money.ZERO, config.get(MONEY));
+    }
+
+    @Test
+    public void valuesAreConvertedOncePerSnapshot() {
+        Config config = config(ConfigTest.properties(DECIMAL.getName(), "1.5"));
+        BigDecimal value = config.get(DECIMAL);
+        assertSame(value, config.get(DECIMAL));
+        config.setConf(ConfigTest.properties(DECIMAL.getName(), "2.5"));
+        assertEquals(new BigDecimal("2.5"), config.get(DECIMAL));
+    }
+
+    @Test
+    public void keysRegisteredAfterTheSnapshotAreConvertedOnFirstAccess() {
+        Config config = config(ConfigTest.properties("test.key.late", "12"));
+        ConfigKey<Integer> late = ConfigKey.of("test.key.late", 0);
+        assertEquals(Integer.valueOf(12), config.get(late));
+        assertEquals(Integer.valueOf(12), config.get(late));
+    }
+
+    @Test
+    public void nullDefaultIsReturned() {
+        ConfigKey<Integer> key = ConfigKey.of("test.key.nullDefault", Integer.class, (Integer) null);
+        assertNull(config(new Properties()).get(key));
+    }
+
+    @Test
+    public void failingConverterDoesNotAbortThePublication() {
+        ConfigKey<Long> failing = ConfigKey.of("test.key.failing", Long.valueOf(-1L), value -> {
+            throw new ArithmeticException("overflow");
+        });
+        Properties properties = ConfigTest.properties(failing.getName(), "1");
+        properties.setProperty(STRING.getName(), "published");
+        Config config = config(properties);
+        assertEquals(Long.valueOf(-1L), config.get(failing));
+        assertEquals("published", config.get(STRING));
+    }
+
+    /**
+     * @param properties - configuration values
+     * @return the configuration
+     */
+    private static Config config(Properties properties) {
+        Config config = new Config();
+        config.setConf(properties);
+        return config;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * ConfigTest.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * <p>Snapshot publication: readers see whole snapshots, never a configuration being replaced.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class ConfigTest {
+
+    @Test
+    public void emptyBeforeFirstPublication() {
+        Config config = new Config();
+        assertSame(ConfigSnapshot.EMPTY, config.getSnapshot());
+        assertEquals(0L, config.getVersion());
+        assertEquals("default", config.get("key", "default"));
+    }
+
+    @Test
+    public void publishedPropertiesAreCopied() {
+        Properties properties = properties("key", "one");
+        Config config = new Config();
+        config.setConf(properties);
+        properties.setProperty("key", "two");
+        properties.setProperty("other", "three");
+        assertEquals("one", config.get("key", (String) null));
+        assertNull(config.get("other", (String) null));
+    }
+
+    @Test
+    public void chainedDefaultsArePublished() {
+        Properties properties = new Properties(properties("key", "default"));
+        Config config = new Config();
+        config.setConf(properties);
+        assertEquals("default", config.get("key", (String) null));
+    }
+
+    @Test
+    public void snapshotsAreImmutable() {
+        Config config = new Config();
+        config.setConf(properties("key", "one"));
+        try {
+            config.getSnapshot().asMap().put("key", "two");
+            fail("Snapshot modified");
+        } catch (UnsupportedOperationException e) {
+            // atteso
+        }
+        assertEquals("one", config.get("key", (String) null));
+    }
+
+    @Test
+    public void everyPublicationIsANewVersion() {
+        Config config = new Config();
+        config.setConf(properties("key", "one"));
+        ConfigSnapshot first = config.getSnapshot();
+        config.setConf(properties("key", "two"));
+        ConfigSnapshot second = config.getSnapshot();
+        assertNotSame(first, second);
+        assertTrue(second.getVersion() > first.getVersion());
+        assertEquals(second.getVersion(), config.getVersion());
+        // chi tiene il vecchio snapshot continua a leggere i vecchi valori
+        assertEquals("one", first.get("key"));
+        assertEquals("two", config.get("key", (String) null));
+    }
+
+    @Test
+    public void nullSnapshotIsEmptyConfiguration() {
+        Config config = new Config();
+        config.setConf(properties("key", "one"));
+        config.setSnapshot(null);
+        assertSame(ConfigSnapshot.EMPTY, config.getSnapshot());
+        assertNull(config.get("key", (String) null));
+    }
+
+    @Test
+    public void readersNeverSeeAHalfPublishedConfiguration() throws InterruptedException {
+        Config config = new Config();
+        config.setConf(pair(0));
+        AtomicReference<String> torn = new AtomicReference<String>();
+        Thread reader = new Thread(() -> {
+            for (int i = 0; i < 200000 && torn.get() == null; i++) {
+                ConfigSnapshot snapshot = config.getSnapshot();
+                if (!snapshot.get("first").equals(snapshot.get("second"))) {
+                    torn.set(snapshot.get("first") + " / " + snapshot.get("second"));
+                }
+            }
+        });
+        reader.start();
+        for (int i = 1; i < 2000; i++) {
+            config.setConf(pair(i));
+        }
+        reader.join();
+        assertNull(torn.get());
+    }
+
+    /**
+     * @param value - value of both keys
+     * @return two keys always published together with the same value
+     */
+    private static Properties pair(int value) {
+        Properties properties = properties("first", Integer.toString(value));
+        properties.setProperty("second", Integer.toString(value));
+        return properties;
+    }
+
+    /**
+     * @param key - key
+     * @param value - value
+     * @return properties holding the only key
+     */
+    static Properties properties(String key, String value) {
+        Properties properties = new Properties();
+        properties.setProperty(key, value);
+        return properties;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * ConverterRegistryTest.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * <p>Converter resolution: built-in types, static factories, enums and fixed point amounts.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class ConverterRegistryTest {
+
+    @Test
+    public void builtInTypes() {
+        assertEquals(Duration.ofMillis(1500L), ConverterRegistry.convert(Duration.class, "1500", null));
+        assertEquals(LocalDate.of(2026, 10, 17), ConverterRegistry.convert(LocalDate.class, "17/10/2026", null));
+        assertEquals(LocalDate.of(2026, 10, 17), ConverterRegistry.convert(LocalDate.class, "2026-10-17", null));
+        assertEquals(Character.valueOf('x'), ConverterRegistry.convert(Character.class, "x", null));
+        assertEquals(Integer.valueOf(255), ConverterRegistry.convert(int.class, "0xff", null));
+    }
+
+    @Test
+    public void staticFactoriesAreDiscovered() {
+        assertSame(TimeUnit.SECONDS, ConverterRegistry.convert(TimeUnit.class, "SECONDS", null));
+        assertEquals(YearMonth.of(2026, 10), ConverterRegistry.convert(YearMonth.class, "2026-10", null));
+        assertEquals(new File("conf"), ConverterRegistry.convert(File.class, "conf", null));
+    }
+
+    @Test
+    public void notConvertibleValuesReturnTheDefault() {
+        assertEquals(Integer.valueOf(-1), ConverterRegistry.convert(Integer.class, "uno", Integer.valueOf(-1)));
+        assertNull(ConverterRegistry.convert(Character.class, "xy", null));
+        assertNull(ConverterRegistry.converterFor(Object.class));
+    }
+
+    @Test
+    public void registeredConverterWins() {
+        ConverterRegistry.register(StringBuilder.class, value -> new StringBuilder("registered:").append(value));
+        assertEquals("registered:x", ConverterRegistry.convert(StringBuilder.class, "x", null).toString());
+    }
+
+    @Test
+    public void fixedPoint() {
+        ValueConverter<Long> cents = ConverterRegistry.fixedPoint(2);
+        assertEquals(Long.valueOf(1235L), cents.convert("12.345"));
+        assertEquals(Long.valueOf(1235L), cents.convert(" 12,345 "));
+        assertEquals(Long.valueOf(-1235L), cents.convert("-12,345"));
+        assertEquals(Long.valueOf(1200L), cents.convert("12"));
+    }
+
+    @Test
+    public void fixedPointOutOfRangeIsNotANumber() {
+        ValueConverter<Long> cents = ConverterRegistry.fixedPoint(2);
+        for (String value : new String[] { "92233720368547758.08", "1e30", "dodici" }) {
+            try {
+                fail("[" + value + "] converted to " + cents.convert(value));
+            } catch (NumberFormatException e) {
+                // atteso
+            }
+        }
+    }
+
+    @Test
+    public void fixedPointOutOfRangeKeepsTheDefault() {
+        ConfigKey<Long> key = ConfigKey.of("test.converter.fixedPoint", Long.valueOf(0L), ConverterRegistry.fixedPoint(2));
+        Properties properties = ConfigTest.properties(key.getName(), "1e30");
+        Config config = new Config();
+        config.setConf(properties);
+        assertEquals(Long.valueOf(0L), config.get(key));
+    }
+}
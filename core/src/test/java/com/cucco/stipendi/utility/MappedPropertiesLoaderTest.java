@@ -0,0 +1,94 @@
+/*
+ * MappedPropertiesLoaderTest.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+/**
+ * <p>The mapped loader must read every file exactly as {@link Properties#load(java.io.Reader)} does.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class MappedPropertiesLoaderTest {
+
+    /**
+     * <p>The corner cases of the properties grammar</p>
+     */
+    private static final String CONTENT = "# comment\n"
+            + "! comment too\n"
+            + "plain=value\n"
+            + "  indented : colon separated  \n"
+            + "spaced value with spaces\n"
+            + "empty=\n"
+            + "onlykey\n"
+            + "escaped\\ key\\=x = a\\tb\\nc\n"
+            + "unicode=caf\\u00e8\n"
+            + "continued = first, \\\n"
+            + "            second, \\\n"
+            + "  third\n"
+            + "windows=line\r\n"
+            + "mac=line\r"
+            + "duplicate=first\n"
+            + "duplicate=second\n"
+            + "backslash=c:\\\\stipendi\\\\conf\n"
+            + "accented=perch\u00e9 \u20ac\n"
+            + "   \n"
+            + "last=no newline";
+
+    @Test
+    public void sameAsPropertiesWithUtf8() throws IOException {
+        assertSameAsProperties(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void sameAsPropertiesWithWindows1252() throws IOException {
+        assertSameAsProperties(Charset.forName("windows-1252"));
+    }
+
+    @Test
+    public void sameAsPropertiesWithUtf16() throws IOException {
+        assertSameAsProperties(StandardCharsets.UTF_16);
+    }
+
+    @Test
+    public void positionIsNotChanged() {
+        ByteBuffer content = ByteBuffer.wrap("a=1\n".getBytes(StandardCharsets.UTF_8));
+        new MappedPropertiesLoader(StandardCharsets.UTF_8).load(content);
+        assertEquals(0, content.position());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformedUnicodeEscapeIsRejected() {
+        new MappedPropertiesLoader(StandardCharsets.UTF_8).load(ByteBuffer.wrap("a=\\uZZZZ\n".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @param charset - content charset
+     * @throws IOException never
+     */
+    private static void assertSameAsProperties(Charset charset) throws IOException {
+        Properties expected = new Properties();
+        expected.load(new StringReader(CONTENT));
+        Map<String, String> expectedMap = new HashMap<String, String>();
+        for (String name : expected.stringPropertyNames()) {
+            expectedMap.put(name, expected.getProperty(name));
+        }
+        CompactProperties loaded = new MappedPropertiesLoader(charset).load(ByteBuffer.wrap(CONTENT.getBytes(charset)));
+        assertEquals(expectedMap, new HashMap<String, String>(loaded));
+        assertEquals(expectedMap.size(), loaded.size());
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * ReloadableConfigTest.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>Reloads: unchanged files are not published again, changes reach only the interested listeners.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class ReloadableConfigTest {
+
+    private File directory;
+
+    private File file;
+
+    private ReloadableConfig config;
+
+    private final List<ConfigChange> changes = new ArrayList<ConfigChange>();
+
+    @Before
+    public void createFile() throws IOException {
+        directory = Files.createTempDirectory("reloadable-config").toFile();
+        file = new File(directory, "stipendi.properties");
+        write("a=1\nb=2\n");
+        config = new ReloadableConfig();
+        config.setPropertyFile(file);
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        File[] files = directory.listFiles();
+        for (File each : files != null ? files : new File[0]) {
+            Files.delete(each.toPath());
+        }
+        Files.delete(directory.toPath());
+    }
+
+    @Test
+    public void firstReadingPublishesTheFile() {
+        assertTrue(config.getVersion() > 0L);
+        assertEquals(1, config.get("a", 0));
+        assertEquals(2, config.get("b", 0));
+    }
+
+    @Test
+    public void unchangedFileIsNotPublishedAgain() throws IOException {
+        long version = config.getVersion();
+        config.readConf();
+        assertEquals(version, config.getVersion());
+        // stesso contenuto, data di modifica diversa
+        write("a=1\nb=2\n");
+        config.readConf();
+        assertEquals(version, config.getVersion());
+    }
+
+    @Test
+    public void changedFileIsPublished() throws IOException {
+        long version = config.getVersion();
+        write("a=3\nb=2\n");
+        config.readConf();
+        assertTrue(config.getVersion() > version);
+        assertEquals(3, config.get("a", 0));
+    }
+
+    @Test
+    public void listenersReceiveOnlyTheirKeys() throws IOException {
+        config.addChangeListener("a", changes::add);
+        write("a=3\nb=4\nc=5\n");
+        config.readConf();
+        assertEquals(1, changes.size());
+        assertEquals(Collections.singleton("a"), changes.get(0).getModifiedKeys());
+        assertTrue(changes.get(0).getAddedKeys().isEmpty());
+        assertEquals("3", changes.get(0).getCurrent().get("a"));
+        assertEquals("1", changes.get(0).getPrevious().get("a"));
+        // b e c cambiano, a no
+        write("a=3\nb=6\n");
+        config.readConf();
+        assertEquals(1, changes.size());
+    }
+
+    @Test
+    public void prefixListenersReceiveAddedAndRemovedKeys() throws IOException {
+        write("a=1\nb=2\ntax.irpef=23%\n");
+        config.readConf();
+        config.addPrefixChangeListener("tax.", changes::add);
+        write("a=1\nb=2\ntax.inps=9.19%\n");
+        config.readConf();
+        assertEquals(1, changes.size());
+        assertEquals(Collections.singleton("tax.inps"), changes.get(0).getAddedKeys());
+        assertEquals(Collections.singleton("tax.irpef"), changes.get(0).getRemovedKeys());
+        assertEquals(new HashSet<String>(Arrays.asList("tax.inps", "tax.irpef")), changes.get(0).getChangedKeys());
+    }
+
+    @Test
+    public void removedListenersAreNotNotified() throws IOException {
+        ConfigChangeListener listener = changes::add;
+        config.addChangeListener("a", listener);
+        config.addPrefixChangeListener("", listener);
+        config.removeChangeListener(listener);
+        write("a=3\n");
+        config.readConf();
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    public void failingListenerDoesNotStopTheOthers() throws IOException {
+        config.addChangeListener("a", change -> {
+            throw new IllegalStateException("listener failure");
+        });
+        config.addChangeListener("a", changes::add);
+        write("a=3\n");
+        config.readConf();
+        assertEquals(3, config.get("a", 0));
+        assertEquals(1, changes.size());
+    }
+
+    @Test
+    public void malformedFileKeepsThePreviousSnapshot() throws IOException {
+        long version = config.getVersion();
+        write("a=\\uZZZZ\n");
+        config.readConf();
+        assertEquals(version, config.getVersion());
+        assertEquals(1, config.get("a", 0));
+    }
+
+    @Test
+    public void mappedLoaderIsChosenByTheFileItself() throws IOException {
+        write("readerMappedLoader=on\na=7\n");
+        ReloadableConfig mapped = new ReloadableConfig();
+        mapped.setPropertyFile(file);
+        assertTrue(mapped.getSnapshot().asMap() instanceof CompactProperties);
+        assertEquals(7, mapped.get("a", 0));
+    }
+
+    @Test
+    public void lastReadedPropertiesAreACopy() {
+        config.getLastReadedProperties().setProperty("a", "9");
+        assertEquals(1, config.get("a", 0));
+        assertEquals("1", config.getLastReadedProperties().getProperty("a"));
+    }
+
+    @Test
+    public void precompiledSnapshotIsReadWhenItChanges() throws IOException {
+        long version = config.getVersion();
+        assertNull(config.getSnapshot().getTable());
+        File snapshotFile = BinaryConfigTable.snapshotFileOf(file);
+        ConfigSnapshotCompiler.compile(file, snapshotFile);
+        // il file di testo non cambia
+        config.readConf();
+        assertNotNull(config.getSnapshot().getTable());
+        assertTrue(config.getVersion() > version);
+        assertEquals(1, config.get("a", 0));
+        Files.delete(snapshotFile.toPath());
+        config.readConf();
+        assertNull(config.getSnapshot().getTable());
+        assertEquals(2, config.get("b", 0));
+    }
+
+    /**
+     * <p>Writes the configuration file, moving its modification time forward so that the change is visible whatever the file system time
+     * resolution.</p>
+     *
+     * @param content - the file content
+     * @throws IOException on writing errors
+     */
+    private void write(String content) throws IOException {
+        long lastModified = file.lastModified();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.ISO_8859_1));
+        if (lastModified > 0L) {
+            file.setLastModified(lastModified + 2000L);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * TemplateTest.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+/**
+ * <p>Reference resolution in strings and in configuration values.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class TemplateTest {
+
+    /**
+     * <p>System property set by the tests</p>
+     */
+    private static final String PROPERTY = "stipendi.test.template";
+
+    @Test
+    public void compiledTemplatesAreCached() {
+        Template template = Template.compile("${a}/${b}.txt");
+        assertSame(template, Template.compile("${a}/${b}.txt"));
+        assertEquals(Arrays.asList("a", "b"), template.getVariables());
+        assertFalse(template.isConstant());
+        assertTrue(Template.compile("plain").isConstant());
+    }
+
+    @Test
+    public void referencesAreResolved() {
+        Map<String, String> values = new HashMap<String, String>();
+        values.put("a", "home");
+        values.put("b", "${a}/conf");
+        Template template = Template.compile("${b}/${c}.properties");
+        assertEquals("home/conf/${c}.properties", template.resolve(values::get, null));
+        assertEquals("home/conf/null.properties", template.resolve(values::get, "null"));
+    }
+
+    @Test
+    public void invalidNamesAreLiteralText() {
+        assertEquals("${a-b} ${} $a", Template.compile("${a-b} ${} $a").resolve(name -> "x", "null"));
+        assertEquals("x.y_1", Template.compile("${x.y_1}").resolve(name -> name, null));
+    }
+
+    @Test
+    public void cyclesAreNotResolved() {
+        Map<String, String> values = new HashMap<String, String>();
+        values.put("a", "${b}");
+        values.put("b", "${a}");
+        values.put("self", "x${self}");
+        assertEquals("${a}", Template.compile("${a}").resolve(values::get, null));
+        assertEquals("xnull", Template.compile("${self}").resolve(values::get, "null"));
+    }
+
+    @Test
+    public void replaceEnvReferecesReadsSystemPropertiesOnly() {
+        System.setProperty(PROPERTY, "/opt/stipendi");
+        try {
+            assertEquals("/opt/stipendi/conf", Utility.replaceEnvRefereces("${" + PROPERTY + "}/conf"));
+            assertEquals("null/conf", Utility.replaceEnvRefereces("${stipendi.test.missing}/conf"));
+            assertEquals("no references", Utility.replaceEnvRefereces("no references"));
+            String variable = environmentOnlyVariable();
+            if (variable != null) {
+                assertEquals("null", Utility.replaceEnvRefereces("${" + variable + "}"));
+            }
+        } finally {
+            System.clearProperty(PROPERTY);
+        }
+    }
+
+    @Test
+    public void configValuesAreResolvedOnceWhenPublished() {
+        Properties properties = new Properties();
+        properties.setProperty("base", "/srv");
+        properties.setProperty("path", "${base}/stipendi");
+        properties.setProperty("file", "${path}/${missing.key}.txt");
+        Config config = new Config();
+        config.setConf(properties);
+        assertEquals("/srv/stipendi", config.get("path", (String) null));
+        assertEquals("/srv/stipendi/${missing.key}.txt", config.get("file", (String) null));
+        // la risoluzione avviene alla pubblicazione, non alla lettura
+        properties.setProperty("base", "/other");
+        assertEquals("/srv/stipendi", config.get("path", (String) null));
+    }
+
+    @Test
+    public void configValuesReadSystemPropertiesAndEnvironment() {
+        Properties properties = new Properties();
+        properties.setProperty(PROPERTY, "from config");
+        properties.setProperty("value", "${" + PROPERTY + "}");
+        String variable = environmentOnlyVariable();
+        if (variable != null) {
+            properties.setProperty("environment", "${" + variable + "}");
+        }
+        Config config = new Config();
+        System.setProperty(PROPERTY, "from system");
+        try {
+            config.setConf(properties);
+        } finally {
+            System.clearProperty(PROPERTY);
+        }
+        assertEquals("from system", config.get("value", (String) null));
+        if (variable != null) {
+            assertEquals(System.getenv(variable), config.get("environment", (String) null));
+        }
+    }
+
+    /**
+     * @return an environment variable with a valid reference name and no homonymous system property, null if none
+     */
+    private static String environmentOnlyVariable() {
+        for (Map.Entry<String, String> entry : System.getenv().entrySet()) {
+            String name = entry.getKey();
+            if (name.matches("[A-Za-z0-9_.]+") && System.getProperty(name) == null && !Template.hasReferences(entry.getValue())) {
+                return name;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * TenantConfigRegistryTest.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.utility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>Tenant configurations: isolated values, shared files, batched reloads.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class TenantConfigRegistryTest {
+
+    private File directory;
+
+    private TenantConfigRegistry registry;
+
+    @Before
+    public void createRegistry() throws IOException {
+        directory = Files.createTempDirectory("tenant-config").toFile();
+        registry = new TenantConfigRegistry();
+    }
+
+    @After
+    public void closeRegistry() throws IOException {
+        registry.close();
+        File[] files = directory.listFiles();
+        for (File file : files != null ? files : new File[0]) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(directory.toPath());
+    }
+
+    @Test
+    public void tenantsAreIsolated() throws IOException {
+        Config alfa = registry.register("alfa", write("alfa.properties", "ccnl=commercio\nname=Alfa\n", 0L));
+        Config beta = registry.register("beta", write("beta.properties", "ccnl=commercio\nname=Beta\n", 0L));
+        assertEquals("Alfa", alfa.get("name", (String) null));
+        assertEquals("Beta", beta.get("name", (String) null));
+        assertSame(alfa, registry.getConfig("alfa"));
+        assertEquals(2, registry.getTenantIds().size());
+    }
+
+    @Test
+    public void equalValuesAreShared() throws IOException {
+        Config alfa = registry.register("alfa", write("alfa.properties", "ccnl=commercio\n", 0L));
+        Config beta = registry.register("beta", write("beta.properties", "ccnl=commercio\n", 0L));
+        assertSame(alfa.get("ccnl", (String) null), beta.get("ccnl", (String) null));
+    }
+
+    @Test
+    public void onlyChangedFilesAreReloaded() throws IOException {
+        Config alfa = registry.register("alfa", write("alfa.properties", "name=Alfa\n", 0L));
+        Config beta = registry.register("beta", write("beta.properties", "name=Beta\n", 0L));
+        long betaVersion = beta.getVersion();
+        assertEquals(0, registry.reloadAll());
+        write("alfa.properties", "name=Alfa S.p.A.\n", 2000L);
+        assertEquals(1, registry.reloadAll());
+        assertEquals("Alfa S.p.A.", alfa.get("name", (String) null));
+        assertEquals(betaVersion, beta.getVersion());
+    }
+
+    @Test
+    public void sharedFileReloadsEveryTenant() throws IOException {
+        File file = write("shared.properties", "rate=1\n", 0L);
+        Config alfa = registry.register("alfa", file);
+        Config beta = registry.register("beta", file);
+        write("shared.properties", "rate=2\n", 2000L);
+        assertEquals(2, registry.reloadAll());
+        assertEquals(2, alfa.get("rate", 0));
+        assertEquals(2, beta.get("rate", 0));
+    }
+
+    @Test
+    public void unregisteredTenantsAreNotReloaded() throws IOException {
+        Config alfa = registry.register("alfa", write("alfa.properties", "name=Alfa\n", 0L));
+        registry.unregister("alfa");
+        assertNull(registry.getConfig("alfa"));
+        assertTrue(registry.getTenantIds().isEmpty());
+        write("alfa.properties", "name=Alfa S.p.A.\n", 2000L);
+        assertEquals(0, registry.reloadAll());
+        // chi la possiede continua a usarla
+        assertEquals("Alfa", alfa.get("name", (String) null));
+    }
+
+    /**
+     * @param name - file name
+     * @param content - file content
+     * @param shift - milliseconds added to the previous modification time, so that the change is visible whatever the time resolution
+     * @return the file
+     * @throws IOException on writing errors
+     */
+    private File write(String name, String content, long shift) throws IOException {
+        File file = new File(directory, name);
+        long lastModified = file.lastModified();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.ISO_8859_1));
+        if (shift > 0L) {
+            file.setLastModified(lastModified + shift);
+        }
+        return file;
+    }
+}
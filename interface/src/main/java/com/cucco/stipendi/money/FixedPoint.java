@@ -0,0 +1,150 @@
+/*
+ * FixedPoint.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.money;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * <p>Fixed point arithmetic on <code>long</code> values with an implicit decimal scale, shared by {@link Money} and {@link Rate}. The fast paths
+ * use only primitive operations and never allocate; products too large for 64 bits fall back to {@link BigInteger}.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+final class FixedPoint {
+
+    /**
+     * <p>Powers of ten up to 10^18</p>
+     */
+    private static final long[] POWERS_OF_TEN = new long[19];
+    static {
+        POWERS_OF_TEN[0] = 1L;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10L;
+        }
+    }
+
+    /**
+     * <p>Not instantiable</p>
+     */
+    private FixedPoint() {
+    }
+
+    /**
+     * <p>Returns 10^exponent</p>
+     *
+     * @param exponent - exponent, 0 to 18
+     * @return the power of ten
+     */
+    static long powerOfTen(int exponent) {
+        return POWERS_OF_TEN[exponent];
+    }
+
+    /**
+     * <p>Divides applying the rounding mode, without allocation.</p>
+     *
+     * @param dividend - the dividend
+     * @param divisor - the divisor, not zero
+     * @param mode - rounding mode
+     * @return the rounded quotient
+     * @throws ArithmeticException if the mode is {@link RoundingMode#UNNECESSARY} and rounding is needed, on division by zero or if the quotient
+     *             exceeds 64 bits (<code>Long.MIN_VALUE / -1</code>)
+     */
+    static long divide(long dividend, long divisor, RoundingMode mode) {
+        // Long.MIN_VALUE / -1 darebbe di nuovo Long.MIN_VALUE senza errore
+        long quotient = divisor == -1L ? Math.negateExact(dividend) : dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder != 0L) {
+            int signum = (dividend ^ divisor) < 0L ? -1 : 1;
+            long absRemainder = Math.abs(remainder);
+            long absDivisor = Math.abs(divisor);
+            // confronto di 2*resto con il divisore senza overflow
+            int half = Long.compare(absRemainder, absDivisor - absRemainder);
+            boolean increment;
+            switch (mode) {
+            case UP:
+                increment = true;
+                break;
+            case DOWN:
+                increment = false;
+                break;
+            case CEILING:
+                increment = signum > 0;
+                break;
+            case FLOOR:
+                increment = signum < 0;
+                break;
+            case HALF_UP:
+                increment = half >= 0;
+                break;
+            case HALF_DOWN:
+                increment = half > 0;
+                break;
+            case HALF_EVEN:
+                increment = half > 0 || (half == 0 && (quotient & 1L) != 0L);
+                break;
+            default:
+                throw new ArithmeticException("Rounding necessary");
+            }
+            if (increment) {
+                quotient = Math.addExact(quotient, signum);
+            }
+        }
+        return quotient;
+    }
+
+    /**
+     * <p>Returns <code>value * factor / divisor</code> applying the rounding mode. Allocation free unless the product exceeds 64 bits.</p>
+     *
+     * @param value - the value
+     * @param factor - the factor
+     * @param divisor - the divisor, positive
+     * @param mode - rounding mode
+     * @return the rounded result
+     * @throws ArithmeticException if the result exceeds 64 bits
+     */
+    static long multiplyDivide(long value, long factor, long divisor, RoundingMode mode) {
+        long product = value * factor;
+        long absValue = Math.abs(value);
+        long absFactor = Math.abs(factor);
+        // stesso controllo di Math.multiplyExact, senza eccezione
+        if (((absValue | absFactor) >>> 31 == 0L) || ((factor == 0L || product / factor == value) && !(value == Long.MIN_VALUE && factor == -1L))) {
+            return divide(product, divisor, mode);
+        }
+        BigInteger exact = BigInteger.valueOf(value).multiply(BigInteger.valueOf(factor));
+        return new BigDecimal(exact).divide(BigDecimal.valueOf(divisor), 0, mode).longValueExact();
+    }
+
+    /**
+     * <p>Parses a decimal number into a long with the given implicit scale. Both '.' and ',' are accepted as decimal separator.</p>
+     *
+     * @param text - the number
+     * @param scale - implicit scale
+     * @param mode - rounding mode applied to the digits beyond the scale
+     * @return the scaled value
+     * @throws NumberFormatException if the text is not a number or exceeds 64 bits
+     */
+    static long parse(String text, int scale, RoundingMode mode) {
+        String value = text.trim();
+        try {
+            return new BigDecimal(value.replace(',', '.')).setScale(scale, mode).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Not a " + scale + " decimals fixed point number: " + text);
+        }
+    }
+
+    /**
+     * <p>Formats a scaled value as a plain decimal number.</p>
+     *
+     * @param value - scaled value
+     * @param scale - implicit scale
+     * @return the decimal representation
+     */
+    static String format(long value, int scale) {
+        return BigDecimal.valueOf(value, scale).toPlainString();
+    }
+}
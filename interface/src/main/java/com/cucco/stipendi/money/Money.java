@@ -0,0 +1,345 @@
+/*
+ * Money.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.money;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * <p>Euro amount as a fixed point number of cents stored into a <code>long</code>, replacing {@link BigDecimal} on the payroll hot paths.</p>
+ * <p>Sums and differences are exact and fail with {@link ArithmeticException} on overflow, never wrapping around. Products by a {@link Rate} and
+ * divisions always take an explicit {@link RoundingMode}. Italian payroll rules round amounts to the cent half up ({@link #ROUNDING}), away from zero
+ * on the half cent, and tax bases to the euro with {@link #roundToUnit(RoundingMode)}.</p>
+ * <p>The static <code>...Cents</code> methods work on raw <code>long</code> cents and never allocate, for loops summing or applying rates to
+ * many amounts; the instance methods allocate only the result.</p>
+ * <p>Instances are immutable and thread safe.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class Money implements Comparable<Money>, Serializable {
+
+    /**
+     * <p>Serial uid</p>
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * <p>Decimal digits</p>
+     */
+    public static final int SCALE = 2;
+
+    /**
+     * <p>Cents in a euro</p>
+     */
+    public static final long CENTS_PER_UNIT = 100L;
+
+    /**
+     * <p>Default rounding of the payroll amounts</p>
+     */
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+
+    /**
+     * <p>Zero amount</p>
+     */
+    public static final Money ZERO = new Money(0L);
+
+    /**
+     * <p>Amount, in cents</p>
+     */
+    private final long cents;
+
+    /**
+     * @param cents - amount, in cents
+     */
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    /**
+     * <p>Returns the amount with the given value in cents</p>
+     *
+     * @param cents - amount, in cents
+     * @return the amount
+     */
+    public static Money ofCents(long cents) {
+        return cents == 0L ? ZERO : new Money(cents);
+    }
+
+    /**
+     * <p>Returns the amount of whole euros</p>
+     *
+     * @param units - amount, in euros
+     * @return the amount
+     * @throws ArithmeticException on overflow
+     */
+    public static Money ofUnits(long units) {
+        return ofCents(Math.multiplyExact(units, CENTS_PER_UNIT));
+    }
+
+    /**
+     * <p>Converts a decimal amount, rounding to the cent.</p>
+     *
+     * @param amount - the amount
+     * @param mode - rounding mode
+     * @return the amount
+     * @throws ArithmeticException if the amount exceeds the range
+     */
+    public static Money of(BigDecimal amount, RoundingMode mode) {
+        return ofCents(amount.setScale(SCALE, mode).unscaledValue().longValueExact());
+    }
+
+    /**
+     * <p>Parses an amount, with '.' or ',' as decimal separator and no grouping separator. Digits beyond the cent are rounded with
+     * {@link #ROUNDING}.</p>
+     *
+     * @param text - the amount
+     * @return the amount
+     * @throws NumberFormatException if the text is not an amount
+     */
+    public static Money parse(String text) {
+        return ofCents(FixedPoint.parse(text, SCALE, ROUNDING));
+    }
+
+    /**
+     * <p>Returns <code>a + b</code></p>
+     *
+     * @param a - cents
+     * @param b - cents
+     * @return the sum, in cents
+     * @throws ArithmeticException on overflow
+     */
+    public static long addCents(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /**
+     * <p>Returns <code>a - b</code></p>
+     *
+     * @param a - cents
+     * @param b - cents
+     * @return the difference, in cents
+     * @throws ArithmeticException on overflow
+     */
+    public static long subtractCents(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * <p>Returns the amount multiplied by the rate and rounded to the cent, without allocation.</p>
+     *
+     * @param cents - amount, in cents
+     * @param rateMicros - rate, in millionths (see {@link Rate#getMicros()})
+     * @param mode - rounding mode
+     * @return the product, in cents
+     * @throws ArithmeticException on overflow
+     */
+    public static long multiplyCents(long cents, long rateMicros, RoundingMode mode) {
+        return FixedPoint.multiplyDivide(cents, rateMicros, Rate.MICROS_PER_UNIT, mode);
+    }
+
+    /**
+     * <p>Returns the amount divided by the divisor and rounded to the cent, without allocation.</p>
+     *
+     * @param cents - amount, in cents or in any finer unit
+     * @param divisor - the divisor, not zero
+     * @param mode - rounding mode
+     * @return the quotient
+     * @throws ArithmeticException on division by zero or overflow
+     */
+    public static long divideCents(long cents, long divisor, RoundingMode mode) {
+        return FixedPoint.divide(cents, divisor, mode);
+    }
+
+    /**
+     * <p>Returns the amount rounded to the whole euro, in cents, without allocation.</p>
+     *
+     * @param cents - amount, in cents
+     * @param mode - rounding mode
+     * @return the rounded amount, in cents
+     * @throws ArithmeticException on overflow
+     */
+    public static long roundCentsToUnit(long cents, RoundingMode mode) {
+        return Math.multiplyExact(FixedPoint.divide(cents, CENTS_PER_UNIT, mode), CENTS_PER_UNIT);
+    }
+
+    /**
+     * Return cents value.
+     *
+     * @return cents value.
+     */
+    public long getCents() {
+        return cents;
+    }
+
+    /**
+     * <p>Returns the sum of the amounts</p>
+     *
+     * @param other - the other amount
+     * @return the sum
+     * @throws ArithmeticException on overflow
+     */
+    public Money add(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    /**
+     * <p>Returns the difference of the amounts</p>
+     *
+     * @param other - the other amount
+     * @return the difference
+     * @throws ArithmeticException on overflow
+     */
+    public Money subtract(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    /**
+     * <p>Returns the amount multiplied by an integer quantity, such as days or hours</p>
+     *
+     * @param quantity - the quantity
+     * @return the product
+     * @throws ArithmeticException on overflow
+     */
+    public Money multiply(long quantity) {
+        return ofCents(Math.multiplyExact(cents, quantity));
+    }
+
+    /**
+     * <p>Returns the amount multiplied by the rate, rounded to the cent</p>
+     *
+     * @param rate - the rate
+     * @param mode - rounding mode
+     * @return the product
+     * @throws ArithmeticException on overflow
+     */
+    public Money multiply(Rate rate, RoundingMode mode) {
+        return ofCents(multiplyCents(cents, rate.getMicros(), mode));
+    }
+
+    /**
+     * <p>Returns the amount divided by an integer quantity, rounded to the cent. Used for daily and hourly rates: monthly pay / 26.</p>
+     *
+     * @param divisor - the divisor, not zero
+     * @param mode - rounding mode
+     * @return the quotient
+     * @throws ArithmeticException on division by zero
+     */
+    public Money divide(long divisor, RoundingMode mode) {
+        return ofCents(FixedPoint.divide(cents, divisor, mode));
+    }
+
+    /**
+     * <p>Returns the amount rounded to the whole euro</p>
+     *
+     * @param mode - rounding mode
+     * @return the rounded amount
+     */
+    public Money roundToUnit(RoundingMode mode) {
+        return ofCents(roundCentsToUnit(cents, mode));
+    }
+
+    /**
+     * <p>Returns the opposite amount</p>
+     *
+     * @return the opposite amount
+     * @throws ArithmeticException on overflow
+     */
+    public Money negate() {
+        return ofCents(Math.negateExact(cents));
+    }
+
+    /**
+     * <p>Returns the absolute amount</p>
+     *
+     * @return the absolute amount
+     * @throws ArithmeticException on overflow
+     */
+    public Money abs() {
+        return cents < 0L ? negate() : this;
+    }
+
+    /**
+     * <p>Returns the greater amount</p>
+     *
+     * @param other - the other amount
+     * @return the greater amount
+     */
+    public Money max(Money other) {
+        return cents >= other.cents ? this : other;
+    }
+
+    /**
+     * <p>Returns the lesser amount</p>
+     *
+     * @param other - the other amount
+     * @return the lesser amount
+     */
+    public Money min(Money other) {
+        return cents <= other.cents ? this : other;
+    }
+
+    /**
+     * <p>Returns -1, 0 or 1 as the amount is negative, zero or positive</p>
+     *
+     * @return the signum
+     */
+    public int signum() {
+        return Long.signum(cents);
+    }
+
+    /**
+     * <p>Returns true if the amount is zero</p>
+     *
+     * @return true if zero
+     */
+    public boolean isZero() {
+        return cents == 0L;
+    }
+
+    /**
+     * <p>Returns the amount as a decimal number with scale 2</p>
+     *
+     * @return the decimal amount
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * @see java.lang.Comparable#compareTo(java.lang.Object)
+     */
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || (obj instanceof Money && ((Money) obj).cents == cents);
+    }
+
+    /**
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    /**
+     * <p>Returns the plain amount, e.g. <code>1234.50</code></p>
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return FixedPoint.format(cents, SCALE);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Rate.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.money;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * <p>Rate, such as a contribution or tax rate, as a fixed point number with {@link #SCALE} decimals stored into a <code>long</code>: 9,19% is
+ * 0.091900, stored as 91900 millionths.</p>
+ * <p>Instances are immutable and thread safe.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public final class Rate implements Comparable<Rate>, Serializable {
+
+    /**
+     * <p>Serial uid</p>
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * <p>Decimal digits</p>
+     */
+    public static final int SCALE = 6;
+
+    /**
+     * <p>Millionths in a unit</p>
+     */
+    public static final long MICROS_PER_UNIT = 1000000L;
+
+    /**
+     * <p>Zero rate</p>
+     */
+    public static final Rate ZERO = new Rate(0L);
+
+    /**
+     * <p>100% rate</p>
+     */
+    public static final Rate ONE = new Rate(MICROS_PER_UNIT);
+
+    /**
+     * <p>Value, in millionths</p>
+     */
+    private final long micros;
+
+    /**
+     * @param micros - value, in millionths
+     */
+    private Rate(long micros) {
+        this.micros = micros;
+    }
+
+    /**
+     * <p>Returns the rate with the given value in millionths: 91900 is 9,19%.</p>
+     *
+     * @param micros - value, in millionths
+     * @return the rate
+     */
+    public static Rate ofMicros(long micros) {
+        return micros == 0L ? ZERO : new Rate(micros);
+    }
+
+    /**
+     * <p>Converts a decimal rate, rounding to {@link #SCALE} decimals.</p>
+     *
+     * @param rate - decimal rate, 0.0919 for 9,19%
+     * @param mode - rounding mode
+     * @return the rate
+     * @throws ArithmeticException if the rate exceeds the range
+     */
+    public static Rate of(BigDecimal rate, RoundingMode mode) {
+        return ofMicros(rate.setScale(SCALE, mode).unscaledValue().longValueExact());
+    }
+
+    /**
+     * <p>Parses a rate: a decimal number, <code>0.0919</code>, or a percentage, <code>9.19%</code> or <code>9,19 %</code>. Digits beyond the
+     * scale are rounded half up.</p>
+     *
+     * @param text - the rate
+     * @return the rate
+     * @throws NumberFormatException if the text is not a rate
+     */
+    public static Rate parse(String text) {
+        String value = text.trim();
+        Rate rate;
+        if (value.endsWith("%")) {
+            rate = ofMicros(FixedPoint.parse(value.substring(0, value.length() - 1), SCALE - 2, RoundingMode.HALF_UP));
+        } else {
+            rate = ofMicros(FixedPoint.parse(value, SCALE, RoundingMode.HALF_UP));
+        }
+        return rate;
+    }
+
+    /**
+     * Return micros value.
+     *
+     * @return micros value.
+     */
+    public long getMicros() {
+        return micros;
+    }
+
+    /**
+     * <p>Returns the sum of the rates</p>
+     *
+     * @param other - the other rate
+     * @return the sum
+     * @throws ArithmeticException on overflow
+     */
+    public Rate add(Rate other) {
+        return ofMicros(Math.addExact(micros, other.micros));
+    }
+
+    /**
+     * <p>Returns the difference of the rates</p>
+     *
+     * @param other - the other rate
+     * @return the difference
+     * @throws ArithmeticException on overflow
+     */
+    public Rate subtract(Rate other) {
+        return ofMicros(Math.subtractExact(micros, other.micros));
+    }
+
+    /**
+     * <p>Returns the complement of the rate, <code>1 - rate</code></p>
+     *
+     * @return the complement
+     */
+    public Rate complement() {
+        return ofMicros(MICROS_PER_UNIT - micros);
+    }
+
+    /**
+     * <p>Returns true if the rate is zero</p>
+     *
+     * @return true if zero
+     */
+    public boolean isZero() {
+        return micros == 0L;
+    }
+
+    /**
+     * <p>Returns the rate as a decimal number</p>
+     *
+     * @return the decimal rate
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(micros, SCALE);
+    }
+
+    /**
+     * @see java.lang.Comparable#compareTo(java.lang.Object)
+     */
+    @Override
+    public int compareTo(Rate other) {
+        return Long.compare(micros, other.micros);
+    }
+
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || (obj instanceof Rate && ((Rate) obj).micros == micros);
+    }
+
+    /**
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(micros);
+    }
+
+    /**
+     * <p>Returns the rate as a percentage, e.g. <code>9.19%</code></p>
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return FixedPoint.format(micros, SCALE - 2) + "%";
+    }
+}
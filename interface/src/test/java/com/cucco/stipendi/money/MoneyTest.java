@@ -0,0 +1,113 @@
+/*
+ * MoneyTest.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.money;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+import org.junit.Test;
+
+/**
+ * <p>Rounding and overflow behaviour of the allocation free cent arithmetic, checked against {@link BigDecimal}.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+public class MoneyTest {
+
+    /**
+     * <p>Rounding modes applicable to an inexact quotient</p>
+     */
+    private static final RoundingMode[] MODES = { RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR, RoundingMode.HALF_UP,
+            RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN };
+
+    @Test
+    public void divideCentsRoundsLikeBigDecimal() {
+        long[] divisors = { -10L, -7L, -2L, 2L, 3L, 10L, 100L };
+        for (RoundingMode mode : MODES) {
+            for (long divisor : divisors) {
+                for (long cents = -250L; cents <= 250L; cents++) {
+                    long expected = BigDecimal.valueOf(cents).divide(BigDecimal.valueOf(divisor), 0, mode).longValueExact();
+                    assertEquals(cents + " / " + divisor + " " + mode, expected, Money.divideCents(cents, divisor, mode));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void divideCentsHalfCases() {
+        assertEquals(3L, Money.divideCents(25L, 10L, RoundingMode.HALF_UP));
+        assertEquals(-3L, Money.divideCents(-25L, 10L, RoundingMode.HALF_UP));
+        assertEquals(2L, Money.divideCents(25L, 10L, RoundingMode.HALF_DOWN));
+        assertEquals(2L, Money.divideCents(25L, 10L, RoundingMode.HALF_EVEN));
+        assertEquals(4L, Money.divideCents(35L, 10L, RoundingMode.HALF_EVEN));
+        assertEquals(-2L, Money.divideCents(-25L, 10L, RoundingMode.CEILING));
+        assertEquals(-3L, Money.divideCents(-25L, 10L, RoundingMode.FLOOR));
+    }
+
+    @Test
+    public void divideCentsExactExtremes() {
+        assertEquals(Long.MIN_VALUE / 2L, Money.divideCents(Long.MIN_VALUE, 2L, RoundingMode.UNNECESSARY));
+        assertEquals(-Long.MAX_VALUE, Money.divideCents(Long.MAX_VALUE, -1L, RoundingMode.UNNECESSARY));
+        assertEquals(Long.MAX_VALUE / 10L + 1L, Money.divideCents(Long.MAX_VALUE, 10L, RoundingMode.UP));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void divideCentsMinValueByMinusOneOverflows() {
+        Money.divideCents(Long.MIN_VALUE, -1L, RoundingMode.HALF_UP);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void divideCentsUnnecessaryRejectsInexact() {
+        Money.divideCents(25L, 10L, RoundingMode.UNNECESSARY);
+    }
+
+    @Test
+    public void roundCentsToUnit() {
+        assertEquals(200L, Money.roundCentsToUnit(150L, RoundingMode.HALF_UP));
+        assertEquals(100L, Money.roundCentsToUnit(149L, RoundingMode.HALF_UP));
+        assertEquals(-200L, Money.roundCentsToUnit(-150L, RoundingMode.HALF_UP));
+        assertEquals(200L, Money.roundCentsToUnit(150L, RoundingMode.HALF_EVEN));
+        assertEquals(200L, Money.roundCentsToUnit(250L, RoundingMode.HALF_EVEN));
+        assertEquals(-100L, Money.roundCentsToUnit(-101L, RoundingMode.CEILING));
+        assertEquals(-200L, Money.roundCentsToUnit(-101L, RoundingMode.FLOOR));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void roundCentsToUnitOverflows() {
+        Money.roundCentsToUnit(Long.MAX_VALUE, RoundingMode.UP);
+    }
+
+    @Test
+    public void multiplyCentsRoundsLikeBigDecimal() {
+        long[] rates = { 230000L, 350000L, 91900L, 12345L, -333333L, 1000001L };
+        BigDecimal micros = BigDecimal.valueOf(Rate.MICROS_PER_UNIT);
+        for (RoundingMode mode : MODES) {
+            for (long rate : rates) {
+                for (long cents = -100003L; cents <= 100003L; cents += 997L) {
+                    long expected = BigDecimal.valueOf(cents).multiply(BigDecimal.valueOf(rate)).divide(micros, 0, mode).longValueExact();
+                    assertEquals(cents + " * " + rate + " " + mode, expected, Money.multiplyCents(cents, rate, mode));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void multiplyCentsBeyondSixtyFourBitsProduct() {
+        long cents = Long.MAX_VALUE / 1000L;
+        long rate = 500000L;
+        long expected = new BigDecimal(BigInteger.valueOf(cents).multiply(BigInteger.valueOf(rate)))
+                .divide(BigDecimal.valueOf(Rate.MICROS_PER_UNIT), 0, RoundingMode.HALF_UP).longValueExact();
+        assertEquals(expected, Money.multiplyCents(cents, rate, RoundingMode.HALF_UP));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void multiplyCentsOverflows() {
+        Money.multiplyCents(Long.MAX_VALUE, 2000000L, RoundingMode.HALF_UP);
+    }
+}
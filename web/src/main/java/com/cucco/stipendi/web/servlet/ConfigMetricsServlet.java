@@ -0,0 +1,60 @@
+/*
+ * ConfigMetricsServlet.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.web.servlet;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import javax.ejb.EJB;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.cucco.stipendi.utility.ConfigMetrics;
+import com.cucco.stipendi.utility.ParameterReader;
+
+/**
+ * <p>Scrape endpoint of the {@link ParameterReader} configuration metrics, in the Prometheus text exposition format. Answers 404 when metrics are
+ * disabled, see {@link ConfigMetrics#ENABLED_PROPERTY}.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@WebServlet(urlPatterns = "/metrics/config")
+public class ConfigMetricsServlet extends HttpServlet {
+
+    /**
+     * <p>Serial uid</p>
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * <p>Prometheus text format content type</p>
+     */
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * <p>The measured configuration</p>
+     */
+    @EJB
+    private ParameterReader parameterReader;
+
+    /**
+     * @see javax.servlet.http.HttpServlet#doGet(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse)
+     */
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        if (!ConfigMetrics.ENABLED) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND, "Configuration metrics disabled, set -D" + ConfigMetrics.ENABLED_PROPERTY + "=true");
+            return;
+        }
+        resp.setContentType(CONTENT_TYPE);
+        Writer writer = resp.getWriter();
+        parameterReader.getMetrics().writeText(ParameterReader.PARAMETER_READER_EJB_NAME, writer);
+        writer.flush();
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * ExportServlet.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.web.servlet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.ejb.EJB;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.cucco.stipendi.export.ExportFormat;
+import com.cucco.stipendi.export.ExportHeader;
+import com.cucco.stipendi.export.ExportSource;
+import com.cucco.stipendi.export.ExportSourceFactory;
+import com.cucco.stipendi.export.ExportStream;
+import com.cucco.stipendi.utility.ConfigKey;
+import com.cucco.stipendi.utility.ParameterReader;
+
+/**
+ * <p>Full period export download: <code>/export/csv</code>, <code>/export/ledger</code> or <code>/export/sepa</code>, with the
+ * <code>period</code> (<code>yyyy-MM</code>) parameter and the optional <code>executionDate</code> (<code>yyyy-MM-dd</code>) of the credit
+ * transfers.</p>
+ * <p>The response is written asynchronously through a {@link WriteListener}: the container calls back when the client can accept more data and
+ * the listener writes one {@link ExportStream} buffer at a time, pulling records from the {@link ExportSource} only as fast as the client reads.
+ * No thread is blocked on a slow client and memory stays flat whatever the number of employees. The response is gzip compressed on the fly when
+ * the client accepts it and {@link #GZIP} is enabled. An export still running after {@link #TIMEOUT} is aborted and its source released.</p>
+ * <p>Records come from the {@link ExportSourceFactory} published into the servlet context by the {@link ExportSourceListener}; without it the
+ * servlet answers 503. Parameters are read from the {@link ParameterReader}.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@WebServlet(urlPatterns = "/export/*", asyncSupported = true)
+public class ExportServlet extends HttpServlet {
+
+    /**
+     * <p>Serial uid</p>
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * <p>Logger instance</p>
+     */
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * <p>Size of the write buffer of an export</p>
+     */
+    public static final ConfigKey<Integer> BUFFER_SIZE = ConfigKey.of("exportBufferSize", 32768);
+
+    /**
+     * <p>True to compress when the client accepts gzip</p>
+     */
+    public static final ConfigKey<Boolean> GZIP = ConfigKey.of("exportGzip", true);
+
+    /**
+     * <p>Maximum duration of an export, in milliseconds</p>
+     */
+    public static final ConfigKey<Long> TIMEOUT = ConfigKey.of("exportTimeout", 30L * 60L * 1000L);
+
+    /**
+     * <p>Ordering company name</p>
+     */
+    public static final ConfigKey<String> DEBTOR_NAME = ConfigKey.of("exportDebtorName", "");
+
+    /**
+     * <p>Ordering company account</p>
+     */
+    public static final ConfigKey<String> DEBTOR_IBAN = ConfigKey.of("exportDebtorIban", "");
+
+    /**
+     * <p>Export parameters</p>
+     */
+    @EJB
+    private ParameterReader parameterReader;
+
+    /**
+     * @see javax.servlet.http.HttpServlet#doGet(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse)
+     */
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        String pathInfo = req.getPathInfo();
+        ExportFormat format = pathInfo == null ? null : ExportFormat.forName(pathInfo.substring(1));
+        if (format == null) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND, "Unknown export format, use csv, ledger or sepa");
+            return;
+        }
+        String period;
+        LocalDate executionDate;
+        try {
+            period = YearMonth.parse(String.valueOf(req.getParameter("period"))).toString();
+            String date = req.getParameter("executionDate");
+            executionDate = date == null ? LocalDate.now() : LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Wrong period or executionDate: " + e.getMessage());
+            return;
+        }
+        ExportSourceFactory factory = (ExportSourceFactory) getServletContext().getAttribute(ExportSourceFactory.CONTEXT_ATTRIBUTE);
+        if (factory == null) {
+            resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "No export source available");
+            return;
+        }
+        ExportSource source = factory.open(period);
+        if (source == null) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND, "No payroll for period " + period);
+            return;
+        }
+        String acceptEncoding = req.getHeader("Accept-Encoding");
+        boolean gzip = parameterReader.get(GZIP).booleanValue() && acceptEncoding != null && acceptEncoding.contains("gzip");
+        ExportHeader header = new ExportHeader(period, "STIP-" + period + "-" + System.currentTimeMillis(), LocalDateTime.now(), executionDate,
+                parameterReader.get(DEBTOR_NAME), parameterReader.get(DEBTOR_IBAN));
+        ExportStream stream = new ExportStream(format, header, source, parameterReader.get(BUFFER_SIZE).intValue(), gzip);
+        resp.setContentType(format.getContentType());
+        resp.setHeader("Content-Disposition", "attachment; filename=\"stipendi-" + period + "." + format.getExtension() + "\"");
+        resp.setHeader("Cache-Control", "no-store");
+        resp.setHeader("Vary", "Accept-Encoding");
+        if (gzip) {
+            resp.setHeader("Content-Encoding", "gzip");
+        }
+        AsyncContext asyncContext = req.startAsync();
+        asyncContext.setTimeout(parameterReader.get(TIMEOUT).longValue());
+        ServletOutputStream out = resp.getOutputStream();
+        ExportWriter writer = new ExportWriter(asyncContext, out, stream, format);
+        asyncContext.addListener(writer);
+        out.setWriteListener(writer);
+    }
+
+    /**
+     * <p>Writes the export buffers while the output stream is ready, and releases the source when the request ends in any way</p>
+     */
+    private static final class ExportWriter implements WriteListener, AsyncListener {
+
+        private final AsyncContext asyncContext;
+
+        private final ServletOutputStream out;
+
+        private final ExportStream stream;
+
+        private final ExportFormat format;
+
+        private final long start = System.nanoTime();
+
+        /**
+         * <p>True once the source has been released</p>
+         */
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        /**
+         * @param asyncContext - request async context
+         * @param out - response output stream
+         * @param stream - export bytes
+         * @param format - export format, for logging
+         */
+        private ExportWriter(AsyncContext asyncContext, ServletOutputStream out, ExportStream stream, ExportFormat format) {
+            this.asyncContext = asyncContext;
+            this.out = out;
+            this.stream = stream;
+            this.format = format;
+        }
+
+        /**
+         * @see javax.servlet.WriteListener#onWritePossible()
+         */
+        @Override
+        public void onWritePossible() throws IOException {
+            // dopo un timeout il sorgente e' gia' rilasciato: non si scrive piu' nulla
+            while (!closed.get() && out.isReady()) {
+                ByteBuffer buffer = stream.next();
+                if (buffer == null) {
+                    logger.info("Export [{}] completed: [{}] records in [{}] ms", format, Integer.valueOf(stream.getCount()),
+                            Long.valueOf((System.nanoTime() - start) / 1000000L));
+                    close();
+                    return;
+                }
+                out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            }
+        }
+
+        /**
+         * @see javax.servlet.WriteListener#onError(java.lang.Throwable)
+         */
+        @Override
+        public void onError(Throwable t) {
+            logger.warn("Export [{}] aborted after [{}] records", format, Integer.valueOf(stream.getCount()), t);
+            close();
+        }
+
+        /**
+         * @see javax.servlet.AsyncListener#onTimeout(javax.servlet.AsyncEvent)
+         */
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            logger.warn("Export [{}] timed out after [{}] records", format, Integer.valueOf(stream.getCount()));
+            close();
+        }
+
+        /**
+         * @see javax.servlet.AsyncListener#onError(javax.servlet.AsyncEvent)
+         */
+        @Override
+        public void onError(AsyncEvent event) {
+            onError(event.getThrowable());
+        }
+
+        /**
+         * @see javax.servlet.AsyncListener#onComplete(javax.servlet.AsyncEvent)
+         */
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        /**
+         * @see javax.servlet.AsyncListener#onStartAsync(javax.servlet.AsyncEvent)
+         */
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            /* Nulla da fare. */
+        }
+
+        /**
+         * <p>Releases the stream and completes the request, once</p>
+         */
+        private void close() {
+            if (release()) {
+                asyncContext.complete();
+            }
+        }
+
+        /**
+         * <p>Releases the stream, if not done yet</p>
+         *
+         * @return true if this call released it
+         */
+        private boolean release() {
+            if (!closed.compareAndSet(false, true)) {
+                return false;
+            }
+            try {
+                stream.close();
+            } catch (IOException e) {
+                logger.warn("Error closing export source", e);
+            }
+            return true;
+        }
+    }
+}
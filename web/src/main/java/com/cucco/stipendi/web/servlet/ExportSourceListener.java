@@ -0,0 +1,57 @@
+/*
+ * ExportSourceListener.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.web.servlet;
+
+import javax.ejb.EJB;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.cucco.stipendi.export.CsvExportSourceFactory;
+import com.cucco.stipendi.export.ExportSourceFactory;
+import com.cucco.stipendi.utility.ParameterReader;
+
+/**
+ * <p>Publishes the {@link ExportSourceFactory} read by the {@link ExportServlet} into the servlet context when the application starts: a
+ * {@link CsvExportSourceFactory} on the {@link ParameterReader}, so the period files directory and the tax tables follow the configuration
+ * reloads.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@WebListener
+public class ExportSourceListener implements ServletContextListener {
+
+    /**
+     * <p>Logger instance</p>
+     */
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * <p>Export parameters</p>
+     */
+    @EJB
+    private ParameterReader parameterReader;
+
+    /**
+     * @see javax.servlet.ServletContextListener#contextInitialized(javax.servlet.ServletContextEvent)
+     */
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        sce.getServletContext().setAttribute(ExportSourceFactory.CONTEXT_ATTRIBUTE, new CsvExportSourceFactory(parameterReader));
+        logger.info("Export source factory published: [{}]", CsvExportSourceFactory.class.getSimpleName());
+    }
+
+    /**
+     * @see javax.servlet.ServletContextListener#contextDestroyed(javax.servlet.ServletContextEvent)
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        sce.getServletContext().removeAttribute(ExportSourceFactory.CONTEXT_ATTRIBUTE);
+    }
+}
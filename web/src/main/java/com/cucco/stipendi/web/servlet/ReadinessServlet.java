@@ -0,0 +1,53 @@
+/*
+ * ReadinessServlet.java
+ *
+ * 17 ott 2026
+ */
+package com.cucco.stipendi.web.servlet;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.cucco.stipendi.bootstrap.Bootstrap;
+import com.cucco.stipendi.bootstrap.Bootstrap.Phase;
+
+/**
+ * <p>Load balancer readiness check: answers 200 once every {@link Starter} bootstrap phase, JIT warm-up included, completed successfully, 503
+ * before. The body lists the phases with their state and duration.</p>
+ *
+ * @author giovanni -- Auriga S.p.A.
+ */
+@WebServlet(urlPatterns = "/ready")
+public class ReadinessServlet extends HttpServlet {
+
+    /**
+     * <p>Serial uid</p>
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @see javax.servlet.http.HttpServlet#doGet(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse)
+     */
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        Bootstrap bootstrap = (Bootstrap) getServletContext().getAttribute(Bootstrap.CONTEXT_ATTRIBUTE);
+        boolean ready = bootstrap != null && bootstrap.isReady();
+        resp.setStatus(ready ? HttpServletResponse.SC_OK : HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        resp.setContentType("text/plain; charset=utf-8");
+        resp.setHeader("Cache-Control", "no-store");
+        PrintWriter writer = resp.getWriter();
+        writer.println(ready ? "READY" : "NOT READY");
+        if (bootstrap != null) {
+            for (Phase phase : bootstrap.getPhases()) {
+                writer.println(phase);
+            }
+        }
+        writer.flush();
+    }
+}